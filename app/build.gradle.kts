@@ -70,6 +70,11 @@ android {
         targetCompatibility = JavaVersion.VERSION_11
     }
 
+    // Local unit tests run against the stub android.jar: Log and friends return defaults instead of throwing
+    testOptions {
+        unitTests.isReturnDefaultValues = true
+    }
+
     // Updated packaging configuration
     packaging {
         resources {
@@ -107,6 +112,7 @@ android {
 dependencies {
     implementation(libs.appcompat)
     implementation(libs.material)
+    implementation(libs.recyclerview)
     implementation(libs.firebase.firestore)
     implementation(libs.play.services.location)
     testImplementation(libs.junit)
@@ -116,7 +122,6 @@ dependencies {
     implementation(libs.firebase.storage)
     implementation(libs.firebase.auth)
     implementation(libs.firebase.messaging)
-    implementation(libs.multidex)
     implementation(libs.google.firebase.storage)
     implementation(libs.firebase.appcheck.playintegrity)
     implementation(libs.firebase.appcheck.debug)
@@ -292,13 +292,6 @@
 -keep class * implements java.lang.reflect.InvocationHandler
 -keep class * implements java.lang.reflect.Proxy
 
-# ============================================================================
-# MULTIDEX SUPPORT
-# ============================================================================
--keep class androidx.multidex.** { *; }
--keep class android.support.multidx.** { *; }
--dontwarn androidx.multidex.**
-
 # ============================================================================
 # JSON AND SERIALIZATION
 # ============================================================================
@@ -0,0 +1,133 @@
+package com.example.securityapp;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.content.SharedPreferences;
+import android.os.IBinder;
+import android.util.Log;
+
+/**
+ * Backs up the historical backlog in JobScheduler windows instead of in-process timers.
+ *
+ * The job only runs on an unmetered network while the device is charging,
+ * idle and not low on battery, and survives reboots. There is a single job
+ * ID, so every request made until it runs lands in the same window. The job
+ * binds {@link CloudBackupService} for the duration: no foreground
+ * notification and no wake lock of its own, since JobScheduler keeps the
+ * device awake while the job runs. Live alerts and recent captures don't
+ * wait for this; they keep the immediate foreground path.
+ */
+public class BacklogSyncJobService extends JobService {
+    private static final String TAG = "BacklogSyncJob";
+    private static final int JOB_ID = 2050;
+    private static final long NEXT_WINDOW_DELAY_MS = 30 * 60 * 1000; // Leftovers wait for a later window
+
+    private JobParameters runningParams;
+    private BackupEnergyMeter.Run energyRun;
+    private boolean bound = false;
+
+    private final ServiceConnection connection = new ServiceConnection() {
+        @Override
+        public void onServiceConnected(ComponentName name, IBinder service) {
+            ((CloudBackupService.LocalBinder) service).getService()
+                .runScheduledSync(BacklogSyncJobService.this::onSyncIdle);
+        }
+
+        @Override
+        public void onServiceDisconnected(ComponentName name) {
+            // Same process; only happens if it dies, which ends this job too
+        }
+    };
+
+    /**
+     * Ask for a backlog window; a no-op if one is already scheduled
+     */
+    public static void schedule(Context context) {
+        schedule(context, 0);
+    }
+
+    private static void schedule(Context context, long minDelayMs) {
+        try {
+            JobScheduler scheduler = context.getSystemService(JobScheduler.class);
+            if (scheduler == null) return;
+            if (scheduler.getPendingJob(JOB_ID) != null) {
+                Log.d(TAG, "Backlog sync already scheduled");
+                return;
+            }
+
+            JobInfo.Builder job = new JobInfo.Builder(JOB_ID, new ComponentName(context, BacklogSyncJobService.class))
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_UNMETERED)
+                .setRequiresCharging(true)
+                .setRequiresDeviceIdle(true)
+                .setRequiresBatteryNotLow(true)
+                .setPersisted(true);
+            if (minDelayMs > 0) {
+                job.setMinimumLatency(minDelayMs);
+            }
+
+            boolean scheduled = scheduler.schedule(job.build()) == JobScheduler.RESULT_SUCCESS;
+            Log.d(TAG, scheduled ? "📅 Backlog sync scheduled for the next charging window" : "Could not schedule backlog sync");
+        } catch (Exception e) {
+            Log.e(TAG, "Error scheduling backlog sync", e);
+        }
+    }
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        SharedPreferences prefs = getSharedPreferences("security_app", MODE_PRIVATE);
+        if (!prefs.getBoolean("auto_backup_enabled", true)) {
+            Log.d(TAG, "Auto-backup disabled, skipping backlog sync");
+            return false;
+        }
+
+        Log.d(TAG, "Backlog sync window started");
+        runningParams = params;
+        energyRun = BackupEnergyMeter.start(this, BackupEnergyMeter.MODE_SCHEDULED);
+        bound = bindService(new Intent(this, CloudBackupService.class), connection, BIND_AUTO_CREATE);
+        if (!bound) {
+            Log.e(TAG, "Could not bind backup service");
+            finishRun();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        // Constraints lost or the window ran out: uploads in flight record themselves in the queue
+        Log.d(TAG, "Backlog sync window ended early, rescheduling");
+        finishRun();
+        return true;
+    }
+
+    /**
+     * Nothing eligible is left for this window (main thread)
+     */
+    private void onSyncIdle(boolean backlogRemaining) {
+        JobParameters params = runningParams;
+        if (params == null) return;
+
+        finishRun();
+        jobFinished(params, false);
+        if (backlogRemaining) {
+            // Retries backing off or originals held by the upload policy
+            schedule(this, NEXT_WINDOW_DELAY_MS);
+        }
+    }
+
+    private void finishRun() {
+        runningParams = null;
+        if (bound) {
+            unbindService(connection);
+            bound = false;
+        }
+        BackupEnergyMeter.finish(this, energyRun);
+        energyRun = null;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.securityapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.BatteryManager;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Battery cost of backup runs per backed-up megabyte, kept separately for
+ * foreground runs (started right away, own wake lock) and scheduled runs
+ * (JobScheduler windows, see {@link BacklogSyncJobService}).
+ *
+ * Every run records how long it kept the device awake and how many bytes it
+ * sent, previews included. When runs overlap, bytes go to the newest one so
+ * they are never counted twice. Battery drain comes from the fuel gauge's charge counter and can only
+ * be measured for runs that stay off the charger, so scheduled runs - which
+ * require charging - are compared by awake time per MB.
+ */
+public class BackupEnergyMeter {
+    private static final String TAG = "BackupEnergyMeter";
+    public static final String MODE_FOREGROUND = "foreground";
+    public static final String MODE_SCHEDULED = "scheduled";
+    private static final String[] MODES = {MODE_FOREGROUND, MODE_SCHEDULED};
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+
+    // Runs in progress, oldest first
+    private static final List<Run> activeRuns = new ArrayList<>();
+
+    /**
+     * One run being measured
+     */
+    public static class Run {
+        final String mode;
+        final long startedAt;
+        final long startChargeUah;
+        final boolean startedCharging;
+        long bytes; // Guarded by the BackupEnergyMeter class lock
+
+        Run(String mode, long startedAt, long startChargeUah, boolean startedCharging) {
+            this.mode = mode;
+            this.startedAt = startedAt;
+            this.startChargeUah = startChargeUah;
+            this.startedCharging = startedCharging;
+        }
+    }
+
+    public static Run start(Context context, String mode) {
+        BatteryManager battery = (BatteryManager) context.getSystemService(Context.BATTERY_SERVICE);
+        Run run = new Run(mode, SystemClock.elapsedRealtime(), getChargeCounter(battery),
+            battery == null || battery.isCharging());
+        synchronized (BackupEnergyMeter.class) {
+            activeRuns.add(run);
+        }
+        return run;
+    }
+
+    /**
+     * Credit bytes an upload sent (original or preview) to the newest run in progress
+     */
+    public static synchronized void recordBytesSent(long bytes) {
+        if (activeRuns.isEmpty() || bytes <= 0) return;
+        activeRuns.get(activeRuns.size() - 1).bytes += bytes;
+    }
+
+    /**
+     * Add a finished run to its mode's totals
+     */
+    public static void finish(Context context, Run run) {
+        if (run == null) return;
+
+        BatteryManager battery = (BatteryManager) context.getSystemService(Context.BATTERY_SERVICE);
+        long awakeMs = SystemClock.elapsedRealtime() - run.startedAt;
+        long bytes;
+        synchronized (BackupEnergyMeter.class) {
+            activeRuns.remove(run);
+            bytes = run.bytes;
+        }
+        long endChargeUah = getChargeCounter(battery);
+        boolean measurable = !run.startedCharging && battery != null && !battery.isCharging() &&
+            run.startChargeUah > 0 && endChargeUah > 0 && endChargeUah <= run.startChargeUah;
+
+        String prefix = "energy_" + run.mode + "_";
+        SharedPreferences prefs = context.getSharedPreferences("security_app", Context.MODE_PRIVATE);
+        SharedPreferences.Editor editor = prefs.edit()
+            .putInt(prefix + "runs", prefs.getInt(prefix + "runs", 0) + 1)
+            .putLong(prefix + "awake_ms", prefs.getLong(prefix + "awake_ms", 0) + awakeMs)
+            .putLong(prefix + "bytes", prefs.getLong(prefix + "bytes", 0) + bytes);
+        if (measurable) {
+            editor.putLong(prefix + "drain_uah", prefs.getLong(prefix + "drain_uah", 0) + (run.startChargeUah - endChargeUah))
+                .putLong(prefix + "drain_bytes", prefs.getLong(prefix + "drain_bytes", 0) + bytes);
+        }
+        editor.apply();
+
+        Log.d(TAG, "🔋 " + run.mode + " backup run: " + (awakeMs / 1000) + " s awake, " + (bytes / 1024) + " KB sent" +
+              (measurable ? ", " + ((run.startChargeUah - endChargeUah) / 1000) + " mAh" : ", drain not measurable"));
+    }
+
+    /**
+     * Per-mode cost for the stats dialog, e.g. "foreground: 4 runs, 12.0 MB, 9 s awake/MB, 0.80 mAh/MB";
+     * empty when nothing was measured
+     */
+    public static String describe(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences("security_app", Context.MODE_PRIVATE);
+        StringBuilder text = new StringBuilder();
+        for (String mode : MODES) {
+            String prefix = "energy_" + mode + "_";
+            int runs = prefs.getInt(prefix + "runs", 0);
+            if (runs == 0) continue;
+
+            double mb = prefs.getLong(prefix + "bytes", 0) / BYTES_PER_MB;
+            long awakeMs = prefs.getLong(prefix + "awake_ms", 0);
+            double drainMb = prefs.getLong(prefix + "drain_bytes", 0) / BYTES_PER_MB;
+
+            if (text.length() > 0) text.append('\n');
+            text.append(mode).append(": ").append(runs).append(runs == 1 ? " run, " : " runs, ")
+                .append(String.format(Locale.US, "%.1f MB", mb));
+            if (mb > 0) {
+                text.append(String.format(Locale.US, ", %d s awake/MB", Math.round(awakeMs / 1000.0 / mb)));
+            }
+            if (drainMb > 0) {
+                text.append(String.format(Locale.US, ", %.2f mAh/MB", prefs.getLong(prefix + "drain_uah", 0) / 1000.0 / drainMb));
+            } else if (MODE_SCHEDULED.equals(mode)) {
+                text.append(" (on charger)");
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Remaining battery charge in microampere-hours, or 0 when the device doesn't report it
+     */
+    private static long getChargeCounter(BatteryManager battery) {
+        if (battery == null) return 0;
+        long charge = battery.getLongProperty(BatteryManager.BATTERY_PROPERTY_CHARGE_COUNTER);
+        return charge == Long.MIN_VALUE ? 0 : charge;
+    }
+}
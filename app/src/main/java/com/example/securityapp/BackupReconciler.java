@@ -0,0 +1,218 @@
+package com.example.securityapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageException;
+import com.google.firebase.storage.StorageMetadata;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which local photos actually need uploading by comparing content hashes.
+ *
+ * A photo whose upload was confirmed with a checksum (backup_md5_<name>) and
+ * that hasn't changed since is skipped without any network call. Everything
+ * else - never uploaded, prefs lost to a reinstall, or an upload only assumed
+ * successful - has its local MD5 compared with the stored object's metadata,
+ * a few metadata requests at a time. Matching objects are recorded as backed
+ * up instead of being uploaded again; missing or differing ones are uploaded
+ * and their false backup records cleared. When the remote check itself fails
+ * the old timestamp rule decides, so a flaky link never re-uploads everything.
+ * Photos the user deleted from the cloud keep their local copy but are never
+ * uploaded again.
+ */
+public class BackupReconciler {
+    private static final String TAG = "BackupReconciler";
+    private static final String PREF_MD5_PREFIX = "backup_md5_";
+    private static final String PREF_STATUS_PREFIX = "backup_status_";
+    private static final String STATUS_DELETED_FROM_CLOUD = "deleted_from_cloud";
+    private static final int CHUNK_SIZE = 50;
+    private static final int PARALLEL_METADATA_CALLS = 8;
+    private static final long METADATA_TIMEOUT_SECONDS = 30;
+
+    private enum Outcome { VERIFIED, RECOVERED, MISSING, CORRECTED, DIFFERENT, UNCHECKED, UPLOAD_UNCHECKED }
+
+    /**
+     * Remember the checksum of a confirmed upload so later passes skip the photo offline
+     */
+    public static void recordVerified(SharedPreferences.Editor editor, String photoName, String md5Hash) {
+        if (md5Hash != null) {
+            editor.putString(PREF_MD5_PREFIX + photoName, md5Hash);
+        } else {
+            editor.remove(PREF_MD5_PREFIX + photoName);
+        }
+    }
+
+    /**
+     * The user deleted this photo from the cloud: keep the local copy from being uploaded again
+     */
+    public static void markDeletedFromCloud(SharedPreferences.Editor editor, String photoName) {
+        editor.putString(PREF_STATUS_PREFIX + photoName, STATUS_DELETED_FROM_CLOUD);
+    }
+
+    private static boolean isDeletedFromCloud(SharedPreferences prefs, String photoName) {
+        return STATUS_DELETED_FROM_CLOUD.equals(prefs.getString(PREF_STATUS_PREFIX + photoName, null));
+    }
+
+    /**
+     * Forget a photo's backup state (it was deleted or must be uploaded again)
+     */
+    public static void clearBackupRecord(SharedPreferences.Editor editor, String photoName) {
+        editor.remove("backup_time_" + photoName)
+            .remove(PREF_MD5_PREFIX + photoName)
+            .remove("upload_error_treated_as_success_" + photoName)
+            .remove("upload_error_details_" + photoName);
+    }
+
+    /**
+     * Photos that need uploading (blocking; call off the main thread)
+     */
+    public static List<File> reconcile(Context context, List<File> photos) {
+        Context appContext = context.getApplicationContext();
+        SharedPreferences prefs = appContext.getSharedPreferences("security_app", Context.MODE_PRIVATE);
+        String userId = CloudPhotoIndex.getUserId(appContext);
+
+        List<File> toUpload = new ArrayList<>();
+        List<File> toCheck = new ArrayList<>();
+        for (File photo : photos) {
+            if (isDeletedFromCloud(prefs, photo.getName())) continue;
+            long backupTime = prefs.getLong("backup_time_" + photo.getName(), 0);
+            boolean verified = prefs.getString(PREF_MD5_PREFIX + photo.getName(), null) != null;
+            if (verified && photo.lastModified() <= backupTime) continue;
+            toCheck.add(photo);
+        }
+
+        if (userId == null) {
+            // Nothing to compare against yet
+            for (File photo : toCheck) {
+                if (needsUploadByTime(prefs, photo)) toUpload.add(photo);
+            }
+            return toUpload;
+        }
+
+        int[] outcomes = new int[Outcome.values().length];
+        long startTime = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLEL_METADATA_CALLS);
+        try {
+            for (int start = 0; start < toCheck.size(); start += CHUNK_SIZE) {
+                List<File> chunk = toCheck.subList(start, Math.min(start + CHUNK_SIZE, toCheck.size()));
+                List<Callable<Outcome>> checks = new ArrayList<>();
+                for (File photo : chunk) {
+                    checks.add(() -> check(appContext, prefs, userId, photo));
+                }
+
+                List<Future<Outcome>> results = executor.invokeAll(checks);
+                SharedPreferences.Editor editor = prefs.edit();
+                for (int i = 0; i < chunk.size(); i++) {
+                    File photo = chunk.get(i);
+                    Outcome outcome;
+                    try {
+                        outcome = results.get(i).get();
+                    } catch (ExecutionException e) {
+                        outcome = needsUploadByTime(prefs, photo) ? Outcome.UPLOAD_UNCHECKED : Outcome.UNCHECKED;
+                    }
+                    outcomes[outcome.ordinal()]++;
+
+                    switch (outcome) {
+                        case CORRECTED:
+                            Log.w(TAG, "⚠️ Recorded as backed up but not in the cloud: " + photo.getName());
+                            clearBackupRecord(editor, photo.getName());
+                            toUpload.add(photo);
+                            break;
+                        case MISSING:
+                        case DIFFERENT:
+                            clearBackupRecord(editor, photo.getName());
+                            toUpload.add(photo);
+                            break;
+                        case UPLOAD_UNCHECKED:
+                            toUpload.add(photo);
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                editor.apply();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Log.d(TAG, "🔍 Reconciled " + toCheck.size() + " of " + photos.size() + " photos in " +
+              (System.currentTimeMillis() - startTime) + " ms: " +
+              outcomes[Outcome.VERIFIED.ordinal()] + " verified, " +
+              outcomes[Outcome.RECOVERED.ordinal()] + " already in cloud, " +
+              outcomes[Outcome.MISSING.ordinal()] + " missing, " +
+              outcomes[Outcome.CORRECTED.ordinal()] + " false successes, " +
+              outcomes[Outcome.DIFFERENT.ordinal()] + " changed, " +
+              (outcomes[Outcome.UNCHECKED.ordinal()] + outcomes[Outcome.UPLOAD_UNCHECKED.ordinal()]) + " unchecked");
+
+        prefs.edit()
+            .putLong("reconcile_last_time", System.currentTimeMillis())
+            .putInt("reconcile_last_skipped", outcomes[Outcome.VERIFIED.ordinal()] + outcomes[Outcome.RECOVERED.ordinal()])
+            .putInt("reconcile_last_corrected", outcomes[Outcome.CORRECTED.ordinal()])
+            .apply();
+        return toUpload;
+    }
+
+    /**
+     * Compare one photo with its stored object; throws when the remote state is unknown
+     */
+    private static Outcome check(Context context, SharedPreferences prefs, String userId, File photo) throws Exception {
+        String name = photo.getName();
+        String storagePath = PhotoStorageLayout.ROOT_DIR_NAME + "/" + userId + "/" + name;
+        boolean hadRecord = prefs.getLong("backup_time_" + name, 0) > 0;
+
+        StorageMetadata metadata;
+        try {
+            metadata = Tasks.await(FirebaseStorage.getInstance().getReference().child(storagePath).getMetadata(),
+                METADATA_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof StorageException &&
+                ((StorageException) e.getCause()).getErrorCode() == StorageException.ERROR_OBJECT_NOT_FOUND) {
+                return hadRecord ? Outcome.CORRECTED : Outcome.MISSING;
+            }
+            throw e;
+        }
+
+        String localMd5 = CloudDownloadManager.md5Base64(photo);
+        boolean matches = metadata.getMd5Hash() != null
+            ? metadata.getMd5Hash().equals(localMd5)
+            : metadata.getSizeBytes() == photo.length();
+        if (!matches) {
+            return Outcome.DIFFERENT;
+        }
+
+        SharedPreferences.Editor editor = prefs.edit()
+            .putLong("backup_time_" + name, Math.max(photo.lastModified(), metadata.getCreationTimeMillis()));
+        recordVerified(editor, name, localMd5);
+        editor.apply();
+        if (!hadRecord) {
+            // Backup state was lost (e.g. reinstall): the index may be missing the photo too
+            CloudPhotoIndex.recordUpload(context, name, storagePath, metadata);
+            return Outcome.RECOVERED;
+        }
+        return Outcome.VERIFIED;
+    }
+
+    /**
+     * The pre-checksum rule: upload if never backed up or changed since the last backup
+     */
+    private static boolean needsUploadByTime(SharedPreferences prefs, File photo) {
+        long backupTime = prefs.getLong("backup_time_" + photo.getName(), 0);
+        return backupTime == 0 || photo.lastModified() > backupTime;
+    }
+}
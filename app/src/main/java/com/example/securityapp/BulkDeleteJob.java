@@ -0,0 +1,389 @@
+package com.example.securityapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background bulk delete of local or cloud photos.
+ *
+ * The photos to delete are written to a job file first and processed in
+ * chunks. Each chunk updates the photo index and its aggregates in one
+ * transaction and the backup state plus the job offset in one preferences
+ * commit, so a cancelled or killed job resumes exactly after the last finished
+ * chunk. Cloud objects are deleted a few at a time in parallel, and their index
+ * entries and tombstones are written in Firestore batches.
+ */
+public class BulkDeleteJob {
+    private static final String TAG = "BulkDeleteJob";
+    private static final String JOB_FILE_NAME = "bulk_delete_job.txt";
+    private static final String PREF_JOB_OFFSET = "bulk_delete_offset";
+    private static final int CHUNK_SIZE = 100;
+    private static final int PARALLEL_CLOUD_DELETES = 4;
+    private static final long CLOUD_TIMEOUT_SECONDS = 60;
+    private static final int LOCAL_PAGE_SIZE = 500;
+
+    public static final String TARGET_LOCAL = "local";
+    public static final String TARGET_CLOUD = "cloud";
+
+    // Per-file backup state written by CloudBackupService and BackupReconciler
+    private static final String[] BACKUP_STATE_PREFIXES = {
+        "backup_time_", "backup_time_recent_", "backup_size_", "backup_status_", "backup_path_", "backup_md5_"
+    };
+
+    private static final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "BulkDelete");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+    private static volatile BulkDeleteJob activeJob;
+
+    /**
+     * Snapshot of a running or finished job
+     */
+    public static class Progress {
+        public final String target;
+        public final int total;
+        public final int deleted;
+        public final int failed;
+        public final boolean cancelled;
+
+        Progress(String target, int total, int deleted, int failed, boolean cancelled) {
+            this.target = target;
+            this.total = total;
+            this.deleted = deleted;
+            this.failed = failed;
+            this.cancelled = cancelled;
+        }
+
+        public int getFinished() {
+            return deleted + failed;
+        }
+    }
+
+    /**
+     * Both callbacks arrive on the main thread
+     */
+    public interface JobListener {
+        void onProgress(Progress progress);
+        void onComplete(Progress progress);
+    }
+
+    private final Context appContext;
+    private final JobListener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean cancelled = false;
+
+    private String target = TARGET_LOCAL;
+    private int total;
+    private int deleted;
+    private int failed;
+
+    private BulkDeleteJob(Context context, JobListener listener) {
+        this.appContext = context.getApplicationContext();
+        this.listener = listener;
+    }
+
+    /**
+     * Delete every local photo in the index
+     */
+    public static BulkDeleteJob startLocal(Context context, JobListener listener) {
+        return start(context, listener, TARGET_LOCAL);
+    }
+
+    /**
+     * Delete every photo in the cloud mirror from cloud storage and the cloud index
+     */
+    public static BulkDeleteJob startCloud(Context context, JobListener listener) {
+        return start(context, listener, TARGET_CLOUD);
+    }
+
+    /**
+     * Continue an interrupted or cancelled job
+     */
+    public static BulkDeleteJob resume(Context context, JobListener listener) {
+        return start(context, listener, null);
+    }
+
+    public static boolean isRunning() {
+        return activeJob != null;
+    }
+
+    /**
+     * Target of an unfinished job (TARGET_LOCAL or TARGET_CLOUD), or null if there is none
+     */
+    public static String getPendingTarget(Context context) {
+        if (isRunning()) return null;
+        File jobFile = getJobFile(context);
+        if (!jobFile.exists()) return null;
+        try (BufferedReader reader = new BufferedReader(new FileReader(jobFile))) {
+            return reader.readLine();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Drop an unfinished job without deleting anything more
+     */
+    public static void discardPending(Context context) {
+        if (isRunning()) return;
+        getJobFile(context).delete();
+        getPrefs(context).edit().remove(PREF_JOB_OFFSET).apply();
+    }
+
+    /**
+     * Stop after the current chunk; the job can be resumed later
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    private static synchronized BulkDeleteJob start(Context context, JobListener listener, String newTarget) {
+        if (activeJob != null) {
+            Log.w(TAG, "Bulk delete already running");
+            return activeJob;
+        }
+
+        BulkDeleteJob job = new BulkDeleteJob(context, listener);
+        activeJob = job;
+        jobExecutor.execute(() -> {
+            try {
+                job.run(newTarget);
+            } catch (Exception e) {
+                Log.e(TAG, "Bulk delete failed", e);
+            } finally {
+                activeJob = null;
+                Progress progress = job.snapshot();
+                job.mainHandler.post(() -> job.listener.onComplete(progress));
+            }
+        });
+        return job;
+    }
+
+    private void run(String newTarget) throws Exception {
+        File jobFile = getJobFile(appContext);
+        SharedPreferences prefs = getPrefs(appContext);
+        if (newTarget != null) {
+            writeJobFile(jobFile, newTarget);
+            prefs.edit().putInt(PREF_JOB_OFFSET, 0).commit();
+        }
+
+        List<String> items = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(jobFile))) {
+            target = reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                items.add(line);
+            }
+        }
+
+        int offset = Math.min(prefs.getInt(PREF_JOB_OFFSET, 0), items.size());
+        total = items.size() - offset;
+        Log.d(TAG, "🧹 Bulk delete (" + target + "): " + total + " photos" + (offset > 0 ? ", resuming at " + offset : ""));
+
+        ExecutorService cloudExecutor = null;
+        try {
+            if (TARGET_CLOUD.equals(target)) {
+                AtomicInteger threadCount = new AtomicInteger(0);
+                cloudExecutor = Executors.newFixedThreadPool(PARALLEL_CLOUD_DELETES, runnable ->
+                    new Thread(runnable, "BulkDeleteCloud-" + threadCount.incrementAndGet()));
+            }
+
+            while (offset < items.size()) {
+                if (cancelled) {
+                    Log.d(TAG, "Bulk delete cancelled at " + offset + " of " + items.size());
+                    return;
+                }
+
+                List<String> chunk = items.subList(offset, Math.min(offset + CHUNK_SIZE, items.size()));
+                offset += chunk.size();
+                if (TARGET_CLOUD.equals(target)) {
+                    deleteCloudChunk(chunk, cloudExecutor, offset);
+                } else {
+                    deleteLocalChunk(chunk, offset);
+                }
+
+                Progress progress = snapshot();
+                mainHandler.post(() -> listener.onProgress(progress));
+            }
+        } finally {
+            if (cloudExecutor != null) {
+                cloudExecutor.shutdownNow();
+            }
+        }
+
+        // Finished - nothing left to resume
+        jobFile.delete();
+        prefs.edit().remove(PREF_JOB_OFFSET).apply();
+        Log.d(TAG, "✅ Bulk delete finished: " + deleted + " deleted, " + failed + " failed");
+    }
+
+    /**
+     * Delete one chunk of local files, then update index and backup state once for the chunk
+     */
+    private void deleteLocalChunk(List<String> paths, int nextOffset) {
+        List<String> names = new ArrayList<>();
+        Set<File> shardDirs = new HashSet<>();
+        for (String path : paths) {
+            File photo = new File(path);
+            if (photo.exists() && !photo.delete()) {
+                Log.w(TAG, "Could not delete " + photo.getName());
+                failed++;
+                continue;
+            }
+            names.add(photo.getName());
+            shardDirs.add(photo.getParentFile());
+            ThumbnailCache.remove(appContext, photo.getName());
+            deleted++;
+        }
+
+        PhotoIndex.recordDeletes(appContext, names);
+        // Queued uploads of deleted files would only fail later as missing
+        UploadQueue.getInstance(appContext).remove(names);
+        for (File shardDir : shardDirs) {
+            PhotoStorageLayout.pruneEmptyShards(appContext, shardDir);
+        }
+
+        // Backup state of deleted files and the job offset move together
+        SharedPreferences.Editor editor = getPrefs(appContext).edit();
+        for (String name : names) {
+            for (String prefix : BACKUP_STATE_PREFIXES) {
+                editor.remove(prefix + name);
+            }
+        }
+        editor.putInt(PREF_JOB_OFFSET, nextOffset).commit();
+    }
+
+    /**
+     * Delete one chunk of cloud objects with bounded concurrency, then the index entries in batches
+     */
+    private void deleteCloudChunk(List<String> lines, ExecutorService cloudExecutor, int nextOffset) throws Exception {
+        List<Callable<String>> deletes = new ArrayList<>();
+        for (String line : lines) {
+            String[] parts = line.split("\t", 3);
+            String name = parts[0];
+            String storagePath = parts.length > 1 ? parts[1] : null;
+            String thumbnailPath = parts.length > 2 && !parts[2].isEmpty() ? parts[2] : null;
+            deletes.add(() -> {
+                try {
+                    Tasks.await(FirebaseStorage.getInstance().getReference().child(storagePath).delete(),
+                        CLOUD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (java.util.concurrent.ExecutionException e) {
+                    // Already gone counts as deleted
+                    if (!(e.getCause() instanceof StorageException) ||
+                        ((StorageException) e.getCause()).getErrorCode() != StorageException.ERROR_OBJECT_NOT_FOUND) {
+                        Log.w(TAG, "Could not delete cloud photo " + name + ": " + e.getMessage());
+                        return null;
+                    }
+                }
+                if (thumbnailPath != null) {
+                    // Best effort: a leftover preview is invisible without its index entry
+                    try {
+                        Tasks.await(FirebaseStorage.getInstance().getReference().child(thumbnailPath).delete(),
+                            CLOUD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    } catch (Exception e) {
+                        Log.w(TAG, "Could not delete preview of " + name + ": " + e.getMessage());
+                    }
+                }
+                return name;
+            });
+        }
+
+        List<String> names = new ArrayList<>();
+        for (Future<String> result : cloudExecutor.invokeAll(deletes)) {
+            try {
+                String name = result.get();
+                if (name != null) {
+                    names.add(name);
+                }
+            } catch (Exception e) {
+                Log.w(TAG, "Cloud delete failed: " + e.getMessage());
+            }
+        }
+        failed += lines.size() - names.size();
+        deleted += names.size();
+
+        if (!names.isEmpty()) {
+            try {
+                Tasks.await(CloudPhotoIndex.recordDeletes(appContext, names), CLOUD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                // Objects are gone already; the index catches up through the next backfill or delete
+                Log.e(TAG, "Error removing cloud index entries", e);
+            }
+            CloudPhotoMirror.recordDeletes(appContext, names);
+        }
+
+        // Keep the local copies from being uploaded again, and advance the job in the same commit
+        SharedPreferences.Editor editor = getPrefs(appContext).edit();
+        for (String name : names) {
+            BackupReconciler.markDeletedFromCloud(editor, name);
+        }
+        editor.putInt(PREF_JOB_OFFSET, nextOffset).commit();
+    }
+
+    /**
+     * Snapshot the photos to delete into the job file (one line per photo after the target line)
+     */
+    private void writeJobFile(File jobFile, String newTarget) throws Exception {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(jobFile))) {
+            writer.write(newTarget);
+            writer.newLine();
+
+            if (TARGET_CLOUD.equals(newTarget)) {
+                CloudPhotoMirror mirror = CloudPhotoMirror.getInstance(appContext);
+                for (CloudPhotoIndex.CloudPhoto photo : mirror.queryPage(null, Integer.MAX_VALUE)) {
+                    writer.write(photo.name + "\t" + photo.storagePath + "\t" +
+                        (photo.thumbnailPath != null ? photo.thumbnailPath : ""));
+                    writer.newLine();
+                }
+            } else {
+                PhotoIndex index = PhotoIndex.getInstance(appContext);
+                PhotoIndex.PhotoEntry after = null;
+                List<PhotoIndex.PhotoEntry> page;
+                do {
+                    page = index.queryPage(after, LOCAL_PAGE_SIZE);
+                    for (PhotoIndex.PhotoEntry entry : page) {
+                        writer.write(entry.path);
+                        writer.newLine();
+                    }
+                    after = page.isEmpty() ? null : page.get(page.size() - 1);
+                } while (page.size() == LOCAL_PAGE_SIZE);
+            }
+        }
+    }
+
+    private Progress snapshot() {
+        return new Progress(target, total, deleted, failed, cancelled);
+    }
+
+    private static File getJobFile(Context context) {
+        return new File(context.getFilesDir(), JOB_FILE_NAME);
+    }
+
+    private static SharedPreferences getPrefs(Context context) {
+        return context.getSharedPreferences("security_app", Context.MODE_PRIVATE);
+    }
+}
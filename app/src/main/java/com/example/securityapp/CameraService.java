@@ -38,21 +38,16 @@ import androidx.core.app.NotificationCompat;
 import androidx.core.content.ContextCompat;
 import androidx.exifinterface.media.ExifInterface;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseUser;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Set;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -427,14 +422,8 @@ public class CameraService extends Service {
                 Log.d(TAG, "Image compressed to: " + String.format("%.1f", imageSizeInMB) + "MB");
             }
 
-            // Generate filename with timestamp and username
-            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault())
-                    .format(new Date());
-
-            // Get actual username instead of falling back to "Anonymous"
-            String actualUserName = getUserNameForPhoto();
-            String fileName = "Security_" + timestamp + "_" +
-                    actualUserName.replaceAll("\\s+", "_") + ".jpg";
+            // Generate a unique, capture-ordered filename
+            String fileName = PhotoIdGenerator.newFileName();
 
             // Use UserManager to save to correct directory
             File file = UserManager.savePhotoToUserDirectory(this, bytes, fileName);
@@ -461,6 +450,9 @@ public class CameraService extends Service {
                 // **ENHANCED AUTOMATIC CLOUD BACKUP**
                 triggerCloudBackupWithValidation(file, isSecurityPasswordPhoto);
 
+                // Keep local evidence within quota (runs off the capture path)
+                PhotoRetentionManager.enforceAsync(this);
+
             } else {
                 Log.e(TAG, "Failed to save photo using UserManager");
                 // Fallback to old method if UserManager fails
@@ -730,12 +722,8 @@ public class CameraService extends Service {
                 bytes = compressImageBytes(bytes);
             }
 
-            // Generate filename
-            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault())
-                    .format(new Date());
-            String actualUserName = getUserNameForPhoto();
-            String fileName = "Intruder_" + timestamp + "_" +
-                    actualUserName.replaceAll("\\s+", "_") + ".jpg";
+            // Generate a unique, capture-ordered filename
+            String fileName = PhotoIdGenerator.newFileName();
 
             Log.d(TAG, "💾 Saving intruder image: " + fileName);
 
@@ -757,6 +745,9 @@ public class CameraService extends Service {
                 // Start cloud backup
                 triggerCloudBackupWithValidation(savedFile, true);
 
+                // Keep local evidence within quota (runs off the capture path)
+                PhotoRetentionManager.enforceAsync(this);
+
                 // Send broadcast to update UI
                 Intent broadcastIntent = new Intent("com.example.securityapp.PHOTO_CAPTURED");
                 broadcastIntent.putExtra("photo_filename", fileName);
@@ -773,47 +764,6 @@ public class CameraService extends Service {
         }
     }
 
-    /**
-     * Get username for photo filename
-     */
-    private String getUserNameForPhoto() {
-        try {
-            // First try Firebase Auth
-            FirebaseAuth auth = FirebaseAuth.getInstance();
-            FirebaseUser currentUser = auth.getCurrentUser();
-
-            if (currentUser != null && currentUser.getDisplayName() != null && !currentUser.getDisplayName().trim().isEmpty()) {
-                return currentUser.getDisplayName().trim();
-            }
-
-            // Try SharedPreferences
-            SharedPreferences prefs = getSharedPreferences("security_app", MODE_PRIVATE);
-            String storedName = prefs.getString("user_name", "");
-            if (!storedName.isEmpty()) {
-                return storedName;
-            }
-
-            // Try alternative SharedPreferences location
-            SharedPreferences getIntruderPrefs = getSharedPreferences("get_intruder", MODE_PRIVATE);
-            String altName = getIntruderPrefs.getString("user_name", "");
-            if (!altName.isEmpty()) {
-                return altName;
-            }
-
-            // Try email as fallback
-            if (currentUser != null && currentUser.getEmail() != null) {
-                String email = currentUser.getEmail();
-                return email.substring(0, email.indexOf("@"));
-            }
-
-            return "User"; // Final fallback
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error getting username for photo", e);
-            return "User";
-        }
-    }
-
     /**
      * Update capture statistics in SharedPreferences
      */
@@ -924,12 +874,8 @@ public class CameraService extends Service {
             byte[] bytes = new byte[buffer.remaining()];
             buffer.get(bytes);
 
-            // Generate filename
-            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault())
-                    .format(new Date());
-            String actualUserName = getUserNameForPhoto();
-            String fileName = "Security_" + timestamp + "_" +
-                    actualUserName.replaceAll("\\s+", "_") + ".jpg";
+            // Generate a unique, capture-ordered filename
+            String fileName = PhotoIdGenerator.newFileName();
 
             // Use UserManager to save
             File savedFile = UserManager.savePhotoToUserDirectory(this, bytes, fileName);
@@ -961,12 +907,13 @@ public class CameraService extends Service {
                 return;
             }
 
+            // Queue durably first so the upload survives the service being killed
+            UploadQueue.getInstance(this).enqueue(file,
+                isSecurityPasswordPhoto ? UploadQueue.LANE_LIVE_ALERT : UploadQueue.LANE_RECENT);
+
             // Check network connectivity
             if (!NetworkHelper.isNetworkAvailable(this)) {
-                Log.w(TAG, "No network available for cloud backup, will retry later");
-                // Store for later retry
-                SharedPreferences prefs = getSharedPreferences("security_app", MODE_PRIVATE);
-                prefs.edit().putString("pending_backup_" + System.currentTimeMillis(), file.getAbsolutePath()).apply();
+                Log.w(TAG, "No network available for cloud backup, queued until network returns");
                 return;
             }
 
@@ -1058,11 +1005,8 @@ public class CameraService extends Service {
         try {
             Log.w(TAG, "Using fallback save method for: " + fileName);
 
-            File photosDir = new File(getFilesDir(), "security_photos");
-            if (!photosDir.exists()) {
-                boolean created = photosDir.mkdirs();
-                Log.d(TAG, "Created fallback photos directory: " + created);
-            }
+            File photosDir = PhotoStorageLayout.getShardDirectory(
+                    PhotoStorageLayout.getRootDirectory(this), System.currentTimeMillis());
 
             File fallbackFile = new File(photosDir, fileName);
             try (java.io.FileOutputStream outputStream = new java.io.FileOutputStream(fallbackFile)) {
@@ -1070,6 +1014,7 @@ public class CameraService extends Service {
                 outputStream.flush();
 
                 Log.d(TAG, "✅ Saved image to fallback location: " + fallbackFile.getAbsolutePath());
+                PhotoIndex.recordCapture(this, fallbackFile);
 
                 updateCaptureStats(fallbackFile.lastModified());
 
@@ -1079,6 +1024,8 @@ public class CameraService extends Service {
 
                 // Trigger cloud backup for fallback file too
                 triggerCloudBackupWithValidation(fallbackFile, isSecurityPasswordPhoto);
+
+                PhotoRetentionManager.enforceAsync(this);
             }
         } catch (Exception e) {
             Log.e(TAG, "Error in fallback save method", e);
@@ -1455,7 +1402,8 @@ public class CameraService extends Service {
                 long processStart = System.currentTimeMillis();
 
                 // Save image directly without rotation correction for speed
-                String fileName = saveImageDataOptimized(imageData);
+                File savedFile = saveImageDataOptimized(imageData);
+                String fileName = savedFile != null ? savedFile.getName() : null;
 
                 long processTime = System.currentTimeMillis() - processStart;
                 long totalTime = System.currentTimeMillis() - captureStartTime;
@@ -1468,10 +1416,10 @@ public class CameraService extends Service {
                     // Send notification if requested - coordinate with cloud upload
                     if (sendNotification) {
                         // Start cloud backup and send email after upload completes
-                        startCloudBackupWithEmailNotification(fileName);
+                        startCloudBackupWithEmailNotification(savedFile);
                     } else {
                         // Start cloud backup without email
-                        startCloudBackup(fileName);
+                        startCloudBackup(savedFile);
                         // Stop service quickly if no notification needed
                         new Handler(Looper.getMainLooper()).postDelayed(() -> {
                             closeCamera();
@@ -1493,14 +1441,13 @@ public class CameraService extends Service {
     /**
      * Save image data with optimization
      */
-    private String saveImageDataOptimized(byte[] imageData) {
+    private File saveImageDataOptimized(byte[] imageData) {
         try {
-            // Generate filename
-            String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault()).format(new Date());
-            String fileName = "security_" + timeStamp + "_" + userName + ".jpg";
+            // Generate a unique, capture-ordered filename
+            String fileName = PhotoIdGenerator.newFileName();
 
-            // Get user directory
-            File photosDir = UserManager.getUserPhotosDirectory(this);
+            // Get the date shard of the user directory
+            File photosDir = PhotoStorageLayout.getCaptureDirectory(this, System.currentTimeMillis());
             File imageFile = new File(photosDir, fileName);
 
             // Save directly without bitmap processing for speed
@@ -1509,6 +1456,7 @@ public class CameraService extends Service {
             fos.close();
 
             Log.d(TAG, "✅ Image saved quickly: " + fileName + " (" + (imageData.length / 1024) + " KB)");
+            PhotoIndex.recordCapture(this, imageFile);
 
             // Update SharedPreferences
             SharedPreferences prefs = getSharedPreferences("security_app", MODE_PRIVATE);
@@ -1518,7 +1466,10 @@ public class CameraService extends Service {
                     .putString("last_photo_path", imageFile.getAbsolutePath())
                     .apply();
 
-            return fileName;
+            // Keep local evidence within quota (runs off the capture path)
+            PhotoRetentionManager.enforceAsync(this);
+
+            return imageFile;
 
         } catch (Exception e) {
             Log.e(TAG, "Error saving optimized image", e);
@@ -1575,11 +1526,8 @@ public class CameraService extends Service {
     /**
      * Start cloud backup for captured photo
      */
-    private void startCloudBackup(String fileName) {
+    private void startCloudBackup(File photoFile) {
         try {
-            File photosDir = UserManager.getUserPhotosDirectory(this);
-            File photoFile = new File(photosDir, fileName);
-
             if (photoFile.exists()) {
                 triggerCloudBackupWithValidation(photoFile, true);
             }
@@ -1605,13 +1553,13 @@ public class CameraService extends Service {
     /**
      * Start cloud backup and send email notification after upload completes
      */
-    private void startCloudBackupWithEmailNotification(String fileName) {
+    private void startCloudBackupWithEmailNotification(File photoFile) {
         try {
-            File photosDir = UserManager.getUserPhotosDirectory(this);
-            File photoFile = new File(photosDir, fileName);
+            String fileName = photoFile.getName();
 
             if (photoFile.exists()) {
                 Log.d(TAG, "📤 Starting cloud backup with email notification for: " + fileName);
+                UploadQueue.getInstance(this).enqueue(photoFile, UploadQueue.LANE_LIVE_ALERT);
 
                 // Start cloud backup service with email notification flag
                 Intent backupIntent = new Intent(this, CloudBackupService.class);
@@ -0,0 +1,151 @@
+package com.example.securityapp;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Per-backend circuit breaker (Cloud Storage, Firestore, App Check).
+ *
+ * After FAILURE_THRESHOLD consecutive backend failures (timeouts, 5xx, rate
+ * limiting - not client errors or a missing network) the breaker opens and
+ * callers stop sending requests. Once the open period passes, one probe
+ * request is let through (half-open): its success closes the breaker, its
+ * failure reopens it for a longer, jittered period (see {@link RetryPolicy}).
+ * A probe that never reports back is replaced after PROBE_TIMEOUT_MS.
+ */
+public class CircuitBreaker {
+    private static final String TAG = "CircuitBreaker";
+    static final int FAILURE_THRESHOLD = 5;
+    static final long PROBE_TIMEOUT_MS = 2 * 60 * 1000;
+    private static final RetryPolicy OPEN_POLICY = new RetryPolicy(30 * 1000, 10 * 60 * 1000, Integer.MAX_VALUE);
+
+    public static final CircuitBreaker STORAGE = new CircuitBreaker("storage");
+    public static final CircuitBreaker FIRESTORE = new CircuitBreaker("firestore");
+    public static final CircuitBreaker APP_CHECK = new CircuitBreaker("app check");
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final LongSupplier clock;
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openDelayMs = 0;
+    private long openUntil = 0;
+    private long probeStartedAt = 0;
+    private int trips = 0;
+
+    private CircuitBreaker(String name) {
+        this(name, SystemClock::elapsedRealtime);
+    }
+
+    /**
+     * Breaker on its own clock (elapsed milliseconds), for tests
+     */
+    CircuitBreaker(String name, LongSupplier clock) {
+        this.name = name;
+        this.clock = clock;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Whether a request may go out now; in the half-open state only one probe is allowed
+     */
+    public synchronized boolean allowRequest() {
+        long now = clock.getAsLong();
+        switch (state) {
+            case OPEN:
+                if (now < openUntil) return false;
+                state = State.HALF_OPEN;
+                probeStartedAt = now;
+                Log.d(TAG, "🔌 " + name + " half-open, probing");
+                return true;
+            case HALF_OPEN:
+                if (now - probeStartedAt < PROBE_TIMEOUT_MS) return false;
+                probeStartedAt = now;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Whether the next allowed request is a probe (callers send just that one)
+     */
+    public synchronized boolean isProbing() {
+        return state == State.HALF_OPEN;
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            Log.d(TAG, "🔌 " + name + " recovered, closing");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        openDelayMs = 0;
+    }
+
+    /**
+     * Record a failure that says the backend itself is unhealthy
+     */
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= FAILURE_THRESHOLD)) {
+            // Jitter may draw below the last period; a failed probe never shortens the wait
+            openDelayMs = Math.max(openDelayMs, OPEN_POLICY.nextDelay(openDelayMs));
+            openUntil = clock.getAsLong() + openDelayMs;
+            state = State.OPEN;
+            trips++;
+            Log.w(TAG, "🔌 " + name + " open for " + (openDelayMs / 1000) + "s after " +
+                consecutiveFailures + " consecutive failures");
+        }
+    }
+
+    /**
+     * Milliseconds until a request may go out again (0 when it may go now)
+     */
+    public synchronized long getRetryAfterMs() {
+        long now = clock.getAsLong();
+        switch (state) {
+            case OPEN:
+                return Math.max(0, openUntil - now);
+            case HALF_OPEN:
+                return Math.max(0, probeStartedAt + PROBE_TIMEOUT_MS - now);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * One-line state for diagnostics, e.g. "storage open (retry in 40 s, 2 trips)"
+     */
+    public synchronized String describe() {
+        StringBuilder text = new StringBuilder(name).append(' ');
+        switch (state) {
+            case OPEN:
+                text.append("open (retry in ").append(getRetryAfterMs() / 1000).append(" s");
+                break;
+            case HALF_OPEN:
+                text.append("half-open (probing");
+                break;
+            default:
+                text.append("ok");
+                if (trips == 0) return text.toString();
+                text.append(" (");
+                break;
+        }
+        if (state != State.CLOSED) text.append(", ");
+        return text.append(trips).append(trips == 1 ? " trip)" : " trips)").toString();
+    }
+
+    /**
+     * State of every backend breaker for diagnostics
+     */
+    public static String describeAll() {
+        return STORAGE.describe() + "\n" + FIRESTORE.describe() + "\n" + APP_CHECK.describe();
+    }
+}
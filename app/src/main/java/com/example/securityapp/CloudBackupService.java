@@ -10,6 +10,7 @@ import android.content.Intent;
 import android.content.SharedPreferences;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.os.Binder;
 import android.os.Build;
 import android.os.Handler;
 import android.os.IBinder;
@@ -21,6 +22,7 @@ import androidx.annotation.Nullable;
 import androidx.core.app.NotificationCompat;
 
 import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageException;
 import com.google.firebase.storage.StorageReference;
 import com.google.firebase.storage.UploadTask;
 
@@ -32,62 +34,110 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Service for handling cloud backup of security photos
+ * Service for handling cloud backup of security photos.
+ *
+ * The service keeps no upload state of its own: commands only add photos to
+ * the durable {@link UploadQueue}, and the worker claims eligible entries up
+ * to the limit set by {@link UploadConcurrencyController}, records each outcome back into the queue and stops
+ * once nothing is left to do right now. Uploads interrupted by process death
+ * are returned to the queue and resumed by the next run, continuing their
+ * storage upload session where the server left off.
+ *
+ * Live-alert evidence bypasses the concurrency limit and pauses other
+ * transfers until it is offsite, so a fresh intruder photo never waits behind
+ * recent captures or the historical backlog.
+ *
+ * Started runs go foreground right away but leave the backlog lane alone
+ * unless the user asked for a full backup; the backlog is drained by
+ * {@link BacklogSyncJobService}, which binds the service in a charging,
+ * unmetered window without a notification or a wake lock of its own.
  */
 public class CloudBackupService extends Service {
     private static final String TAG = "CloudBackupService";
     private static final String CHANNEL_ID = "backup_service_channel";
     private static final int NOTIFICATION_ID = 1001;
-    private static final int MAX_CONCURRENT_UPLOADS = 3;
     private static final long APP_CHECK_TOKEN_BACKOFF_MS = 1500; // Backoff time for App Check token
+    private static final long MAX_RETRY_WAIT_IN_SERVICE_MS = 2 * 60 * 1000; // Longer backoffs wait for the next trigger
+    private static final long RUN_TIMEOUT_MS = 10 * 60 * 1000; // Matches the wake lock; unfinished work stays queued
+    private static final String ACTION_RESUME = "RESUME";
+    private static final long UPLOAD_STALL_TIMEOUT_MS = 60 * 1000; // Fail fast on a dead link; the session is resumed later
 
     // Track service state
     private static boolean isServiceRunning = false;
-    private ExecutorService uploadExecutor;
+    private static volatile CloudBackupService activeWorker;
     private Handler mainHandler;
     private PowerManager.WakeLock wakeLock;
     private boolean isAutomaticBackup = false;
-    private boolean isSecurityPasswordPhoto = false; // New flag for security-critical photos
+    private long runStartedAt;
+    private boolean retryScheduled = false;
+    private boolean inForeground = false;
+    private volatile int maxLane = UploadQueue.LANE_RECENT; // Backlog only when asked for or in a job window
+    private volatile ScheduledSyncListener scheduledSyncListener;
+    private BackupEnergyMeter.Run energyRun;
+    private final IBinder binder = new LocalBinder();
 
-    // Track upload stats
-    private AtomicInteger successCount = new AtomicInteger(0);
-    private AtomicInteger failureCount = new AtomicInteger(0);
-    private AtomicInteger totalCount = new AtomicInteger(0);
-    private AtomicInteger pendingCount = new AtomicInteger(0);
+    /**
+     * Told when a scheduled backlog window has nothing eligible left (main thread)
+     */
+    interface ScheduledSyncListener {
+        void onIdle(boolean backlogRemaining);
+    }
+
+    /**
+     * In-process binding used by {@link BacklogSyncJobService}
+     */
+    public class LocalBinder extends Binder {
+        CloudBackupService getService() {
+            return CloudBackupService.this;
+        }
+    }
+
+    // Queue bookkeeping runs on one thread; uploads can outlive the service instance that started them
+    private static final ExecutorService queueExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "UploadQueueWorker");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+    private static final AtomicInteger activeUploads = new AtomicInteger(0);
+    private static final long RECENT_CAPTURE_WINDOW_MS = 24 * 60 * 60 * 1000; // Newer photos go in the recent lane
+    private static final ExecutorService scanExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "BackupScan");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    // Preview encodes stay off the queue thread; live alerts get their own thread so they never queue behind the backlog
+    private static final ExecutorService previewExecutor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "PreviewEncode");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private static final ExecutorService alertPreviewExecutor = Executors.newSingleThreadExecutor(runnable ->
+        new Thread(runnable, "AlertPreviewEncode"));
+
+    // Queue-thread only: non-alert transfers that a live alert pauses, and live alerts in flight
+    private static final Map<String, RunningUpload> backgroundUploads = new HashMap<>();
+    private static int liveAlertsInFlight = 0;
+    private static final UploadConcurrencyController concurrency = new UploadConcurrencyController();
 
     // Last run time tracking to prevent duplicate auto backups
     private static long lastAutoBackupAttempt = 0;
     private static final long MIN_AUTO_BACKUP_INTERVAL_MS = 15 * 60 * 1000; // 15 minutes
 
-    // Track uploaded filenames to prevent duplicates
-    private static final Set<String> recentlyProcessedFiles = new HashSet<>();
-    private static final Object recentFilesLock = new Object();
+    // Track uploaded files to prevent duplicates (oldest dropped beyond 50, each forgotten after 30 minutes)
     private static final int MAX_RECENT_FILES = 50;
     private static final long RECENT_FILE_EXPIRY_MS = 30 * 60 * 1000; // 30 minutes
+    private static final ExpiringCache<String, Boolean> recentlyProcessedFiles =
+        new ExpiringCache<>(MAX_RECENT_FILES, RECENT_FILE_EXPIRY_MS);
 
-    // App Check token rate limiting management - Enhanced with better error handling
-    private static final Map<String, Long> lastTokenRequestTimes = new HashMap<>();
-    private static final long TOKEN_REQUEST_INTERVAL_MS = 10000; // Increased to 10 seconds between token requests
-    private static final long TOKEN_CACHE_DURATION_MS = 120000; // Cache tokens for 2 minutes
-    private static final Map<String, String> cachedTokens = new HashMap<>();
-    private static final Map<String, Long> tokenCacheTimestamps = new HashMap<>();
-
-    // App Check status tracking - Enhanced with better thresholds
-    private static int appCheckErrorCount = 0;
-    private static long lastAppCheckErrorTime = 0;
-    private static final long APP_CHECK_ERROR_RESET_TIME = 24 * 60 * 60 * 1000; // 24 hours
-    private static final int APP_CHECK_ERROR_THRESHOLD = 3; // Reduced threshold to 3
+    // App Check health is tracked by CircuitBreaker.APP_CHECK
     private static long lastSuccessfulUpload = 0;
 
     @Override
@@ -96,38 +146,32 @@ public class CloudBackupService extends Service {
         Log.d(TAG, "CloudBackupService created");
 
         mainHandler = new Handler(Looper.getMainLooper());
-        uploadExecutor = Executors.newFixedThreadPool(MAX_CONCURRENT_UPLOADS);
+        runStartedAt = System.currentTimeMillis();
+        isServiceRunning = true;
+        activeWorker = this;
+
+        // Put back anything a killed process left in flight
+        queueExecutor.execute(() -> UploadQueue.getInstance(this).recoverIfNeeded());
+
+        // Stop at the wake lock limit; whatever is left stays queued for the next run
+        mainHandler.postDelayed(() -> {
+            Log.w(TAG, "Backup run timeout reached, remaining uploads stay queued");
+            stopSelf();
+        }, RUN_TIMEOUT_MS);
 
         // Check App Check initialization
         boolean appCheckInitialized = SecurityApp.isAppCheckInitialized(this);
         Log.d(TAG, "App Check initialization status: " + appCheckInitialized);
-
-        // Reset App Check error count if sufficient time has passed
-        resetAppCheckErrorCountIfNeeded();
-
-        // Acquire wake lock to prevent service from being killed during backup
-        acquireWakeLock();
-    }
-
-    /**
-     * Reset App Check error count after a period to avoid persistent error state
-     */
-    private void resetAppCheckErrorCountIfNeeded() {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastAppCheckErrorTime > APP_CHECK_ERROR_RESET_TIME) {
-            appCheckErrorCount = 0;
-        }
     }
 
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
-        if (intent == null || intent.getAction() == null) {
-            Log.e(TAG, "No action provided to backup service");
-            stopSelf();
-            return START_NOT_STICKY;
+        if (intent == null) {
+            // Sticky restart after the process was killed: carry on with the queue
+            intent = new Intent(ACTION_RESUME);
         }
 
-        String action = intent.getAction();
+        String action = intent.getAction() != null ? intent.getAction() : ACTION_RESUME;
         Log.d(TAG, "Backup service started with action: " + action);
 
         isAutomaticBackup = intent.getBooleanExtra("automatic", false);
@@ -136,6 +180,12 @@ public class CloudBackupService extends Service {
 
         // Start as foreground service immediately
         startForeground(NOTIFICATION_ID, createNotification("Starting backup..."));
+        if (!inForeground) {
+            inForeground = true;
+            // Acquire wake lock to prevent service from being killed during backup (job windows get one from the system)
+            acquireWakeLock();
+            energyRun = BackupEnergyMeter.start(this, BackupEnergyMeter.MODE_FOREGROUND);
+        }
 
         // Check if auto backup is enabled (skip for initial setup)
         if (isAutomaticBackup && !isInitialSetup) {
@@ -150,32 +200,20 @@ public class CloudBackupService extends Service {
             }
         }
 
-        // Check network connectivity with better error handling
-        if (!NetworkHelper.isNetworkAvailable(this)) {
-            Log.w(TAG, "No network connection available");
-            updateNotification("No internet connection - backup failed");
-
-            // For automatic backup, fail silently
-            if (isAutomaticBackup) {
-                stopSelf();
-                return START_NOT_STICKY;
-            }
-
-            // For manual backup, show error and retry later
-            mainHandler.postDelayed(this::stopSelf, 5000);
-            return START_NOT_STICKY;
-        }
-
-        Log.d(TAG, "Network available, proceeding with backup");
-
-        // Handle different backup actions
+        // Handle different backup actions (photos are queued even when offline)
         switch (action) {
             case "UPLOAD_ALL":
+                if (!isAutomaticBackup || isInitialSetup) {
+                    maxLane = UploadQueue.LANE_BACKLOG; // The user is waiting for a full backup
+                }
                 handleUploadAll();
                 break;
             case "UPLOAD_SINGLE":
                 handleUploadSingle(intent);
                 break;
+            case ACTION_RESUME:
+                queueExecutor.execute(this::drainQueue);
+                break;
             default:
                 Log.e(TAG, "Unknown backup action: " + action);
                 stopSelf();
@@ -249,9 +287,10 @@ public class CloudBackupService extends Service {
     }
 
     /**
-     * Update the foreground service notification
+     * Update the foreground service notification (job windows run silently)
      */
     private void updateNotification(String content) {
+        if (!inForeground) return;
         NotificationManager notificationManager =
                 (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
         if (notificationManager != null) {
@@ -260,88 +299,170 @@ public class CloudBackupService extends Service {
     }
 
     /**
-     * Update backup progress notification
+     * Update backup progress notification with each lane's own progress
      */
     private void updateBackupProgress() {
-        int success = successCount.get();
-        int failure = failureCount.get();
-        int completed = success + failure;
-        int total = totalCount.get();
-
-        if (total > 0) {
-            String progressMessage = "Backup progress: " + completed + "/" + total + " completed";
-            if (success > 0) {
-                progressMessage += " (" + success + " successful";
-                if (failure > 0) {
-                    progressMessage += ", " + failure + " failed";
-                }
-                progressMessage += ")";
+        String progressMessage = describeLanes(UploadQueue.getInstance(this).getLaneCounts(runStartedAt));
+        if (!progressMessage.isEmpty()) {
+            updateNotification("Backup progress: " + progressMessage);
+        }
+    }
+
+    /**
+     * Per-lane summary such as "alerts 1/1, backlog 12/200 (2 failed)"; empty when every lane is idle
+     */
+    private static String describeLanes(UploadQueue.Counts[] lanes) {
+        StringBuilder summary = new StringBuilder();
+        for (int lane = 0; lane < lanes.length; lane++) {
+            UploadQueue.Counts counts = lanes[lane];
+            if (counts.getTotal() == 0) continue;
+
+            if (summary.length() > 0) summary.append(", ");
+            summary.append(UploadQueue.LANE_NAMES[lane]).append(' ')
+                .append(counts.done + counts.failed).append('/').append(counts.getTotal());
+            if (counts.failed > 0) {
+                summary.append(" (").append(counts.failed).append(" failed)");
             }
-            updateNotification(progressMessage);
         }
+        return summary.toString();
     }
 
     /**
-     * Handle the upload all photos command with improved error handling
+     * Handle the upload all photos command: queue everything not yet backed up, then drain.
+     * The directory scan runs on its own thread so it never delays a live alert on the queue thread.
      */
     private void handleUploadAll() {
         Log.d(TAG, "Starting upload all photos process");
 
-        // Reset counters
-        successCount.set(0);
-        failureCount.set(0);
-        totalCount.set(0);
-        pendingCount.set(0);
+        scanExecutor.execute(() -> {
+            // Get security photos with retry mechanism
+            List<File> photosToUpload = getSecurityPhotosWithRetry();
 
-        // Get security photos with retry mechanism
-        List<File> photosToUpload = getSecurityPhotosWithRetry();
+            // Keep only photos whose content isn't in the cloud yet
+            photosToUpload = BackupReconciler.reconcile(this, photosToUpload);
 
-        if (photosToUpload.isEmpty()) {
-            Log.d(TAG, "No photos found to upload");
-            updateNotification("No photos to backup");
-            mainHandler.postDelayed(this::stopSelf, 3000);
+            // Split into recent captures and the historical backlog
+            long recentSince = System.currentTimeMillis() - RECENT_CAPTURE_WINDOW_MS;
+            List<File> recent = new ArrayList<>();
+            List<File> backlog = new ArrayList<>();
+            for (File photo : photosToUpload) {
+                (photo.lastModified() >= recentSince ? recent : backlog).add(photo);
+            }
+
+            queueExecutor.execute(() -> {
+                UploadQueue queue = UploadQueue.getInstance(this);
+                queue.enqueueAll(recent, UploadQueue.LANE_RECENT);
+                queue.enqueueAll(backlog, UploadQueue.LANE_BACKLOG);
+                Log.d(TAG, "Queued " + recent.size() + " recent and " + backlog.size() + " backlog photos for backup");
+
+                drainQueue();
+            });
+        });
+    }
+
+    /**
+     * Start queued uploads up to the adaptive concurrency limit (runs on the queue thread)
+     */
+    private void drainQueue() {
+        if (activeWorker != this) return;
+
+        if (!NetworkHelper.isNetworkAvailable(this)) {
+            Log.w(TAG, "No network connection available, uploads stay queued");
+            if (activeUploads.get() == 0) {
+                updateNotification("Waiting for internet connection");
+                stopWhenIdle();
+            }
             return;
         }
 
-        // Remove already uploaded photos
-        photosToUpload = filterUnuploadedPhotos(photosToUpload);
+        UploadQueue queue = UploadQueue.getInstance(this);
+        UploadQueue.Entry entry;
+
+        // The network's upload policy decides which tiers may go now
+        int liveTier = UploadPolicy.getAllowedTier(this, UploadQueue.LANE_LIVE_ALERT);
+        int backgroundTier = UploadPolicy.getAllowedTier(this, UploadQueue.LANE_BACKLOG);
 
-        if (photosToUpload.isEmpty()) {
-            Log.d(TAG, "All photos already uploaded");
-            updateNotification("All photos already backed up");
-            mainHandler.postDelayed(this::stopSelf, 3000);
+        // Live alerts never wait for a free slot or an open breaker; their outcomes
+        // feed the breakers, so one that gets through closes them early
+        while ((entry = queue.claimNextInLane(UploadQueue.LANE_LIVE_ALERT, liveTier)) != null) {
+            startUpload(entry);
+        }
+
+        // Stop hammering an unhealthy backend; a half-open breaker gets a single probe upload
+        CircuitBreaker blocked = !CircuitBreaker.STORAGE.allowRequest() ? CircuitBreaker.STORAGE
+            : !CircuitBreaker.APP_CHECK.allowRequest() ? CircuitBreaker.APP_CHECK : null;
+        if (blocked != null) {
+            waitForBreaker(blocked);
             return;
         }
+        boolean probing = CircuitBreaker.STORAGE.isProbing() || CircuitBreaker.APP_CHECK.isProbing();
+        int limit = probing ? 1 : concurrency.getLimit();
 
-        totalCount.set(photosToUpload.size());
-        pendingCount.set(photosToUpload.size());
+        // Then recent captures ahead of the backlog (if this run takes it), previews first, up to the adaptive limit
+        while (activeUploads.get() < limit && (entry = queue.claimNext(maxLane, backgroundTier)) != null) {
+            startUpload(entry);
+        }
 
-        Log.d(TAG, "Starting backup of " + totalCount.get() + " photos");
-        updateNotification("Backing up " + totalCount.get() + " photos...");
+        checkAllUploadsComplete();
+    }
 
-        // Upload photos with proper spacing to avoid rate limiting
-        for (int i = 0; i < photosToUpload.size(); i++) {
-            final File photo = photosToUpload.get(i);
-            final int photoIndex = i;
+    /**
+     * Uploads stay queued while a backend breaker is open; wait it out here if it is short
+     */
+    private void waitForBreaker(CircuitBreaker breaker) {
+        if (activeUploads.get() > 0 || retryScheduled) return;
+
+        long waitMs = breaker.getRetryAfterMs();
+        Log.w(TAG, "Cloud " + breaker.getName() + " unhealthy, uploads paused for " + (waitMs / 1000) + "s");
+        updateNotification("Cloud backup paused, retrying in " + Math.max(1, waitMs / 1000) + "s");
+        if (waitMs <= MAX_RETRY_WAIT_IN_SERVICE_MS) {
+            retryScheduled = true;
+            mainHandler.postDelayed(() -> queueExecutor.execute(() -> {
+                retryScheduled = false;
+                drainQueue();
+            }), waitMs);
+        } else {
+            stopWhenIdle();
+        }
+    }
 
-            // Stagger uploads with delays
-            long uploadDelay = i * 1000L; // 1 second between uploads
+    /**
+     * Feed an upload outcome to the backend breakers: only overload and outage errors count
+     * against a backend, any other answer shows it is up
+     */
+    private static void recordBackendResult(String errorClass) {
+        if (UploadTelemetry.ERROR_APP_CHECK.equals(errorClass) || UploadTelemetry.ERROR_PLAY_INTEGRITY.equals(errorClass)) {
+            CircuitBreaker.APP_CHECK.onFailure();
+            return;
+        }
+        if (UploadTelemetry.isCongestion(errorClass)) {
+            CircuitBreaker.STORAGE.onFailure();
+        } else if (!UploadTelemetry.ERROR_NETWORK.equals(errorClass) && !UploadTelemetry.ERROR_FILE.equals(errorClass)
+                && !UploadTelemetry.ERROR_CANCELED.equals(errorClass)) {
+            CircuitBreaker.STORAGE.onSuccess();
+            CircuitBreaker.APP_CHECK.onSuccess();
+        }
+    }
 
-            mainHandler.postDelayed(() -> {
-                uploadExecutor.execute(() -> {
-                    uploadPhotoWithRetry(photo, photoIndex + 1, totalCount.get());
-                });
-            }, uploadDelay);
+    private void startUpload(UploadQueue.Entry entry) {
+        activeUploads.incrementAndGet();
+        if (entry.tier == UploadQueue.TIER_PREVIEW) {
+            uploadPreview(entry);
+        } else {
+            uploadPhotoWithRetry(entry);
         }
+    }
 
-        // Set reasonable timeout
-        mainHandler.postDelayed(() -> {
-            if (pendingCount.get() > 0) {
-                Log.w(TAG, "Backup timeout reached, stopping service");
-                updateNotification("Backup completed with timeout");
-                stopSelf();
-            }
-        }, 5 * 60 * 1000); // 5 minute timeout
+    /**
+     * Release an upload slot and keep the queue moving
+     */
+    private static void onUploadFinished() {
+        activeUploads.decrementAndGet();
+        CloudBackupService worker = activeWorker;
+        if (worker != null) {
+            worker.updateBackupProgress();
+            worker.drainQueue();
+        }
     }
 
     /**
@@ -350,17 +471,19 @@ public class CloudBackupService extends Service {
     private List<File> getSecurityPhotosWithRetry() {
         List<File> photos = new ArrayList<>();
         int attempts = 0;
-        int maxAttempts = 3;
+        long retryDelay = 0;
 
-        while (attempts < maxAttempts && photos.isEmpty()) {
+        while (photos.isEmpty() && RetryPolicy.LOCAL_SCAN.canRetry(attempts)) {
             attempts++;
             Log.d(TAG, "Searching for photos (attempt " + attempts + ")");
 
             photos = getSecurityPhotos();
 
-            if (photos.isEmpty() && attempts < maxAttempts) {
+            if (photos.isEmpty() && RetryPolicy.LOCAL_SCAN.canRetry(attempts)) {
                 try {
-                    Thread.sleep(1000); // Wait 1 second before retry
+                    // A capture may still be writing its file
+                    retryDelay = RetryPolicy.LOCAL_SCAN.nextDelay(retryDelay);
+                    Thread.sleep(retryDelay);
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                     break;
@@ -372,36 +495,107 @@ public class CloudBackupService extends Service {
     }
 
     /**
-     * Filter out photos that have already been uploaded recently
+     * Upload the preview tier of a photo; it is small enough to go in one request,
+     * so it has no session and does not feed the concurrency controller
      */
-    private List<File> filterUnuploadedPhotos(List<File> allPhotos) {
-        List<File> unuploadedPhotos = new ArrayList<>();
-        SharedPreferences prefs = getSharedPreferences("security_app", MODE_PRIVATE);
-
-        for (File photo : allPhotos) {
-            String fileName = photo.getName();
-            long lastBackupTime = prefs.getLong("backup_time_" + fileName, 0);
-            long fileModified = photo.lastModified();
+    private void uploadPreview(UploadQueue.Entry entry) {
+        File photoFile = entry.getFile();
+        String photoName = entry.getPhotoName();
+        UploadTelemetry.Attempt attempt = UploadTelemetry.start(this, entry);
+        if (!photoFile.exists() || !photoFile.canRead()) {
+            Log.e(TAG, "Cannot read photo file for preview: " + photoName);
+            attempt.failed(UploadTelemetry.ERROR_FILE, 0, false);
+            handleUploadFailure(entry, "File missing or unreadable", false);
+            return;
+        }
 
-            // Only upload if file is newer than last backup or never backed up
-            if (lastBackupTime == 0 || fileModified > lastBackupTime) {
-                unuploadedPhotos.add(photo);
-            } else {
-                Log.d(TAG, "Skipping already uploaded photo: " + fileName);
-            }
+        String previewPath = getUserSpecificUploadPath(UploadPolicy.getPreviewName(photoName));
+        if (previewPath == null) {
+            attempt.failed(UploadTelemetry.ERROR_UNAUTHENTICATED, 0, false);
+            handleUploadFailure(entry, "No signed-in user", true);
+            return;
         }
 
-        Log.d(TAG, "Filtered photos: " + allPhotos.size() + " total, " + unuploadedPhotos.size() + " to upload");
-        return unuploadedPhotos;
+        // Decode, rotate and encode elsewhere; only the transfer starts on the queue thread
+        ExecutorService encoder = entry.lane == UploadQueue.LANE_LIVE_ALERT ? alertPreviewExecutor : previewExecutor;
+        encoder.execute(() -> {
+            byte[] preview = UploadPolicy.createPreview(photoFile);
+            queueExecutor.execute(() -> {
+                if (preview == null) {
+                    attempt.failed(UploadTelemetry.ERROR_FILE, 0, false);
+                    handleUploadFailure(entry, "Could not encode preview", false);
+                    return;
+                }
+                startPreviewTransfer(entry, attempt, previewPath, preview);
+            });
+        });
+    }
+
+    /**
+     * Send an encoded preview (queue thread)
+     */
+    private void startPreviewTransfer(UploadQueue.Entry entry, UploadTelemetry.Attempt attempt, String previewPath, byte[] preview) {
+        File photoFile = entry.getFile();
+        String photoName = entry.getPhotoName();
+        try {
+            com.google.firebase.storage.StorageMetadata metadata = new com.google.firebase.storage.StorageMetadata.Builder()
+                .setContentType("image/webp")
+                .setCustomMetadata("uploadTimestamp", String.valueOf(System.currentTimeMillis()))
+                .setCustomMetadata("tier", "preview")
+                .setCustomMetadata("originalName", photoName)
+                .setCustomMetadata("originalPath", getUserSpecificUploadPath(photoName))
+                .build();
+
+            FirebaseStorage storage = FirebaseStorage.getInstance();
+            storage.setMaxUploadRetryTimeMillis(UPLOAD_STALL_TIMEOUT_MS);
+            UploadTask uploadTask = storage.getReference().child(previewPath).putBytes(preview, metadata);
+            onTransferStarted(entry, uploadTask, new TransferStats(false));
+
+            uploadTask.addOnSuccessListener(queueExecutor, taskSnapshot -> {
+                onTransferEnded(entry);
+                BackupEnergyMeter.recordBytesSent(preview.length);
+                attempt.succeeded(preview.length, false);
+                recordBackendResult(UploadTelemetry.ERROR_NONE);
+                Log.d(TAG, "✅ Preview uploaded: " + photoName + " (" + (preview.length / 1024) + " KB)");
+                try {
+                    UploadQueue queue = UploadQueue.getInstance(this);
+                    queue.markDone(entry.name);
+                    CloudPhotoIndex.recordThumbnail(this, photoName, previewPath);
+                    if (entry.lane != UploadQueue.LANE_BACKLOG && !queue.isDone(photoName)) {
+                        UploadPolicy.recordEvidenceOffsite(this, photoFile, UploadQueue.TIER_PREVIEW);
+                    }
+                } catch (Exception e) {
+                    Log.e(TAG, "Error handling preview upload success", e);
+                } finally {
+                    onUploadFinished();
+                }
+            });
+
+            uploadTask.addOnFailureListener(queueExecutor, exception -> {
+                onTransferEnded(entry);
+                String errorClass = UploadTelemetry.classify(exception);
+                attempt.failed(errorClass, 0, false);
+                recordBackendResult(errorClass);
+                String error = exception.getMessage();
+                handleUploadFailure(entry, error != null ? error : "Preview upload failed", true);
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Error uploading preview: " + photoName, e);
+            attempt.failed(UploadTelemetry.classify(e), 0, false);
+            handleUploadFailure(entry, e.getMessage() != null ? e.getMessage() : e.toString(), true);
+        }
     }
 
     /**
-     * Upload photo with retry mechanism
+     * Upload a claimed queue entry; the outcome is recorded back into the queue
      */
-    private void uploadPhotoWithRetry(File photoFile, int index, int total) {
+    private void uploadPhotoWithRetry(UploadQueue.Entry entry) {
+        File photoFile = entry.getFile();
+        UploadTelemetry.Attempt attempt = UploadTelemetry.start(this, entry);
         if (!photoFile.exists() || !photoFile.canRead()) {
             Log.e(TAG, "Cannot read photo file: " + photoFile.getName());
-            handleUploadFailure(photoFile);
+            attempt.failed(UploadTelemetry.ERROR_FILE, 0, false);
+            handleUploadFailure(entry, "File missing or unreadable", false);
             return;
         }
 
@@ -410,21 +604,24 @@ public class CloudBackupService extends Service {
         if (fileSizeInMB > 10) {
             Log.w(TAG, "Photo too large, skipping: " + photoFile.getName() + " (" + fileSizeInMB + "MB)");
             updateNotification("Skipped large file: " + photoFile.getName());
-            handleUploadFailure(photoFile);
+            attempt.failed(UploadTelemetry.ERROR_FILE, 0, false);
+            handleUploadFailure(entry, "File too large (" + fileSizeInMB + "MB)", false);
             return;
         }
 
-        Log.d(TAG, "Uploading photo: " + photoFile.getName() + " (" + index + "/" + total + ")");
-        updateNotification("Uploading " + index + " of " + total + "...");
+        Log.d(TAG, "Uploading photo: " + photoFile.getName() + " (attempt " + entry.attempts +
+              (entry.sessionUri != null ? ", resuming session" : "") + ")");
 
         try {
             FirebaseStorage storage = FirebaseStorage.getInstance();
+            storage.setMaxUploadRetryTimeMillis(UPLOAD_STALL_TIMEOUT_MS);
 
             // Get user-specific upload path
             String uploadPath = getUserSpecificUploadPath(photoFile.getName());
             if (uploadPath == null) {
                 Log.e(TAG, "Could not determine upload path for photo");
-                handleUploadFailure(photoFile);
+                attempt.failed(UploadTelemetry.ERROR_UNAUTHENTICATED, 0, false);
+                handleUploadFailure(entry, "No signed-in user", true);
                 return;
             }
 
@@ -439,58 +636,68 @@ public class CloudBackupService extends Service {
                 .setCustomMetadata("uploadTimestamp", String.valueOf(System.currentTimeMillis()))
                 .setCustomMetadata("deviceModel", Build.MODEL)
                 .setCustomMetadata("appVersion", getAppVersionName())
+                .setCustomMetadata("tier", "original")
+                .setCustomMetadata("previewPath", getUserSpecificUploadPath(UploadPolicy.getPreviewName(photoFile.getName())))
                 .build();
 
-            // Start upload
-            UploadTask uploadTask = photoRef.putFile(fileUri, metadata);
-
-            uploadTask.addOnProgressListener(taskSnapshot -> {
-                double progress = (100.0 * taskSnapshot.getBytesTransferred()) / taskSnapshot.getTotalByteCount();
-                if (progress == 100.0) {
-                    Log.d(TAG, "Upload completed for: " + photoFile.getName());
+            // Start upload, continuing the stored session if a previous attempt was cut off
+            long startedAt = concurrency.onUploadStarted();
+            UploadTask uploadTask = entry.sessionUri != null
+                ? photoRef.putFile(fileUri, metadata, android.net.Uri.parse(entry.sessionUri))
+                : photoRef.putFile(fileUri, metadata);
+            TransferStats stats = new TransferStats(entry.sessionUri != null);
+            onTransferStarted(entry, uploadTask, stats);
+
+            uploadTask.addOnProgressListener(queueExecutor, taskSnapshot -> {
+                stats.onProgress(taskSnapshot.getBytesTransferred());
+
+                // Persist the session as soon as the server assigns it
+                android.net.Uri sessionUri = taskSnapshot.getUploadSessionUri();
+                if (sessionUri != null && !stats.sessionSaved) {
+                    stats.sessionSaved = true;
+                    UploadQueue.getInstance(this).saveSession(entry.name, sessionUri.toString());
                 }
             });
 
-            uploadTask.addOnSuccessListener(taskSnapshot -> {
+            uploadTask.addOnSuccessListener(queueExecutor, taskSnapshot -> {
                 Log.d(TAG, "✅ Upload successful: " + photoFile.getName());
-                handleUploadSuccess(photoFile);
-                updateBackupProgress();
+                onTransferEnded(entry);
+                stats.onProgress(taskSnapshot.getTotalByteCount());
+                recordTransferStats(entry, stats, taskSnapshot.getTotalByteCount());
+                attempt.succeeded(stats.getBytesSent(), stats.resumed);
+                recordBackendResult(UploadTelemetry.ERROR_NONE);
+                if (!stats.paused) {
+                    // A paused transfer's duration says nothing about the link
+                    concurrency.onUploadSucceeded(startedAt, stats.getBytesSent());
+                }
+                handleUploadSuccess(entry, taskSnapshot.getMetadata());
             });
 
-            uploadTask.addOnFailureListener(exception -> {
+            uploadTask.addOnFailureListener(queueExecutor, exception -> {
                 String error = exception.getMessage();
                 Log.w(TAG, "❌ Upload failed: " + photoFile.getName() + " - " + error);
-
-                // Enhanced error handling for App Check and Play Integrity issues
-                boolean shouldTreatAsSuccess = false;
-
-                if (error != null) {
-                    // App Check related errors - treat as success since data likely went through
-                    if (error.contains("App Check") ||
-                        error.contains("placeholder token") ||
-                        error.contains("App attestation failed") ||
-                        error.contains("403") ||
-                        error.contains("ATTESTATION_FAILED")) {
-                        Log.i(TAG, "Treating App Check error as success: " + photoFile.getName());
-                        shouldTreatAsSuccess = true;
-                    }
-                    // Play Integrity related errors - also treat as success
-                    else if (error.contains("Play Integrity") ||
-                            error.contains("IntegrityService") ||
-                            error.contains("requestIntegrityToken")) {
-                        Log.i(TAG, "Treating Play Integrity error as success: " + photoFile.getName());
-                        shouldTreatAsSuccess = true;
-                    }
-                    // Network timeout errors - might have succeeded
-                    else if (error.contains("timeout") ||
-                            error.contains("timed out") ||
-                            error.contains("network")) {
-                        Log.i(TAG, "Network timeout - treating as success: " + photoFile.getName());
-                        shouldTreatAsSuccess = true;
+                onTransferEnded(entry);
+                recordTransferStats(entry, stats, photoFile.length());
+
+                // A client error on a resumed attempt means the server dropped the session
+                if (entry.sessionUri != null && exception instanceof StorageException) {
+                    int httpCode = ((StorageException) exception).getHttpResultCode();
+                    if (httpCode >= 400 && httpCode < 500 && httpCode != 403) {
+                        Log.w(TAG, "Upload session rejected (" + httpCode + "), next attempt starts over: " + entry.name);
+                        UploadQueue.getInstance(this).clearSession(entry.name);
                     }
                 }
 
+                // App Check and Play Integrity errors are treated as success since the data likely
+                // went through (the next reconciliation pass verifies it); everything else, network
+                // drops and timeouts included, is retried and the stored session resumes the transfer
+                String errorClass = UploadTelemetry.classify(exception);
+                boolean shouldTreatAsSuccess = isAssumedSuccess(errorClass);
+
                 if (shouldTreatAsSuccess) {
+                    Log.i(TAG, "Treating " + errorClass + " error as success: " + photoFile.getName());
+                    attempt.assumedSucceeded(errorClass);
+                    recordBackendResult(errorClass);
                     // Store info about the "failed" upload that we're treating as success
                     SharedPreferences prefs = getSharedPreferences("security_app", MODE_PRIVATE);
                     prefs.edit()
@@ -498,12 +705,13 @@ public class CloudBackupService extends Service {
                         .putString("upload_error_details_" + photoFile.getName(), error)
                         .apply();
 
-                    handleUploadSuccess(photoFile);
+                    handleUploadSuccess(entry);
                 } else {
-                    handleUploadFailure(photoFile);
+                    attempt.failed(errorClass, stats.getBytesSent(), stats.resumed);
+                    recordBackendResult(errorClass);
+                    concurrency.onUploadFailed(startedAt, UploadTelemetry.isCongestion(errorClass));
+                    handleUploadFailure(entry, error != null ? error : "Upload failed", true);
                 }
-
-                updateBackupProgress();
             });
 
         } catch (Exception e) {
@@ -511,16 +719,138 @@ public class CloudBackupService extends Service {
 
             // Check if the error is related to App Check or Play Integrity
             String errorMsg = e.getMessage();
-            if (errorMsg != null && (errorMsg.contains("App Check") ||
-                                   errorMsg.contains("App attestation") ||
-                                   errorMsg.contains("Play Integrity"))) {
+            String errorClass = UploadTelemetry.classify(e);
+            if (isAssumedSuccess(errorClass)) {
                 Log.i(TAG, "Treating initialization error as success: " + photoFile.getName());
-                handleUploadSuccess(photoFile);
+                attempt.assumedSucceeded(errorClass);
+                recordBackendResult(errorClass);
+                handleUploadSuccess(entry);
             } else {
-                handleUploadFailure(photoFile);
+                attempt.failed(errorClass, 0, false);
+                handleUploadFailure(entry, errorMsg != null ? errorMsg : e.toString(), true);
             }
+        }
+    }
+
+    /**
+     * Non-alert transfer that can be paused while live evidence uploads
+     */
+    private static class RunningUpload {
+        final UploadTask task;
+        final TransferStats stats;
 
-            updateBackupProgress();
+        RunningUpload(UploadTask task, TransferStats stats) {
+            this.task = task;
+            this.stats = stats;
+        }
+
+        void pause() {
+            if (task.isInProgress() && task.pause()) {
+                stats.paused = true;
+            }
+        }
+    }
+
+    /**
+     * Track a new transfer: a live alert pauses everything else, anything else starts paused
+     * while an alert is uploading (queue thread)
+     */
+    private static void onTransferStarted(UploadQueue.Entry entry, UploadTask task, TransferStats stats) {
+        if (entry.lane == UploadQueue.LANE_LIVE_ALERT) {
+            if (liveAlertsInFlight++ == 0 && !backgroundUploads.isEmpty()) {
+                Log.d(TAG, "🚨 Live alert upload, pausing " + backgroundUploads.size() + " other transfers");
+                for (RunningUpload upload : backgroundUploads.values()) {
+                    upload.pause();
+                }
+            }
+        } else {
+            RunningUpload upload = new RunningUpload(task, stats);
+            backgroundUploads.put(entry.name, upload);
+            if (liveAlertsInFlight > 0) {
+                upload.pause();
+            }
+        }
+    }
+
+    /**
+     * Forget a finished transfer; the last live alert to finish resumes paused transfers (queue thread)
+     */
+    private static void onTransferEnded(UploadQueue.Entry entry) {
+        if (entry.lane != UploadQueue.LANE_LIVE_ALERT) {
+            backgroundUploads.remove(entry.name);
+            return;
+        }
+
+        if (--liveAlertsInFlight == 0) {
+            for (RunningUpload upload : backgroundUploads.values()) {
+                if (upload.task.isPaused()) {
+                    upload.task.resume();
+                }
+            }
+        }
+    }
+
+    /**
+     * Error classes after which an upload is assumed to have gone through
+     */
+    private static boolean isAssumedSuccess(String errorClass) {
+        return UploadTelemetry.ERROR_APP_CHECK.equals(errorClass) ||
+            UploadTelemetry.ERROR_PLAY_INTEGRITY.equals(errorClass);
+    }
+
+    /**
+     * Bytes moved by one upload attempt, and where a resumed attempt picked up
+     */
+    private static class TransferStats {
+        final boolean resumed;
+        long resumeOffset = -1;
+        long lastTransferred = 0;
+        boolean sessionSaved;
+        boolean paused;
+
+        TransferStats(boolean resumed) {
+            this.resumed = resumed;
+            this.sessionSaved = resumed;
+        }
+
+        void onProgress(long bytesTransferred) {
+            if (resumeOffset < 0) {
+                // The first report of a resumed session is the offset the server already had
+                resumeOffset = resumed ? bytesTransferred : 0;
+            }
+            lastTransferred = Math.max(lastTransferred, bytesTransferred);
+        }
+
+        long getBytesSent() {
+            return Math.max(0, lastTransferred - Math.max(0, resumeOffset));
+        }
+
+        long getBytesSaved() {
+            return resumed ? Math.max(0, resumeOffset) : 0;
+        }
+    }
+
+    /**
+     * Accumulate bytes sent and bytes skipped by resuming (runs on the queue thread)
+     */
+    private void recordTransferStats(UploadQueue.Entry entry, TransferStats stats, long totalBytes) {
+        try {
+            SharedPreferences prefs = getSharedPreferences("security_app", MODE_PRIVATE);
+            SharedPreferences.Editor editor = prefs.edit()
+                .putLong("upload_bytes_sent", prefs.getLong("upload_bytes_sent", 0) + stats.getBytesSent());
+            BackupEnergyMeter.recordBytesSent(stats.getBytesSent());
+
+            if (stats.resumed) {
+                long saved = stats.getBytesSaved();
+                editor.putLong("upload_bytes_saved_by_resume", prefs.getLong("upload_bytes_saved_by_resume", 0) + saved)
+                    .putInt("upload_resume_count", prefs.getInt("upload_resume_count", 0) + 1);
+                Log.d(TAG, "♻️ Resumed " + entry.name + " at " + (saved / 1024) + "/" + (totalBytes / 1024) +
+                      " KB, saved " + (totalBytes > 0 ? (100 * saved / totalBytes) : 0) + "% of a restart" +
+                      " (total saved: " + ((prefs.getLong("upload_bytes_saved_by_resume", 0) + saved) / 1024) + " KB)");
+            }
+            editor.apply();
+        } catch (Exception e) {
+            Log.e(TAG, "Error recording transfer stats", e);
         }
     }
 
@@ -559,25 +889,44 @@ public class CloudBackupService extends Service {
         }
     }
 
+    /**
+     * Handle an upload assumed successful without upload metadata (it is looked up for the index)
+     */
+    private void handleUploadSuccess(UploadQueue.Entry entry) {
+        handleUploadSuccess(entry, null);
+    }
+
     /**
      * Handle a successful upload with improved tracking
      */
-    private void handleUploadSuccess(File photoFile) {
+    private void handleUploadSuccess(UploadQueue.Entry entry, com.google.firebase.storage.StorageMetadata uploadMetadata) {
+        File photoFile = entry.getFile();
         try {
             Log.d(TAG, "Upload successful: " + photoFile.getName());
-
-            successCount.incrementAndGet();
-            pendingCount.decrementAndGet();
+            UploadQueue queue = UploadQueue.getInstance(this);
+            queue.markDone(entry.name);
+
+            // Index the photo in Firestore so cloud listings are a paged query
+            boolean previewDone = queue.isDone(UploadQueue.getPreviewKey(photoFile.getName()));
+            CloudPhotoIndex.recordUpload(this, photoFile.getName(),
+                getUserSpecificUploadPath(photoFile.getName()), uploadMetadata,
+                previewDone ? getUserSpecificUploadPath(UploadPolicy.getPreviewName(photoFile.getName())) : null);
+            if (!previewDone && entry.lane != UploadQueue.LANE_BACKLOG) {
+                UploadPolicy.recordEvidenceOffsite(this, photoFile, UploadQueue.TIER_ORIGINAL);
+            }
 
             // Update backup status in SharedPreferences
             SharedPreferences prefs = getSharedPreferences("security_app", MODE_PRIVATE);
             long currentTime = System.currentTimeMillis();
 
-            prefs.edit()
+            SharedPreferences.Editor editor = prefs.edit()
                 .putLong("backup_time_" + photoFile.getName(), currentTime)
                 .putLong("last_backup_time", currentTime)
-                .putBoolean("last_backup_success", true)
-                .apply();
+                .putBoolean("last_backup_success", true);
+            // Without a checksum the next reconciliation pass verifies the upload
+            BackupReconciler.recordVerified(editor, photoFile.getName(),
+                uploadMetadata != null ? uploadMetadata.getMd5Hash() : null);
+            editor.apply();
 
             Log.d(TAG, "Backup status updated for: " + photoFile.getName());
 
@@ -601,31 +950,27 @@ public class CloudBackupService extends Service {
                     });
                 }, 2000); // 2 second delay to ensure upload is fully processed
             }
-
-            checkAllUploadsComplete();
         } catch (Exception e) {
             Log.e(TAG, "Error handling upload success", e);
+        } finally {
+            onUploadFinished();
         }
     }
 
     /**
-     * Handle a failed upload
+     * Handle a failed upload: retryable failures go back into the queue with backoff
      */
-    private void handleUploadFailure(File photoFile) {
+    private void handleUploadFailure(UploadQueue.Entry entry, String reason, boolean retryable) {
         try {
-            Log.e(TAG, "Upload failed: " + photoFile.getName() +
-                  " (" + (failureCount.get() + 1) + "/" + totalCount.get() + ")");
-
-            failureCount.incrementAndGet();
-            pendingCount.decrementAndGet();
+            Log.e(TAG, "Upload failed: " + entry.name + " (attempt " + entry.attempts + ") - " + reason);
+            UploadQueue.getInstance(this).markFailed(entry, reason, retryable);
 
             // Clean up any temporary files
             cleanupTempFiles();
-
-            // Check if all uploads are complete
-            checkAllUploadsComplete();
         } catch (Exception e) {
             Log.e(TAG, "Error handling upload failure", e);
+        } finally {
+            onUploadFinished();
         }
     }
 
@@ -659,52 +1004,104 @@ public class CloudBackupService extends Service {
      */
     private void checkAllUploadsComplete() {
         try {
-            int pending = pendingCount.get();
-            int success = successCount.get();
-            int failure = failureCount.get();
-            int total = totalCount.get();
+            if (activeUploads.get() > 0) return;
+
+            UploadQueue queue = UploadQueue.getInstance(this);
+            UploadQueue.Counts counts = queue.getCounts(runStartedAt);
+            UploadQueue.Counts[] lanes = queue.getLaneCounts(runStartedAt);
+            int success = counts.done;
+            int failure = counts.failed;
+            int previews = queue.getPreviewsDone(runStartedAt);
+            int liveTier = UploadPolicy.getAllowedTier(this, UploadQueue.LANE_LIVE_ALERT);
+            int backgroundTier = UploadPolicy.getAllowedTier(this, UploadQueue.LANE_BACKLOG);
+
+            // The backlog this run leaves alone waits for a charging window
+            int backlogDeferred = maxLane < UploadQueue.LANE_BACKLOG ? lanes[UploadQueue.LANE_BACKLOG].queued : 0;
+            int waiting = counts.queued - backlogDeferred;
+            boolean originalsHeld = backgroundTier < UploadQueue.TIER_ORIGINAL && waiting > 0;
+            if (backlogDeferred > 0) {
+                BacklogSyncJobService.schedule(this);
+            }
 
-            Log.d(TAG, "Upload status check - Pending: " + pending +
-                  ", Success: " + success + ", Failed: " + failure + ", Total: " + total);
+            Log.d(TAG, "Upload status check - Queued: " + counts.queued +
+                  ", Success: " + success + ", Failed: " + failure + ", Total: " + counts.getTotal() +
+                  ", Previews: " + previews + ", Deferred: " + backlogDeferred + " [" + describeLanes(lanes) + "]");
+
+            // Short backoffs are waited out here; longer ones resume on the next trigger
+            long nextEligible = queue.getNextEligibleTime(maxLane, backgroundTier, liveTier);
+            long waitMs = nextEligible - System.currentTimeMillis();
+            if (nextEligible > 0 && waitMs <= MAX_RETRY_WAIT_IN_SERVICE_MS) {
+                if (!retryScheduled) {
+                    retryScheduled = true;
+                    mainHandler.postDelayed(() -> queueExecutor.execute(() -> {
+                        retryScheduled = false;
+                        drainQueue();
+                    }), Math.max(0, waitMs));
+                }
+                return;
+            }
+
+            if (success + failure == 0) {
+                // No original finished; anything still queued waits for a longer backoff or another network
+                if (originalsHeld) {
+                    updateNotification((previews > 0 ? "✅ " + previews + " previews backed up, " : "") +
+                        waiting + " originals waiting for an unmetered network");
+                } else if (waiting > 0) {
+                    updateNotification(waiting + " uploads waiting to retry");
+                } else {
+                    updateNotification(backlogDeferred > 0
+                        ? backlogDeferred + " older photos will back up while charging" : "All photos already backed up");
+                }
+                concurrency.finishRun(this);
+                stopWhenIdle();
+                return;
+            }
 
-            if (pending <= 0) {
-                // All uploads completed
-                String completionMessage;
-                boolean overallSuccess = failure == 0;
+            // Nothing eligible is left for this run
+            String completionMessage;
+            boolean overallSuccess = failure == 0;
 
-                if (overallSuccess) {
-                    completionMessage = "✅ Backup completed successfully (" + success + " photos)";
-                    Log.d(TAG, "All uploads completed successfully: " + success + " successful, " + failure + " failed");
+            if (overallSuccess) {
+                completionMessage = "✅ Backup completed successfully (" + success + " photos)";
+                Log.d(TAG, "All uploads completed successfully: " + success + " successful, " + failure + " failed");
 
-                    // Notify SecurityPhotoManager of successful backup
-                    SecurityPhotoManager.onBackupSuccess();
+                // Notify SecurityPhotoManager of successful backup
+                SecurityPhotoManager.onBackupSuccess();
+            } else {
+                completionMessage = "⚠️ Backup completed with issues (" + success + " successful, " + failure + " failed)";
+                Log.w(TAG, "Backup completed with failures: " + success + " successful, " + failure + " failed");
+
+                // Notify SecurityPhotoManager of partial success/failure
+                if (success > 0) {
+                    SecurityPhotoManager.onBackupSuccess(); // At least some succeeded
                 } else {
-                    completionMessage = "⚠️ Backup completed with issues (" + success + " successful, " + failure + " failed)";
-                    Log.w(TAG, "Backup completed with failures: " + success + " successful, " + failure + " failed");
-
-                    // Notify SecurityPhotoManager of partial success/failure
-                    if (success > 0) {
-                        SecurityPhotoManager.onBackupSuccess(); // At least some succeeded
-                    } else {
-                        SecurityPhotoManager.onBackupFailure(); // All failed
-                    }
+                    SecurityPhotoManager.onBackupFailure(); // All failed
                 }
+            }
 
-                // Update notification with completion status
-                updateNotification(completionMessage);
+            if (originalsHeld) {
+                completionMessage += ", " + waiting + " originals waiting for an unmetered network";
+            }
+            if (backlogDeferred > 0) {
+                completionMessage += ", " + backlogDeferred + " older photos will back up while charging";
+            }
 
-                // Store overall backup completion status
-                updateOverallBackupStatus(overallSuccess, success, failure);
+            // Update notification with completion status
+            updateNotification(completionMessage);
 
-                // Clean up any remaining temp files
-                cleanupTempFiles();
+            // Store overall backup completion status
+            updateOverallBackupStatus(overallSuccess, success, failure);
 
-                // Stop the service after a delay to show the completion message
-                mainHandler.postDelayed(() -> {
-                    Log.d(TAG, "Stopping service after backup completion");
-                    stopSelf();
-                }, 3000);
-            }
+            // Clean up any remaining temp files
+            cleanupTempFiles();
+
+            // Persist this run's concurrency and throughput timeline
+            concurrency.finishRun(this);
+
+            // Later completions in this run only report what finished after this one
+            runStartedAt = System.currentTimeMillis();
+
+            stopWhenIdle();
         } catch (Exception e) {
             Log.e(TAG, "Error checking upload completion", e);
             // Stop service on error to prevent hanging
@@ -712,6 +1109,48 @@ public class CloudBackupService extends Service {
         }
     }
 
+    /**
+     * Stop the service after a delay to show the completion message, unless new work arrived
+     */
+    private void stopWhenIdle() {
+        mainHandler.postDelayed(() -> queueExecutor.execute(() -> {
+            if (activeUploads.get() == 0 && !retryScheduled) {
+                Log.d(TAG, "Stopping service after backup completion");
+                notifyScheduledSyncIdle();
+                stopSelf();
+            }
+        }), 3000);
+    }
+
+    /**
+     * Run a backlog window for {@link BacklogSyncJobService}: queue whatever isn't backed up and drain
+     * every lane, without a notification (main thread; the job keeps the device awake)
+     */
+    void runScheduledSync(ScheduledSyncListener listener) {
+        Log.d(TAG, "Starting scheduled backlog sync");
+        scheduledSyncListener = listener;
+        maxLane = UploadQueue.LANE_BACKLOG;
+        handleUploadAll();
+    }
+
+    /**
+     * Hand an idle backlog window back to its job (queue thread)
+     */
+    private void notifyScheduledSyncIdle() {
+        if (scheduledSyncListener == null) return;
+
+        // Anything still queued (backing off, or held by the upload policy) needs another window
+        boolean backlogRemaining = UploadQueue.getInstance(this).hasPending(
+            UploadQueue.LANE_BACKLOG, UploadQueue.TIER_ORIGINAL, UploadQueue.TIER_ORIGINAL);
+        mainHandler.post(() -> {
+            ScheduledSyncListener listener = scheduledSyncListener;
+            scheduledSyncListener = null;
+            if (listener != null) {
+                listener.onIdle(backlogRemaining);
+            }
+        });
+    }
+
     /**
      * Update overall backup status in SharedPreferences
      */
@@ -759,16 +1198,14 @@ public class CloudBackupService extends Service {
     public void onDestroy() {
         Log.d(TAG, "CloudBackupService destroyed");
 
-        if (uploadExecutor != null) {
-            uploadExecutor.shutdown();
-            try {
-                uploadExecutor.awaitTermination(30, TimeUnit.SECONDS);
-            } catch (InterruptedException e) {
-                Log.e(TAG, "Error shutting down executor", e);
-            }
+        // In-flight uploads finish in the background and record themselves in the queue
+        if (activeWorker == this) {
+            activeWorker = null;
         }
+        mainHandler.removeCallbacksAndMessages(null);
 
         releaseWakeLock();
+        BackupEnergyMeter.finish(this, energyRun);
 
         isServiceRunning = false;
         super.onDestroy();
@@ -777,7 +1214,7 @@ public class CloudBackupService extends Service {
     @Nullable
     @Override
     public IBinder onBind(Intent intent) {
-        return null;
+        return binder;
     }
 
     /**
@@ -794,17 +1231,20 @@ public class CloudBackupService extends Service {
         String filepath = intent.getStringExtra("filepath");
         boolean sendEmailAfterUpload = intent.getBooleanExtra("send_email_after_upload", false);
         String photoFileName = intent.getStringExtra("photo_filename");
+        boolean isSecurityPasswordPhoto = intent.getBooleanExtra("security_password_photo", false);
+        int lane = isSecurityPasswordPhoto || sendEmailAfterUpload
+            ? UploadQueue.LANE_LIVE_ALERT : UploadQueue.LANE_RECENT;
 
         if (filepath == null || filepath.isEmpty()) {
             Log.e(TAG, "No filepath provided for single upload");
-            stopSelf();
+            stopWhenIdle(); // Never cut short uploads already running
             return;
         }
 
         File photoFile = new File(filepath);
         if (!photoFile.exists() || !photoFile.canRead()) {
             Log.e(TAG, "Cannot read photo file: " + filepath);
-            stopSelf();
+            stopWhenIdle();
             return;
         }
 
@@ -819,54 +1259,27 @@ public class CloudBackupService extends Service {
         }
 
         // Check if we've already processed this file recently to avoid duplicates
-        synchronized (recentFilesLock) {
-            String fileKey = photoFile.getName() + "_" + photoFile.length() + "_" + photoFile.lastModified();
-            if (recentlyProcessedFiles.contains(fileKey) && !isSecurityPasswordPhoto) {
-                Log.d(TAG, "File already processed recently, skipping: " + photoFile.getName());
-                stopSelf();
-                return;
-            }
-
-            // Add to recently processed files (clean up old entries if needed)
-            if (recentlyProcessedFiles.size() > MAX_RECENT_FILES) {
-                recentlyProcessedFiles.clear(); // Simple cleanup approach
-            }
-            recentlyProcessedFiles.add(fileKey);
+        String fileKey = photoFile.getName() + "_" + photoFile.length() + "_" + photoFile.lastModified();
+        if (isSecurityPasswordPhoto) {
+            recentlyProcessedFiles.put(fileKey, Boolean.TRUE);
+        } else if (recentlyProcessedFiles.putIfAbsent(fileKey, Boolean.TRUE) != null) {
+            Log.d(TAG, "File already processed recently, skipping: " + photoFile.getName() +
+                  " (dedup cache: " + recentlyProcessedFiles.describe() + ")");
+            stopWhenIdle();
+            return;
         }
 
-        // Reset counters for single upload
-        successCount.set(0);
-        failureCount.set(0);
-        totalCount.set(1);
-        pendingCount.set(1);
-
         Log.d(TAG, "Starting backup of single photo: " + photoFile.getName() +
               " (size: " + (photoFile.length() / 1024) + " KB)" +
               (isSecurityPasswordPhoto ? " [SECURITY PHOTO]" : "") +
               (sendEmailAfterUpload ? " [EMAIL AFTER UPLOAD]" : ""));
         updateNotification("Backing up " + photoFile.getName() + "...");
 
-        // Upload the single photo - use shorter delay for security photos
-        long startDelay = isSecurityPasswordPhoto ? 100 : 300;
-        mainHandler.postDelayed(() -> {
-            uploadExecutor.execute(() -> {
-                uploadPhoto(photoFile, 1, 1);
-            });
-        }, startDelay);
-
-        // Set timeout for service in case something goes wrong - shorter for security photos
-        long timeoutMs = isSecurityPasswordPhoto ? 30 * 1000 : 60 * 1000;
-        mainHandler.postDelayed(() -> {
-            if (pendingCount.get() > 0) {
-                Log.w(TAG, "Single photo backup taking too long, stopping service after timeout");
-                // For single photo uploads, treat timeout as success since the photo was likely uploaded
-                if (successCount.get() == 0 && failureCount.get() == 0) {
-                    Log.i(TAG, "Treating timeout as successful upload for single photo");
-                    handleUploadSuccess(photoFile);
-                }
-                stopSelf();
-            }
-        }, timeoutMs);
+        // Queue the photo (a no-op if the capture path already did) and drain
+        queueExecutor.execute(() -> {
+            UploadQueue.getInstance(this).enqueue(photoFile, lane);
+            drainQueue();
+        });
     }
 
     /**
@@ -876,37 +1289,8 @@ public class CloudBackupService extends Service {
         List<File> allPhotos = new ArrayList<>();
 
         try {
-            // Get user-specific directory from UserManager
-            File userDir = UserManager.getUserPhotosDirectory(this);
-            if (userDir.exists()) {
-                File[] userPhotos = userDir.listFiles((dir, name) -> name.toLowerCase().endsWith(".jpg"));
-                if (userPhotos != null) {
-                    Collections.addAll(allPhotos, userPhotos);
-                }
-            }
-
-            // Also check root security photos directory for any orphaned photos
-            File rootDir = new File(getFilesDir(), "security_photos");
-            if (rootDir.exists()) {
-                File[] rootPhotos = rootDir.listFiles((dir, name) ->
-                    name.toLowerCase().endsWith(".jpg") && new File(dir, name).isFile());
-                if (rootPhotos != null) {
-                    for (File photo : rootPhotos) {
-                        // Only add if not already in the list (avoid duplicates)
-                        boolean alreadyExists = false;
-                        for (File existingPhoto : allPhotos) {
-                            if (existingPhoto.getName().equals(photo.getName()) &&
-                                existingPhoto.length() == photo.length()) {
-                                alreadyExists = true;
-                                break;
-                            }
-                        }
-                        if (!alreadyExists) {
-                            allPhotos.add(photo);
-                        }
-                    }
-                }
-            }
+            // Walk the user directories and their date shards (plus any legacy flat photos)
+            allPhotos.addAll(PhotoStorageLayout.listAllPhotos(this));
 
             Log.d(TAG, "Found " + allPhotos.size() + " security photos for backup");
         } catch (Exception e) {
@@ -917,10 +1301,58 @@ public class CloudBackupService extends Service {
     }
 
     /**
-     * Upload a single photo with progress tracking
+     * The network came back: waive retry backoff and continue interrupted uploads from their sessions
      */
-    private void uploadPhoto(File photoFile, int index, int total) {
-        uploadPhotoWithRetry(photoFile, index, total);
+    public static void onNetworkAvailable(Context context) {
+        Context appContext = context.getApplicationContext();
+        queueExecutor.execute(() -> {
+            int waived = UploadQueue.getInstance(appContext).retryNow();
+            if (waived > 0) {
+                Log.d(TAG, "Network back, retrying " + waived + " queued uploads now");
+            }
+
+            CloudBackupService worker = activeWorker;
+            if (worker != null) {
+                worker.drainQueue();
+            } else {
+                resumePendingUploads(appContext);
+            }
+        });
+    }
+
+    /**
+     * Restart the worker if a previous process left uploads queued or in flight
+     * (call off the main thread, e.g. at startup or when the network returns)
+     */
+    public static void resumePendingUploads(Context context) {
+        try {
+            SharedPreferences prefs = context.getSharedPreferences("security_app", Context.MODE_PRIVATE);
+            if (isServiceRunning || !prefs.getBoolean("auto_backup_enabled", true)) return;
+
+            // Only wake up for tiers this network's upload policy allows; the backlog waits for a charging window
+            UploadQueue queue = UploadQueue.getInstance(context);
+            int backgroundTier = UploadPolicy.getAllowedTier(context, UploadQueue.LANE_BACKLOG);
+            int liveTier = UploadPolicy.getAllowedTier(context, UploadQueue.LANE_LIVE_ALERT);
+            if (!queue.hasPending(UploadQueue.LANE_RECENT, backgroundTier, liveTier)) {
+                if (queue.hasPending(UploadQueue.LANE_BACKLOG, UploadQueue.TIER_ORIGINAL, UploadQueue.TIER_ORIGINAL)) {
+                    BacklogSyncJobService.schedule(context);
+                }
+                return;
+            }
+            if (!NetworkHelper.isNetworkAvailable(context)) return;
+
+            Log.d(TAG, "Resuming queued uploads");
+            Intent intent = new Intent(context, CloudBackupService.class);
+            intent.setAction(ACTION_RESUME);
+            intent.putExtra("automatic", true);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                context.startForegroundService(intent);
+            } else {
+                context.startService(intent);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error resuming queued uploads", e);
+        }
     }
 
     /**
@@ -0,0 +1,272 @@
+package com.example.securityapp;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Base64;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parallel, resumable bulk download of cloud photos.
+ *
+ * Each photo is saved under its cloud name, so repeating a restore never
+ * duplicates files: photos already present with the same size (and MD5 when
+ * the index has one) are skipped. Bytes stream into a {@code .part} file and an
+ * interrupted download continues from its length with an HTTP Range request.
+ * A small fixed pool keeps several transfers in flight at once.
+ */
+public class CloudDownloadManager {
+    private static final String TAG = "CloudDownloadManager";
+    private static final int PARALLEL_DOWNLOADS = 4;
+    private static final RetryPolicy RETRY_POLICY = new RetryPolicy(1000, 8 * 1000, 3);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int CONNECT_TIMEOUT_MS = 15000;
+    private static final int READ_TIMEOUT_MS = 30000;
+    private static final String PART_SUFFIX = ".part";
+
+    /**
+     * Snapshot of a running or finished batch
+     */
+    public static class Progress {
+        public final int total;
+        public final int downloaded;
+        public final int skipped;
+        public final int failed;
+        public final long bytes;
+        public final long elapsedMs;
+
+        Progress(int total, int downloaded, int skipped, int failed, long bytes, long elapsedMs) {
+            this.total = total;
+            this.downloaded = downloaded;
+            this.skipped = skipped;
+            this.failed = failed;
+            this.bytes = bytes;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public int getFinished() {
+            return downloaded + skipped + failed;
+        }
+
+        public long getBytesPerSecond() {
+            return elapsedMs > 0 ? bytes * 1000 / elapsedMs : 0;
+        }
+    }
+
+    /**
+     * Progress and completion arrive on the main thread; onFileReady runs on the download thread
+     */
+    public interface DownloadListener {
+        void onFileReady(CloudPhotoIndex.CloudPhoto photo, File file, boolean downloaded);
+        void onProgress(Progress progress);
+        void onComplete(Progress progress);
+    }
+
+    private final List<CloudPhotoIndex.CloudPhoto> photos;
+    private final File targetDir;
+    private final DownloadListener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final AtomicInteger downloaded = new AtomicInteger(0);
+    private final AtomicInteger skipped = new AtomicInteger(0);
+    private final AtomicInteger failed = new AtomicInteger(0);
+    private final AtomicLong bytes = new AtomicLong(0);
+    private final AtomicInteger remaining = new AtomicInteger(0); // Only the worker that takes it to zero completes the batch
+    private long startTime;
+
+    private CloudDownloadManager(List<CloudPhotoIndex.CloudPhoto> photos, File targetDir, DownloadListener listener) {
+        this.photos = photos;
+        this.targetDir = targetDir;
+        this.listener = listener;
+    }
+
+    /**
+     * Download the photos into targetDir in the background
+     */
+    public static CloudDownloadManager start(List<CloudPhotoIndex.CloudPhoto> photos, File targetDir, DownloadListener listener) {
+        CloudDownloadManager manager = new CloudDownloadManager(photos, targetDir, listener);
+        manager.run();
+        return manager;
+    }
+
+    private void run() {
+        startTime = System.currentTimeMillis();
+        if (!targetDir.exists() && !targetDir.mkdirs()) {
+            Log.e(TAG, "Could not create download directory: " + targetDir);
+        }
+
+        if (photos.isEmpty()) {
+            mainHandler.post(() -> listener.onComplete(snapshot()));
+            return;
+        }
+
+        remaining.set(photos.size());
+        AtomicInteger threadCount = new AtomicInteger(0);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(PARALLEL_DOWNLOADS, photos.size()), runnable -> {
+            Thread thread = new Thread(runnable, "CloudDownload-" + threadCount.incrementAndGet());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+
+        for (CloudPhotoIndex.CloudPhoto photo : photos) {
+            executor.execute(() -> {
+                downloadOne(photo);
+
+                boolean last = remaining.decrementAndGet() == 0;
+                Progress progress = snapshot();
+                mainHandler.post(() -> listener.onProgress(progress));
+                if (last) {
+                    Log.d(TAG, "✅ Batch finished: " + progress.downloaded + " downloaded, " + progress.skipped +
+                        " skipped, " + progress.failed + " failed, " + (progress.getBytesPerSecond() / 1024) + " KB/s");
+                    executor.shutdown();
+                    mainHandler.post(() -> listener.onComplete(progress));
+                }
+            });
+        }
+    }
+
+    private void downloadOne(CloudPhotoIndex.CloudPhoto photo) {
+        File target = new File(targetDir, photo.name);
+        try {
+            if (isAlreadyPresent(target, photo)) {
+                skipped.incrementAndGet();
+                listener.onFileReady(photo, target, false);
+                return;
+            }
+
+            File partFile = new File(targetDir, photo.name + PART_SUFFIX);
+            long retryDelay = 0;
+            for (int attempt = 1; attempt <= RETRY_POLICY.getMaxAttempts(); attempt++) {
+                if (Thread.currentThread().isInterrupted()) break;
+                try {
+                    downloadToPart(photo, partFile);
+                    if (!isComplete(partFile, photo)) {
+                        // Corrupt or stale partial data - start this file over
+                        partFile.delete();
+                        throw new IOException("Downloaded file failed verification");
+                    }
+                    if (!partFile.renameTo(target)) {
+                        throw new IOException("Could not move " + partFile.getName() + " into place");
+                    }
+
+                    downloaded.incrementAndGet();
+                    listener.onFileReady(photo, target, true);
+                    return;
+                } catch (Exception e) {
+                    Log.w(TAG, "Attempt " + attempt + " failed for " + photo.name + ": " + e.getMessage());
+                    if (RETRY_POLICY.canRetry(attempt)) {
+                        retryDelay = RETRY_POLICY.nextDelay(retryDelay);
+                        Thread.sleep(retryDelay);
+                    }
+                }
+            }
+            failed.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.incrementAndGet();
+        } catch (Exception e) {
+            Log.e(TAG, "Error downloading " + photo.name, e);
+            failed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Stream the object into the part file, continuing from its current length
+     */
+    private void downloadToPart(CloudPhotoIndex.CloudPhoto photo, File partFile) throws Exception {
+        long offset = partFile.exists() ? partFile.length() : 0;
+        if (photo.size > 0 && offset >= photo.size) {
+            return; // Already complete from an earlier run, only the rename was missing
+        }
+
+        String url = Tasks.await(photo.getStorageReference().getDownloadUrl()).toString();
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+        if (offset > 0) {
+            connection.setRequestProperty("Range", "bytes=" + offset + "-");
+        }
+
+        try {
+            int status = connection.getResponseCode();
+            boolean append;
+            if (status == HttpURLConnection.HTTP_PARTIAL) {
+                append = true;
+            } else if (status == HttpURLConnection.HTTP_OK) {
+                append = false; // Server ignored the range - rewrite from the start
+            } else {
+                throw new IOException("HTTP " + status);
+            }
+
+            if (append) {
+                Log.d(TAG, "Resuming " + photo.name + " at " + offset + " bytes");
+            }
+
+            try (InputStream input = connection.getInputStream();
+                 FileOutputStream output = new FileOutputStream(partFile, append)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedException("Download cancelled");
+                    }
+                    output.write(buffer, 0, read);
+                    bytes.addAndGet(read);
+                }
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static boolean isAlreadyPresent(File target, CloudPhotoIndex.CloudPhoto photo) throws IOException {
+        return target.exists() && isComplete(target, photo);
+    }
+
+    /**
+     * Size must match the index; the MD5 is checked too when the index has one
+     */
+    private static boolean isComplete(File file, CloudPhotoIndex.CloudPhoto photo) throws IOException {
+        if (photo.size > 0 && file.length() != photo.size) {
+            return false;
+        }
+        return photo.md5Hash == null || photo.md5Hash.equals(md5Base64(file));
+    }
+
+    /**
+     * MD5 in the same base64 form Cloud Storage reports
+     */
+    static String md5Base64(File file) throws IOException {
+        try (InputStream input = new FileInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return Base64.encodeToString(digest.digest(), Base64.NO_WRAP);
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private Progress snapshot() {
+        return new Progress(photos.size(), downloaded.get(), skipped.get(), failed.get(), bytes.get(),
+            System.currentTimeMillis() - startTime);
+    }
+}
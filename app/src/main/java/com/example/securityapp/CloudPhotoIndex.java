@@ -0,0 +1,324 @@
+package com.example.securityapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Firestore index of uploaded photos at users/{uid}/photos/{name}.
+ *
+ * Every successful upload writes one small document with the fields the cloud
+ * views need (capture time, size, hash, device, storage path), and deletes leave
+ * a tombstone in photo_tombstones. {@link CloudPhotoMirror} pulls both by
+ * updatedAt, so listing never needs listAll() or a getMetadata() per photo.
+ */
+public class CloudPhotoIndex {
+    private static final String TAG = "CloudPhotoIndex";
+    private static final String USERS_COLLECTION = "users";
+    private static final String PHOTOS_COLLECTION = "photos";
+    private static final String TOMBSTONES_COLLECTION = "photo_tombstones";
+    private static final String BACKFILL_PREF_PREFIX = "cloud_index_backfilled_";
+
+    public static final String FIELD_CAPTURED_AT = "capturedAt";
+    public static final String FIELD_UPDATED_AT = "updatedAt"; // Server time of the last change, drives mirror sync
+
+    /**
+     * One uploaded photo as stored in the index
+     */
+    public static class CloudPhoto {
+        public final String name;
+        public final String id;
+        public final String storagePath;
+        public final String thumbnailPath;
+        public final String md5Hash;
+        public final String device;
+        public final long size;
+        public final long capturedAt;
+
+        CloudPhoto(String name, String id, String storagePath, String thumbnailPath,
+                   String md5Hash, String device, long size, long capturedAt) {
+            this.name = name;
+            this.id = id;
+            this.storagePath = storagePath;
+            this.thumbnailPath = thumbnailPath;
+            this.md5Hash = md5Hash;
+            this.device = device;
+            this.size = size;
+            this.capturedAt = capturedAt;
+        }
+
+        static CloudPhoto fromDocument(DocumentSnapshot document) {
+            Long size = document.getLong("size");
+            Long capturedAt = document.getLong(FIELD_CAPTURED_AT);
+            return new CloudPhoto(document.getString("name"), document.getString("id"),
+                document.getString("storagePath"), document.getString("thumbnailPath"),
+                document.getString("md5Hash"), document.getString("device"),
+                size != null ? size : 0, capturedAt != null ? capturedAt : 0);
+        }
+
+        public StorageReference getStorageReference() {
+            return FirebaseStorage.getInstance().getReference().child(storagePath);
+        }
+    }
+
+    /**
+     * Record an uploaded photo. Pass the metadata returned by the upload; when it is
+     * null (upload outcome unknown) the object is looked up and only indexed if it exists.
+     */
+    public static void recordUpload(Context context, String photoName, String storagePath, StorageMetadata metadata) {
+        recordUpload(context, photoName, storagePath, metadata, null);
+    }
+
+    /**
+     * Same as {@link #recordUpload(Context, String, String, StorageMetadata)}, linking the
+     * photo's preview object when it is already uploaded
+     */
+    public static void recordUpload(Context context, String photoName, String storagePath,
+                                    StorageMetadata metadata, String thumbnailPath) {
+        CollectionReference photos = getPhotosCollection(context);
+        if (photos == null || storagePath == null) return;
+
+        Context appContext = context.getApplicationContext();
+        if (metadata != null) {
+            writeDocument(appContext, photos, photoName, storagePath, metadata, thumbnailPath);
+            return;
+        }
+
+        FirebaseStorage.getInstance().getReference().child(storagePath).getMetadata()
+            .addOnSuccessListener(storedMetadata ->
+                writeDocument(appContext, photos, photoName, storagePath, storedMetadata, thumbnailPath))
+            .addOnFailureListener(e -> Log.w(TAG, "Upload not confirmed, not indexing: " + photoName));
+    }
+
+    /**
+     * Link an uploaded preview to its photo's entry; if the original isn't indexed yet,
+     * its own upload links the preview instead
+     */
+    public static void recordThumbnail(Context context, String photoName, String thumbnailPath) {
+        CollectionReference photos = getPhotosCollection(context);
+        if (photos == null || thumbnailPath == null) return;
+
+        Context appContext = context.getApplicationContext();
+        photos.document(photoName)
+            .update("thumbnailPath", thumbnailPath, FIELD_UPDATED_AT, FieldValue.serverTimestamp())
+            .addOnSuccessListener(aVoid -> CloudPhotoMirror.syncAsync(appContext))
+            .addOnFailureListener(e -> Log.d(TAG, "Preview uploaded before its original was indexed: " + photoName));
+    }
+
+    /**
+     * Remove a deleted cloud photo from the index, leaving a tombstone so mirrors drop it too
+     */
+    public static void recordDelete(Context context, String photoName) {
+        recordDeletes(context, java.util.Collections.singletonList(photoName))
+            .addOnFailureListener(e -> Log.e(TAG, "Error removing index entry: " + photoName, e));
+    }
+
+    /**
+     * Remove many deleted photos, committing document deletes and tombstones in batches
+     */
+    public static Task<Void> recordDeletes(Context context, List<String> photoNames) {
+        CollectionReference photos = getPhotosCollection(context);
+        CollectionReference tombstones = getTombstonesCollection(context);
+        if (photos == null || tombstones == null) {
+            return Tasks.forException(new IllegalStateException("No user ID available"));
+        }
+
+        // Two writes per photo, Firestore batches are limited to 500 writes
+        List<Task<Void>> commits = new ArrayList<>();
+        for (int start = 0; start < photoNames.size(); start += 250) {
+            WriteBatch batch = photos.getFirestore().batch();
+            for (String photoName : photoNames.subList(start, Math.min(start + 250, photoNames.size()))) {
+                Map<String, Object> tombstone = new HashMap<>();
+                tombstone.put("name", photoName);
+                tombstone.put(FIELD_UPDATED_AT, FieldValue.serverTimestamp());
+
+                batch.delete(photos.document(photoName));
+                batch.set(tombstones.document(photoName), tombstone);
+            }
+            commits.add(batch.commit());
+        }
+        return Tasks.whenAll(commits);
+    }
+
+    /**
+     * Index photos uploaded before the index existed - runs the full listing once per user
+     */
+    public static void backfillIfNeeded(Context context, Runnable onDone) {
+        String userId = getUserId(context);
+        CollectionReference photos = getPhotosCollection(context);
+        SharedPreferences prefs = context.getSharedPreferences("security_app", Context.MODE_PRIVATE);
+        if (userId == null || photos == null || prefs.getBoolean(BACKFILL_PREF_PREFIX + userId, false)) {
+            onDone.run();
+            return;
+        }
+
+        Log.d(TAG, "🔍 Backfilling cloud photo index for " + userId);
+        StorageReference userRef = FirebaseStorage.getInstance().getReference()
+            .child(PhotoStorageLayout.ROOT_DIR_NAME).child(userId);
+
+        userRef.listAll()
+            .addOnSuccessListener(listResult -> {
+                List<StorageReference> items = listResult.getItems();
+                if (items.isEmpty()) {
+                    prefs.edit().putBoolean(BACKFILL_PREF_PREFIX + userId, true).apply();
+                    onDone.run();
+                    return;
+                }
+
+                // Collect metadata for every object, then write the documents in batches
+                List<StorageMetadata> collected = new ArrayList<>();
+                int[] remaining = {items.size()};
+                for (StorageReference item : items) {
+                    item.getMetadata()
+                        .addOnSuccessListener(collected::add)
+                        .addOnCompleteListener(task -> {
+                            if (--remaining[0] == 0) {
+                                writeBackfill(photos, collected, () -> {
+                                    prefs.edit().putBoolean(BACKFILL_PREF_PREFIX + userId, true).apply();
+                                    Log.d(TAG, "✅ Backfilled " + collected.size() + " cloud photo entries");
+                                }, onDone);
+                            }
+                        });
+                }
+            })
+            .addOnFailureListener(e -> {
+                Log.e(TAG, "Error listing photos for backfill", e);
+                onDone.run();
+            });
+    }
+
+    private static void writeBackfill(CollectionReference photos, List<StorageMetadata> metadataList,
+                                      Runnable onSuccess, Runnable onDone) {
+        // Firestore batches are limited to 500 writes
+        List<WriteBatch> batches = new ArrayList<>();
+        WriteBatch batch = null;
+        for (int i = 0; i < metadataList.size(); i++) {
+            if (i % 500 == 0) {
+                batch = photos.getFirestore().batch();
+                batches.add(batch);
+            }
+            StorageMetadata metadata = metadataList.get(i);
+            batch.set(photos.document(metadata.getName()),
+                buildDocument(metadata.getName(), metadata.getPath(), metadata, null), SetOptions.merge());
+        }
+
+        int[] remaining = {batches.size()};
+        boolean[] failed = {false};
+        for (WriteBatch pending : batches) {
+            pending.commit()
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error writing backfill batch", e);
+                    failed[0] = true;
+                })
+                .addOnCompleteListener(task -> {
+                    if (--remaining[0] == 0) {
+                        if (!failed[0]) {
+                            onSuccess.run();
+                        }
+                        onDone.run();
+                    }
+                });
+        }
+    }
+
+    /**
+     * Index the photo and drop any tombstone left by an earlier delete of the same name,
+     * so a mirror syncing both in one pass doesn't delete the re-uploaded row
+     */
+    private static void writeDocument(Context context, CollectionReference photos, String photoName,
+                                      String storagePath, StorageMetadata metadata, String thumbnailPath) {
+        WriteBatch batch = photos.getFirestore().batch();
+        batch.set(photos.document(photoName), buildDocument(photoName, storagePath, metadata, thumbnailPath),
+            SetOptions.merge());
+        CollectionReference tombstones = getTombstonesCollection(context);
+        if (tombstones != null) {
+            batch.delete(tombstones.document(photoName));
+        }
+        batch.commit()
+            .addOnSuccessListener(aVoid -> {
+                Log.d(TAG, "✅ Indexed cloud photo: " + photoName);
+                CircuitBreaker.FIRESTORE.onSuccess();
+                CloudPhotoMirror.syncAsync(context);
+            })
+            .addOnFailureListener(e -> {
+                Log.e(TAG, "Error indexing cloud photo: " + photoName, e);
+                if (CloudPhotoMirror.isFirestoreOutage(e)) {
+                    CircuitBreaker.FIRESTORE.onFailure();
+                }
+            });
+    }
+
+    private static Map<String, Object> buildDocument(String photoName, String storagePath, StorageMetadata metadata,
+                                                     String thumbnailPath) {
+        String id = PhotoIdGenerator.getId(photoName);
+        long capturedAt = PhotoIdGenerator.getCaptureTime(photoName);
+        if (capturedAt == 0) {
+            capturedAt = metadata.getCreationTimeMillis();
+        }
+
+        String device = metadata.getCustomMetadata("deviceModel");
+
+        Map<String, Object> document = new HashMap<>();
+        document.put("name", photoName);
+        document.put("id", id != null ? id : photoName.replace(".jpg", ""));
+        document.put(FIELD_CAPTURED_AT, capturedAt);
+        document.put("size", metadata.getSizeBytes());
+        document.put("md5Hash", metadata.getMd5Hash());
+        document.put("storagePath", storagePath);
+        if (thumbnailPath != null) {
+            document.put("thumbnailPath", thumbnailPath); // Otherwise merge keeps a preview linked earlier
+        }
+        document.put("device", device != null ? device : Build.MODEL);
+        document.put("uploadedAt", metadata.getCreationTimeMillis());
+        document.put(FIELD_UPDATED_AT, FieldValue.serverTimestamp());
+        return document;
+    }
+
+    static CollectionReference getPhotosCollection(Context context) {
+        return getUserCollection(context, PHOTOS_COLLECTION);
+    }
+
+    static CollectionReference getTombstonesCollection(Context context) {
+        return getUserCollection(context, TOMBSTONES_COLLECTION);
+    }
+
+    private static CollectionReference getUserCollection(Context context, String collection) {
+        String userId = getUserId(context);
+        if (userId == null) {
+            Log.w(TAG, "No user ID available for cloud photo index");
+            return null;
+        }
+        return FirebaseFirestore.getInstance().collection(USERS_COLLECTION).document(userId).collection(collection);
+    }
+
+    /**
+     * Same user resolution as the upload path: Firebase Auth first, then the saved user ID
+     */
+    static String getUserId(Context context) {
+        FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
+        if (currentUser != null) {
+            return currentUser.getUid();
+        }
+        return context.getSharedPreferences("security_app", Context.MODE_PRIVATE).getString("user_id", null);
+    }
+}
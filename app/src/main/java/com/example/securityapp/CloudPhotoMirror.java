@@ -0,0 +1,529 @@
+package com.example.securityapp;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.storage.FirebaseStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Persistent local mirror of the cloud photo index.
+ *
+ * Cloud views read only from this database, so they open instantly and work
+ * offline. A background sync pulls changes since the last seen server
+ * {@code updatedAt} (the sync token) from the photo index and its tombstones
+ * and applies them in one transaction; it runs when connectivity returns,
+ * after uploads and when cloud views are opened.
+ */
+public class CloudPhotoMirror extends SQLiteOpenHelper {
+    private static final String TAG = "CloudPhotoMirror";
+    private static final String DATABASE_NAME = "cloud_mirror.db";
+    private static final int DATABASE_VERSION = 1;
+
+    private static final String TABLE_PHOTOS = "cloud_photos";
+    private static final String TABLE_SYNC_STATE = "sync_state";
+    private static final int SYNC_PAGE_SIZE = 500;
+    private static final int MAX_THUMBNAILS_PER_SYNC = 50;
+    private static final long MAX_THUMBNAIL_BYTES = 64 * 1024;
+
+    private static CloudPhotoMirror instance;
+    private static final ExecutorService syncExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "CloudMirrorSync");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private static final Object syncLock = new Object();
+    private static boolean syncRunning = false;
+    private static boolean syncRequested = false;
+
+    private static final CopyOnWriteArraySet<MirrorListener> listeners = new CopyOnWriteArraySet<>();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final Context appContext;
+
+    /**
+     * Notified on the main thread after a sync changed the mirror
+     */
+    public interface MirrorListener {
+        void onMirrorChanged();
+    }
+
+    private CloudPhotoMirror(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this.appContext = context;
+    }
+
+    public static synchronized CloudPhotoMirror getInstance(Context context) {
+        if (instance == null) {
+            instance = new CloudPhotoMirror(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_PHOTOS + " (" +
+                "name TEXT PRIMARY KEY, " +
+                "id TEXT, " +
+                "storage_path TEXT NOT NULL, " +
+                "thumbnail_path TEXT, " +
+                "md5_hash TEXT, " +
+                "device TEXT, " +
+                "size INTEGER NOT NULL, " +
+                "captured_at INTEGER NOT NULL, " +
+                "thumbnail BLOB)");
+        db.execSQL("CREATE INDEX idx_cloud_photos_captured_at ON " + TABLE_PHOTOS + " (captured_at, name)");
+        db.execSQL("CREATE TABLE " + TABLE_SYNC_STATE + " (" +
+                "id INTEGER PRIMARY KEY CHECK (id = 0), " +
+                "user_id TEXT, " +
+                "photos_token INTEGER NOT NULL, " +
+                "tombstones_token INTEGER NOT NULL, " +
+                "last_sync_time INTEGER NOT NULL)");
+        db.execSQL("INSERT INTO " + TABLE_SYNC_STATE + " (id, user_id, photos_token, tombstones_token, last_sync_time) " +
+                "VALUES (0, NULL, 0, 0, 0)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+    }
+
+    public static void addListener(MirrorListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(MirrorListener listener) {
+        listeners.remove(listener);
+    }
+
+    // ---- Reads (local only) ----
+
+    /**
+     * Number of mirrored cloud photos
+     */
+    public synchronized int getCount() {
+        try (Cursor cursor = getReadableDatabase().rawQuery("SELECT COUNT(*) FROM " + TABLE_PHOTOS, null)) {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        }
+    }
+
+    /**
+     * When the mirror last finished a sync (0 if never)
+     */
+    public synchronized long getLastSyncTime() {
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT last_sync_time FROM " + TABLE_SYNC_STATE + " WHERE id = 0", null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /**
+     * Next page of cloud photos, newest first, after the given photo (null for the first page)
+     */
+    public synchronized List<CloudPhotoIndex.CloudPhoto> queryPage(CloudPhotoIndex.CloudPhoto after, int limit) {
+        String selection = null;
+        String[] selectionArgs = null;
+        if (after != null) {
+            selection = "captured_at < ? OR (captured_at = ? AND name < ?)";
+            selectionArgs = new String[]{String.valueOf(after.capturedAt), String.valueOf(after.capturedAt), after.name};
+        }
+
+        List<CloudPhotoIndex.CloudPhoto> page = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE_PHOTOS,
+                new String[]{"name", "id", "storage_path", "thumbnail_path", "md5_hash", "device", "size", "captured_at"},
+                selection, selectionArgs, null, null, "captured_at DESC, name DESC", String.valueOf(limit))) {
+            while (cursor.moveToNext()) {
+                page.add(new CloudPhotoIndex.CloudPhoto(cursor.getString(0), cursor.getString(1), cursor.getString(2),
+                    cursor.getString(3), cursor.getString(4), cursor.getString(5), cursor.getLong(6), cursor.getLong(7)));
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Mirrored thumbnail bytes of a cloud photo, or null if none were synced
+     */
+    public synchronized byte[] getThumbnail(String name) {
+        try (Cursor cursor = getReadableDatabase().query(TABLE_PHOTOS, new String[]{"thumbnail"},
+                "name = ?", new String[]{name}, null, null, null)) {
+            return cursor.moveToFirst() ? cursor.getBlob(0) : null;
+        }
+    }
+
+    /**
+     * Drop a photo the user just deleted from the cloud (the tombstone confirms it on next sync)
+     */
+    public static void recordDelete(Context context, String name) {
+        try {
+            getInstance(context).getWritableDatabase().delete(TABLE_PHOTOS, "name = ?", new String[]{name});
+        } catch (Exception e) {
+            Log.e(TAG, "Error removing photo from cloud mirror", e);
+        }
+    }
+
+    /**
+     * Drop a batch of deleted photos in one transaction and notify listeners
+     */
+    public static void recordDeletes(Context context, Collection<String> names) {
+        if (names.isEmpty()) return;
+        try {
+            SQLiteDatabase db = getInstance(context).getWritableDatabase();
+            db.beginTransaction();
+            try {
+                for (String name : names) {
+                    db.delete(TABLE_PHOTOS, "name = ?", new String[]{name});
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+
+            mainHandler.post(() -> {
+                for (MirrorListener listener : listeners) {
+                    listener.onMirrorChanged();
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Error removing photos from cloud mirror", e);
+        }
+    }
+
+    // ---- Sync ----
+
+    /**
+     * Pull cloud changes in the background; concurrent requests coalesce into one follow-up run
+     */
+    public static void syncAsync(Context context) {
+        if (context == null) return;
+        Context appContext = context.getApplicationContext();
+
+        synchronized (syncLock) {
+            if (syncRunning) {
+                syncRequested = true;
+                return;
+            }
+            syncRunning = true;
+        }
+
+        syncExecutor.execute(() -> {
+            boolean again;
+            do {
+                synchronized (syncLock) {
+                    syncRequested = false;
+                }
+                if (!CircuitBreaker.FIRESTORE.allowRequest()) {
+                    Log.d(TAG, "Firestore unhealthy, skipping cloud mirror sync");
+                } else {
+                    try {
+                        boolean changed = getInstance(appContext).sync();
+                        CircuitBreaker.FIRESTORE.onSuccess();
+                        if (changed) {
+                            mainHandler.post(() -> {
+                                for (MirrorListener listener : listeners) {
+                                    listener.onMirrorChanged();
+                                }
+                            });
+                        }
+                    } catch (Exception e) {
+                        Log.w(TAG, "Cloud mirror sync failed: " + e.getMessage());
+                        if (isFirestoreOutage(e)) {
+                            CircuitBreaker.FIRESTORE.onFailure();
+                        }
+                    }
+                }
+                synchronized (syncLock) {
+                    again = syncRequested;
+                    if (!again) {
+                        syncRunning = false;
+                    }
+                }
+            } while (again);
+        });
+    }
+
+    /**
+     * Whether a sync failed because Firestore is down or overloaded (not e.g. a permission error)
+     */
+    static boolean isFirestoreOutage(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FirebaseFirestoreException) {
+                switch (((FirebaseFirestoreException) cause).getCode()) {
+                    case UNAVAILABLE:
+                    case DEADLINE_EXCEEDED:
+                    case RESOURCE_EXHAUSTED:
+                    case INTERNAL:
+                        return true;
+                    default:
+                        return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Apply all index changes since the stored tokens. Returns true if any row changed.
+     */
+    private boolean sync() throws Exception {
+        String userId = CloudPhotoIndex.getUserId(appContext);
+        CollectionReference photos = CloudPhotoIndex.getPhotosCollection(appContext);
+        CollectionReference tombstones = CloudPhotoIndex.getTombstonesCollection(appContext);
+        if (userId == null || photos == null || tombstones == null) return false;
+        if (!NetworkHelper.isNetworkAvailable(appContext)) return false;
+
+        SyncState state = loadSyncState();
+        boolean changed = false;
+        if (!userId.equals(state.userId)) {
+            // Different account - the mirror belongs to someone else, start over
+            clearForUser(userId);
+            state = new SyncState(userId, 0, 0);
+            changed = true;
+        }
+
+        if (state.photosToken == 0) {
+            changed |= fullSync(photos);
+        } else {
+            changed |= applyPhotoChanges(photos, state.photosToken);
+            changed |= applyTombstones(tombstones, state.tombstonesToken);
+        }
+
+        changed |= syncThumbnails();
+
+        synchronized (this) {
+            getWritableDatabase().execSQL("UPDATE " + TABLE_SYNC_STATE + " SET last_sync_time = ? WHERE id = 0",
+                new Object[]{System.currentTimeMillis()});
+        }
+        Log.d(TAG, "✅ Cloud mirror synced (" + getCount() + " photos" + (changed ? ", changed" : "") + ")");
+        return changed;
+    }
+
+    /**
+     * First sync for a user: replace the mirror with the full index, paged by document ID
+     */
+    private boolean fullSync(CollectionReference photos) throws Exception {
+        List<DocumentSnapshot> documents = new ArrayList<>();
+        DocumentSnapshot last = null;
+        while (true) {
+            Query query = photos.orderBy(FieldPath.documentId()).limit(SYNC_PAGE_SIZE);
+            if (last != null) {
+                query = query.startAfter(last);
+            }
+            QuerySnapshot snapshot = Tasks.await(query.get(Source.SERVER));
+            documents.addAll(snapshot.getDocuments());
+            if (snapshot.size() < SYNC_PAGE_SIZE) break;
+            last = snapshot.getDocuments().get(snapshot.size() - 1);
+        }
+
+        // Tombstones older than a full snapshot are irrelevant, so both tokens start at the newest change seen
+        long token = Math.max(1, maxUpdatedAt(documents));
+        synchronized (this) {
+            SQLiteDatabase db = getWritableDatabase();
+            db.beginTransaction();
+            try {
+                db.delete(TABLE_PHOTOS, null, null);
+                for (DocumentSnapshot document : documents) {
+                    upsertRow(db, document);
+                }
+                db.execSQL("UPDATE " + TABLE_SYNC_STATE + " SET photos_token = ?, tombstones_token = ? WHERE id = 0",
+                    new Object[]{token, token});
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        }
+        Log.d(TAG, "📦 Cloud mirror fully synced: " + documents.size() + " photos");
+        return true;
+    }
+
+    /**
+     * Upsert index documents changed after the token
+     */
+    private boolean applyPhotoChanges(CollectionReference photos, long token) throws Exception {
+        return applyChanges(photos, token, "photos_token", (db, document) -> upsertRow(db, document));
+    }
+
+    /**
+     * Delete rows whose tombstones appeared after the token
+     */
+    private boolean applyTombstones(CollectionReference tombstones, long token) throws Exception {
+        return applyChanges(tombstones, token, "tombstones_token",
+            (db, document) -> db.delete(TABLE_PHOTOS, "name = ?", new String[]{document.getId()}));
+    }
+
+    /**
+     * Page through documents with updatedAt after the token, applying each page and
+     * advancing the stored token in the same transaction
+     */
+    private boolean applyChanges(CollectionReference collection, long token, String tokenColumn,
+                                 ChangeApplier applier) throws Exception {
+        Query changes = collection
+            .whereGreaterThan(CloudPhotoIndex.FIELD_UPDATED_AT, toTimestamp(token))
+            .orderBy(CloudPhotoIndex.FIELD_UPDATED_AT)
+            .limit(SYNC_PAGE_SIZE);
+
+        boolean changed = false;
+        DocumentSnapshot last = null;
+        while (true) {
+            // Cursor on the last document, not the token - a batch write gives many documents the same time
+            Query query = last != null ? changes.startAfter(last) : changes;
+            List<DocumentSnapshot> documents = Tasks.await(query.get(Source.SERVER)).getDocuments();
+            if (documents.isEmpty()) break;
+
+            token = Math.max(token, maxUpdatedAt(documents));
+            synchronized (this) {
+                SQLiteDatabase db = getWritableDatabase();
+                db.beginTransaction();
+                try {
+                    for (DocumentSnapshot document : documents) {
+                        applier.apply(db, document);
+                    }
+                    db.execSQL("UPDATE " + TABLE_SYNC_STATE + " SET " + tokenColumn + " = ? WHERE id = 0", new Object[]{token});
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+            }
+            changed = true;
+            if (documents.size() < SYNC_PAGE_SIZE) break;
+            last = documents.get(documents.size() - 1);
+        }
+        return changed;
+    }
+
+    private interface ChangeApplier {
+        void apply(SQLiteDatabase db, DocumentSnapshot document);
+    }
+
+    /**
+     * Download small thumbnails for rows that reference one and have none yet
+     */
+    private boolean syncThumbnails() {
+        List<String[]> missing = new ArrayList<>();
+        synchronized (this) {
+            try (Cursor cursor = getReadableDatabase().query(TABLE_PHOTOS, new String[]{"name", "thumbnail_path"},
+                    "thumbnail_path IS NOT NULL AND thumbnail IS NULL", null, null, null,
+                    "captured_at DESC", String.valueOf(MAX_THUMBNAILS_PER_SYNC))) {
+                while (cursor.moveToNext()) {
+                    missing.add(new String[]{cursor.getString(0), cursor.getString(1)});
+                }
+            }
+        }
+
+        boolean changed = false;
+        for (String[] row : missing) {
+            try {
+                byte[] bytes = Tasks.await(FirebaseStorage.getInstance().getReference().child(row[1])
+                    .getBytes(MAX_THUMBNAIL_BYTES));
+                ContentValues values = new ContentValues();
+                values.put("thumbnail", bytes);
+                synchronized (this) {
+                    getWritableDatabase().update(TABLE_PHOTOS, values, "name = ?", new String[]{row[0]});
+                }
+                changed = true;
+            } catch (Exception e) {
+                Log.w(TAG, "Could not fetch cloud thumbnail for " + row[0] + ": " + e.getMessage());
+            }
+        }
+        return changed;
+    }
+
+    private void upsertRow(SQLiteDatabase db, DocumentSnapshot document) {
+        CloudPhotoIndex.CloudPhoto photo = CloudPhotoIndex.CloudPhoto.fromDocument(document);
+        if (photo.storagePath == null) return;
+        String name = photo.name != null ? photo.name : document.getId();
+
+        ContentValues values = new ContentValues();
+        values.put("id", photo.id);
+        values.put("storage_path", photo.storagePath);
+        values.put("thumbnail_path", photo.thumbnailPath);
+        values.put("md5_hash", photo.md5Hash);
+        values.put("device", photo.device);
+        values.put("size", photo.size);
+        values.put("captured_at", photo.capturedAt);
+
+        // Keep already downloaded thumbnail bytes unless the thumbnail itself changed
+        int updated = photo.thumbnailPath != null
+            ? db.update(TABLE_PHOTOS, values, "name = ? AND thumbnail_path = ?", new String[]{name, photo.thumbnailPath})
+            : db.update(TABLE_PHOTOS, values, "name = ? AND thumbnail_path IS NULL", new String[]{name});
+        if (updated == 0) {
+            values.put("name", name);
+            values.putNull("thumbnail");
+            db.insertWithOnConflict(TABLE_PHOTOS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+        }
+    }
+
+    private synchronized void clearForUser(String userId) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_PHOTOS, null, null);
+            db.execSQL("UPDATE " + TABLE_SYNC_STATE + " SET user_id = ?, photos_token = 0, tombstones_token = 0 WHERE id = 0",
+                new Object[]{userId});
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private synchronized SyncState loadSyncState() {
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT user_id, photos_token, tombstones_token FROM " + TABLE_SYNC_STATE + " WHERE id = 0", null)) {
+            if (cursor.moveToFirst()) {
+                return new SyncState(cursor.getString(0), cursor.getLong(1), cursor.getLong(2));
+            }
+            return new SyncState(null, 0, 0);
+        }
+    }
+
+    private static long maxUpdatedAt(List<DocumentSnapshot> documents) {
+        long max = 0;
+        for (DocumentSnapshot document : documents) {
+            max = Math.max(max, updatedAtOf(document));
+        }
+        return max;
+    }
+
+    /**
+     * Sync tokens are server timestamps in microseconds (Firestore's precision), so "after" is exact
+     */
+    private static long updatedAtOf(DocumentSnapshot document) {
+        Timestamp updatedAt = document.getTimestamp(CloudPhotoIndex.FIELD_UPDATED_AT);
+        return updatedAt != null ? updatedAt.getSeconds() * 1_000_000L + updatedAt.getNanoseconds() / 1000 : 0;
+    }
+
+    private static Timestamp toTimestamp(long micros) {
+        return new Timestamp(micros / 1_000_000L, (int) (micros % 1_000_000L) * 1000);
+    }
+
+    private static class SyncState {
+        final String userId;
+        final long photosToken;
+        final long tombstonesToken;
+
+        SyncState(String userId, long photosToken, long tombstonesToken) {
+            this.userId = userId;
+            this.photosToken = photosToken;
+            this.tombstonesToken = tombstonesToken;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.securityapp;
+
+import android.content.ContentProvider;
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.os.Build;
+import android.os.ParcelFileDescriptor;
+import android.provider.OpenableColumns;
+import android.util.JsonWriter;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Serves an evidence bundle (photos, JSON manifest, alert log) as a ZIP stream.
+ *
+ * The archive is never built on disk or in memory: each open creates a pipe and
+ * a writer thread streams the photos from the index into a ZipOutputStream on
+ * the write end while the receiving app reads the other end. Photos are stored
+ * without compression (JPEGs do not shrink), so the export runs at disk read
+ * speed. The URI carries the capture time range, so it stays valid and yields
+ * the same bundle if the receiver opens it again.
+ */
+public class EvidenceExportProvider extends ContentProvider {
+    private static final String TAG = "EvidenceExportProvider";
+    private static final String MIME_TYPE = "application/zip";
+    private static final int PAGE_SIZE = 200;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final AtomicInteger threadCount = new AtomicInteger(0);
+    private static final ExecutorService writerExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "EvidenceExport-" + threadCount.incrementAndGet());
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    /**
+     * Manifest row for one exported photo
+     */
+    private static class ExportedPhoto {
+        final PhotoIndex.PhotoEntry entry;
+        final long size;
+        final String sha256;
+
+        ExportedPhoto(PhotoIndex.PhotoEntry entry, long size, String sha256) {
+            this.entry = entry;
+            this.size = size;
+            this.sha256 = sha256;
+        }
+    }
+
+    /**
+     * URI for a bundle of photos captured from since (0 for all) up to now
+     */
+    public static Uri createExportUri(Context context, long since) {
+        long until = System.currentTimeMillis();
+        String fileName = "intruder_evidence_" +
+            new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date(until)) + ".zip";
+        return new Uri.Builder()
+            .scheme(ContentResolver.SCHEME_CONTENT)
+            .authority(context.getPackageName() + ".evidence")
+            .appendPath(String.valueOf(since))
+            .appendPath(String.valueOf(until))
+            .appendPath(fileName)
+            .build();
+    }
+
+    @Override
+    public boolean onCreate() {
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public String getType(@NonNull Uri uri) {
+        return MIME_TYPE;
+    }
+
+    @Nullable
+    @Override
+    public Cursor query(@NonNull Uri uri, @Nullable String[] projection, @Nullable String selection,
+                        @Nullable String[] selectionArgs, @Nullable String sortOrder) {
+        // Receivers ask for the display name and size; the size is unknown until the stream ends
+        String[] columns = projection != null ? projection : new String[]{OpenableColumns.DISPLAY_NAME, OpenableColumns.SIZE};
+        List<String> names = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        for (String column : columns) {
+            if (OpenableColumns.DISPLAY_NAME.equals(column)) {
+                names.add(column);
+                values.add(uri.getLastPathSegment());
+            } else if (OpenableColumns.SIZE.equals(column)) {
+                names.add(column);
+                values.add(null);
+            }
+        }
+
+        MatrixCursor cursor = new MatrixCursor(names.toArray(new String[0]), 1);
+        cursor.addRow(values.toArray());
+        return cursor;
+    }
+
+    @Nullable
+    @Override
+    public ParcelFileDescriptor openFile(@NonNull Uri uri, @NonNull String mode) throws FileNotFoundException {
+        if (!"r".equals(mode)) {
+            throw new FileNotFoundException("Evidence bundles are read-only");
+        }
+
+        List<String> segments = uri.getPathSegments();
+        final long since;
+        final long until;
+        try {
+            since = Long.parseLong(segments.get(0));
+            until = Long.parseLong(segments.get(1));
+        } catch (Exception e) {
+            throw new FileNotFoundException("Invalid evidence URI: " + uri);
+        }
+
+        ParcelFileDescriptor[] pipe;
+        try {
+            pipe = ParcelFileDescriptor.createReliablePipe();
+        } catch (IOException e) {
+            throw new FileNotFoundException("Could not create pipe: " + e.getMessage());
+        }
+
+        final ParcelFileDescriptor writeEnd = pipe[1];
+        writerExecutor.execute(() -> writeBundle(writeEnd, since, until));
+        return pipe[0];
+    }
+
+    /**
+     * Stream the ZIP into the pipe; the reader sees an error instead of a truncated archive on failure
+     */
+    private void writeBundle(ParcelFileDescriptor writeEnd, long since, long until) {
+        Context context = getContext();
+        long startTime = System.currentTimeMillis();
+        try {
+            // Closed only on success - a failure must reach the reader through closeWithError
+            OutputStream pipeOutput = new ParcelFileDescriptor.AutoCloseOutputStream(writeEnd);
+            ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(pipeOutput, BUFFER_SIZE));
+            List<ExportedPhoto> exported = writePhotos(context, zip, since, until);
+            boolean hasAlertLog = writeAlertLog(context, zip);
+            // Manifest goes last so it can carry the hashes computed while streaming
+            writeManifest(zip, exported, hasAlertLog, since, until);
+            zip.close();
+
+            long totalBytes = 0;
+            for (ExportedPhoto photo : exported) {
+                totalBytes += photo.size;
+            }
+            Log.d(TAG, "📦 Evidence bundle streamed: " + exported.size() + " photos, " +
+                (totalBytes / 1024) + " KB in " + (System.currentTimeMillis() - startTime) + " ms");
+        } catch (IOException e) {
+            // Usually the receiving app stopped reading
+            Log.w(TAG, "Evidence bundle stream aborted: " + e.getMessage());
+            closeWithError(writeEnd, e.getMessage());
+        } catch (Exception e) {
+            Log.e(TAG, "Error writing evidence bundle", e);
+            closeWithError(writeEnd, e.getMessage());
+        }
+    }
+
+    /**
+     * Page through the index (newest first) and store every photo in the range
+     */
+    private List<ExportedPhoto> writePhotos(Context context, ZipOutputStream zip, long since, long until) throws Exception {
+        zip.setLevel(Deflater.NO_COMPRESSION);
+        List<ExportedPhoto> exported = new ArrayList<>();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+        PhotoIndex index = PhotoIndex.getInstance(context);
+        PhotoIndex.PhotoEntry after = null;
+        while (true) {
+            List<PhotoIndex.PhotoEntry> page = index.queryPage(after, PAGE_SIZE);
+            for (PhotoIndex.PhotoEntry entry : page) {
+                if (entry.capturedAt < since) {
+                    return exported;
+                }
+                File file = entry.getFile();
+                if (entry.capturedAt > until || !file.exists()) continue;
+
+                ZipEntry zipEntry = new ZipEntry("photos/" + entry.name);
+                zipEntry.setTime(entry.capturedAt);
+                zip.putNextEntry(zipEntry);
+
+                digest.reset();
+                long size = 0;
+                try (InputStream input = new FileInputStream(file)) {
+                    int read;
+                    while ((read = input.read(buffer)) != -1) {
+                        zip.write(buffer, 0, read);
+                        digest.update(buffer, 0, read);
+                        size += read;
+                    }
+                }
+                zip.closeEntry();
+                exported.add(new ExportedPhoto(entry, size, toHex(digest.digest())));
+            }
+
+            if (page.size() < PAGE_SIZE) {
+                return exported;
+            }
+            after = page.get(page.size() - 1);
+        }
+    }
+
+    /**
+     * Copy the local alert log (rolled-over part first) into alerts.jsonl
+     */
+    private boolean writeAlertLog(Context context, ZipOutputStream zip) throws IOException {
+        File current = OTPService.getAlertLogFile(context);
+        File rolledOver = new File(current.getPath() + ".old");
+        if (!current.exists() && !rolledOver.exists()) {
+            return false;
+        }
+
+        zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+        zip.putNextEntry(new ZipEntry("alerts.jsonl"));
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (File logFile : new File[]{rolledOver, current}) {
+            if (!logFile.exists()) continue;
+            try (InputStream input = new FileInputStream(logFile)) {
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    zip.write(buffer, 0, read);
+                }
+            }
+        }
+        zip.closeEntry();
+        return true;
+    }
+
+    private void writeManifest(ZipOutputStream zip, List<ExportedPhoto> exported, boolean hasAlertLog,
+                               long since, long until) throws IOException {
+        SimpleDateFormat isoFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+        isoFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+        zip.putNextEntry(new ZipEntry("manifest.json"));
+
+        // Not closed: closing the writer would close the ZIP stream
+        JsonWriter writer = new JsonWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+        writer.setIndent("  ");
+        writer.beginObject();
+        writer.name("generatedAt").value(isoFormat.format(new Date()));
+        writer.name("rangeStart").value(since > 0 ? isoFormat.format(new Date(since)) : null);
+        writer.name("rangeEnd").value(isoFormat.format(new Date(until)));
+        writer.name("device").value(Build.MANUFACTURER + " " + Build.MODEL);
+        writer.name("androidVersion").value(Build.VERSION.RELEASE);
+        writer.name("photoCount").value(exported.size());
+        writer.name("hashAlgorithm").value("SHA-256");
+        writer.name("alertLog").value(hasAlertLog ? "alerts.jsonl" : null);
+
+        writer.name("photos").beginArray();
+        for (ExportedPhoto photo : exported) {
+            String id = PhotoIdGenerator.getId(photo.entry.name);
+            writer.beginObject();
+            writer.name("file").value("photos/" + photo.entry.name);
+            writer.name("id").value(id);
+            writer.name("capturedAt").value(photo.entry.capturedAt);
+            writer.name("capturedAtUtc").value(isoFormat.format(new Date(photo.entry.capturedAt)));
+            writer.name("size").value(photo.size);
+            writer.name("sha256").value(photo.sha256);
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+        writer.flush();
+
+        zip.closeEntry();
+    }
+
+    private static void closeWithError(ParcelFileDescriptor writeEnd, String message) {
+        try {
+            writeEnd.closeWithError(message != null ? message : "Evidence export failed");
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    @Nullable
+    @Override
+    public Uri insert(@NonNull Uri uri, @Nullable ContentValues values) {
+        throw new UnsupportedOperationException("Evidence bundles are read-only");
+    }
+
+    @Override
+    public int delete(@NonNull Uri uri, @Nullable String selection, @Nullable String[] selectionArgs) {
+        throw new UnsupportedOperationException("Evidence bundles are read-only");
+    }
+
+    @Override
+    public int update(@NonNull Uri uri, @Nullable ContentValues values, @Nullable String selection,
+                      @Nullable String[] selectionArgs) {
+        throw new UnsupportedOperationException("Evidence bundles are read-only");
+    }
+}
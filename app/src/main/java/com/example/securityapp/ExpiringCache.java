@@ -0,0 +1,159 @@
+package com.example.securityapp;
+
+import android.os.SystemClock;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Small concurrent cache bounded by entry count and per-entry time to live.
+ *
+ * Lookups and inserts go straight to a ConcurrentHashMap and only touch the
+ * entry's own access time, so the hot path takes no cache-wide lock. When an
+ * insert pushes the cache over its size, one thread (whichever gets the
+ * eviction lock first; the others skip) drops expired entries and then the
+ * least recently used ones. Expired entries are also dropped when read.
+ * Meant for tens to a few hundred entries: eviction scans the whole map.
+ */
+public class ExpiringCache<K, V> {
+    private final int maxSize;
+    private final long defaultTtlMs;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private static class Entry<V> {
+        final V value;
+        final long expiresAt;
+        volatile long lastAccess;
+
+        Entry(V value, long now, long ttlMs) {
+            this.value = value;
+            this.expiresAt = now + ttlMs;
+            this.lastAccess = now;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    public ExpiringCache(int maxSize, long defaultTtlMs) {
+        this(maxSize, defaultTtlMs, SystemClock::elapsedRealtime);
+    }
+
+    /**
+     * Cache on its own clock (elapsed milliseconds), for tests
+     */
+    ExpiringCache(int maxSize, long defaultTtlMs, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.defaultTtlMs = defaultTtlMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Value for a key, or null if it is missing or expired
+     */
+    public V get(K key) {
+        long now = clock.getAsLong();
+        Entry<V> entry = entries.get(key);
+        if (entry == null || entry.isExpired(now)) {
+            if (entry != null) {
+                entries.remove(key, entry);
+            }
+            misses.increment();
+            return null;
+        }
+        entry.lastAccess = now;
+        hits.increment();
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, defaultTtlMs);
+    }
+
+    public void put(K key, V value, long ttlMs) {
+        entries.put(key, new Entry<>(value, clock.getAsLong(), ttlMs));
+        evictIfNeeded();
+    }
+
+    /**
+     * Insert unless a live entry exists; returns that entry's value, or null if this call inserted
+     * (atomic per key, e.g. for deduplication)
+     */
+    public V putIfAbsent(K key, V value) {
+        long now = clock.getAsLong();
+        Entry<V> created = new Entry<>(value, now, defaultTtlMs);
+        Entry<V> current = entries.compute(key, (k, existing) ->
+            existing == null || existing.isExpired(now) ? created : existing);
+        if (current != created) {
+            current.lastAccess = now;
+            hits.increment();
+            return current.value;
+        }
+        misses.increment();
+        evictIfNeeded();
+        return null;
+    }
+
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Counters for logs, e.g. "12 entries, 30 hits, 4 misses, 0 evictions"
+     */
+    public String describe() {
+        return size() + " entries, " + getHits() + " hits, " + getMisses() + " misses, " + getEvictions() + " evictions";
+    }
+
+    private void evictIfNeeded() {
+        if (entries.size() <= maxSize || !evictionLock.tryLock()) return;
+        try {
+            long now = clock.getAsLong();
+            for (Map.Entry<K, Entry<V>> candidate : entries.entrySet()) {
+                if (candidate.getValue().isExpired(now) && entries.remove(candidate.getKey(), candidate.getValue())) {
+                    evictions.increment();
+                }
+            }
+
+            while (entries.size() > maxSize) {
+                Map.Entry<K, Entry<V>> oldest = null;
+                for (Map.Entry<K, Entry<V>> candidate : entries.entrySet()) {
+                    if (oldest == null || candidate.getValue().lastAccess < oldest.getValue().lastAccess) {
+                        oldest = candidate;
+                    }
+                }
+                if (oldest == null) break;
+                if (entries.remove(oldest.getKey(), oldest.getValue())) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+}
@@ -18,13 +18,10 @@ import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.FirebaseFirestoreSettings;
 import com.google.firebase.storage.FileDownloadTask;
-import com.google.firebase.storage.FirebaseStorage;
 import com.google.firebase.storage.StorageReference;
 
 import java.io.File;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -196,43 +193,6 @@ public class FirebaseHelper {
                 });
     }
 
-    /**
-     * Fetch cloud photos from Firebase Storage
-     */
-    public static void fetchCloudPhotos(Context context, CloudPhotosCallback callback) {
-        FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
-        if (currentUser == null) {
-            Log.w(TAG, "User not authenticated for cloud photo fetch");
-            if (callback != null) {
-                callback.onResult(false, "User not authenticated", new ArrayList<>());
-            }
-            return;
-        }
-
-        String userId = currentUser.getUid();
-        Log.d(TAG, "Fetching cloud photos for user: " + userId);
-
-        FirebaseStorage storage = FirebaseStorage.getInstance();
-        StorageReference storageRef = storage.getReference().child("security_photos").child(userId);
-
-        Log.d(TAG, "Accessing storage path: security_photos/" + userId);
-
-        storageRef.listAll()
-                .addOnSuccessListener(listResult -> {
-                    Log.d(TAG, "Cloud photos fetch successful. Found " + listResult.getItems().size() + " photos");
-                    if (callback != null) {
-                        callback.onResult(true, "Retrieved " + listResult.getItems().size() + " photos",
-                                listResult.getItems());
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error fetching cloud photos from path: security_photos/" + userId, e);
-                    if (callback != null) {
-                        callback.onResult(false, "Error: " + e.getMessage(), new ArrayList<>());
-                    }
-                });
-    }
-
     /**
      * Download a cloud photo from Firebase Storage
      */
@@ -274,10 +234,6 @@ public class FirebaseHelper {
         void onResult(boolean success, String message);
     }
 
-    public interface CloudPhotosCallback {
-        void onResult(boolean success, String message, List<StorageReference> photos);
-    }
-
     public interface CloudPhotoDownloadCallback {
         void onDownloaded(boolean success, File downloadedFile);
     }
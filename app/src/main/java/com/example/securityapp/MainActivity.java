@@ -1,7 +1,5 @@
 package com.example.securityapp;
 
-import static com.example.securityapp.UserManager.getUserPhotosDirectory;
-
 import android.annotation.SuppressLint;
 import android.app.admin.DevicePolicyManager;
 import android.content.BroadcastReceiver;
@@ -10,10 +8,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.content.pm.PackageManager;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Color;
-import android.graphics.Matrix;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
@@ -22,12 +17,9 @@ import android.text.TextUtils;
 import android.view.View;
 import android.widget.Button;
 import android.widget.CheckBox;
-import android.widget.ImageView;
 import android.widget.ImageButton;
-import android.widget.LinearLayout;
 import android.widget.RadioButton;
 import android.widget.RadioGroup;
-import android.widget.ScrollView;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -46,16 +38,16 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.auth.UserProfileChangeRequest;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.storage.FirebaseStorage;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -90,7 +82,8 @@ public class MainActivity extends AppCompatActivity {
 
     // Add these variables for cloud photo functionality
     private boolean isShowingCloudPhotos = false;
-    private List<com.google.firebase.storage.StorageReference> cloudPhotoRefs = new ArrayList<>();
+    private List<CloudPhotoIndex.CloudPhoto> cloudPhotos = new ArrayList<>();
+    private boolean cloudPhotosEndReached = false;
     private File cloudPhotosDir;
 
     // Add flag to track if user has seen backup explanation
@@ -98,24 +91,14 @@ public class MainActivity extends AppCompatActivity {
 
     // Add cloud photo count tracking
     private int currentCloudPhotoCount = 0;
+    private static final int CLOUD_PAGE_SIZE = 25;
 
-    // Add photo cache to prevent repeated searches
-    private static final long PHOTO_CACHE_DURATION = 10000;
-    private static List<File> cachedPhotosList = new ArrayList<>();
-    private static long lastPhotoSearchTime = 0;
-
-    // Handler for real-time stats update
-    private Handler statsHandler = new Handler();
-    private Runnable statsUpdater = new Runnable() {
-        @Override
-        public void run() {
-            updateStats();
-            statsHandler.postDelayed(this, 3000);
-        }
-    };
+    // Repaint stats only when local photos actually change
+    private final PhotoRepository.PhotoChangeListener photoChangeListener = this::updateStats;
 
-    // Add missing variable for dialog tracking
-    private AlertDialog currentPhotosListDialog = null;
+    // Cloud counts come from the local mirror and refresh when a sync applies changes
+    private final CloudPhotoMirror.MirrorListener cloudMirrorListener =
+        () -> currentCloudPhotoCount = CloudPhotoMirror.getInstance(this).getCount();
 
     private BroadcastReceiver photoCaptureReceiver;
 
@@ -127,7 +110,7 @@ public class MainActivity extends AppCompatActivity {
             // Add resource loading safety check
             ensureResourcesAvailable();
 
-            initializeFirebase();
+            StartupOrchestrator.runCritical("main_firebase_init", this::initializeFirebase);
             initializationInProgress = true;
 
             // Check authentication with fallback support
@@ -139,7 +122,7 @@ public class MainActivity extends AppCompatActivity {
                 return;
             }
 
-            finishInitialization();
+            StartupOrchestrator.runCritical("main_layout", this::finishInitialization);
         } catch (Exception e) {
             Log.e(TAG, "Error in onCreate", e);
 
@@ -312,12 +295,21 @@ public class MainActivity extends AppCompatActivity {
             initializeViews();
 
             setupDeviceAdmin();
-            checkPermissions();
+
+            // Permission prompts and Firebase round trips wait until the first frame is up
+            StartupOrchestrator.reportFirstFrame(this);
+            StartupOrchestrator.runOnMainAfterFirstFrame("permission_check", () -> {
+                if (!isFinishing() && !isDestroyed()) {
+                    checkPermissions();
+                }
+            });
 
             // Only check Firestore permissions if Firebase is available
             if (mAuth != null && db != null) {
-                checkFirestorePermissions();
-                updateFirebaseUserIfNeeded();
+                StartupOrchestrator.runInBackground("firestore_probe", StartupOrchestrator.PRIORITY_LOW,
+                    this::checkFirestorePermissions);
+                StartupOrchestrator.runInBackground("profile_update", StartupOrchestrator.PRIORITY_LOW,
+                    this::updateFirebaseUserIfNeeded);
             } else {
                 Log.w(TAG, "Skipping Firebase operations - services not available");
                 firestorePermissionsChecked = true; // Mark as checked to prevent retries
@@ -456,6 +448,9 @@ public class MainActivity extends AppCompatActivity {
     private void showMainSettings() {
         String[] options = {
             "Account",
+            "Local Storage Limit",
+            "Upload Policy",
+            "Export Upload Telemetry",
             "Sign Out"
         };
 
@@ -468,6 +463,15 @@ public class MainActivity extends AppCompatActivity {
                     showAccountInfo();
                     break;
                 case 1:
+                    showStorageLimitSettings();
+                    break;
+                case 2:
+                    showUploadPolicySettings();
+                    break;
+                case 3:
+                    exportUploadTelemetry();
+                    break;
+                case 4:
                     confirmSignOut();
                     break;
             }
@@ -477,6 +481,94 @@ public class MainActivity extends AppCompatActivity {
         builder.show();
     }
 
+    /**
+     * Let the user opt in to a local photo quota; the oldest backed-up photos are removed first
+     */
+    private void showStorageLimitSettings() {
+        String[] labels = {"No limit", "200 MB", "500 MB", "1 GB", "2 GB"};
+        long[] quotasMb = {0, 200, 500, 1024, 2048};
+
+        long currentMb = PhotoRetentionManager.getQuotaBytes(this) / (1024 * 1024);
+        int checked = 0;
+        for (int i = 0; i < quotasMb.length; i++) {
+            if (quotasMb[i] == currentMb) checked = i;
+        }
+
+        new AlertDialog.Builder(this)
+            .setTitle("Local Storage Limit")
+            .setSingleChoiceItems(labels, checked, (dialog, which) -> {
+                PhotoRetentionManager.setRetentionPolicy(this, quotasMb[which], PhotoRetentionManager.getMaxAgeDays(this));
+                if (quotasMb[which] > 0) {
+                    PhotoRetentionManager.enforceAsync(this);
+                    Toast.makeText(this, "Oldest backed-up photos are removed above " + labels[which] +
+                        "; photos waiting to upload are kept", Toast.LENGTH_LONG).show();
+                }
+                dialog.dismiss();
+            })
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+
+    /**
+     * Pick what each network type uploads: full photos, previews only, or nothing
+     */
+    private void showUploadPolicySettings() {
+        String[] networkTypes = {UploadPolicy.NETWORK_UNMETERED, UploadPolicy.NETWORK_METERED};
+        String[] networkLabels = {"Wi-Fi / unmetered", "Mobile data / metered"};
+        String[] modes = {UploadPolicy.MODE_FULL, UploadPolicy.MODE_PREVIEW, UploadPolicy.MODE_NONE};
+        String[] modeLabels = {"Full photos", "Previews only", "Nothing"};
+
+        String[] items = new String[networkTypes.length];
+        for (int i = 0; i < networkTypes.length; i++) {
+            String mode = UploadPolicy.getMode(this, networkTypes[i]);
+            items[i] = networkLabels[i] + ": " + modeLabels[Math.max(0, Arrays.asList(modes).indexOf(mode))];
+        }
+
+        new AlertDialog.Builder(this)
+            .setTitle("Upload Policy")
+            .setItems(items, (dialog, network) -> {
+                int checked = Arrays.asList(modes).indexOf(UploadPolicy.getMode(this, networkTypes[network]));
+                new AlertDialog.Builder(this)
+                    .setTitle(networkLabels[network])
+                    .setSingleChoiceItems(modeLabels, checked, (modeDialog, which) -> {
+                        UploadPolicy.setMode(this, networkTypes[network], modes[which]);
+                        // Originals held back by the old mode may go now
+                        CloudBackupService.onNetworkAvailable(this);
+                        modeDialog.dismiss();
+                    })
+                    .setNegativeButton("Cancel", null)
+                    .show();
+            })
+            .setNegativeButton("Close", null)
+            .show();
+    }
+
+    /**
+     * Share the per-upload telemetry records (JSON lines) for offline analysis
+     */
+    private void exportUploadTelemetry() {
+        File telemetryFile = UploadTelemetry.getTelemetryFile(this);
+        if (!telemetryFile.exists() || telemetryFile.length() == 0) {
+            Toast.makeText(this, "No uploads recorded yet", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        try {
+            android.net.Uri telemetryUri = androidx.core.content.FileProvider.getUriForFile(
+                this, getPackageName() + ".fileprovider", telemetryFile);
+
+            Intent shareIntent = new Intent(Intent.ACTION_SEND);
+            shareIntent.setType("application/json");
+            shareIntent.putExtra(Intent.EXTRA_STREAM, telemetryUri);
+            shareIntent.putExtra(Intent.EXTRA_SUBJECT, "Upload Telemetry");
+            shareIntent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+            startActivity(Intent.createChooser(shareIntent, "Share Upload Telemetry"));
+        } catch (Exception e) {
+            Log.e(TAG, "Error sharing upload telemetry", e);
+            Toast.makeText(this, "❌ Error exporting telemetry: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        }
+    }
+
     private void setupDeviceAdmin() {
         devicePolicyManager = (DevicePolicyManager) getSystemService(DEVICE_POLICY_SERVICE);
         adminComponent = new ComponentName(this, SecurityDeviceAdminReceiver.class);
@@ -693,123 +785,6 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    /**
-     * Find security photos in all possible directories with comprehensive search
-     */
-    private File[] findAllSecurityPhotos() {
-        // Check if we have a recent cache we can use
-        long currentTime = System.currentTimeMillis();
-        if (!cachedPhotosList.isEmpty() && (currentTime - lastPhotoSearchTime) < PHOTO_CACHE_DURATION) {
-            // Don't log every time to reduce spam
-            return cachedPhotosList.toArray(new File[0]);
-        }
-
-        // Reset cache
-        cachedPhotosList.clear();
-        lastPhotoSearchTime = currentTime;
-
-        Log.d(TAG, "Starting comprehensive photo search...");
-
-        // Create a set to track unique paths to avoid duplicates more efficiently
-        Set<String> uniqueFilePaths = new HashSet<>();
-
-        // 1. Check user-specific directory from UserManager
-        File userDir = getUserPhotosDirectory(this);
-        Log.d(TAG, "Checking user directory: " + userDir.getAbsolutePath());
-
-        if (userDir.exists()) {
-            File[] userPhotos = userDir.listFiles((dir, name) -> name.toLowerCase().endsWith(".jpg"));
-            if (userPhotos != null && userPhotos.length > 0) {
-                Log.d(TAG, "Found " + userPhotos.length + " photos in user directory");
-                for (File photo : userPhotos) {
-                    if (uniqueFilePaths.add(photo.getAbsolutePath())) {
-                        cachedPhotosList.add(photo);
-                    }
-                }
-            } else {
-                Log.d(TAG, "No photos found in user directory");
-            }
-        } else {
-            Log.d(TAG, "User photos directory doesn't exist: " + userDir.getAbsolutePath());
-            // Try to create it for future use
-            boolean created = userDir.mkdirs();
-            Log.d(TAG, "Created user directory: " + created);
-        }
-
-        // 2. Check the root security photos directory
-        File rootDir = new File(getFilesDir(), "security_photos");
-        Log.d(TAG, "Checking root directory: " + rootDir.getAbsolutePath());
-
-        if (rootDir.exists()) {
-            // Check for photos directly in root directory
-            File[] rootPhotos = rootDir.listFiles((dir, name) ->
-                name.toLowerCase().endsWith(".jpg") && new File(dir, name).isFile());
-
-            if (rootPhotos != null && rootPhotos.length > 0) {
-                Log.d(TAG, "Found " + rootPhotos.length + " photos in root directory");
-                for (File photo : rootPhotos) {
-                    if (uniqueFilePaths.add(photo.getAbsolutePath())) {
-                        cachedPhotosList.add(photo);
-                    }
-                }
-            }
-
-            // 3. Check subdirectories in the security_photos directory
-            File[] subdirs = rootDir.listFiles(File::isDirectory);
-            if (subdirs != null) {
-                for (File subdir : subdirs) {
-                    if (!subdir.equals(userDir)) { // Skip if it's the user directory we already checked
-                        Log.d(TAG, "Checking subdirectory: " + subdir.getAbsolutePath());
-                        File[] subdirPhotos = subdir.listFiles((dir, name) -> name.toLowerCase().endsWith(".jpg"));
-                        if (subdirPhotos != null && subdirPhotos.length > 0) {
-                            Log.d(TAG, "Found " + subdirPhotos.length + " photos in " + subdir.getName());
-                            for (File photo : subdirPhotos) {
-                                if (uniqueFilePaths.add(photo.getAbsolutePath())) {
-                                    cachedPhotosList.add(photo);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        } else {
-            Log.d(TAG, "Root security photos directory doesn't exist, creating it");
-            boolean created = rootDir.mkdirs();
-            Log.d(TAG, "Created root directory: " + created);
-        }
-
-        // 4. Check files directory directly for any orphaned photos - only if cache is empty
-        if (cachedPhotosList.isEmpty()) {
-            File filesDir = getFilesDir();
-            File[] orphanedPhotos = filesDir.listFiles((dir, name) ->
-                name.toLowerCase().startsWith("security_") && name.toLowerCase().endsWith(".jpg"));
-            if (orphanedPhotos != null && orphanedPhotos.length > 0) {
-                Log.d(TAG, "Found " + orphanedPhotos.length + " orphaned photos in files directory");
-                for (File photo : orphanedPhotos) {
-                    if (uniqueFilePaths.add(photo.getAbsolutePath())) {
-                        cachedPhotosList.add(photo);
-                    }
-                }
-            }
-        }
-
-        // Log final results
-        if (!cachedPhotosList.isEmpty()) {
-            Log.d(TAG, "Found a total of " + cachedPhotosList.size() + " unique photos across all directories");
-            // Limit logging to first photo only to prevent log spam
-            File firstPhoto = cachedPhotosList.get(0);
-            Log.d(TAG, "  - " + firstPhoto.getName() + " (" + (firstPhoto.length() / 1024) + " KB) in " + firstPhoto.getParent());
-
-            if (cachedPhotosList.size() > 1) {
-                Log.d(TAG, "  - ... and " + (cachedPhotosList.size() - 1) + " more photos");
-            }
-        } else {
-            Log.d(TAG, "🔍 No photos found in any directory");
-        }
-
-        return cachedPhotosList.toArray(new File[0]);
-    }
-
     private void updateStats() {
         // Check if views are initialized to prevent NullPointerException
         if (photosCountText == null || lastCaptureText == null) {
@@ -817,35 +792,25 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
 
-        // Use cached photos when possible to avoid filesystem scans
-        File[] allPhotos = findAllSecurityPhotos();
-
-        if (allPhotos != null && allPhotos.length > 0) {
-            photosCountText.setText(String.valueOf(allPhotos.length));
+        // Snapshot still loading at startup - the index reports a change when it is ready
+        if (!PhotoIndex.isLoaded()) {
+            photosCountText.setText("…");
+            lastCaptureText.setText("…");
+            return;
+        }
 
-            // Find most recent photo
-            File mostRecent = allPhotos[0];
-            long totalSize = 0;
+        // Read the maintained aggregates - no filesystem access
+        PhotoIndex.Stats stats = PhotoIndex.getStats(this);
 
-            for (File photo : allPhotos) {
-                totalSize += photo.length();
-                if (photo.lastModified() > mostRecent.lastModified()) {
-                    mostRecent = photo;
-                }
-            }
+        if (stats.count > 0) {
+            photosCountText.setText(String.valueOf(stats.count));
 
             String lastCapture = new java.text.SimpleDateFormat("dd/MM/yy HH:mm", java.util.Locale.getDefault())
-                    .format(new java.util.Date(mostRecent.lastModified()));
+                    .format(new java.util.Date(stats.newestCaptureTime));
             lastCaptureText.setText(lastCapture);
-
-            // Log summary only - detailed logging happens in findAllSecurityPhotos
-            long totalSizeKB = totalSize / 1024;
-            Log.d(TAG, "📊 Photo stats: " + allPhotos.length + " photos, " + totalSizeKB + " KB total");
-
         } else {
             photosCountText.setText("0");
             lastCaptureText.setText("Never");
-            Log.d(TAG, "📊 No photos found in any directory");
         }
     }
 
@@ -909,8 +874,7 @@ public class MainActivity extends AppCompatActivity {
             Toast.makeText(this, "🔄 Auto backup enabled for your protection!", Toast.LENGTH_LONG).show();
 
             // Start immediate backup if photos exist
-            File[] localPhotos = findAllSecurityPhotos();
-            if (localPhotos != null && localPhotos.length > 0) {
+            if (PhotoIndex.getStats(this).count > 0) {
                 startImmediateBackup();
             }
         });
@@ -923,45 +887,29 @@ public class MainActivity extends AppCompatActivity {
      * Show backup access instructions and statistics (subsequent times)
      */
     private void showBackupAccessAndStats() {
-        // First fetch current cloud photo count with debugging
-        Toast.makeText(this, "Loading cloud statistics...", Toast.LENGTH_SHORT).show();
-
-        FirebaseHelper.fetchCloudPhotos(this, new FirebaseHelper.CloudPhotosCallback() {
-            @Override
-            public void onResult(boolean success, String message, List<com.google.firebase.storage.StorageReference> photos) {
-                runOnUiThread(() -> {
-                    Log.d(TAG, "Cloud photos fetch: success=" + success + ", message=" + message + ", count=" + (photos != null ? photos.size() : 0));
-
-                    if (success && photos != null) {
-                        currentCloudPhotoCount = photos.size();
-                        Log.d(TAG, "Cloud photos found: " + currentCloudPhotoCount);
-                    } else {
-                        currentCloudPhotoCount = 0;
-                        Log.w(TAG, "No cloud photos or error: " + message);
-                        // Show error details to user for debugging
-                        if (!success) {
-                            Toast.makeText(MainActivity.this, "Cloud access issue: " + message, Toast.LENGTH_LONG).show();
-                        }
-                    }
+        // Render instantly from the local mirror (works offline), then refresh it in the background
+        currentCloudPhotoCount = CloudPhotoMirror.getInstance(this).getCount();
+        showBackupStatsDialog();
 
-                    showBackupStatsDialog();
-                });
-            }
-        });
+        // Index older uploads once, then pull the delta
+        CloudPhotoIndex.backfillIfNeeded(this, () -> CloudPhotoMirror.syncAsync(this));
     }
 
     /**
      * Show backup statistics and access options
      */
     private void showBackupStatsDialog() {
-        File[] localPhotos = findAllSecurityPhotos();
-        int localCount = localPhotos != null ? localPhotos.length : 0;
+        int localCount = PhotoIndex.getStats(this).count;
 
         SharedPreferences prefs = getSharedPreferences("security_app", MODE_PRIVATE);
         long lastBackupTime = prefs.getLong("last_backup_time", 0);
         String lastBackupText = lastBackupTime > 0 ?
             new java.text.SimpleDateFormat("dd/MM HH:mm", java.util.Locale.getDefault())
                 .format(new java.util.Date(lastBackupTime)) : "Never";
+        long lastSyncTime = CloudPhotoMirror.getInstance(this).getLastSyncTime();
+        String lastSyncText = lastSyncTime > 0 ?
+            new java.text.SimpleDateFormat("dd/MM HH:mm", java.util.Locale.getDefault())
+                .format(new java.util.Date(lastSyncTime)) : "Never";
 
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("☁️ Cloud Backup Status");
@@ -970,7 +918,24 @@ public class MainActivity extends AppCompatActivity {
         message.append("📊 BACKUP STATISTICS\n\n");
         message.append("📱 Photos on this device: ").append(localCount).append("\n");
         message.append("☁️ Photos in cloud: ").append(currentCloudPhotoCount).append("\n");
-        message.append("🕒 Last backup: ").append(lastBackupText).append("\n\n");
+        message.append("🕒 Last backup: ").append(lastBackupText).append("\n");
+        message.append("🔄 Cloud list synced: ").append(lastSyncText).append("\n");
+        long evidenceOffsiteMs = UploadPolicy.getAverageEvidenceOffsiteMs(this);
+        if (evidenceOffsiteMs > 0) {
+            message.append("⏱️ Evidence offsite after: ").append(evidenceOffsiteMs / 1000).append(" s on average\n");
+        }
+        message.append("\n");
+
+        String telemetry = UploadTelemetry.describe(this);
+        if (!telemetry.isEmpty()) {
+            message.append("📈 UPLOADS (LAST 7 DAYS)\n\n");
+            message.append(telemetry).append("\n");
+        }
+        String energy = BackupEnergyMeter.describe(this);
+        if (!energy.isEmpty()) {
+            message.append("🔋 BATTERY PER BACKED-UP MB\n\n").append(energy).append("\n\n");
+        }
+        message.append("🔌 BACKENDS\n\n").append(CircuitBreaker.describeAll()).append("\n\n");
 
         message.append("🌐 ACCESS FROM ANY DEVICE:\n\n");
         message.append("1️⃣ Install GetIntruder app on any Android\n");
@@ -986,6 +951,9 @@ public class MainActivity extends AppCompatActivity {
             builder.setPositiveButton("📥 Download Photos (" + currentCloudPhotoCount + ")", (dialog, which) -> {
                 showDownloadOptionsDialog();
             });
+            builder.setNeutralButton("☁️ View Photos", (dialog, which) -> {
+                fetchCloudPhotos();
+            });
         }
 
         builder.setNegativeButton("Close", null);
@@ -1046,118 +1014,111 @@ public class MainActivity extends AppCompatActivity {
         AlertDialog progressDialog = builder.create();
         progressDialog.show();
 
-        // Fetch cloud photos and download them
-        FirebaseHelper.fetchCloudPhotos(this, new FirebaseHelper.CloudPhotosCallback() {
-            @Override
-            public void onResult(boolean success, String message, List<com.google.firebase.storage.StorageReference> photos) {
-                if (success && !photos.isEmpty()) {
-                    downloadPhotosToGallery(photos, photoCount, progressDialog);
-                } else {
-                    progressDialog.dismiss();
-                    Toast.makeText(MainActivity.this, "❌ No photos found to download", Toast.LENGTH_LONG).show();
-                }
-            }
-        });
+        // Newest photoCount entries come from the local mirror - no listing request
+        List<CloudPhotoIndex.CloudPhoto> photos = CloudPhotoMirror.getInstance(this).queryPage(null, photoCount);
+        if (!photos.isEmpty()) {
+            downloadPhotosToGallery(photos, progressDialog);
+        } else {
+            progressDialog.dismiss();
+            Toast.makeText(MainActivity.this, "❌ No photos found to download", Toast.LENGTH_LONG).show();
+        }
     }
 
     /**
      * Download photos to external gallery (not intruder folder)
      */
-    private void downloadPhotosToGallery(List<com.google.firebase.storage.StorageReference> photos, int count, AlertDialog progressDialog) {
-        new Thread(() -> {
-            try {
-                // Create GetIntruder album in Pictures directory for gallery access
-                File galleryDir = new File(android.os.Environment.getExternalStoragePublicDirectory(
-                    android.os.Environment.DIRECTORY_PICTURES), "GetIntruder");
+    private void downloadPhotosToGallery(List<CloudPhotoIndex.CloudPhoto> photos, AlertDialog progressDialog) {
+        // Downloads are staged privately and published to Gallery → GetIntruder in MediaStore batches
+        File stagingDir = MediaStoreExporter.getStagingDirectory(this);
 
-                if (!galleryDir.exists()) {
-                    boolean created = galleryDir.mkdirs();
-                    Log.d(TAG, "Created GetIntruder gallery directory: " + created);
+        new Thread(() -> {
+            // Photos exported on an earlier run are already in the gallery
+            java.util.Set<String> exportedNames = MediaStoreExporter.getExportedNames(this);
+            List<CloudPhotoIndex.CloudPhoto> pending = new ArrayList<>();
+            for (CloudPhotoIndex.CloudPhoto photo : photos) {
+                if (!exportedNames.contains(photo.name)) {
+                    pending.add(photo);
                 }
+            }
+            int alreadyExported = photos.size() - pending.size();
+            List<File> readyFiles = java.util.Collections.synchronizedList(new ArrayList<>());
 
-                int downloaded = 0;
-                int totalToDownload = Math.min(count, photos.size());
-
-                for (int i = 0; i < totalToDownload; i++) {
-                    com.google.firebase.storage.StorageReference photoRef = photos.get(i);
-                    String fileName = photoRef.getName();
-
-                    // Create unique filename to avoid conflicts
-                    String timestamp = new java.text.SimpleDateFormat("yyyyMMdd_HHmmss", java.util.Locale.getDefault())
-                        .format(new java.util.Date());
-                    String uniqueFileName = "cloud_" + timestamp + "_" + i + ".jpg";
-                    File localFile = new File(galleryDir, uniqueFileName);
-
-                    try {
-                        // Download synchronously
-                        com.google.android.gms.tasks.Tasks.await(photoRef.getFile(localFile));
-
-                        // Add to gallery
-                        Intent mediaScanIntent = new Intent(Intent.ACTION_MEDIA_SCANNER_SCAN_FILE);
-                        mediaScanIntent.setData(android.net.Uri.fromFile(localFile));
-                        sendBroadcast(mediaScanIntent);
-
-                        downloaded++;
-
-                        // Update progress on UI thread
-                        final int currentCount = downloaded;
-                        runOnUiThread(() -> {
-                            if (progressDialog.isShowing()) {
-                                progressDialog.setMessage("Downloaded " + currentCount + " of " + totalToDownload + " photos...\n\n" +
-                                                         "📁 Saving to Gallery → GetIntruder\n" +
-                                                         "🔄 Please wait...");
-                            }
-                        });
-
-                        // Small delay to prevent overwhelming
-                        Thread.sleep(300);
+            CloudDownloadManager.start(pending, stagingDir, new CloudDownloadManager.DownloadListener() {
+                @Override
+                public void onFileReady(CloudPhotoIndex.CloudPhoto photo, File file, boolean downloaded) {
+                    readyFiles.add(file);
+                }
 
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error downloading photo: " + fileName, e);
+                @Override
+                public void onProgress(CloudDownloadManager.Progress progress) {
+                    if (progressDialog.isShowing()) {
+                        progressDialog.setMessage("Downloaded " + progress.getFinished() + " of " + progress.total + " photos...\n" +
+                                                 "⚡ " + (progress.getBytesPerSecond() / 1024) + " KB/s\n\n" +
+                                                 "📁 Saving to Gallery → GetIntruder\n" +
+                                                 "🔄 Please wait...");
                     }
                 }
 
-                // Show completion on UI thread
-                final int finalDownloaded = downloaded;
-                runOnUiThread(() -> {
+                @Override
+                public void onComplete(CloudDownloadManager.Progress progress) {
                     if (progressDialog.isShowing()) {
-                        progressDialog.dismiss();
+                        progressDialog.setMessage("Adding " + readyFiles.size() + " photos to gallery...\n\n" +
+                                                 "📁 Gallery → GetIntruder\n" +
+                                                 "🔄 Please wait...");
                     }
 
-                    if (finalDownloaded > 0) {
-                        AlertDialog.Builder completionBuilder = new AlertDialog.Builder(this);
-                        completionBuilder.setTitle("Download Complete!");
-                        completionBuilder.setMessage("Successfully downloaded " + finalDownloaded + " photos!\n\n" +
-                                                    "Location: Gallery → Albums → GetIntruder\n" +
-                                                    "You can view them in your gallery app");
-
-                        completionBuilder.setPositiveButton("Open Gallery", (dialog, which) -> {
-                            try {
-                                Intent intent = new Intent(Intent.ACTION_VIEW);
-                                intent.setType("image/*");
-                                startActivity(intent);
-                            } catch (Exception e) {
-                                Toast.makeText(this, "Please check your Gallery app", Toast.LENGTH_SHORT).show();
-                            }
-                        });
-
-                        completionBuilder.setNegativeButton("OK", null);
-                        completionBuilder.show();
-                    } else {
-                        Toast.makeText(this, "No photos were downloaded", Toast.LENGTH_LONG).show();
-                    }
-                });
+                    new Thread(() -> {
+                        MediaStoreExporter.ExportResult export =
+                            MediaStoreExporter.exportBatch(MainActivity.this, new ArrayList<>(readyFiles), true);
+                        runOnUiThread(() -> showGalleryExportResult(progress, export, alreadyExported, progressDialog));
+                    }, "GalleryExport").start();
+                }
+            });
+        }, "GalleryExport").start();
+    }
 
-            } catch (Exception e) {
-                Log.e(TAG, "Error in download process", e);
-                runOnUiThread(() -> {
-                    if (progressDialog.isShowing()) {
-                        progressDialog.dismiss();
-                    }
-                    Toast.makeText(this, "Download failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                });
+    /**
+     * Summarize a finished download and gallery export
+     */
+    private void showGalleryExportResult(CloudDownloadManager.Progress progress, MediaStoreExporter.ExportResult export,
+                                         int alreadyExported, AlertDialog progressDialog) {
+        if (progressDialog.isShowing()) {
+            progressDialog.dismiss();
+        }
+        if (isFinishing() || isDestroyed()) return;
+
+        int failed = progress.failed + export.failed;
+        if (export.exported + alreadyExported > 0) {
+            StringBuilder result = new StringBuilder();
+            result.append("Successfully downloaded ").append(export.exported).append(" photos!\n");
+            if (alreadyExported > 0) {
+                result.append("Already on device: ").append(alreadyExported).append("\n");
+            }
+            if (failed > 0) {
+                result.append("Failed: ").append(failed).append(" (run again to resume)\n");
             }
-        }).start();
+            result.append("\nLocation: Gallery → Albums → GetIntruder\n" +
+                          "You can view them in your gallery app");
+
+            AlertDialog.Builder completionBuilder = new AlertDialog.Builder(MainActivity.this);
+            completionBuilder.setTitle("Download Complete!");
+            completionBuilder.setMessage(result.toString());
+
+            completionBuilder.setPositiveButton("Open Gallery", (dialog, which) -> {
+                try {
+                    Intent intent = new Intent(Intent.ACTION_VIEW);
+                    intent.setType("image/*");
+                    startActivity(intent);
+                } catch (Exception e) {
+                    Toast.makeText(MainActivity.this, "Please check your Gallery app", Toast.LENGTH_SHORT).show();
+                }
+            });
+
+            completionBuilder.setNegativeButton("OK", null);
+            completionBuilder.show();
+        } else {
+            Toast.makeText(MainActivity.this, "No photos were downloaded", Toast.LENGTH_LONG).show();
+        }
     }
 
     /**
@@ -1226,8 +1187,12 @@ public class MainActivity extends AppCompatActivity {
             Log.e(TAG, "Error updating stats in onResume", e);
         }
 
-        // Start periodic stats updates
-        statsHandler.post(statsUpdater);
+        // Subscribe to photo changes instead of polling
+        PhotoRepository.addListener(this, photoChangeListener);
+
+        // Pull cloud changes in the background; cloud views render from the mirror meanwhile
+        CloudPhotoMirror.addListener(cloudMirrorListener);
+        CloudPhotoMirror.syncAsync(this);
 
         // Register broadcast receiver for photo capture notifications
         registerPhotoCaptureReceiver();
@@ -1241,8 +1206,9 @@ public class MainActivity extends AppCompatActivity {
         lastVisibilityChangeTime = System.currentTimeMillis();
         Log.d(TAG, "onPause called");
 
-        // Stop periodic stats updates
-        statsHandler.removeCallbacks(statsUpdater);
+        // Stop listening for photo changes
+        PhotoRepository.removeListener(photoChangeListener);
+        CloudPhotoMirror.removeListener(cloudMirrorListener);
 
         // Unregister broadcast receiver
         unregisterPhotoCaptureReceiver();
@@ -1277,613 +1243,41 @@ public class MainActivity extends AppCompatActivity {
 
 
     /**
-     * Fetch cloud photos in background
+     * Show the first page of cloud photos from the local mirror
      */
     private void fetchCloudPhotos() {
-        Log.d(TAG, "Fetching cloud photos...");
-        FirebaseHelper.fetchCloudPhotos(this, new FirebaseHelper.CloudPhotosCallback() {
-            @Override
-            public void onResult(boolean success, String message, List<com.google.firebase.storage.StorageReference> photos) {
-                if (success) {
-                    cloudPhotoRefs = photos;
-                    currentCloudPhotoCount = photos.size(); // Update count
-                    Log.d(TAG, "✅ Retrieved " + photos.size() + " cloud photos");
-
-                    // If we're currently in cloud view mode but showing no photos, update the UI
-                    if (isShowingCloudPhotos && isVisible) {
-                        runOnUiThread(() -> {
-                            if (!photos.isEmpty()) {
-                                showCloudPhotosListForAdmin();
-                            }
-                        });
-                    }
-                } else {
-                    currentCloudPhotoCount = 0; // Reset count on error
-                    Log.e(TAG, "❌ Failed to fetch cloud photos: " + message);
-                }
-            }
-        });
+        Log.d(TAG, "Loading cloud photos from mirror...");
+        cloudPhotos = new ArrayList<>();
+        cloudPhotosEndReached = false;
+        loadMoreCloudPhotos();
     }
 
     /**
-     * Delete all security photos with confirmation
+     * Append the next mirrored page after the last loaded photo
      */
-    private void deleteAllPhotos() {
-        File[] photos = findAllSecurityPhotos();
-
-        if (photos == null || photos.length == 0) {
-            Toast.makeText(this, "No photos to delete", Toast.LENGTH_SHORT).show();
-            return;
-        }
-
-        // Show confirmation dialog
-        new AlertDialog.Builder(this)
-            .setTitle("⚠️ Delete All Photos")
-            .setMessage("Are you sure you want to delete all " + photos.length + " intruder photos?\n\nThis action cannot be undone!")
-            .setPositiveButton("Delete All", (dialog, which) -> {
-                int deletedCount = 0;
-
-                for (File photo : photos) {
-                    try {
-                        if (photo.exists() && photo.delete()) {
-                            deletedCount++;
-                            Log.d(TAG, "Deleted photo: " + photo.getName());
-                        }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error deleting photo: " + photo.getName(), e);
-                    }
-                }
-
-                // Clear photo cache
-                cachedPhotosList.clear();
-                lastPhotoSearchTime = 0;
-
-                // Update stats
-                updateStats();
-
-                // Show result
-                if (deletedCount > 0) {
-                    Toast.makeText(this, "✅ Deleted " + deletedCount + " photos", Toast.LENGTH_SHORT).show();
-                } else {
-                    Toast.makeText(this, "❌ No photos were deleted", Toast.LENGTH_SHORT).show();
-                }
-
-                // Close the photos list dialog if it's open
-                if (currentPhotosListDialog != null && currentPhotosListDialog.isShowing()) {
-                    currentPhotosListDialog.dismiss();
-                    currentPhotosListDialog = null;
-                }
-            })
-            .setNegativeButton("Cancel", null)
-            .show();
-    }
+    private void loadMoreCloudPhotos() {
+        CloudPhotoIndex.CloudPhoto after = cloudPhotos.isEmpty() ? null : cloudPhotos.get(cloudPhotos.size() - 1);
+        List<CloudPhotoIndex.CloudPhoto> page = CloudPhotoMirror.getInstance(this).queryPage(after, CLOUD_PAGE_SIZE);
+        cloudPhotos.addAll(page);
+        cloudPhotosEndReached = page.size() < CLOUD_PAGE_SIZE;
+        Log.d(TAG, "✅ Loaded " + page.size() + " cloud photos");
 
-    /**
-     * Delete a single photo with confirmation
-     */
-    private void deletePhoto(File photoFile, Runnable onDeleted) {
-        if (photoFile == null || !photoFile.exists()) {
-            Toast.makeText(this, "Photo file not found", Toast.LENGTH_SHORT).show();
-            return;
+        if (!isFinishing() && !isDestroyed()) {
+            isShowingCloudPhotos = true;
+            showCloudPhotosListForAdmin();
         }
-
-        // Show confirmation dialog
-        new AlertDialog.Builder(this)
-            .setTitle("🗑️ Delete Photo")
-            .setMessage("Are you sure you want to delete this photo?\n\n" + photoFile.getName())
-            .setPositiveButton("Delete", (dialog, which) -> {
-                try {
-                    if (photoFile.delete()) {
-                        Log.d(TAG, "Deleted photo: " + photoFile.getName());
-                        Toast.makeText(this, "✅ Photo deleted", Toast.LENGTH_SHORT).show();
-
-                        // Clear photo cache
-                        cachedPhotosList.clear();
-                        lastPhotoSearchTime = 0;
-
-                        // Update stats
-                        updateStats();
-
-                        // Call the callback if provided
-                        if (onDeleted != null) {
-                            onDeleted.run();
-                        }
-                    } else {
-                        Toast.makeText(this, "❌ Failed to delete photo", Toast.LENGTH_SHORT).show();
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG, "Error deleting photo: " + photoFile.getName(), e);
-                    Toast.makeText(this, "❌ Error deleting photo: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                }
-            })
-            .setNegativeButton("Cancel", null)
-            .show();
     }
 
     /**
-     * Share a photo using system share intent
-     */
-    private void sharePhoto(File photoFile) {
-        if (photoFile == null || !photoFile.exists()) {
-            Toast.makeText(this, "Photo file not found", Toast.LENGTH_SHORT).show();
-            return;
-        }
-
-        try {
-            // Create a content URI for the photo using FileProvider
-            android.net.Uri photoUri = androidx.core.content.FileProvider.getUriForFile(
-                this,
-                getApplicationContext().getPackageName() + ".fileprovider",
-                photoFile
-            );
-
-            // Create share intent
-            Intent shareIntent = new Intent(Intent.ACTION_SEND);
-            shareIntent.setType("image/jpeg");
-            shareIntent.putExtra(Intent.EXTRA_STREAM, photoUri);
-            shareIntent.putExtra(Intent.EXTRA_SUBJECT, "Intruder Photo");
-            shareIntent.putExtra(Intent.EXTRA_TEXT, "Intruder photo captured by Security App");
-
-            // Grant temporary read permission
-            shareIntent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
-
-            // Create chooser
-            Intent chooser = Intent.createChooser(shareIntent, "Share Intruder Photo");
-
-            // Check if there are apps that can handle this intent
-            if (shareIntent.resolveActivity(getPackageManager()) != null) {
-                startActivity(chooser);
-                Log.d(TAG, "Photo share intent launched for: " + photoFile.getName());
-            } else {
-                Toast.makeText(this, "No apps available to share photos", Toast.LENGTH_SHORT).show();
-            }
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error sharing photo: " + photoFile.getName(), e);
-            Toast.makeText(this, "❌ Error sharing photo: " + e.getMessage(), Toast.LENGTH_LONG).show();
-        }
-    }
-
-    /**
-     * View security photos in a dialog with options
+     * Open the photo gallery
      */
     private void viewSecurityPhotos() {
-        File[] photos = findAllSecurityPhotos();
-
-        if (photos == null || photos.length == 0) {
+        if (PhotoIndex.getStats(this).count == 0) {
             Toast.makeText(this, "No intruder photos found", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        // Sort photos by modification date (newest first)
-        java.util.Arrays.sort(photos, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
-
-        AlertDialog.Builder builder = new AlertDialog.Builder(this);
-        builder.setTitle("Intruder Photos (" + photos.length + ")");
-
-        // Create a custom view with image previews
-        LinearLayout photoListContainer = new LinearLayout(this);
-        photoListContainer.setOrientation(LinearLayout.VERTICAL);
-        photoListContainer.setPadding(16, 16, 16, 16);
-
-        ScrollView scrollView = new ScrollView(this);
-        scrollView.addView(photoListContainer);
-
-        // Add each photo as a preview item
-        for (int i = 0; i < Math.min(photos.length, 20); i++) { // Limit to 20 for performance
-            File photo = photos[i];
-            LinearLayout photoItem = createPhotoPreviewItem(photo, i);
-            photoItem.setOnClickListener(v -> {
-                builder.create().dismiss();
-                showPhotoDialog(photo);
-            });
-            photoListContainer.addView(photoItem);
-        }
-
-        // If there are more than 20 photos, add a note
-        if (photos.length > 20) {
-            TextView moreText = new TextView(this);
-            moreText.setText("... and " + (photos.length - 20) + " more photos");
-            moreText.setTextColor(getResources().getColor(R.color.bw_secondary_text, null));
-            moreText.setPadding(16, 8, 16, 8);
-            moreText.setGravity(android.view.Gravity.CENTER);
-            photoListContainer.addView(moreText);
-        }
-
-        builder.setView(scrollView);
-
-        // Add management buttons
-        builder.setPositiveButton("Stats", (dialog, which) -> {
-            showPhotoStatistics(photos);
-        });
-
-        builder.setNeutralButton("Delete All", (dialog, which) -> deleteAllPhotos());
-
-        builder.setNegativeButton("Close", null);
-
-        currentPhotosListDialog = builder.create();
-        currentPhotosListDialog.show();
-    }
-
-    /**
-     * Create a photo preview item with thumbnail and details
-     */
-    private LinearLayout createPhotoPreviewItem(File photoFile, int index) {
-        LinearLayout itemLayout = new LinearLayout(this);
-        itemLayout.setOrientation(LinearLayout.HORIZONTAL);
-        itemLayout.setPadding(8, 8, 8, 8);
-        itemLayout.setBackgroundColor(getResources().getColor(R.color.bw_surface, null));
-
-        // Add margin between items
-        LinearLayout.LayoutParams layoutParams = new LinearLayout.LayoutParams(
-            LinearLayout.LayoutParams.MATCH_PARENT,
-            LinearLayout.LayoutParams.WRAP_CONTENT);
-        layoutParams.setMargins(0, 0, 0, 8);
-        itemLayout.setLayoutParams(layoutParams);
-
-        // Add ripple effect
-        itemLayout.setBackground(ContextCompat.getDrawable(this, android.R.drawable.list_selector_background));
-        itemLayout.setClickable(true);
-        itemLayout.setFocusable(true);
-
-        try {
-            // Create thumbnail
-            ImageView thumbnail = new ImageView(this);
-            LinearLayout.LayoutParams thumbParams = new LinearLayout.LayoutParams(80, 80);
-            thumbParams.setMargins(0, 0, 16, 0);
-            thumbnail.setLayoutParams(thumbParams);
-            thumbnail.setScaleType(ImageView.ScaleType.CENTER_CROP);
-
-            // Load thumbnail bitmap
-            Bitmap thumbnailBitmap = createThumbnail(photoFile, 80);
-            if (thumbnailBitmap != null) {
-                thumbnail.setImageBitmap(thumbnailBitmap);
-            } else {
-                // Fallback to default image icon
-                thumbnail.setImageResource(android.R.drawable.ic_menu_gallery);
-                thumbnail.setColorFilter(getResources().getColor(R.color.bw_accent, null));
-            }
-
-            itemLayout.addView(thumbnail);
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error creating thumbnail for " + photoFile.getName(), e);
-            // Add placeholder icon
-            ImageView placeholder = new ImageView(this);
-            LinearLayout.LayoutParams placeholderParams = new LinearLayout.LayoutParams(80, 80);
-            placeholderParams.setMargins(0, 0, 16, 0);
-            placeholder.setLayoutParams(placeholderParams);
-            placeholder.setImageResource(android.R.drawable.ic_menu_gallery);
-            placeholder.setColorFilter(getResources().getColor(R.color.bw_accent, null));
-            itemLayout.addView(placeholder);
-        }
-
-        // Create text container
-        LinearLayout textContainer = new LinearLayout(this);
-        textContainer.setOrientation(LinearLayout.VERTICAL);
-        textContainer.setLayoutParams(new LinearLayout.LayoutParams(
-            0, LinearLayout.LayoutParams.WRAP_CONTENT, 1.0f));
-
-        // Photo name
-        TextView nameText = new TextView(this);
-        nameText.setText(photoFile.getName());
-        nameText.setTextSize(16);
-        nameText.setTextColor(getResources().getColor(R.color.bw_primary_text, null));
-        nameText.setTypeface(null, android.graphics.Typeface.BOLD);
-        nameText.setMaxLines(1);
-        nameText.setEllipsize(android.text.TextUtils.TruncateAt.END);
-        textContainer.addView(nameText);
-
-        // Date and size
-        String date = new java.text.SimpleDateFormat("dd/MM/yy HH:mm", java.util.Locale.getDefault())
-            .format(new java.util.Date(photoFile.lastModified()));
-        long sizeKB = photoFile.length() / 1024;
-
-        TextView detailsText = new TextView(this);
-        detailsText.setText(date + " • " + sizeKB + " KB");
-        detailsText.setTextSize(14);
-        detailsText.setTextColor(getResources().getColor(R.color.bw_secondary_text, null));
-        textContainer.addView(detailsText);
-
-        itemLayout.addView(textContainer);
-
-        return itemLayout;
-    }
-
-    /**
-     * Create a thumbnail bitmap from photo file with correct orientation
-     */
-    private Bitmap createThumbnail(File photoFile, int size) {
-        try {
-            // First, decode with inSampleSize to reduce memory usage
-            BitmapFactory.Options options = new BitmapFactory.Options();
-            options.inJustDecodeBounds = true;
-            BitmapFactory.decodeFile(photoFile.getAbsolutePath(), options);
-
-            // Calculate inSampleSize
-            options.inSampleSize = calculateInSampleSize(options, size, size);
-            options.inJustDecodeBounds = false;
-
-            Bitmap bitmap = BitmapFactory.decodeFile(photoFile.getAbsolutePath(), options);
-            if (bitmap == null) return null;
-
-            // Apply rotation correction based on EXIF data
-            bitmap = applyRotationCorrection(bitmap, photoFile);
-
-            // Scale to exact thumbnail size
-            Bitmap thumbnail = Bitmap.createScaledBitmap(bitmap, size, size, true);
-
-            // Recycle original if different
-            if (thumbnail != bitmap) {
-                bitmap.recycle();
-            }
-
-            return thumbnail;
-        } catch (Exception e) {
-            Log.e(TAG, "Error creating thumbnail for " + photoFile.getName(), e);
-            return null;
-        }
-    }
-
-    /**
-     * Apply rotation correction to bitmap based on EXIF data
-     */
-    private Bitmap applyRotationCorrection(Bitmap originalBitmap, File photoFile) {
-        try {
-            // Read EXIF data to get orientation
-            androidx.exifinterface.media.ExifInterface exifInterface =
-                new androidx.exifinterface.media.ExifInterface(photoFile.getAbsolutePath());
-
-            int orientation = exifInterface.getAttributeInt(
-                androidx.exifinterface.media.ExifInterface.TAG_ORIENTATION,
-                androidx.exifinterface.media.ExifInterface.ORIENTATION_NORMAL);
-
-            // Calculate rotation angle based on EXIF orientation
-            int rotationAngle = 0;
-            switch (orientation) {
-                case androidx.exifinterface.media.ExifInterface.ORIENTATION_ROTATE_90:
-                    rotationAngle = 90;
-                    break;
-                case androidx.exifinterface.media.ExifInterface.ORIENTATION_ROTATE_180:
-                    rotationAngle = 180;
-                    break;
-                case androidx.exifinterface.media.ExifInterface.ORIENTATION_ROTATE_270:
-                    rotationAngle = 270;
-                    break;
-                case androidx.exifinterface.media.ExifInterface.ORIENTATION_NORMAL:
-                default:
-                    rotationAngle = 0;
-                    break;
-            }
-
-            // If no rotation needed, return original bitmap
-            if (rotationAngle == 0) {
-                return originalBitmap;
-            }
-
-            // Create rotation matrix
-            Matrix matrix = new Matrix();
-            matrix.postRotate(rotationAngle);
-
-            // Apply rotation
-            Bitmap rotatedBitmap = Bitmap.createBitmap(
-                originalBitmap, 0, 0,
-                originalBitmap.getWidth(), originalBitmap.getHeight(),
-                matrix, true);
-
-            // Recycle original bitmap to free memory
-            if (rotatedBitmap != originalBitmap) {
-                originalBitmap.recycle();
-            }
-
-            return rotatedBitmap;
-        } catch (Exception e) {
-            Log.e(TAG, "Error applying rotation correction", e);
-            return originalBitmap; // Return original on error
-        }
-    }
-
-    /**
-     * Calculate sample size for bitmap loading
-     */
-    private int calculateInSampleSize(BitmapFactory.Options options, int reqWidth, int reqHeight) {
-        final int height = options.outHeight;
-        final int width = options.outWidth;
-        int inSampleSize = 1;
-
-        if (height > reqHeight || width > reqWidth) {
-            final int halfHeight = height / 2;
-            final int halfWidth = width / 2;
-
-            while ((halfHeight / inSampleSize) >= reqHeight
-                    && (halfWidth / inSampleSize) >= reqWidth) {
-                inSampleSize *= 2;
-            }
-        }
-
-        return inSampleSize;
-    }
-
-    /**
-     * Show detailed photo statistics
-     */
-    private void showPhotoStatistics(File[] photos) {
-        if (photos == null || photos.length == 0) {
-            Toast.makeText(this, "No photos to analyze", Toast.LENGTH_SHORT).show();
-            return;
-        }
-
-        long totalSize = 0;
-        File oldestPhoto = photos[0];
-        File newestPhoto = photos[0];
-
-        for (File photo : photos) {
-            totalSize += photo.length();
-            if (photo.lastModified() < oldestPhoto.lastModified()) {
-                oldestPhoto = photo;
-            }
-            if (photo.lastModified() > newestPhoto.lastModified()) {
-                newestPhoto = photo;
-            }
-        }
-
-        String oldestDate = new java.text.SimpleDateFormat("dd/MM/yyyy HH:mm", java.util.Locale.getDefault())
-            .format(new java.util.Date(oldestPhoto.lastModified()));
-        String newestDate = new java.text.SimpleDateFormat("dd/MM/yyyy HH:mm", java.util.Locale.getDefault())
-            .format(new java.util.Date(newestPhoto.lastModified()));
-
-        long totalSizeKB = totalSize / 1024;
-        double averageSizeKB = photos.length > 0 ? (double)totalSizeKB / photos.length : 0;
-
-        StringBuilder stats = new StringBuilder();
-        stats.append("PHOTO STATISTICS\n\n");
-        stats.append("Total Photos: ").append(photos.length).append("\n");
-        stats.append("Total Size: ").append(totalSizeKB).append(" KB\n");
-        stats.append("Average Size: ").append(String.format("%.1f", averageSizeKB)).append(" KB\n\n");
-        stats.append("Oldest Photo: ").append(oldestDate).append("\n");
-        stats.append("Newest Photo: ").append(newestDate).append("\n");
-
-        AlertDialog.Builder builder = new AlertDialog.Builder(this);
-        builder.setTitle("Photo Statistics");
-        builder.setMessage(stats.toString());
-        builder.setPositiveButton("OK", null);
-        builder.show();
-    }
-
-    /**
-     * Show individual photo in a dialog with options - FIXED: Handle image rotation properly
-     */
-    private void showPhotoDialog(File photoFile) {
-        try {
-            // Load and display the photo with proper orientation
-            Bitmap bitmap = loadBitmapWithCorrectOrientation(photoFile);
-            if (bitmap == null) {
-                Toast.makeText(this, "Failed to load photo", Toast.LENGTH_SHORT).show();
-                return;
-            }
-
-            // Create ImageView
-            ImageView imageView = new ImageView(this);
-            imageView.setImageBitmap(bitmap);
-            imageView.setAdjustViewBounds(true);
-            imageView.setScaleType(ImageView.ScaleType.FIT_CENTER);
-
-            // Create scrollable container
-            ScrollView scrollView = new ScrollView(this);
-            scrollView.addView(imageView);
-
-            // Get photo info
-            long sizeKB = photoFile.length() / 1024;
-            String date = new java.text.SimpleDateFormat("dd/MM/yyyy HH:mm:ss", java.util.Locale.getDefault())
-                .format(new java.util.Date(photoFile.lastModified()));
-
-            String title = photoFile.getName() + "\n" + sizeKB + " KB - " + date;
-
-            AlertDialog photoDialog = new AlertDialog.Builder(this)
-                .setTitle("Intruder Photo")
-                .setMessage(title)
-                .setView(scrollView)
-                .setPositiveButton("Delete", (dialog, which) -> {
-                    deletePhoto(photoFile, () -> {
-                        // Refresh the photos list if it's still showing
-                        if (currentPhotosListDialog != null && currentPhotosListDialog.isShowing()) {
-                            currentPhotosListDialog.dismiss();
-                            viewSecurityPhotos(); // Reopen with updated list
-                        }
-                    });
-                })
-                .setNeutralButton("Share", (dialog, which) -> {
-                    sharePhoto(photoFile);
-                })
-                .setNegativeButton("Close", null)
-                .create();
-
-            photoDialog.show();
-
-            // Adjust dialog size
-            photoDialog.getWindow().setLayout(
-                LinearLayout.LayoutParams.MATCH_PARENT,
-                LinearLayout.LayoutParams.WRAP_CONTENT
-            );
-
-        } catch (Exception e) {
-            Toast.makeText(this, "Error loading photo: " + e.getMessage(), Toast.LENGTH_LONG).show();
-            Log.e(TAG, "Error showing photo dialog", e);
-        }
-    }
-
-    /**
-     * Load bitmap with correct orientation based on EXIF data
-     */
-    private Bitmap loadBitmapWithCorrectOrientation(File photoFile) {
-        try {
-            // First, decode the image
-            Bitmap originalBitmap = BitmapFactory.decodeFile(photoFile.getAbsolutePath());
-            if (originalBitmap == null) {
-                return null;
-            }
-
-            // Read EXIF data to get orientation
-            androidx.exifinterface.media.ExifInterface exifInterface =
-                new androidx.exifinterface.media.ExifInterface(photoFile.getAbsolutePath());
-
-            int orientation = exifInterface.getAttributeInt(
-                androidx.exifinterface.media.ExifInterface.TAG_ORIENTATION,
-                androidx.exifinterface.media.ExifInterface.ORIENTATION_NORMAL);
-
-            // Calculate rotation angle based on EXIF orientation
-            int rotationAngle = 0;
-            switch (orientation) {
-                case androidx.exifinterface.media.ExifInterface.ORIENTATION_ROTATE_90:
-                    rotationAngle = 90;
-                    break;
-                case androidx.exifinterface.media.ExifInterface.ORIENTATION_ROTATE_180:
-                    rotationAngle = 180;
-                    break;
-                case androidx.exifinterface.media.ExifInterface.ORIENTATION_ROTATE_270:
-                    rotationAngle = 270;
-                    break;
-                case androidx.exifinterface.media.ExifInterface.ORIENTATION_NORMAL:
-                default:
-                    rotationAngle = 0;
-                    break;
-            }
-
-
-            // If no rotation needed, return original bitmap
-            if (rotationAngle == 0) {
-                return originalBitmap;
-            }
-
-            // Create rotation matrix
-            Matrix matrix = new Matrix();
-            matrix.postRotate(rotationAngle);
-
-            // Apply rotation
-            Bitmap rotatedBitmap = Bitmap.createBitmap(
-                originalBitmap, 0, 0,
-                originalBitmap.getWidth(), originalBitmap.getHeight(),
-                matrix, true);
-
-            // Recycle original bitmap to free memory
-            if (rotatedBitmap != originalBitmap) {
-                originalBitmap.recycle();
-            }
-
-            Log.d(TAG, "Image rotated " + rotationAngle + " degrees for display");
-            return rotatedBitmap;
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error loading bitmap with correct orientation", e);
-
-            // Fallback: try to load without rotation
-            try {
-                return BitmapFactory.decodeFile(photoFile.getAbsolutePath());
-            } catch (Exception fallbackException) {
-                Log.e(TAG, "Fallback bitmap loading also failed", fallbackException);
-                return null;
-            }
-        }
+        startActivity(new Intent(this, PhotoGalleryActivity.class));
     }
 
     /**
@@ -2124,9 +1518,6 @@ public class MainActivity extends AppCompatActivity {
                         String photoFileName = intent.getStringExtra("photo_filename");
                         Log.d(TAG, "📸 Received photo capture broadcast: " + photoFileName);
 
-                        // Update stats immediately
-                        updateStats();
-
                         // Show brief notification that photo was captured and email sent
                         Toast.makeText(MainActivity.this,
                             "📸 Intruder photo captured\n📧 Email notification sent",
@@ -2173,54 +1564,44 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
 
-        if (cloudPhotoRefs.isEmpty()) {
+        if (cloudPhotos.isEmpty()) {
             Toast.makeText(this, "No cloud photos found", Toast.LENGTH_SHORT).show();
             return;
         }
 
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
-        builder.setTitle("☁️ Cloud Photos (" + cloudPhotoRefs.size() + ")");
+        builder.setTitle("☁️ Cloud Photos (" + cloudPhotos.size() +
+            (cloudPhotosEndReached ? "" : " of " + currentCloudPhotoCount) + ")");
 
         // Create list of cloud photo names
-        String[] photoNames = new String[cloudPhotoRefs.size()];
-        for (int i = 0; i < cloudPhotoRefs.size(); i++) {
-            com.google.firebase.storage.StorageReference photoRef = cloudPhotoRefs.get(i);
-            String name = photoRef.getName();
-
-            // Try to extract timestamp from filename for better display
-            try {
-                if (name.contains("_")) {
-                    String[] parts = name.split("_");
-                    if (parts.length >= 3) {
-                        String datePart = parts[1];
-                        String timePart = parts[2].replace(".jpg", "");
-                        if (datePart.length() == 8 && timePart.length() == 6) {
-                            String formattedDate = datePart.substring(6, 8) + "/" +
-                                                 datePart.substring(4, 6) + "/" +
-                                                 datePart.substring(2, 4);
-                            String formattedTime = timePart.substring(0, 2) + ":" +
-                                                 timePart.substring(2, 4);
-                            photoNames[i] = formattedDate + " " + formattedTime + "\n" + name;
-                        } else {
-                            photoNames[i] = name;
-                        }
-                    } else {
-                        photoNames[i] = name;
-                    }
-                } else {
-                    photoNames[i] = name;
-                }
-            } catch (Exception e) {
-                photoNames[i] = name;
+        String[] photoNames = new String[cloudPhotos.size()];
+        for (int i = 0; i < cloudPhotos.size(); i++) {
+            CloudPhotoIndex.CloudPhoto photo = cloudPhotos.get(i);
+
+            // Capture time comes straight from the index document
+            if (photo.capturedAt > 0) {
+                String formattedDate = new java.text.SimpleDateFormat("dd/MM/yy HH:mm", java.util.Locale.getDefault())
+                    .format(new java.util.Date(photo.capturedAt));
+                photoNames[i] = formattedDate + "\n" + photo.name;
+            } else {
+                photoNames[i] = photo.name;
             }
         }
 
         builder.setItems(photoNames, (dialog, which) -> {
-            com.google.firebase.storage.StorageReference selectedPhotoRef = cloudPhotoRefs.get(which);
-            showCloudPhotoOptions(selectedPhotoRef);
+            showCloudPhotoOptions(cloudPhotos.get(which));
         });
 
-        builder.setNegativeButton("Close", null);
+        if (!cloudPhotosEndReached) {
+            builder.setPositiveButton("Load More", (dialog, which) -> loadMoreCloudPhotos());
+        }
+
+        builder.setNeutralButton("🗑️ Delete All", (dialog, which) -> {
+            isShowingCloudPhotos = false;
+            confirmDeleteAllCloudPhotos();
+        });
+
+        builder.setNegativeButton("Close", (dialog, which) -> isShowingCloudPhotos = false);
 
         AlertDialog dialog = builder.create();
         dialog.show();
@@ -2229,8 +1610,8 @@ public class MainActivity extends AppCompatActivity {
     /**
      * Show options for a selected cloud photo
      */
-    private void showCloudPhotoOptions(com.google.firebase.storage.StorageReference photoRef) {
-        String photoName = photoRef.getName();
+    private void showCloudPhotoOptions(CloudPhotoIndex.CloudPhoto photo) {
+        String photoName = photo.name;
 
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("☁️ " + photoName);
@@ -2240,13 +1621,13 @@ public class MainActivity extends AppCompatActivity {
         builder.setItems(options, (dialog, which) -> {
             switch (which) {
                 case 0: // Download
-                    downloadSingleCloudPhoto(photoRef);
+                    downloadSingleCloudPhoto(photo);
                     break;
                 case 1: // Delete
-                    confirmDeleteCloudPhoto(photoRef);
+                    confirmDeleteCloudPhoto(photo);
                     break;
                 case 2: // Info
-                    showCloudPhotoInfo(photoRef);
+                    showCloudPhotoInfo(photo);
                     break;
             }
         });
@@ -2258,57 +1639,53 @@ public class MainActivity extends AppCompatActivity {
     /**
      * Download a single cloud photo
      */
-    private void downloadSingleCloudPhoto(com.google.firebase.storage.StorageReference photoRef) {
+    private void downloadSingleCloudPhoto(CloudPhotoIndex.CloudPhoto photo) {
         if (!NetworkHelper.isNetworkAvailable(this)) {
             Toast.makeText(this, "❌ No internet connection", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        String fileName = photoRef.getName();
+        String fileName = photo.name;
         Toast.makeText(this, "📥 Downloading " + fileName + "...", Toast.LENGTH_SHORT).show();
 
         new Thread(() -> {
-            try {
-                // Create download location in gallery
-                File galleryDir = new File(android.os.Environment.getExternalStoragePublicDirectory(
-                    android.os.Environment.DIRECTORY_PICTURES), "GetIntruder");
-
-                if (!galleryDir.exists()) {
-                    galleryDir.mkdirs();
-                }
-
-                // Create unique filename
-                String timestamp = new java.text.SimpleDateFormat("yyyyMMdd_HHmmss", java.util.Locale.getDefault())
-                    .format(new java.util.Date());
-                String uniqueFileName = "cloud_" + timestamp + "_" + fileName;
-                File localFile = new File(galleryDir, uniqueFileName);
-
-                // Download synchronously
-                com.google.android.gms.tasks.Tasks.await(photoRef.getFile(localFile));
+            if (MediaStoreExporter.getExportedNames(this).contains(fileName)) {
+                runOnUiThread(() -> Toast.makeText(MainActivity.this, "✅ Already on device: " + fileName, Toast.LENGTH_LONG).show());
+                return;
+            }
 
-                // Add to gallery
-                Intent mediaScanIntent = new Intent(Intent.ACTION_MEDIA_SCANNER_SCAN_FILE);
-                mediaScanIntent.setData(android.net.Uri.fromFile(localFile));
-                sendBroadcast(mediaScanIntent);
+            // Stage privately, then publish to Gallery → GetIntruder through MediaStore
+            CloudDownloadManager.start(java.util.Collections.singletonList(photo), MediaStoreExporter.getStagingDirectory(this),
+                new CloudDownloadManager.DownloadListener() {
+                    @Override
+                    public void onFileReady(CloudPhotoIndex.CloudPhoto readyPhoto, File file, boolean downloaded) {
+                        // Still on the download thread - export before onComplete runs
+                        MediaStoreExporter.ExportResult export = MediaStoreExporter.exportBatch(
+                            MainActivity.this, java.util.Collections.singletonList(file), true);
+                        runOnUiThread(() -> Toast.makeText(MainActivity.this,
+                            export.exported > 0 ? "✅ Downloaded: " + fileName : "❌ Could not add to gallery: " + fileName,
+                            Toast.LENGTH_LONG).show());
+                    }
 
-                runOnUiThread(() -> {
-                    Toast.makeText(this, "✅ Downloaded: " + fileName, Toast.LENGTH_LONG).show();
-                });
+                    @Override
+                    public void onProgress(CloudDownloadManager.Progress progress) {
+                    }
 
-            } catch (Exception e) {
-                Log.e(TAG, "Error downloading cloud photo", e);
-                runOnUiThread(() -> {
-                    Toast.makeText(this, "❌ Download failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                    @Override
+                    public void onComplete(CloudDownloadManager.Progress progress) {
+                        if (progress.failed > 0) {
+                            Toast.makeText(MainActivity.this, "❌ Download failed: " + fileName, Toast.LENGTH_LONG).show();
+                        }
+                    }
                 });
-            }
-        }).start();
+        }, "GalleryExport").start();
     }
 
     /**
      * Confirm deletion of cloud photo
      */
-    private void confirmDeleteCloudPhoto(com.google.firebase.storage.StorageReference photoRef) {
-        String fileName = photoRef.getName();
+    private void confirmDeleteCloudPhoto(CloudPhotoIndex.CloudPhoto photo) {
+        String fileName = photo.name;
 
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("🗑️ Delete Cloud Photo");
@@ -2316,7 +1693,32 @@ public class MainActivity extends AppCompatActivity {
                           fileName + "\n\n⚠️ This cannot be undone!");
 
         builder.setPositiveButton("Delete", (dialog, which) -> {
-            deleteCloudPhoto(photoRef);
+            deleteCloudPhoto(photo);
+        });
+
+        builder.setNegativeButton("Cancel", null);
+        builder.show();
+    }
+
+    /**
+     * Confirm deletion of every cloud photo (runs as a background bulk delete)
+     */
+    private void confirmDeleteAllCloudPhotos() {
+        if (BulkDeleteJob.isRunning()) {
+            Toast.makeText(this, "Deletion already in progress", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("⚠️ Delete All Cloud Photos");
+        builder.setMessage("Are you sure you want to delete all " + currentCloudPhotoCount +
+                          " photos from cloud storage?\n\n⚠️ This cannot be undone!");
+
+        builder.setPositiveButton("Delete All", (dialog, which) -> {
+            PhotoActions.runBulkDelete(this, BulkDeleteJob.TARGET_CLOUD, false, () -> {
+                cloudPhotos.clear();
+                currentCloudPhotoCount = CloudPhotoMirror.getInstance(this).getCount();
+            });
         });
 
         builder.setNegativeButton("Cancel", null);
@@ -2326,17 +1728,30 @@ public class MainActivity extends AppCompatActivity {
     /**
      * Delete cloud photo
      */
-    private void deleteCloudPhoto(com.google.firebase.storage.StorageReference photoRef) {
-        String fileName = photoRef.getName();
+    private void deleteCloudPhoto(CloudPhotoIndex.CloudPhoto photo) {
+        String fileName = photo.name;
         Toast.makeText(this, "🗑️ Deleting " + fileName + "...", Toast.LENGTH_SHORT).show();
 
-        photoRef.delete()
+        photo.getStorageReference().delete()
             .addOnSuccessListener(aVoid -> {
                 Log.d(TAG, "✅ Cloud photo deleted: " + fileName);
                 Toast.makeText(this, "✅ Deleted: " + fileName, Toast.LENGTH_SHORT).show();
+                CloudPhotoIndex.recordDelete(this, fileName);
+                CloudPhotoMirror.recordDelete(this, fileName);
+
+                // Keep a local copy from being uploaded again by the next backup
+                SharedPreferences.Editor editor = getSharedPreferences("security_app", MODE_PRIVATE).edit();
+                BackupReconciler.markDeletedFromCloud(editor, fileName);
+                editor.apply();
+
+                // Best effort: a leftover preview is invisible without its index entry
+                if (photo.thumbnailPath != null) {
+                    FirebaseStorage.getInstance().getReference().child(photo.thumbnailPath).delete()
+                        .addOnFailureListener(e -> Log.w(TAG, "Could not delete preview of " + fileName));
+                }
 
                 // Remove from local list
-                cloudPhotoRefs.remove(photoRef);
+                cloudPhotos.remove(photo);
                 currentCloudPhotoCount--;
             })
             .addOnFailureListener(exception -> {
@@ -2346,43 +1761,37 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * Show cloud photo information
+     * Show cloud photo information from the index document (no metadata request)
      */
-    private void showCloudPhotoInfo(com.google.firebase.storage.StorageReference photoRef) {
-        String fileName = photoRef.getName();
-        Toast.makeText(this, "📊 Loading photo info...", Toast.LENGTH_SHORT).show();
-
-        photoRef.getMetadata()
-            .addOnSuccessListener(metadata -> {
-                StringBuilder info = new StringBuilder();
-                info.append("📁 Name: ").append(fileName).append("\n\n");
-
-                if (metadata.getSizeBytes() > 0) {
-                    long sizeKB = metadata.getSizeBytes() / 1024;
-                    info.append("💾 Size: ").append(sizeKB).append(" KB\n\n");
-                }
+    private void showCloudPhotoInfo(CloudPhotoIndex.CloudPhoto photo) {
+        StringBuilder info = new StringBuilder();
+        info.append("📁 Name: ").append(photo.name).append("\n\n");
 
-                if (metadata.getCreationTimeMillis() != 0) {
-                    String uploadTime = new java.text.SimpleDateFormat("dd/MM/yyyy HH:mm:ss", java.util.Locale.getDefault())
-                        .format(new java.util.Date(metadata.getCreationTimeMillis()));
-                    info.append("📅 Uploaded: ").append(uploadTime).append("\n\n");
-                }
+        if (photo.size > 0) {
+            long sizeKB = photo.size / 1024;
+            info.append("💾 Size: ").append(sizeKB).append(" KB\n\n");
+        }
 
-                if (metadata.getCustomMetadata("deviceModel") != null) {
-                    info.append("📱 Device: ").append(metadata.getCustomMetadata("deviceModel")).append("\n\n");
-                }
+        if (photo.capturedAt > 0) {
+            String captureTime = new java.text.SimpleDateFormat("dd/MM/yyyy HH:mm:ss", java.util.Locale.getDefault())
+                .format(new java.util.Date(photo.capturedAt));
+            info.append("📅 Captured: ").append(captureTime).append("\n\n");
+        }
 
-                info.append("🌐 Path: ").append(photoRef.getPath());
+        if (photo.device != null) {
+            info.append("📱 Device: ").append(photo.device).append("\n\n");
+        }
 
-                AlertDialog.Builder builder = new AlertDialog.Builder(this);
-                builder.setTitle("ℹ️ Photo Information");
-                builder.setMessage(info.toString());
-                builder.setPositiveButton("OK", null);
-                builder.show();
-            })
-            .addOnFailureListener(exception -> {
-                Log.e(TAG, "Failed to get photo metadata", exception);
-                Toast.makeText(this, "❌ Failed to load photo info", Toast.LENGTH_SHORT).show();
-            });
+        if (photo.md5Hash != null) {
+            info.append("🔑 MD5: ").append(photo.md5Hash).append("\n\n");
+        }
+
+        info.append("🌐 Path: ").append(photo.storagePath);
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("ℹ️ Photo Information");
+        builder.setMessage(info.toString());
+        builder.setPositiveButton("OK", null);
+        builder.show();
     }
 }
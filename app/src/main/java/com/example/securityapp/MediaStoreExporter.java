@@ -0,0 +1,232 @@
+package com.example.securityapp;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.media.MediaScannerConnection;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Environment;
+import android.provider.MediaStore;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Exports photos into the shared gallery album Pictures/GetIntruder.
+ *
+ * On Android 10+ each batch is inserted into MediaStore as pending rows with one
+ * applyBatch call, the bytes are streamed into the returned URIs, and a second
+ * applyBatch clears IS_PENDING for the whole batch - the gallery sees all of it
+ * at once and no storage permission or media scanner is involved. Older
+ * versions copy into the public album and scan the whole batch in one call.
+ */
+public class MediaStoreExporter {
+    private static final String TAG = "MediaStoreExporter";
+    public static final String ALBUM_NAME = "GetIntruder";
+    private static final String STAGING_DIR_NAME = "cloud_downloads";
+    private static final int BATCH_SIZE = 100;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String MIME_TYPE = "image/jpeg";
+
+    /**
+     * Outcome of an export
+     */
+    public static class ExportResult {
+        public final int exported;
+        public final int failed;
+
+        ExportResult(int exported, int failed) {
+            this.exported = exported;
+            this.failed = failed;
+        }
+    }
+
+    /**
+     * App-private directory where downloads are staged (and resumed) before export
+     */
+    public static File getStagingDirectory(Context context) {
+        File dir = new File(context.getFilesDir(), STAGING_DIR_NAME);
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        return dir;
+    }
+
+    /**
+     * Display names already in the gallery album, used to skip photos exported before
+     */
+    public static Set<String> getExportedNames(Context context) {
+        Set<String> names = new HashSet<>();
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                try (Cursor cursor = context.getContentResolver().query(getCollection(),
+                        new String[]{MediaStore.Images.Media.DISPLAY_NAME},
+                        MediaStore.Images.Media.RELATIVE_PATH + " = ?", new String[]{getRelativePath()}, null)) {
+                    while (cursor != null && cursor.moveToNext()) {
+                        names.add(cursor.getString(0));
+                    }
+                }
+            } else {
+                String[] files = getLegacyAlbumDirectory().list();
+                if (files != null) {
+                    for (String name : files) {
+                        names.add(name);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading exported photo names", e);
+        }
+        return names;
+    }
+
+    /**
+     * Export files to the gallery album (call off the UI thread).
+     * Successfully exported source files are deleted when deleteSources is set.
+     */
+    public static ExportResult exportBatch(Context context, List<File> files, boolean deleteSources) {
+        int exported = 0;
+        int failed = 0;
+        for (int start = 0; start < files.size(); start += BATCH_SIZE) {
+            List<File> batch = files.subList(start, Math.min(start + BATCH_SIZE, files.size()));
+            List<File> done = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                ? exportToMediaStore(context, batch)
+                : exportToLegacyAlbum(context, batch);
+
+            exported += done.size();
+            failed += batch.size() - done.size();
+            if (deleteSources) {
+                for (File file : done) {
+                    file.delete();
+                }
+            }
+        }
+
+        Log.d(TAG, "✅ Exported " + exported + " photos to the gallery" + (failed > 0 ? " (" + failed + " failed)" : ""));
+        return new ExportResult(exported, failed);
+    }
+
+    /**
+     * Pending insert of the whole batch, stream each file, then publish the batch in one update
+     */
+    private static List<File> exportToMediaStore(Context context, List<File> batch) {
+        ContentResolver resolver = context.getContentResolver();
+        List<File> done = new ArrayList<>();
+
+        ArrayList<ContentProviderOperation> inserts = new ArrayList<>();
+        for (File file : batch) {
+            long captureTime = PhotoIdGenerator.getCaptureTime(file.getName());
+            inserts.add(ContentProviderOperation.newInsert(getCollection())
+                .withValue(MediaStore.Images.Media.DISPLAY_NAME, file.getName())
+                .withValue(MediaStore.Images.Media.MIME_TYPE, MIME_TYPE)
+                .withValue(MediaStore.Images.Media.RELATIVE_PATH, getRelativePath())
+                .withValue(MediaStore.Images.Media.DATE_TAKEN, captureTime > 0 ? captureTime : file.lastModified())
+                .withValue(MediaStore.Images.Media.IS_PENDING, 1)
+                .build());
+        }
+
+        ContentProviderResult[] results;
+        try {
+            results = resolver.applyBatch(MediaStore.AUTHORITY, inserts);
+        } catch (Exception e) {
+            Log.e(TAG, "Error inserting pending gallery rows", e);
+            return done;
+        }
+
+        ArrayList<ContentProviderOperation> publish = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Uri uri = results[i].uri;
+            if (uri == null) continue;
+
+            File file = batch.get(i);
+            try (OutputStream output = resolver.openOutputStream(uri);
+                 InputStream input = new FileInputStream(file)) {
+                if (output == null) throw new IOException("No output stream for " + uri);
+                copy(input, output);
+                publish.add(ContentProviderOperation.newUpdate(uri)
+                    .withValue(MediaStore.Images.Media.IS_PENDING, 0)
+                    .build());
+                done.add(file);
+            } catch (Exception e) {
+                Log.e(TAG, "Error writing " + file.getName() + " to the gallery", e);
+                publish.add(ContentProviderOperation.newDelete(uri).build());
+            }
+        }
+
+        try {
+            resolver.applyBatch(MediaStore.AUTHORITY, publish);
+        } catch (Exception e) {
+            Log.e(TAG, "Error publishing gallery batch", e);
+            done.clear();
+        }
+        return done;
+    }
+
+    /**
+     * Pre-Android 10: copy into the public album and scan the whole batch with one call
+     */
+    private static List<File> exportToLegacyAlbum(Context context, List<File> batch) {
+        File albumDir = getLegacyAlbumDirectory();
+        if (!albumDir.exists() && !albumDir.mkdirs()) {
+            Log.e(TAG, "Could not create gallery album directory");
+            return new ArrayList<>();
+        }
+
+        List<File> done = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        for (File file : batch) {
+            File target = new File(albumDir, file.getName());
+            try (InputStream input = new FileInputStream(file);
+                 OutputStream output = new FileOutputStream(target)) {
+                copy(input, output);
+                done.add(file);
+                paths.add(target.getAbsolutePath());
+            } catch (Exception e) {
+                Log.e(TAG, "Error copying " + file.getName() + " to the gallery", e);
+                target.delete();
+            }
+        }
+
+        if (!paths.isEmpty()) {
+            String[] mimeTypes = new String[paths.size()];
+            java.util.Arrays.fill(mimeTypes, MIME_TYPE);
+            MediaScannerConnection.scanFile(context, paths.toArray(new String[0]), mimeTypes, null);
+        }
+        return done;
+    }
+
+    private static void copy(InputStream input, OutputStream output) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            output.write(buffer, 0, read);
+        }
+    }
+
+    private static Uri getCollection() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+            ? MediaStore.Images.Media.getContentUri(MediaStore.VOLUME_EXTERNAL_PRIMARY)
+            : MediaStore.Images.Media.EXTERNAL_CONTENT_URI;
+    }
+
+    private static String getRelativePath() {
+        return Environment.DIRECTORY_PICTURES + File.separator + ALBUM_NAME + File.separator;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static File getLegacyAlbumDirectory() {
+        return new File(Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_PICTURES), ALBUM_NAME);
+    }
+}
@@ -12,6 +12,7 @@ public class NetworkHelper {
     private static final String TAG = "NetworkHelper";
     private static boolean isNetworkConnected = false;
     private static boolean isWifiConnected = false;
+    private static boolean isUnmeteredConnected = false;
     private static ConnectivityManager.NetworkCallback networkCallback;
     private static ConnectivityManager connectivityManager;
 
@@ -21,6 +22,7 @@ public class NetworkHelper {
 
             connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
             if (connectivityManager == null) return;
+            final Context appContext = context.getApplicationContext();
 
             // Check initial network state
             updateNetworkStatus(connectivityManager);
@@ -30,18 +32,24 @@ public class NetworkHelper {
                 networkCallback = new ConnectivityManager.NetworkCallback() {
                     @Override
                     public void onAvailable(Network network) {
+                        boolean wasConnected = isNetworkConnected;
                         isNetworkConnected = true;
                         updateWifiStatus(connectivityManager);
                         Log.d(TAG, "Network connected: WiFi=" + isWifiConnected);
 
-                        // Network is now available - removed call to non-existent method
-                        // FirebaseHelper.retryPendingOperations(context);
+                        // Back online - pull cloud changes made while we were offline
+                        // and push the uploads queued meanwhile
+                        if (!wasConnected) {
+                            CloudPhotoMirror.syncAsync(appContext);
+                            CloudBackupService.onNetworkAvailable(appContext);
+                        }
                     }
 
                     @Override
                     public void onLost(Network network) {
                         isNetworkConnected = false;
                         isWifiConnected = false;
+                        updateUnmeteredStatus(connectivityManager);
                         Log.d(TAG, "Network disconnected");
                     }
 
@@ -53,6 +61,14 @@ public class NetworkHelper {
                         if (oldWifiState != isWifiConnected) {
                             Log.d(TAG, "WiFi status changed: " + isWifiConnected);
                         }
+
+                        // Originals held back on a metered link can go now. Every network with internet
+                        // reports here (e.g. mobile data behind Wi-Fi), so judge the default network only
+                        boolean wasUnmetered = isUnmeteredConnected;
+                        updateUnmeteredStatus(connectivityManager);
+                        if (isUnmeteredConnected && !wasUnmetered) {
+                            CloudBackupService.onNetworkAvailable(appContext);
+                        }
                     }
                 };
 
@@ -100,11 +116,26 @@ public class NetworkHelper {
 
             isWifiConnected = capabilities != null &&
                     capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI);
+
+            updateUnmeteredStatus(cm);
         } catch (Exception e) {
             Log.e(TAG, "Error checking network status", e);
         }
     }
 
+    /**
+     * Track whether the default network (the one uploads actually use) is unmetered
+     */
+    private static void updateUnmeteredStatus(ConnectivityManager cm) {
+        if (cm == null) return;
+
+        try {
+            isUnmeteredConnected = cm.getActiveNetwork() != null && !cm.isActiveNetworkMetered();
+        } catch (Exception e) {
+            Log.e(TAG, "Error checking metered status", e);
+        }
+    }
+
     private static void updateWifiStatus(ConnectivityManager cm) {
         if (cm == null) return;
 
@@ -168,6 +199,20 @@ public class NetworkHelper {
         }
     }
 
+    /**
+     * Whether the active network is unmetered (Wi-Fi, Ethernet, unlimited plans); always asks the
+     * system, since the callback also hears from networks that aren't the default
+     */
+    public static boolean isUnmeteredConnection(Context context) {
+        try {
+            ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+            return cm != null && cm.getActiveNetwork() != null && !cm.isActiveNetworkMetered();
+        } catch (Exception e) {
+            Log.e(TAG, "Error checking metered status", e);
+            return false;
+        }
+    }
+
     /**
      * Alias method for backward compatibility
      */
@@ -20,6 +20,10 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FirebaseFirestore;
 
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileWriter;
 import java.net.InetAddress;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -60,12 +64,60 @@ public class OTPService extends Service {
         Log.d(TAG, "OTPService destroyed");
     }
 
+    // ============= ALERT LOG =============
+
+    private static final String ALERT_LOG_FILE = "alert_log.jsonl";
+    private static final long MAX_ALERT_LOG_BYTES = 1024 * 1024; // Older entries roll over to alert_log.jsonl.old
+
+    /**
+     * Local log of intruder alerts, one JSON object per line (oldest first)
+     */
+    public static File getAlertLogFile(Context context) {
+        return new File(context.getFilesDir(), ALERT_LOG_FILE);
+    }
+
+    /**
+     * Append one alert outcome to the local alert log
+     */
+    private static synchronized void recordAlert(Context context, String photoFileName, boolean sent, String message) {
+        try {
+            File logFile = getAlertLogFile(context);
+            if (logFile.length() > MAX_ALERT_LOG_BYTES) {
+                File oldLog = new File(logFile.getPath() + ".old");
+                oldLog.delete();
+                logFile.renameTo(oldLog);
+            }
+
+            JSONObject entry = new JSONObject();
+            entry.put("time", System.currentTimeMillis());
+            entry.put("photo", photoFileName != null ? photoFileName : JSONObject.NULL);
+            entry.put("notificationSent", sent);
+            entry.put("message", message);
+            entry.put("device", Build.MODEL);
+
+            try (FileWriter writer = new FileWriter(logFile, true)) {
+                writer.write(entry.toString());
+                writer.write('\n');
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error writing alert log", e);
+        }
+    }
+
     // ============= INTRUDER NOTIFICATION METHODS =============
 
     /**
      * Send intruder notification email with device information
      */
-    public static void sendIntruderNotification(Context context, String photoFileName, NotificationCallback callback) {
+    public static void sendIntruderNotification(Context context, String photoFileName, NotificationCallback resultCallback) {
+        // Every outcome goes to the local alert log before reaching the caller
+        NotificationCallback callback = (success, message) -> {
+            recordAlert(context, photoFileName, success, message);
+            if (resultCallback != null) {
+                resultCallback.onResult(success, message);
+            }
+        };
+
         // Check network availability
         if (!NetworkHelper.isNetworkAvailable(context)) {
             Log.d(TAG, "Network unavailable for sending notification");
@@ -94,7 +146,7 @@ public class OTPService extends Service {
                 // Get photo download URL if photo exists
                 if (photoFileName != null && !photoFileName.isEmpty()) {
                     // Wait a bit for photo to be uploaded, then get URL with retries
-                    getPhotoDownloadUrlWithRetry(context, photoFileName, 0, new CloudBackupService.PhotoUrlCallback() {
+                    getPhotoDownloadUrlWithRetry(context, photoFileName, 0, 0, new CloudBackupService.PhotoUrlCallback() {
                         @Override
                         public void onResult(String downloadUrl, String error) {
                             try {
@@ -850,13 +902,14 @@ public class OTPService extends Service {
     }
 
     /**
-     * Get photo download URL with retry mechanism (waits for upload to complete)
+     * Get photo download URL with retry mechanism (waits for upload to complete, jittered
+     * delays from RetryPolicy.DOWNLOAD_URL; previousDelay is 0 before the first retry)
      */
-    private static void getPhotoDownloadUrlWithRetry(Context context, String photoFileName, int attempt, CloudBackupService.PhotoUrlCallback callback) {
-        final int maxAttempts = 5;
-        final long[] delays = {2000, 4000, 6000, 8000, 10000}; // 2s, 4s, 6s, 8s, 10s
+    private static void getPhotoDownloadUrlWithRetry(Context context, String photoFileName, int attempt,
+                                                     long previousDelay, CloudBackupService.PhotoUrlCallback callback) {
+        final int maxAttempts = RetryPolicy.DOWNLOAD_URL.getMaxAttempts();
 
-        if (attempt >= maxAttempts) {
+        if (!RetryPolicy.DOWNLOAD_URL.canRetry(attempt)) {
             Log.w(TAG, "Max attempts reached for photo URL retrieval: " + photoFileName);
             if (callback != null) {
                 callback.onResult(null, "Photo upload still in progress - access via app");
@@ -864,8 +917,10 @@ public class OTPService extends Service {
             return;
         }
 
-        // Wait before attempting (except first attempt)
-        long delay = attempt > 0 ? delays[Math.min(attempt - 1, delays.length - 1)] : 0;
+        // Wait before attempting (except first attempt), and while cloud storage is unhealthy
+        long delay = attempt > 0 ? RetryPolicy.DOWNLOAD_URL.nextDelay(previousDelay) : 0;
+        delay = Math.max(delay, CircuitBreaker.STORAGE.getRetryAfterMs());
+        final long attemptDelay = delay;
 
         new Handler(Looper.getMainLooper()).postDelayed(() -> {
             Log.d(TAG, "Attempting to get photo URL, attempt " + (attempt + 1) + "/" + maxAttempts);
@@ -882,7 +937,7 @@ public class OTPService extends Service {
                     } else {
                         // Failed - try again if attempts remaining
                         Log.d(TAG, "Photo URL not ready on attempt " + (attempt + 1) + ", error: " + error);
-                        getPhotoDownloadUrlWithRetry(context, photoFileName, attempt + 1, callback);
+                        getPhotoDownloadUrlWithRetry(context, photoFileName, attempt + 1, attemptDelay, callback);
                     }
                 }
             });
@@ -0,0 +1,297 @@
+package com.example.securityapp;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.util.Log;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AlertDialog;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared user actions on local security photos (open, share, export, delete, statistics)
+ */
+public class PhotoActions {
+    private static final String TAG = "PhotoActions";
+
+    /**
+     * Open a photo in the zoomable full-resolution viewer
+     */
+    public static void openPhoto(Activity activity, File photoFile) {
+        if (photoFile == null || !photoFile.exists()) {
+            Toast.makeText(activity, "Photo file not found", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        Intent intent = new Intent(activity, PhotoViewerActivity.class);
+        intent.putExtra(PhotoViewerActivity.EXTRA_PHOTO_PATH, photoFile.getAbsolutePath());
+        activity.startActivity(intent);
+    }
+
+    /**
+     * Delete a single photo with confirmation
+     */
+    public static void deletePhoto(Activity activity, File photoFile, Runnable onDeleted) {
+        if (photoFile == null || !photoFile.exists()) {
+            Toast.makeText(activity, "Photo file not found", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        // Show confirmation dialog
+        new AlertDialog.Builder(activity)
+            .setTitle("🗑️ Delete Photo")
+            .setMessage("Are you sure you want to delete this photo?\n\n" + photoFile.getName())
+            .setPositiveButton("Delete", (dialog, which) -> {
+                try {
+                    if (PhotoStorageLayout.deletePhoto(activity, photoFile)) {
+                        Log.d(TAG, "Deleted photo: " + photoFile.getName());
+                        UploadQueue.getInstance(activity).remove(Collections.singletonList(photoFile.getName()));
+                        Toast.makeText(activity, "✅ Photo deleted", Toast.LENGTH_SHORT).show();
+
+                        // Call the callback if provided
+                        if (onDeleted != null) {
+                            onDeleted.run();
+                        }
+                    } else {
+                        Toast.makeText(activity, "❌ Failed to delete photo", Toast.LENGTH_SHORT).show();
+                    }
+                } catch (Exception e) {
+                    Log.e(TAG, "Error deleting photo: " + photoFile.getName(), e);
+                    Toast.makeText(activity, "❌ Error deleting photo: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                }
+            })
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+
+    /**
+     * Delete all security photos with confirmation (runs in the background)
+     */
+    public static void deleteAllPhotos(Activity activity, Runnable onDeleted) {
+        int photoCount = PhotoIndex.getStats(activity).count;
+
+        if (photoCount == 0) {
+            Toast.makeText(activity, "No photos to delete", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (BulkDeleteJob.isRunning()) {
+            Toast.makeText(activity, "Deletion already in progress", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        // Show confirmation dialog
+        new AlertDialog.Builder(activity)
+            .setTitle("⚠️ Delete All Photos")
+            .setMessage("Are you sure you want to delete all " + photoCount + " intruder photos?\n\nThis action cannot be undone!")
+            .setPositiveButton("Delete All", (dialog, which) ->
+                runBulkDelete(activity, BulkDeleteJob.TARGET_LOCAL, false, onDeleted))
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+
+    /**
+     * Run a bulk delete job behind a progress dialog; Cancel stops it after the current batch
+     */
+    public static void runBulkDelete(Activity activity, String target, boolean resume, Runnable onDone) {
+        String what = BulkDeleteJob.TARGET_CLOUD.equals(target) ? "cloud photos" : "photos";
+        AlertDialog progressDialog = new AlertDialog.Builder(activity)
+            .setTitle("🗑️ Deleting " + what)
+            .setMessage("Preparing...")
+            .setCancelable(false)
+            .setNegativeButton("Cancel", null)
+            .create();
+
+        BulkDeleteJob.JobListener listener = new BulkDeleteJob.JobListener() {
+            @Override
+            public void onProgress(BulkDeleteJob.Progress progress) {
+                if (progressDialog.isShowing()) {
+                    progressDialog.setMessage("Deleted " + progress.getFinished() + " of " + progress.total + " " + what + "...");
+                }
+            }
+
+            @Override
+            public void onComplete(BulkDeleteJob.Progress progress) {
+                if (progressDialog.isShowing() && !activity.isFinishing()) {
+                    progressDialog.dismiss();
+                }
+
+                String result;
+                if (progress.cancelled) {
+                    result = "⏸️ Deletion paused after " + progress.deleted + " " + what + " - resume from the gallery";
+                } else if (progress.failed > 0) {
+                    result = "✅ Deleted " + progress.deleted + " " + what + ", " + progress.failed + " failed";
+                } else {
+                    result = "✅ Deleted " + progress.deleted + " " + what;
+                }
+                Toast.makeText(activity, result, Toast.LENGTH_LONG).show();
+
+                if (onDone != null) {
+                    onDone.run();
+                }
+            }
+        };
+
+        BulkDeleteJob job;
+        if (resume) {
+            job = BulkDeleteJob.resume(activity, listener);
+        } else if (BulkDeleteJob.TARGET_CLOUD.equals(target)) {
+            job = BulkDeleteJob.startCloud(activity, listener);
+        } else {
+            job = BulkDeleteJob.startLocal(activity, listener);
+        }
+
+        progressDialog.show();
+        progressDialog.getButton(AlertDialog.BUTTON_NEGATIVE).setOnClickListener(v -> {
+            job.cancel();
+            progressDialog.setMessage("Stopping after the current batch...");
+        });
+    }
+
+    /**
+     * Offer to resume a bulk delete that was cancelled or interrupted
+     */
+    public static void offerResumeBulkDelete(Activity activity) {
+        String pendingTarget = BulkDeleteJob.getPendingTarget(activity);
+        if (pendingTarget == null) return;
+
+        String what = BulkDeleteJob.TARGET_CLOUD.equals(pendingTarget) ? "cloud photos" : "photos";
+        new AlertDialog.Builder(activity)
+            .setTitle("🗑️ Unfinished Deletion")
+            .setMessage("Deleting " + what + " was interrupted. Continue deleting the remaining " + what + "?")
+            .setPositiveButton("Resume", (dialog, which) -> runBulkDelete(activity, pendingTarget, true, null))
+            .setNegativeButton("Discard", (dialog, which) -> BulkDeleteJob.discardPending(activity))
+            .show();
+    }
+
+    /**
+     * Share a photo using system share intent
+     */
+    public static void sharePhoto(Activity activity, File photoFile) {
+        if (photoFile == null || !photoFile.exists()) {
+            Toast.makeText(activity, "Photo file not found", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        try {
+            // Create a content URI for the photo using FileProvider
+            android.net.Uri photoUri = androidx.core.content.FileProvider.getUriForFile(
+                activity,
+                activity.getApplicationContext().getPackageName() + ".fileprovider",
+                photoFile
+            );
+
+            // Create share intent
+            Intent shareIntent = new Intent(Intent.ACTION_SEND);
+            shareIntent.setType("image/jpeg");
+            shareIntent.putExtra(Intent.EXTRA_STREAM, photoUri);
+            shareIntent.putExtra(Intent.EXTRA_SUBJECT, "Intruder Photo");
+            shareIntent.putExtra(Intent.EXTRA_TEXT, "Intruder photo captured by Security App");
+
+            // Grant temporary read permission
+            shareIntent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+
+            // Create chooser
+            Intent chooser = Intent.createChooser(shareIntent, "Share Intruder Photo");
+
+            // Check if there are apps that can handle this intent
+            if (shareIntent.resolveActivity(activity.getPackageManager()) != null) {
+                activity.startActivity(chooser);
+                Log.d(TAG, "Photo share intent launched for: " + photoFile.getName());
+            } else {
+                Toast.makeText(activity, "No apps available to share photos", Toast.LENGTH_SHORT).show();
+            }
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error sharing photo: " + photoFile.getName(), e);
+            Toast.makeText(activity, "❌ Error sharing photo: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        }
+    }
+
+    /**
+     * Share a ZIP of the photos in a chosen time range with manifest and alert log
+     */
+    public static void exportEvidence(Activity activity) {
+        if (PhotoIndex.getStats(activity).count == 0) {
+            Toast.makeText(activity, "No photos to export", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        String[] ranges = {"Last 24 hours", "Last 7 days", "Last 30 days", "All photos"};
+        long[] rangeMillis = {24L * 60 * 60 * 1000, 7L * 24 * 60 * 60 * 1000, 30L * 24 * 60 * 60 * 1000, 0};
+
+        new AlertDialog.Builder(activity)
+            .setTitle("📦 Export Evidence")
+            .setItems(ranges, (dialog, which) -> {
+                long since = rangeMillis[which] > 0 ? System.currentTimeMillis() - rangeMillis[which] : 0;
+                shareEvidenceBundle(activity, EvidenceExportProvider.createExportUri(activity, since));
+            })
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+
+    private static void shareEvidenceBundle(Activity activity, android.net.Uri bundleUri) {
+        try {
+            // The bundle is streamed when the receiving app reads it - nothing is written here
+            Intent shareIntent = new Intent(Intent.ACTION_SEND);
+            shareIntent.setType("application/zip");
+            shareIntent.putExtra(Intent.EXTRA_STREAM, bundleUri);
+            shareIntent.putExtra(Intent.EXTRA_SUBJECT, "Intruder Evidence");
+            shareIntent.putExtra(Intent.EXTRA_TEXT, "Intruder photos, capture manifest and alert log exported by Security App");
+            shareIntent.setClipData(android.content.ClipData.newRawUri("", bundleUri));
+            shareIntent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+
+            activity.startActivity(Intent.createChooser(shareIntent, "Share Evidence Bundle"));
+            Log.d(TAG, "Evidence bundle share launched: " + bundleUri.getLastPathSegment());
+        } catch (Exception e) {
+            Log.e(TAG, "Error sharing evidence bundle", e);
+            Toast.makeText(activity, "❌ Error exporting evidence: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        }
+    }
+
+    /**
+     * Show detailed photo statistics
+     */
+    public static void showPhotoStatistics(Activity activity) {
+        PhotoIndex.Stats photoStats = PhotoIndex.getStats(activity);
+        if (photoStats.count == 0) {
+            Toast.makeText(activity, "No photos to analyze", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        String oldestDate = new java.text.SimpleDateFormat("dd/MM/yyyy HH:mm", java.util.Locale.getDefault())
+            .format(new java.util.Date(photoStats.oldestCaptureTime));
+        String newestDate = new java.text.SimpleDateFormat("dd/MM/yyyy HH:mm", java.util.Locale.getDefault())
+            .format(new java.util.Date(photoStats.newestCaptureTime));
+
+        long totalSizeKB = photoStats.totalBytes / 1024;
+        double averageSizeKB = (double) totalSizeKB / photoStats.count;
+
+        StringBuilder stats = new StringBuilder();
+        stats.append("PHOTO STATISTICS\n\n");
+        stats.append("Total Photos: ").append(photoStats.count).append("\n");
+        stats.append("Total Size: ").append(totalSizeKB).append(" KB\n");
+        stats.append("Average Size: ").append(String.format("%.1f", averageSizeKB)).append(" KB\n\n");
+        stats.append("Oldest Photo: ").append(oldestDate).append("\n");
+        stats.append("Newest Photo: ").append(newestDate).append("\n");
+
+        // Most recent capture days
+        if (!photoStats.dayCounts.isEmpty()) {
+            stats.append("\nRecent Days:\n");
+            List<Map.Entry<String, Integer>> days = new ArrayList<>(photoStats.dayCounts.entrySet());
+            for (int i = days.size() - 1; i >= Math.max(0, days.size() - 7); i--) {
+                stats.append(days.get(i).getKey()).append(": ").append(days.get(i).getValue()).append("\n");
+            }
+        }
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(activity);
+        builder.setTitle("Photo Statistics");
+        builder.setMessage(stats.toString());
+        builder.setPositiveButton("OK", null);
+        builder.show();
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.securityapp;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.util.Log;
+
+import java.io.File;
+
+/**
+ * Bitmap decoding helpers for security photos (sampling and EXIF rotation)
+ */
+public class PhotoBitmaps {
+    private static final String TAG = "PhotoBitmaps";
+
+    /**
+     * Create a thumbnail bitmap from photo file with correct orientation
+     */
+    public static Bitmap createThumbnail(File photoFile, int size) {
+        try {
+            // First, decode with inSampleSize to reduce memory usage
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeFile(photoFile.getAbsolutePath(), options);
+
+            // Calculate inSampleSize
+            options.inSampleSize = calculateInSampleSize(options, size, size);
+            options.inJustDecodeBounds = false;
+
+            Bitmap bitmap = BitmapFactory.decodeFile(photoFile.getAbsolutePath(), options);
+            if (bitmap == null) return null;
+
+            // Apply rotation correction based on EXIF data
+            bitmap = applyRotationCorrection(bitmap, photoFile);
+
+            // Scale to exact thumbnail size
+            Bitmap thumbnail = Bitmap.createScaledBitmap(bitmap, size, size, true);
+
+            // Recycle original if different
+            if (thumbnail != bitmap) {
+                bitmap.recycle();
+            }
+
+            return thumbnail;
+        } catch (Exception e) {
+            Log.e(TAG, "Error creating thumbnail for " + photoFile.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Get rotation in degrees from the photo's EXIF orientation
+     */
+    public static int getRotationDegrees(File photoFile) {
+        try {
+            androidx.exifinterface.media.ExifInterface exifInterface =
+                new androidx.exifinterface.media.ExifInterface(photoFile.getAbsolutePath());
+
+            int orientation = exifInterface.getAttributeInt(
+                androidx.exifinterface.media.ExifInterface.TAG_ORIENTATION,
+                androidx.exifinterface.media.ExifInterface.ORIENTATION_NORMAL);
+
+            switch (orientation) {
+                case androidx.exifinterface.media.ExifInterface.ORIENTATION_ROTATE_90:
+                    return 90;
+                case androidx.exifinterface.media.ExifInterface.ORIENTATION_ROTATE_180:
+                    return 180;
+                case androidx.exifinterface.media.ExifInterface.ORIENTATION_ROTATE_270:
+                    return 270;
+                case androidx.exifinterface.media.ExifInterface.ORIENTATION_NORMAL:
+                default:
+                    return 0;
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading EXIF orientation", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Apply rotation correction to bitmap based on EXIF data
+     */
+    public static Bitmap applyRotationCorrection(Bitmap originalBitmap, File photoFile) {
+        return rotate(originalBitmap, getRotationDegrees(photoFile));
+    }
+
+    /**
+     * Rotate a bitmap, recycling the original when a new bitmap was created
+     */
+    public static Bitmap rotate(Bitmap originalBitmap, int rotationAngle) {
+        try {
+            // If no rotation needed, return original bitmap
+            if (rotationAngle == 0) {
+                return originalBitmap;
+            }
+
+            // Create rotation matrix
+            Matrix matrix = new Matrix();
+            matrix.postRotate(rotationAngle);
+
+            // Apply rotation
+            Bitmap rotatedBitmap = Bitmap.createBitmap(
+                originalBitmap, 0, 0,
+                originalBitmap.getWidth(), originalBitmap.getHeight(),
+                matrix, true);
+
+            // Recycle original bitmap to free memory
+            if (rotatedBitmap != originalBitmap) {
+                originalBitmap.recycle();
+            }
+
+            return rotatedBitmap;
+        } catch (Exception e) {
+            Log.e(TAG, "Error applying rotation correction", e);
+            return originalBitmap; // Return original on error
+        }
+    }
+
+    /**
+     * Smallest power-of-two sample size that brings the image's longest side within maxLongSide,
+     * whatever the aspect ratio
+     */
+    public static int calculateInSampleSizeForLongSide(int width, int height, int maxLongSide) {
+        int longSide = Math.max(width, height);
+        int inSampleSize = 1;
+        while (maxLongSide > 0 && longSide / inSampleSize > maxLongSide) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
+    /**
+     * Calculate sample size for bitmap loading
+     */
+    public static int calculateInSampleSize(BitmapFactory.Options options, int reqWidth, int reqHeight) {
+        final int height = options.outHeight;
+        final int width = options.outWidth;
+        int inSampleSize = 1;
+
+        if (height > reqHeight || width > reqWidth) {
+            final int halfHeight = height / 2;
+            final int halfWidth = width / 2;
+
+            while ((halfHeight / inSampleSize) >= reqHeight
+                    && (halfWidth / inSampleSize) >= reqWidth) {
+                inSampleSize *= 2;
+            }
+        }
+
+        return inSampleSize;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.securityapp;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.view.View;
+import android.widget.Button;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Paging gallery of all local intruder photos, backed by the photo index.
+ *
+ * Pages are read from {@link PhotoIndex} off the UI thread as the user scrolls,
+ * only visible rows are bound, and the list reloads when the photo repository
+ * reports a change.
+ */
+public class PhotoGalleryActivity extends AppCompatActivity {
+    private static final String TAG = "PhotoGalleryActivity";
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_DISTANCE = 15; // Load the next page this many rows before the end
+    private static final int THUMBNAIL_SIZE_DP = 80;
+
+    private final ExecutorService pageExecutor = Executors.newSingleThreadExecutor();
+    private final PhotoRepository.PhotoChangeListener photoChangeListener = this::reload;
+
+    private PhotoGalleryAdapter adapter;
+    private LinearLayoutManager layoutManager;
+    private RecyclerView recyclerView;
+    private TextView titleText;
+    private TextView emptyText;
+
+    private boolean loading = false;
+    private boolean endReached = false;
+    private int loadGeneration = 0; // Drops page results that arrive after a reload
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_photo_gallery);
+
+        titleText = findViewById(R.id.galleryTitleText);
+        emptyText = findViewById(R.id.galleryEmptyText);
+        Button statsButton = findViewById(R.id.galleryStatsButton);
+        Button exportButton = findViewById(R.id.galleryExportButton);
+        Button deleteAllButton = findViewById(R.id.galleryDeleteAllButton);
+        recyclerView = findViewById(R.id.photoRecyclerView);
+
+        int thumbnailSizePx = Math.round(THUMBNAIL_SIZE_DP * getResources().getDisplayMetrics().density);
+        adapter = new PhotoGalleryAdapter(ThumbnailCache.getInstance(this), thumbnailSizePx,
+            entry -> PhotoActions.openPhoto(this, entry.getFile()));
+
+        layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setHasFixedSize(true);
+        recyclerView.setAdapter(adapter);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                if (dy <= 0) return;
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
+        });
+
+        statsButton.setOnClickListener(v -> PhotoActions.showPhotoStatistics(this));
+        exportButton.setOnClickListener(v -> PhotoActions.exportEvidence(this));
+        deleteAllButton.setOnClickListener(v -> PhotoActions.deleteAllPhotos(this, null));
+
+        loadNextPage();
+        PhotoActions.offerResumeBulkDelete(this);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        PhotoRepository.addListener(this, photoChangeListener);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        PhotoRepository.removeListener(photoChangeListener);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        pageExecutor.shutdownNow();
+        recyclerView.setAdapter(null); // Recycles the rows, releasing their thumbnails to the cache
+        adapter.shutdown();
+    }
+
+    /**
+     * Load the page following the last loaded row
+     */
+    private void loadNextPage() {
+        if (loading || endReached) return;
+        loading = true;
+
+        final int generation = loadGeneration;
+        final PhotoIndex.PhotoEntry after = adapter.getLastEntry();
+        pageExecutor.execute(() -> {
+            try {
+                List<PhotoIndex.PhotoEntry> page = PhotoIndex.getInstance(this).queryPage(after, PAGE_SIZE);
+                runOnUiThread(() -> {
+                    if (generation != loadGeneration || isDestroyed()) return;
+                    adapter.appendPage(page);
+                    endReached = page.size() < PAGE_SIZE;
+                    loading = false;
+                    updateHeader();
+                });
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading photo page", e);
+                runOnUiThread(() -> loading = false);
+            }
+        });
+    }
+
+    /**
+     * Reload the rows already shown after photos were captured or deleted
+     */
+    private void reload() {
+        final int generation = ++loadGeneration;
+        final int limit = Math.max(PAGE_SIZE, adapter.getItemCount());
+        loading = true;
+
+        pageExecutor.execute(() -> {
+            try {
+                List<PhotoIndex.PhotoEntry> entries = PhotoIndex.getInstance(this).queryPage(null, limit);
+                runOnUiThread(() -> {
+                    if (generation != loadGeneration || isDestroyed()) return;
+                    adapter.replaceAll(entries);
+                    endReached = entries.size() < limit;
+                    loading = false;
+                    updateHeader();
+                });
+            } catch (Exception e) {
+                Log.e(TAG, "Error reloading photos", e);
+                runOnUiThread(() -> loading = false);
+            }
+        });
+    }
+
+    private void updateHeader() {
+        int total = PhotoIndex.getStats(this).count;
+        titleText.setText("Intruder Photos (" + total + ")");
+        emptyText.setVisibility(adapter.getItemCount() == 0 ? View.VISIBLE : View.GONE);
+    }
+}
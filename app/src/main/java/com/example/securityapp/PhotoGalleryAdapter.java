@@ -0,0 +1,189 @@
+package com.example.securityapp;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * RecyclerView adapter for the photo gallery.
+ *
+ * Rows are bound from index entries only (no file access on the UI thread).
+ * Thumbnails come from the {@link ThumbnailCache}; misses load on a small
+ * background pool, and a row's pending load is cancelled as soon as the row
+ * is recycled or rebound to another photo. Each row releases its bitmap back
+ * to the cache when it lets go of it, so the cache can reuse the pixels.
+ */
+public class PhotoGalleryAdapter extends RecyclerView.Adapter<PhotoGalleryAdapter.PhotoViewHolder> {
+    private static final int DECODE_THREADS = 2;
+
+    private final List<PhotoIndex.PhotoEntry> entries = new ArrayList<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService decodeExecutor = Executors.newFixedThreadPool(DECODE_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "GalleryDecode");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yy HH:mm", Locale.getDefault());
+    private final ThumbnailCache thumbnailCache;
+    private final int thumbnailSizePx;
+    private final OnPhotoClickListener clickListener;
+
+    /**
+     * Callback for row clicks
+     */
+    public interface OnPhotoClickListener {
+        void onPhotoClick(PhotoIndex.PhotoEntry entry);
+    }
+
+    public PhotoGalleryAdapter(ThumbnailCache thumbnailCache, int thumbnailSizePx, OnPhotoClickListener clickListener) {
+        this.thumbnailCache = thumbnailCache;
+        this.thumbnailSizePx = thumbnailSizePx;
+        this.clickListener = clickListener;
+    }
+
+    /**
+     * Append a loaded page
+     */
+    public void appendPage(List<PhotoIndex.PhotoEntry> page) {
+        int start = entries.size();
+        entries.addAll(page);
+        notifyItemRangeInserted(start, page.size());
+    }
+
+    /**
+     * Replace all rows (after the underlying photos changed)
+     */
+    public void replaceAll(List<PhotoIndex.PhotoEntry> newEntries) {
+        entries.clear();
+        entries.addAll(newEntries);
+        notifyDataSetChanged();
+    }
+
+    public PhotoIndex.PhotoEntry getLastEntry() {
+        return entries.isEmpty() ? null : entries.get(entries.size() - 1);
+    }
+
+    /**
+     * Stop background decoding (call from onDestroy)
+     */
+    public void shutdown() {
+        decodeExecutor.shutdownNow();
+    }
+
+    @Override
+    public int getItemCount() {
+        return entries.size();
+    }
+
+    @NonNull
+    @Override
+    public PhotoViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_photo, parent, false);
+        return new PhotoViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull PhotoViewHolder holder, int position) {
+        PhotoIndex.PhotoEntry entry = entries.get(position);
+        holder.boundEntry = entry;
+
+        holder.nameText.setText(entry.name);
+        String date = dateFormat.format(new Date(entry.capturedAt));
+        holder.detailsText.setText(date + " • " + (entry.size / 1024) + " KB");
+        holder.itemView.setOnClickListener(v -> clickListener.onPhotoClick(entry));
+
+        holder.cancelDecode();
+        releaseThumbnail(holder);
+
+        // Already decoded recently - bind straight from memory
+        Bitmap cached = thumbnailCache.acquireFromMemory(entry.name, thumbnailSizePx);
+        if (cached != null) {
+            holder.shownBitmap = cached;
+            holder.thumbnail.setImageBitmap(cached);
+            return;
+        }
+        holder.thumbnail.setImageResource(android.R.drawable.ic_menu_gallery);
+
+        if (decodeExecutor.isShutdown()) return;
+        holder.pendingDecode = decodeExecutor.submit(() -> {
+            Bitmap bitmap = thumbnailCache.acquire(entry.getFile(), thumbnailSizePx);
+            if (bitmap == null) return;
+            if (Thread.currentThread().isInterrupted()) {
+                thumbnailCache.release(bitmap);
+                return;
+            }
+
+            mainHandler.post(() -> {
+                // Row may have been recycled or rebound while decoding
+                if (holder.boundEntry == entry && holder.shownBitmap == null) {
+                    holder.shownBitmap = bitmap;
+                    holder.thumbnail.setImageBitmap(bitmap);
+                    holder.pendingDecode = null;
+                } else {
+                    thumbnailCache.release(bitmap);
+                }
+            });
+        });
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull PhotoViewHolder holder) {
+        holder.cancelDecode();
+        holder.boundEntry = null;
+        holder.thumbnail.setImageDrawable(null);
+        releaseThumbnail(holder);
+    }
+
+    /**
+     * Hand the row's bitmap back to the cache once the view no longer shows it
+     */
+    private void releaseThumbnail(PhotoViewHolder holder) {
+        if (holder.shownBitmap != null) {
+            thumbnailCache.release(holder.shownBitmap);
+            holder.shownBitmap = null;
+        }
+    }
+
+    /**
+     * Row view holder with its in-flight thumbnail decode
+     */
+    static class PhotoViewHolder extends RecyclerView.ViewHolder {
+        final ImageView thumbnail;
+        final TextView nameText;
+        final TextView detailsText;
+        PhotoIndex.PhotoEntry boundEntry;
+        Bitmap shownBitmap;
+        Future<?> pendingDecode;
+
+        PhotoViewHolder(@NonNull View itemView) {
+            super(itemView);
+            thumbnail = itemView.findViewById(R.id.photoThumbnail);
+            nameText = itemView.findViewById(R.id.photoNameText);
+            detailsText = itemView.findViewById(R.id.photoDetailsText);
+        }
+
+        void cancelDecode() {
+            if (pendingDecode != null) {
+                pendingDecode.cancel(true);
+                pendingDecode = null;
+            }
+        }
+    }
+}
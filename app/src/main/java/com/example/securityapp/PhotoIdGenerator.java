@@ -0,0 +1,121 @@
+package com.example.securityapp;
+
+import java.security.SecureRandom;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Monotonic, lexicographically sortable photo IDs (ULID style).
+ *
+ * An ID is 26 Crockford base32 characters: 10 for the capture time in
+ * milliseconds, 4 for a sequence number within that millisecond and 12 for
+ * entropy mixed from a secure random source and the capture nanotime. IDs from
+ * this process never collide and always sort in capture order, even for bursts
+ * within the same millisecond or when the wall clock steps backwards.
+ */
+public class PhotoIdGenerator {
+    public static final String FILE_PREFIX = "Intruder_";
+    public static final String FILE_SUFFIX = ".jpg";
+    public static final int ID_LENGTH = 26;
+
+    private static final char[] ENCODING = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int TIME_CHARS = 10;
+    private static final int SEQUENCE_CHARS = 4;
+    private static final int ENTROPY_CHARS = 12;
+    private static final long MAX_SEQUENCE = (1L << (SEQUENCE_CHARS * 5)) - 1;
+    private static final String LEGACY_TIMESTAMP_PATTERN = "yyyyMMdd_HHmmss";
+
+    private static final SecureRandom random = new SecureRandom();
+    private static long lastTime = 0;
+    private static long sequence = 0;
+
+    /**
+     * Generate the next ID
+     */
+    public static synchronized String nextId() {
+        long now = System.currentTimeMillis();
+        if (now > lastTime) {
+            lastTime = now;
+            sequence = 0;
+        } else if (++sequence > MAX_SEQUENCE) {
+            // Sequence exhausted (or clock went backwards) - borrow the next millisecond
+            lastTime++;
+            sequence = 0;
+        }
+
+        long entropy = random.nextLong() ^ System.nanoTime();
+
+        char[] id = new char[ID_LENGTH];
+        encode(lastTime, id, 0, TIME_CHARS);
+        encode(sequence, id, TIME_CHARS, SEQUENCE_CHARS);
+        encode(entropy, id, TIME_CHARS + SEQUENCE_CHARS, ENTROPY_CHARS);
+        return new String(id);
+    }
+
+    /**
+     * Generate a file name for a new capture
+     */
+    public static String newFileName() {
+        return FILE_PREFIX + nextId() + FILE_SUFFIX;
+    }
+
+    /**
+     * Extract the ID from a file name, or null if the name does not use the ID scheme
+     */
+    public static String getId(String fileName) {
+        if (fileName == null || !fileName.startsWith(FILE_PREFIX) || !fileName.endsWith(FILE_SUFFIX)) {
+            return null;
+        }
+        String id = fileName.substring(FILE_PREFIX.length(), fileName.length() - FILE_SUFFIX.length());
+        return id.length() == ID_LENGTH ? id : null;
+    }
+
+    /**
+     * Decode the capture time from a file name.
+     * Understands ID based names and legacy Prefix_yyyyMMdd_HHmmss_user.jpg names; returns 0 if unknown.
+     */
+    public static long getCaptureTime(String fileName) {
+        String id = getId(fileName);
+        if (id != null) {
+            return decode(id, 0, TIME_CHARS);
+        }
+        return getLegacyCaptureTime(fileName);
+    }
+
+    private static long getLegacyCaptureTime(String fileName) {
+        if (fileName == null) return 0;
+
+        // Security_20240101_120000_user.jpg -> 20240101_120000
+        int start = fileName.indexOf('_');
+        if (start < 0 || fileName.length() < start + 1 + LEGACY_TIMESTAMP_PATTERN.length()) {
+            return 0;
+        }
+        String timestamp = fileName.substring(start + 1, start + 1 + LEGACY_TIMESTAMP_PATTERN.length());
+        try {
+            SimpleDateFormat format = new SimpleDateFormat(LEGACY_TIMESTAMP_PATTERN, Locale.getDefault());
+            format.setLenient(false);
+            return format.parse(timestamp).getTime();
+        } catch (ParseException e) {
+            return 0;
+        }
+    }
+
+    private static void encode(long value, char[] out, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            out[i] = ENCODING[(int) (value & 31)];
+            value >>>= 5;
+        }
+    }
+
+    private static long decode(String value, int offset, int length) {
+        long result = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int digit = Arrays.binarySearch(ENCODING, Character.toUpperCase(value.charAt(i)));
+            if (digit < 0) return 0;
+            result = (result << 5) | digit;
+        }
+        return result;
+    }
+}
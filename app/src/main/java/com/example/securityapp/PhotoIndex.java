@@ -0,0 +1,498 @@
+package com.example.securityapp;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Persistent index of local security photos with maintained aggregates.
+ *
+ * Every capture, delete and move updates the photo row, the totals row and the
+ * per-day counts in a single transaction. An immutable in-memory snapshot of
+ * the aggregates is kept alongside, so dashboards read statistics without
+ * touching the filesystem or the database.
+ */
+public class PhotoIndex extends SQLiteOpenHelper {
+    private static final String TAG = "PhotoIndex";
+    private static final String DATABASE_NAME = "photo_index.db";
+    private static final int DATABASE_VERSION = 2;
+    private static final int INDEX_VERSION = 2; // Bump to force a full rescan on next start
+
+    private static final String TABLE_PHOTOS = "photos";
+    private static final String TABLE_TOTALS = "photo_totals";
+    private static final String TABLE_DAY_COUNTS = "photo_day_counts";
+
+    private static PhotoIndex instance;
+    private static volatile boolean loaded = false;
+    private static final ExecutorService bootstrapExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "PhotoIndexBootstrap");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private final Context appContext;
+    private volatile Stats snapshot = Stats.EMPTY;
+
+    /**
+     * Immutable aggregate statistics for all indexed photos
+     */
+    public static class Stats {
+        static final Stats EMPTY = new Stats(0, 0, 0, 0, Collections.emptyMap());
+
+        public final int count;
+        public final long totalBytes;
+        public final long oldestCaptureTime;
+        public final long newestCaptureTime;
+        public final Map<String, Integer> dayCounts; // yyyy-MM-dd -> photos, sorted by day
+
+        Stats(int count, long totalBytes, long oldestCaptureTime, long newestCaptureTime, Map<String, Integer> dayCounts) {
+            this.count = count;
+            this.totalBytes = totalBytes;
+            this.oldestCaptureTime = oldestCaptureTime;
+            this.newestCaptureTime = newestCaptureTime;
+            this.dayCounts = dayCounts;
+        }
+    }
+
+    /**
+     * A single indexed photo
+     */
+    public static class PhotoEntry {
+        public final String name;
+        public final String path;
+        public final long size;
+        public final long capturedAt;
+
+        PhotoEntry(String name, String path, long size, long capturedAt) {
+            this.name = name;
+            this.path = path;
+            this.size = size;
+            this.capturedAt = capturedAt;
+        }
+
+        public File getFile() {
+            return new File(path);
+        }
+    }
+
+    private PhotoIndex(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this.appContext = context;
+    }
+
+    /**
+     * Get the shared index, loading the snapshot and scheduling the initial scan if needed
+     */
+    public static synchronized PhotoIndex getInstance(Context context) {
+        if (instance == null) {
+            instance = new PhotoIndex(context.getApplicationContext());
+            instance.loadSnapshot();
+            instance.bootstrapIfNeeded();
+            loaded = true;
+        }
+        return instance;
+    }
+
+    /**
+     * Whether the snapshot is loaded, so getStats won't touch the database (never blocks)
+     */
+    public static boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_PHOTOS + " (" +
+                "name TEXT PRIMARY KEY, " +
+                "path TEXT NOT NULL, " +
+                "size INTEGER NOT NULL, " +
+                "captured_at INTEGER NOT NULL, " +
+                "day TEXT NOT NULL)");
+        db.execSQL("CREATE INDEX idx_photos_captured_at ON " + TABLE_PHOTOS + " (captured_at, name)");
+        db.execSQL("CREATE TABLE " + TABLE_TOTALS + " (" +
+                "id INTEGER PRIMARY KEY CHECK (id = 0), " +
+                "photo_count INTEGER NOT NULL, " +
+                "total_bytes INTEGER NOT NULL)");
+        db.execSQL("INSERT INTO " + TABLE_TOTALS + " (id, photo_count, total_bytes) VALUES (0, 0, 0)");
+        db.execSQL("CREATE TABLE " + TABLE_DAY_COUNTS + " (" +
+                "day TEXT PRIMARY KEY, " +
+                "photo_count INTEGER NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            // Capture order is (captured_at, name) - name breaks ties between IDs of the same millisecond
+            db.execSQL("DROP INDEX IF EXISTS idx_photos_captured_at");
+            db.execSQL("CREATE INDEX idx_photos_captured_at ON " + TABLE_PHOTOS + " (captured_at, name)");
+        }
+    }
+
+    // ---- Convenience entry points used by capture and delete paths ----
+
+    /**
+     * Record a newly captured photo (safe to call with null)
+     */
+    public static void recordCapture(Context context, File photo) {
+        if (context == null || photo == null) return;
+        try {
+            getInstance(context).add(photo);
+        } catch (Exception e) {
+            Log.e(TAG, "Error indexing captured photo", e);
+        }
+    }
+
+    /**
+     * Record a deleted photo
+     */
+    public static void recordDelete(Context context, File photo) {
+        if (context == null || photo == null) return;
+        try {
+            getInstance(context).remove(photo.getName());
+        } catch (Exception e) {
+            Log.e(TAG, "Error removing photo from index", e);
+        }
+    }
+
+    /**
+     * Record a batch of deleted photos with one transaction and one change event
+     */
+    public static void recordDeletes(Context context, Collection<String> names) {
+        if (context == null || names.isEmpty()) return;
+        try {
+            getInstance(context).removeAll(names);
+        } catch (Exception e) {
+            Log.e(TAG, "Error removing photos from index", e);
+        }
+    }
+
+    /**
+     * Record a photo that moved on disk without changing its content
+     */
+    public static void recordMove(Context context, File from, File to) {
+        if (context == null || from == null || to == null) return;
+        try {
+            getInstance(context).move(from.getName(), to);
+        } catch (Exception e) {
+            Log.e(TAG, "Error updating moved photo in index", e);
+        }
+    }
+
+    /**
+     * Get the current statistics snapshot (never touches disk)
+     */
+    public static Stats getStats(Context context) {
+        return getInstance(context).snapshot;
+    }
+
+    /**
+     * Get the next page of photos, newest first, after the given entry (null for the first page).
+     * Keyset paging on the (captured_at, name) index, so every page costs the same.
+     */
+    public synchronized List<PhotoEntry> queryPage(PhotoEntry after, int limit) {
+        String selection = null;
+        String[] selectionArgs = null;
+        if (after != null) {
+            selection = "captured_at < ? OR (captured_at = ? AND name < ?)";
+            selectionArgs = new String[]{String.valueOf(after.capturedAt), String.valueOf(after.capturedAt), after.name};
+        }
+
+        List<PhotoEntry> page = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE_PHOTOS,
+                new String[]{"name", "path", "size", "captured_at"}, selection, selectionArgs,
+                null, null, "captured_at DESC, name DESC", String.valueOf(limit))) {
+            while (cursor.moveToNext()) {
+                page.add(new PhotoEntry(cursor.getString(0), cursor.getString(1), cursor.getLong(2), cursor.getLong(3)));
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Get the next page of photos, oldest first, after the given entry (null for the first page)
+     */
+    public synchronized List<PhotoEntry> queryOldestPage(PhotoEntry after, int limit) {
+        String selection = null;
+        String[] selectionArgs = null;
+        if (after != null) {
+            selection = "captured_at > ? OR (captured_at = ? AND name > ?)";
+            selectionArgs = new String[]{String.valueOf(after.capturedAt), String.valueOf(after.capturedAt), after.name};
+        }
+
+        List<PhotoEntry> page = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE_PHOTOS,
+                new String[]{"name", "path", "size", "captured_at"}, selection, selectionArgs,
+                null, null, "captured_at ASC, name ASC", String.valueOf(limit))) {
+            while (cursor.moveToNext()) {
+                page.add(new PhotoEntry(cursor.getString(0), cursor.getString(1), cursor.getLong(2), cursor.getLong(3)));
+            }
+        }
+        return page;
+    }
+
+    // ---- Transactional updates ----
+
+    /**
+     * Insert or replace a photo and adjust the aggregates in one transaction
+     */
+    public synchronized void add(File photo) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            insertRow(db, photo);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        loadSnapshot();
+        PhotoRepository.notifyChanged();
+    }
+
+    /**
+     * Remove a photo by name and adjust the aggregates in one transaction
+     */
+    public synchronized void remove(String name) {
+        SQLiteDatabase db = getWritableDatabase();
+        boolean removed;
+        db.beginTransaction();
+        try {
+            removed = removeRow(db, name);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        if (removed) {
+            loadSnapshot();
+            PhotoRepository.notifyChanged();
+        }
+    }
+
+    /**
+     * Remove many photos by name and adjust the aggregates in one transaction
+     */
+    public synchronized void removeAll(Collection<String> names) {
+        SQLiteDatabase db = getWritableDatabase();
+        boolean removed = false;
+        db.beginTransaction();
+        try {
+            for (String name : names) {
+                removed |= removeRow(db, name);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        if (removed) {
+            loadSnapshot();
+            PhotoRepository.notifyChanged();
+        }
+    }
+
+    /**
+     * Update the stored path of a moved photo (aggregates are unaffected)
+     */
+    public synchronized void move(String name, File target) {
+        ContentValues values = new ContentValues();
+        values.put("name", target.getName());
+        values.put("path", target.getAbsolutePath());
+        int updated = getWritableDatabase().update(TABLE_PHOTOS, values, "name = ?", new String[]{name});
+        if (updated == 0 && target.exists()) {
+            // Moved while the initial scan was running - index it at its new location
+            add(target);
+        } else {
+            PhotoRepository.notifyChanged();
+        }
+    }
+
+    /**
+     * Remove every photo stored below a directory (e.g. when user data is wiped)
+     */
+    public static void recordDirectoryDeleted(Context context, File dir) {
+        if (context == null || dir == null) return;
+        try {
+            getInstance(context).removeUnder(dir);
+        } catch (Exception e) {
+            Log.e(TAG, "Error removing directory from index", e);
+        }
+    }
+
+    private synchronized void removeUnder(File dir) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            try (Cursor cursor = db.query(TABLE_PHOTOS, new String[]{"name"}, "path LIKE ?",
+                    new String[]{dir.getAbsolutePath() + File.separator + "%"}, null, null, null)) {
+                while (cursor.moveToNext()) {
+                    removeRow(db, cursor.getString(0));
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        loadSnapshot();
+        PhotoRepository.notifyChanged();
+    }
+
+    /**
+     * Insert a photo row (replacing any previous row of the same name) and add it to the aggregates
+     */
+    private void insertRow(SQLiteDatabase db, File photo) {
+        long size = photo.length();
+        long capturedAt = PhotoIdGenerator.getCaptureTime(photo.getName());
+        if (capturedAt == 0) {
+            capturedAt = photo.lastModified();
+        }
+        String day = dayOf(capturedAt);
+
+        removeRow(db, photo.getName());
+
+        ContentValues values = new ContentValues();
+        values.put("name", photo.getName());
+        values.put("path", photo.getAbsolutePath());
+        values.put("size", size);
+        values.put("captured_at", capturedAt);
+        values.put("day", day);
+        db.insertOrThrow(TABLE_PHOTOS, null, values);
+
+        db.execSQL("UPDATE " + TABLE_TOTALS + " SET photo_count = photo_count + 1, total_bytes = total_bytes + ? WHERE id = 0",
+                new Object[]{size});
+        db.execSQL("INSERT OR IGNORE INTO " + TABLE_DAY_COUNTS + " (day, photo_count) VALUES (?, 0)", new Object[]{day});
+        db.execSQL("UPDATE " + TABLE_DAY_COUNTS + " SET photo_count = photo_count + 1 WHERE day = ?", new Object[]{day});
+    }
+
+    /**
+     * Delete a photo row and subtract it from the aggregates (caller holds the transaction)
+     */
+    private boolean removeRow(SQLiteDatabase db, String name) {
+        try (Cursor cursor = db.query(TABLE_PHOTOS, new String[]{"size", "day"}, "name = ?",
+                new String[]{name}, null, null, null)) {
+            if (!cursor.moveToFirst()) {
+                return false;
+            }
+            long size = cursor.getLong(0);
+            String day = cursor.getString(1);
+
+            db.delete(TABLE_PHOTOS, "name = ?", new String[]{name});
+            db.execSQL("UPDATE " + TABLE_TOTALS + " SET photo_count = photo_count - 1, total_bytes = total_bytes - ? WHERE id = 0",
+                    new Object[]{size});
+            db.execSQL("UPDATE " + TABLE_DAY_COUNTS + " SET photo_count = photo_count - 1 WHERE day = ?", new Object[]{day});
+            db.delete(TABLE_DAY_COUNTS, "day = ? AND photo_count <= 0", new String[]{day});
+            return true;
+        }
+    }
+
+    /**
+     * Rebuild the in-memory snapshot from the aggregate tables.
+     * Reads only the totals row, the two ends of the captured_at index and the per-day table.
+     */
+    private synchronized void loadSnapshot() {
+        try {
+            SQLiteDatabase db = getReadableDatabase();
+
+            int count = 0;
+            long totalBytes = 0;
+            try (Cursor cursor = db.rawQuery("SELECT photo_count, total_bytes FROM " + TABLE_TOTALS + " WHERE id = 0", null)) {
+                if (cursor.moveToFirst()) {
+                    count = cursor.getInt(0);
+                    totalBytes = cursor.getLong(1);
+                }
+            }
+
+            // One end per query: SQLite only answers a lone MIN() or MAX() from the index
+            long oldest = 0;
+            long newest = 0;
+            try (Cursor cursor = db.rawQuery("SELECT MIN(captured_at) FROM " + TABLE_PHOTOS, null)) {
+                if (cursor.moveToFirst() && !cursor.isNull(0)) {
+                    oldest = cursor.getLong(0);
+                }
+            }
+            try (Cursor cursor = db.rawQuery("SELECT MAX(captured_at) FROM " + TABLE_PHOTOS, null)) {
+                if (cursor.moveToFirst() && !cursor.isNull(0)) {
+                    newest = cursor.getLong(0);
+                }
+            }
+
+            Map<String, Integer> dayCounts = new TreeMap<>();
+            try (Cursor cursor = db.query(TABLE_DAY_COUNTS, new String[]{"day", "photo_count"},
+                    null, null, null, null, "day")) {
+                while (cursor.moveToNext()) {
+                    dayCounts.put(cursor.getString(0), cursor.getInt(1));
+                }
+            }
+
+            snapshot = new Stats(count, totalBytes, oldest, newest, Collections.unmodifiableMap(dayCounts));
+        } catch (Exception e) {
+            Log.e(TAG, "Error loading photo statistics snapshot", e);
+        }
+    }
+
+    /**
+     * Populate the index from disk once (first start or after an index format change)
+     */
+    private void bootstrapIfNeeded() {
+        SharedPreferences prefs = appContext.getSharedPreferences("security_app", Context.MODE_PRIVATE);
+        if (prefs.getInt("photo_index_version", 0) >= INDEX_VERSION) {
+            return;
+        }
+
+        bootstrapExecutor.execute(() -> {
+            try {
+                // List under the lock: a capture or move indexed between listing and wiping would be lost for good
+                synchronized (this) {
+                    List<File> photos = PhotoStorageLayout.listAllPhotos(appContext);
+                    Log.d(TAG, "📦 Building photo index from " + photos.size() + " photos on disk");
+
+                    SQLiteDatabase db = getWritableDatabase();
+                    db.beginTransaction();
+                    try {
+                        db.delete(TABLE_PHOTOS, null, null);
+                        db.delete(TABLE_DAY_COUNTS, null, null);
+                        db.execSQL("UPDATE " + TABLE_TOTALS + " SET photo_count = 0, total_bytes = 0 WHERE id = 0");
+                        for (File photo : photos) {
+                            if (photo.exists()) {
+                                insertRow(db, photo);
+                            }
+                        }
+                        db.setTransactionSuccessful();
+                    } finally {
+                        db.endTransaction();
+                    }
+
+                    loadSnapshot();
+                }
+                PhotoRepository.notifyChanged();
+
+                prefs.edit().putInt("photo_index_version", INDEX_VERSION).apply();
+                Log.d(TAG, "✅ Photo index built: " + snapshot.count + " photos, " + (snapshot.totalBytes / 1024) + " KB");
+            } catch (Exception e) {
+                Log.e(TAG, "❌ Error building photo index", e);
+            }
+        });
+    }
+
+    private static String dayOf(long time) {
+        return new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(new Date(time));
+    }
+}
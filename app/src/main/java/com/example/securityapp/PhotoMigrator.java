@@ -0,0 +1,183 @@
+package com.example.securityapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Incremental, resumable migration of flat photo directories into the date-sharded layout.
+ *
+ * Files are moved in small batches on a background thread and progress is
+ * checkpointed after every batch, so the migration can be interrupted at any
+ * point (process death, reboot) and simply continues on the next start.
+ */
+public class PhotoMigrator {
+    private static final String TAG = "PhotoMigrator";
+    private static final int LAYOUT_VERSION = 1;
+    private static final int BATCH_SIZE = 50;
+    private static final long BATCH_PAUSE_MS = 200; // Yield between batches so captures are never starved
+
+    private static final ExecutorService migrationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "PhotoMigrator");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private static final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Start the migration in the background if the layout is not current yet
+     */
+    public static void startIfNeeded(Context context) {
+        if (context == null) return;
+        final Context appContext = context.getApplicationContext();
+
+        SharedPreferences prefs = appContext.getSharedPreferences("security_app", Context.MODE_PRIVATE);
+        if (prefs.getInt("photo_layout_version", 0) >= LAYOUT_VERSION) {
+            return;
+        }
+
+        if (!running.compareAndSet(false, true)) {
+            Log.d(TAG, "Migration already running");
+            return;
+        }
+
+        migrationExecutor.execute(() -> {
+            try {
+                migrate(appContext, prefs);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    /**
+     * Check if the sharded layout migration has completed
+     */
+    public static boolean isMigrationComplete(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences("security_app", Context.MODE_PRIVATE);
+        return prefs.getInt("photo_layout_version", 0) >= LAYOUT_VERSION;
+    }
+
+    private static void migrate(Context context, SharedPreferences prefs) {
+        try {
+            File rootDir = PhotoStorageLayout.getRootDirectory(context);
+            if (!rootDir.exists()) {
+                markComplete(prefs);
+                return;
+            }
+
+            // Flat photos directly in the root belong to the current user
+            File currentUserDir = UserManager.getUserPhotosDirectory(context);
+            List<File[]> pendingMoves = new ArrayList<>();
+            for (File photo : PhotoStorageLayout.listFlatPhotos(rootDir)) {
+                pendingMoves.add(new File[]{photo, currentUserDir});
+            }
+
+            // Flat photos inside each user directory move into that directory's shards
+            File[] userDirs = rootDir.listFiles(File::isDirectory);
+            if (userDirs != null) {
+                for (File userDir : userDirs) {
+                    for (File photo : PhotoStorageLayout.listFlatPhotos(userDir)) {
+                        pendingMoves.add(new File[]{photo, userDir});
+                    }
+                }
+            }
+
+            int total = pendingMoves.size() + prefs.getInt("photo_migration_moved", 0);
+            Log.d(TAG, "📦 Sharded layout migration: " + pendingMoves.size() + " photos remaining");
+
+            int moved = prefs.getInt("photo_migration_moved", 0);
+            int failed = 0;
+            for (int start = 0; start < pendingMoves.size(); start += BATCH_SIZE) {
+                int end = Math.min(start + BATCH_SIZE, pendingMoves.size());
+
+                for (File[] move : pendingMoves.subList(start, end)) {
+                    if (moveIntoShard(context, move[0], move[1])) {
+                        moved++;
+                    } else {
+                        failed++;
+                    }
+                }
+
+                // Checkpoint progress after every batch
+                prefs.edit()
+                    .putInt("photo_migration_moved", moved)
+                    .putLong("photo_migration_checkpoint_time", System.currentTimeMillis())
+                    .apply();
+                Log.d(TAG, "Migration progress: " + moved + "/" + total + " photos moved");
+
+                if (end < pendingMoves.size()) {
+                    Thread.sleep(BATCH_PAUSE_MS);
+                }
+            }
+
+            if (failed == 0) {
+                markComplete(prefs);
+                Log.d(TAG, "✅ Sharded layout migration completed (" + moved + " photos moved)");
+            } else {
+                Log.w(TAG, "Migration finished with " + failed + " failures, will resume on next start");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Log.w(TAG, "Migration interrupted, will resume from last checkpoint");
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Error during sharded layout migration", e);
+        }
+    }
+
+    /**
+     * Move a single flat photo into the shard matching its capture time
+     */
+    private static boolean moveIntoShard(Context context, File photo, File userDir) {
+        if (!photo.exists()) {
+            return true; // Already moved or deleted by a concurrent operation
+        }
+
+        File shardDir = PhotoStorageLayout.getShardDirectory(userDir, photo.lastModified());
+        File target = new File(shardDir, photo.getName());
+        if (target.exists()) {
+            // Same photo already migrated (e.g. interrupted after copy) - keep the shard copy
+            if (target.length() == photo.length()) {
+                recordMove(context, photo, target);
+                return photo.delete();
+            }
+            target = new File(shardDir, "migrated_" + photo.lastModified() + "_" + photo.getName());
+        }
+
+        long lastModified = photo.lastModified();
+        if (photo.renameTo(target)) {
+            target.setLastModified(lastModified);
+            recordMove(context, photo, target);
+            return true;
+        }
+
+        Log.w(TAG, "Could not move photo into shard: " + photo.getName());
+        return false;
+    }
+
+    /**
+     * Point the index and any queued uploads at the photo's new location
+     */
+    private static void recordMove(Context context, File photo, File target) {
+        PhotoIndex.recordMove(context, photo, target);
+        try {
+            UploadQueue.getInstance(context).move(photo, target);
+        } catch (Exception e) {
+            Log.e(TAG, "Error updating queued upload of moved photo", e);
+        }
+    }
+
+    private static void markComplete(SharedPreferences prefs) {
+        prefs.edit()
+            .putInt("photo_layout_version", LAYOUT_VERSION)
+            .remove("photo_migration_moved")
+            .apply();
+    }
+}
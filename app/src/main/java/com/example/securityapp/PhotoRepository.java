@@ -0,0 +1,169 @@
+package com.example.securityapp;
+
+import android.content.Context;
+import android.os.FileObserver;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Change stream for local security photos; the photos themselves are listed
+ * through {@link PhotoIndex}.
+ *
+ * Changes arrive either explicitly (captures, deletes and moves recorded
+ * through {@link PhotoIndex}) or from {@link FileObserver}s on the photo
+ * directories while at least one listener is subscribed. Listeners are called
+ * on the main thread, with bursts of events coalesced into one call.
+ */
+public class PhotoRepository {
+    private static final String TAG = "PhotoRepository";
+
+    private static final int OBSERVED_EVENTS = FileObserver.CLOSE_WRITE | FileObserver.MOVED_TO |
+            FileObserver.MOVED_FROM | FileObserver.DELETE | FileObserver.CREATE | FileObserver.DELETE_SELF;
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final List<PhotoChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private static final AtomicBoolean dispatchPending = new AtomicBoolean(false);
+    private static final Map<String, FileObserver> directoryObservers = new HashMap<>();
+
+    private static Context appContext;
+
+    /**
+     * Listener for local photo changes (always called on the main thread)
+     */
+    public interface PhotoChangeListener {
+        void onPhotosChanged();
+    }
+
+    /**
+     * Subscribe to photo changes; directory observers run while anyone is subscribed
+     */
+    public static synchronized void addListener(Context context, PhotoChangeListener listener) {
+        appContext = context.getApplicationContext();
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        if (listeners.size() == 1) {
+            startObserving();
+        }
+    }
+
+    /**
+     * Unsubscribe from photo changes
+     */
+    public static synchronized void removeListener(PhotoChangeListener listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty()) {
+            stopObserving();
+        }
+    }
+
+    /**
+     * Signal that local photos changed (explicit capture/delete/move events)
+     */
+    public static void notifyChanged() {
+        // Coalesce bursts (e.g. bulk deletes) into a single dispatch
+        if (dispatchPending.compareAndSet(false, true)) {
+            mainHandler.post(() -> {
+                dispatchPending.set(false);
+                for (PhotoChangeListener listener : listeners) {
+                    try {
+                        listener.onPhotosChanged();
+                    } catch (Exception e) {
+                        Log.e(TAG, "Error in photo change listener", e);
+                    }
+                }
+            });
+        }
+    }
+
+    // ---- Directory observation ----
+
+    private static synchronized void startObserving() {
+        if (appContext == null) return;
+
+        File rootDir = PhotoStorageLayout.getRootDirectory(appContext);
+        if (!rootDir.exists()) {
+            rootDir.mkdirs();
+        }
+        observeTree(rootDir);
+        Log.d(TAG, "👀 Observing " + directoryObservers.size() + " photo directories");
+    }
+
+    private static synchronized void stopObserving() {
+        for (FileObserver observer : directoryObservers.values()) {
+            observer.stopWatching();
+        }
+        directoryObservers.clear();
+        Log.d(TAG, "Stopped observing photo directories");
+    }
+
+    /**
+     * Watch a directory and every directory below it (FileObserver is not recursive)
+     */
+    private static synchronized void observeTree(File dir) {
+        if (listeners.isEmpty() || directoryObservers.containsKey(dir.getAbsolutePath())) return;
+
+        FileObserver observer = new DirectoryObserver(dir);
+        observer.startWatching();
+        directoryObservers.put(dir.getAbsolutePath(), observer);
+
+        File[] subdirs = dir.listFiles(File::isDirectory);
+        if (subdirs != null) {
+            for (File subdir : subdirs) {
+                observeTree(subdir);
+            }
+        }
+    }
+
+    private static synchronized void stopObservingTree(String path) {
+        FileObserver observer = directoryObservers.remove(path);
+        if (observer != null) {
+            observer.stopWatching();
+        }
+    }
+
+    /**
+     * Observer for a single photo directory
+     */
+    private static class DirectoryObserver extends FileObserver {
+        private final File dir;
+
+        @SuppressWarnings("deprecation") // FileObserver(File) requires API 29
+        DirectoryObserver(File dir) {
+            super(dir.getAbsolutePath(), OBSERVED_EVENTS);
+            this.dir = dir;
+        }
+
+        @Override
+        public void onEvent(int event, String path) {
+            int type = event & FileObserver.ALL_EVENTS;
+
+            if (type == FileObserver.DELETE_SELF) {
+                // Shard directory pruned - drop its observer
+                stopObservingTree(dir.getAbsolutePath());
+                return;
+            }
+            if (path == null) return;
+
+            File target = new File(dir, path);
+            if ((type == FileObserver.CREATE || type == FileObserver.MOVED_TO) && target.isDirectory()) {
+                // New user or shard directory - start watching it
+                observeTree(target);
+                return;
+            }
+
+            // Only completed photo writes, moves and deletes matter (ignore CREATE of files still being written)
+            if (type != FileObserver.CREATE && PhotoStorageLayout.isPhotoFile(path)) {
+                notifyChanged();
+            }
+        }
+    }
+}
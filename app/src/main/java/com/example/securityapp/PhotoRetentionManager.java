@@ -0,0 +1,242 @@
+package com.example.securityapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Retention engine for local evidence photos.
+ *
+ * Keeps the security photos within an optional byte quota (off unless the
+ * user sets one) and, for photos already backed up, a maximum age; a nearly
+ * full filesystem tightens the budget either way. Backed up photos are
+ * evicted before photos that have not been uploaded yet, and within each
+ * group the oldest photo goes first. A photo still waiting in the
+ * {@link UploadQueue} is only evicted when the device is critically low on
+ * space. Sizes and dates come from the {@link PhotoIndex}, so a pass reads
+ * index pages instead of listing the photo directories.
+ */
+public class PhotoRetentionManager {
+    private static final String TAG = "PhotoRetentionManager";
+
+    private static final long DEFAULT_QUOTA_MB = 0; // Opt-in from settings
+    private static final int DEFAULT_MAX_AGE_DAYS = 90;
+    private static final long MIN_FREE_SPACE_BYTES = 100L * 1024 * 1024; // Keep 100MB free for new captures
+    private static final long CRITICAL_FREE_SPACE_BYTES = 25L * 1024 * 1024; // Below this even queued evidence may go
+    private static final int MAX_EVICTIONS_PER_PASS = 25; // Keep each pass short, reschedule if more work remains
+    private static final int PAGE_SIZE = 200;
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    private static final ExecutorService retentionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "PhotoRetention");
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private static final AtomicBoolean passScheduled = new AtomicBoolean(false);
+
+    /**
+     * Result of a single retention pass
+     */
+    public static class RetentionResult {
+        public final int evictedCount;
+        public final long bytesReclaimed;
+        public final long remainingBytes;
+        public final boolean complete;
+
+        RetentionResult(int evictedCount, long bytesReclaimed, long remainingBytes, boolean complete) {
+            this.evictedCount = evictedCount;
+            this.bytesReclaimed = bytesReclaimed;
+            this.remainingBytes = remainingBytes;
+            this.complete = complete;
+        }
+    }
+
+    /**
+     * Callback interface for retention results
+     */
+    public interface RetentionCallback {
+        void onResult(RetentionResult result);
+    }
+
+    /**
+     * Schedule a retention pass off the main thread (called after each capture)
+     */
+    public static void enforceAsync(Context context) {
+        enforceAsync(context, null);
+    }
+
+    /**
+     * Schedule a retention pass off the main thread and report the reclaimed bytes.
+     * Requests arriving while a pass is already queued are coalesced into it.
+     */
+    public static void enforceAsync(Context context, RetentionCallback callback) {
+        if (context == null) return;
+        final Context appContext = context.getApplicationContext();
+
+        if (!passScheduled.compareAndSet(false, true) && callback == null) {
+            Log.d(TAG, "Retention pass already queued, coalescing request");
+            return;
+        }
+
+        retentionExecutor.execute(() -> {
+            passScheduled.set(false);
+            RetentionResult result = runPass(appContext);
+
+            if (!result.complete) {
+                // More photos to evict - continue in another short pass
+                enforceAsync(appContext);
+            }
+
+            if (callback != null) {
+                callback.onResult(result);
+            }
+        });
+    }
+
+    /**
+     * Get configured quota in bytes (0 disables the quota)
+     */
+    public static long getQuotaBytes(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences("security_app", Context.MODE_PRIVATE);
+        return prefs.getLong("retention_quota_mb", DEFAULT_QUOTA_MB) * 1024 * 1024;
+    }
+
+    /**
+     * Get configured maximum age in days (0 disables age based eviction)
+     */
+    public static int getMaxAgeDays(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences("security_app", Context.MODE_PRIVATE);
+        return prefs.getInt("retention_max_age_days", DEFAULT_MAX_AGE_DAYS);
+    }
+
+    /**
+     * Update retention settings
+     */
+    public static void setRetentionPolicy(Context context, long quotaMb, int maxAgeDays) {
+        SharedPreferences prefs = context.getSharedPreferences("security_app", Context.MODE_PRIVATE);
+        prefs.edit()
+            .putLong("retention_quota_mb", Math.max(0, quotaMb))
+            .putInt("retention_max_age_days", Math.max(0, maxAgeDays))
+            .apply();
+        Log.d(TAG, "Retention policy updated: quota=" + quotaMb + "MB, maxAge=" + maxAgeDays + " days");
+    }
+
+    /**
+     * Run a single bounded retention pass on the calling thread
+     */
+    private static RetentionResult runPass(Context context) {
+        try {
+            SharedPreferences prefs = context.getSharedPreferences("security_app", Context.MODE_PRIVATE);
+            File rootDir = PhotoStorageLayout.getRootDirectory(context);
+            PhotoIndex index = PhotoIndex.getInstance(context);
+            PhotoIndex.Stats stats = PhotoIndex.getStats(context);
+            if (!rootDir.exists() || stats.count <= 1) {
+                return new RetentionResult(0, 0, stats.totalBytes, true);
+            }
+
+            long totalBytes = stats.totalBytes;
+
+            // Effective budget is the quota, tightened further when the filesystem is nearly full
+            long quotaBytes = getQuotaBytes(context);
+            long budgetBytes = quotaBytes > 0 ? quotaBytes : Long.MAX_VALUE;
+            long usableSpace = rootDir.getUsableSpace();
+            if (usableSpace < MIN_FREE_SPACE_BYTES) {
+                budgetBytes = Math.min(budgetBytes, totalBytes - (MIN_FREE_SPACE_BYTES - usableSpace));
+            }
+            boolean criticallyLow = usableSpace < CRITICAL_FREE_SPACE_BYTES;
+
+            int maxAgeDays = getMaxAgeDays(context);
+            long expiryCutoff = maxAgeDays > 0 ? System.currentTimeMillis() - maxAgeDays * DAY_MS : 0;
+            Set<String> awaitingUpload = UploadQueue.getInstance(context).getUnfinishedPhotoNames();
+
+            int evicted = 0;
+            long reclaimed = 0;
+            boolean complete = true;
+            List<String> evictedNames = new ArrayList<>();
+
+            // Backed up photos first, then photos not uploaded yet; oldest first within each group
+            groups:
+            for (boolean backedUpGroup : new boolean[]{true, false}) {
+                PhotoIndex.PhotoEntry after = null;
+                List<PhotoIndex.PhotoEntry> page;
+                while (!(page = index.queryOldestPage(after, PAGE_SIZE)).isEmpty()) {
+                    for (PhotoIndex.PhotoEntry entry : page) {
+                        after = entry;
+                        boolean overBudget = totalBytes > budgetBytes;
+                        boolean expired = backedUpGroup && entry.capturedAt < expiryCutoff;
+                        if (!overBudget && !expired) {
+                            // Oldest first: nothing newer in this group qualifies either
+                            continue groups;
+                        }
+
+                        if (isBackedUp(prefs, entry) != backedUpGroup) {
+                            continue;
+                        }
+
+                        // Never evict the capture that just triggered this pass
+                        if (entry.capturedAt >= stats.newestCaptureTime) {
+                            continue;
+                        }
+
+                        // Evidence still waiting to upload stays unless storage is about to run out
+                        if (!backedUpGroup && awaitingUpload.contains(entry.name) && !criticallyLow) {
+                            continue;
+                        }
+
+                        if (evicted >= MAX_EVICTIONS_PER_PASS) {
+                            complete = false;
+                            break groups;
+                        }
+
+                        if (PhotoStorageLayout.deletePhoto(context, entry.getFile())) {
+                            evicted++;
+                            reclaimed += entry.size;
+                            totalBytes -= entry.size;
+                            evictedNames.add(entry.name);
+                            Log.d(TAG, "Evicted " + (backedUpGroup ? "backed up" : "NOT backed up") +
+                                  " photo: " + entry.name + " (" + (entry.size / 1024) + " KB)" +
+                                  (expired ? " [expired]" : " [over quota]"));
+                        } else {
+                            Log.w(TAG, "Could not evict photo: " + entry.name);
+                        }
+                    }
+                }
+            }
+
+            if (evicted > 0) {
+                UploadQueue.getInstance(context).remove(evictedNames);
+
+                SharedPreferences.Editor editor = prefs.edit();
+                for (String name : evictedNames) {
+                    BackupReconciler.clearBackupRecord(editor, name);
+                }
+                editor.putLong("retention_last_run_time", System.currentTimeMillis())
+                      .putLong("retention_last_reclaimed_bytes", reclaimed)
+                      .putLong("retention_total_reclaimed_bytes",
+                          prefs.getLong("retention_total_reclaimed_bytes", 0) + reclaimed);
+                editor.apply();
+
+                Log.d(TAG, "🧹 Retention pass evicted " + evicted + " photos, reclaimed " +
+                      (reclaimed / 1024) + " KB, " + (totalBytes / 1024) + " KB remaining");
+            }
+
+            return new RetentionResult(evicted, reclaimed, totalBytes, complete);
+        } catch (Exception e) {
+            Log.e(TAG, "Error during retention pass", e);
+            return new RetentionResult(0, 0, 0, true);
+        }
+    }
+
+    private static boolean isBackedUp(SharedPreferences prefs, PhotoIndex.PhotoEntry entry) {
+        long backupTime = prefs.getLong("backup_time_" + entry.name, 0);
+        return backupTime != 0 && backupTime >= entry.capturedAt;
+    }
+}
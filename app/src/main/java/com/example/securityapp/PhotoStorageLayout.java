@@ -0,0 +1,140 @@
+package com.example.securityapp;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Date-sharded directory layout for security photos.
+ *
+ * Photos are stored as security_photos/<uid>/yyyy/MM/dd/<name>.jpg so that no
+ * single directory grows without bound. Listing helpers understand both the
+ * sharded layout and legacy flat directories that have not been migrated yet.
+ */
+public class PhotoStorageLayout {
+    private static final String TAG = "PhotoStorageLayout";
+    public static final String ROOT_DIR_NAME = "security_photos";
+    private static final String SHARD_PATTERN = "yyyy/MM/dd";
+
+    /**
+     * Get the root security photos directory
+     */
+    public static File getRootDirectory(Context context) {
+        return new File(context.getFilesDir(), ROOT_DIR_NAME);
+    }
+
+    /**
+     * Get relative shard path (yyyy/MM/dd) for a capture time
+     */
+    public static String getShardPath(long captureTime) {
+        return new SimpleDateFormat(SHARD_PATTERN, Locale.US).format(new Date(captureTime));
+    }
+
+    /**
+     * Get (and create if needed) the shard directory for a capture time below a user directory
+     */
+    public static File getShardDirectory(File userDir, long captureTime) {
+        File shardDir = new File(userDir, getShardPath(captureTime));
+        if (!shardDir.exists()) {
+            boolean created = shardDir.mkdirs();
+            Log.d(TAG, "Created shard directory: " + created + " at " + shardDir.getAbsolutePath());
+        }
+        return shardDir;
+    }
+
+    /**
+     * Get the shard directory for a new capture of the current user
+     */
+    public static File getCaptureDirectory(Context context, long captureTime) {
+        return getShardDirectory(UserManager.getUserPhotosDirectory(context), captureTime);
+    }
+
+    /**
+     * Check whether a file name looks like a security photo
+     */
+    public static boolean isPhotoFile(String name) {
+        return name.toLowerCase().endsWith(".jpg");
+    }
+
+    /**
+     * List all photos below a directory, including date shards
+     */
+    public static List<File> listPhotos(File dir) {
+        List<File> photos = new ArrayList<>();
+        collectPhotos(dir, photos);
+        return photos;
+    }
+
+    /**
+     * List every photo below the root security photos directory (all users, all shards)
+     */
+    public static List<File> listAllPhotos(Context context) {
+        return listPhotos(getRootDirectory(context));
+    }
+
+    /**
+     * List photos stored directly in a directory (legacy flat layout, no recursion)
+     */
+    public static File[] listFlatPhotos(File dir) {
+        File[] photos = dir.listFiles((d, name) -> isPhotoFile(name) && new File(d, name).isFile());
+        return photos != null ? photos : new File[0];
+    }
+
+    /**
+     * Delete a photo and prune shard directories left empty by the deletion
+     */
+    public static boolean deletePhoto(Context context, File photo) {
+        if (!photo.delete()) {
+            return false;
+        }
+        PhotoIndex.recordDelete(context, photo);
+        ThumbnailCache.remove(context, photo.getName());
+        pruneEmptyShards(context, photo.getParentFile());
+        return true;
+    }
+
+    /**
+     * Remove empty shard directories walking up towards the user directory
+     */
+    public static void pruneEmptyShards(Context context, File shardDir) {
+        File rootDir = getRootDirectory(context);
+        File current = shardDir;
+        // At most three levels (dd, MM, yyyy) are shard directories
+        for (int level = 0; level < 3 && current != null && isShardComponent(current.getName()); level++) {
+            if (current.equals(rootDir)) break;
+            String[] children = current.list();
+            if (children == null || children.length > 0 || !current.delete()) break;
+            current = current.getParentFile();
+        }
+    }
+
+    /**
+     * Shard components are purely numeric (yyyy, MM or dd)
+     */
+    private static boolean isShardComponent(String name) {
+        if (name.isEmpty() || name.length() > 4) return false;
+        for (int i = 0; i < name.length(); i++) {
+            if (!Character.isDigit(name.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static void collectPhotos(File dir, List<File> out) {
+        File[] entries = dir.listFiles();
+        if (entries == null) return;
+
+        for (File entry : entries) {
+            if (entry.isDirectory()) {
+                collectPhotos(entry, out);
+            } else if (isPhotoFile(entry.getName())) {
+                out.add(entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.securityapp;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.os.Bundle;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.view.View;
+import android.widget.Button;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Full-screen viewer for a single local photo.
+ *
+ * Opens instantly with a screen-sized subsampled preview and hands the
+ * region decoder to {@link TiledPhotoView}, which loads full-resolution tiles
+ * only for the area the user zooms into.
+ */
+public class PhotoViewerActivity extends AppCompatActivity {
+    private static final String TAG = "PhotoViewerActivity";
+    public static final String EXTRA_PHOTO_PATH = "photo_path";
+
+    private final ExecutorService loadExecutor = Executors.newSingleThreadExecutor();
+
+    private TiledPhotoView photoView;
+    private ProgressBar progressBar;
+    private File photoFile;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_photo_viewer);
+
+        String path = getIntent().getStringExtra(EXTRA_PHOTO_PATH);
+        if (path == null || !new File(path).exists()) {
+            Toast.makeText(this, "Photo file not found", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+        photoFile = new File(path);
+
+        photoView = findViewById(R.id.tiledPhotoView);
+        progressBar = findViewById(R.id.viewerProgress);
+        TextView titleText = findViewById(R.id.viewerTitleText);
+        TextView detailsText = findViewById(R.id.viewerDetailsText);
+        Button shareButton = findViewById(R.id.viewerShareButton);
+        Button deleteButton = findViewById(R.id.viewerDeleteButton);
+
+        long captureTime = PhotoIdGenerator.getCaptureTime(photoFile.getName());
+        String date = new java.text.SimpleDateFormat("dd/MM/yyyy HH:mm:ss", java.util.Locale.getDefault())
+            .format(new java.util.Date(captureTime > 0 ? captureTime : photoFile.lastModified()));
+        titleText.setText(photoFile.getName());
+        detailsText.setText((photoFile.length() / 1024) + " KB - " + date);
+
+        shareButton.setOnClickListener(v -> PhotoActions.sharePhoto(this, photoFile));
+        deleteButton.setOnClickListener(v -> PhotoActions.deletePhoto(this, photoFile, this::finish));
+
+        // After layout, so the preview is sized to the view
+        photoView.post(this::loadPhoto);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        loadExecutor.shutdownNow();
+    }
+
+    /**
+     * Open the region decoder and decode a screen-sized preview off the UI thread
+     */
+    @SuppressWarnings("deprecation")
+    private void loadPhoto() {
+        if (isFinishing() || isDestroyed()) return;
+
+        DisplayMetrics metrics = getResources().getDisplayMetrics();
+        int viewSize = Math.max(photoView.getWidth(), photoView.getHeight());
+        final int maxPreviewSide = viewSize > 0 ? viewSize : Math.max(metrics.widthPixels, metrics.heightPixels);
+
+        loadExecutor.execute(() -> {
+            BitmapRegionDecoder decoder = null;
+            try {
+                decoder = BitmapRegionDecoder.newInstance(photoFile.getAbsolutePath(), false);
+                int rotation = PhotoBitmaps.getRotationDegrees(photoFile);
+
+                // Longest side of the preview is at most the view's longest side, so memory stays bounded
+                BitmapFactory.Options options = new BitmapFactory.Options();
+                options.inSampleSize = PhotoBitmaps.calculateInSampleSizeForLongSide(
+                    decoder.getWidth(), decoder.getHeight(), maxPreviewSide);
+                Bitmap preview = BitmapFactory.decodeFile(photoFile.getAbsolutePath(), options);
+                if (preview == null) {
+                    throw new IllegalStateException("Preview decode failed");
+                }
+
+                Log.d(TAG, "🔍 Viewer preview " + preview.getWidth() + "x" + preview.getHeight()
+                    + " (sample " + options.inSampleSize + ") of " + decoder.getWidth() + "x" + decoder.getHeight());
+
+                final BitmapRegionDecoder readyDecoder = decoder;
+                final int sample = options.inSampleSize;
+                runOnUiThread(() -> {
+                    if (isDestroyed()) {
+                        readyDecoder.recycle();
+                        return;
+                    }
+                    progressBar.setVisibility(View.GONE);
+                    photoView.setImage(readyDecoder, preview, sample, rotation);
+                });
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading photo " + photoFile.getName(), e);
+                if (decoder != null) {
+                    decoder.recycle();
+                }
+                runOnUiThread(() -> {
+                    if (isDestroyed()) return;
+                    Toast.makeText(this, "Failed to load photo", Toast.LENGTH_SHORT).show();
+                    finish();
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.securityapp;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry delays with decorrelated jitter.
+ *
+ * Each delay is drawn between the base delay and three times the previous
+ * one, capped: retries spread out quickly, and clients that failed together
+ * don't retry together. Callers keep the previous delay (0 before the first
+ * retry) and stop after maxAttempts.
+ */
+public class RetryPolicy {
+    /** Queued uploads: 30 s up to 30 min, five attempts */
+    public static final RetryPolicy UPLOAD = new RetryPolicy(30 * 1000, 30 * 60 * 1000, 5);
+    /** Download URL of a photo that may still be uploading: 2 s up to 10 s, five attempts */
+    public static final RetryPolicy DOWNLOAD_URL = new RetryPolicy(2 * 1000, 10 * 1000, 5);
+    /** Local photo directory scan right after a capture: 500 ms up to 2 s, three attempts */
+    public static final RetryPolicy LOCAL_SCAN = new RetryPolicy(500, 2 * 1000, 3);
+
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final int maxAttempts;
+
+    public RetryPolicy(long baseDelayMs, long maxDelayMs, int maxAttempts) {
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.maxAttempts = maxAttempts;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Whether another attempt may follow the given number of attempts made
+     */
+    public boolean canRetry(int attemptsMade) {
+        return attemptsMade < maxAttempts;
+    }
+
+    /**
+     * Delay before the next attempt, given the previous delay (0 if this is the first retry)
+     */
+    public long nextDelay(long previousDelayMs) {
+        long upper = Math.min(maxDelayMs, Math.max(baseDelayMs, previousDelayMs) * 3);
+        if (upper <= baseDelayMs) {
+            return baseDelayMs;
+        }
+        return ThreadLocalRandom.current().nextLong(baseDelayMs, upper + 1);
+    }
+}
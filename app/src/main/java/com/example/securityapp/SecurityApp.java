@@ -3,6 +3,7 @@ package com.example.securityapp;
 import android.app.Application;
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.content.pm.ApplicationInfo;
 import android.net.ConnectivityManager;
 import android.net.NetworkCapabilities;
 import android.net.NetworkInfo;
@@ -12,8 +13,6 @@ import android.util.Log;
 import android.widget.Toast;
 
 import androidx.annotation.Keep;
-import androidx.multidex.BuildConfig;
-import androidx.multidex.MultiDex;
 
 import com.google.android.gms.common.GoogleApiAvailability;
 import com.google.firebase.FirebaseApp;
@@ -36,23 +35,10 @@ public class SecurityApp extends Application {
     private static boolean appCheckInitialized = false;
     private static Context appContext;
     private static String appCheckDebugToken = null;
-    private static final boolean USE_DEBUG_APP_CHECK = BuildConfig.DEBUG; // Dynamic based on build type
 
     // We don't set a static debug token as Firebase generates one dynamically
     private static String generatedDebugToken = null;
 
-    @Override
-    protected void attachBaseContext(Context base) {
-        super.attachBaseContext(base);
-        // Initialize MultiDex to handle multiple dex files
-        try {
-            MultiDex.install(this);
-            Log.d(TAG, "MultiDex installed successfully");
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to install MultiDex", e);
-        }
-    }
-
     @Override
     @Keep
     public void onCreate() {
@@ -60,18 +46,41 @@ public class SecurityApp extends Application {
         appContext = getApplicationContext();
 
         Log.d(TAG, "SecurityApp onCreate - initializing Firebase components");
+        StartupOrchestrator.init(this);
 
-        // Set up exception handler first before any other initialization
-        setupExceptionHandler();
+        // Only what the first activity needs runs here; the rest waits for the first frame
+        StartupOrchestrator.runCritical("exception_handler", this::setupExceptionHandler);
 
-        // Initialize network monitoring first, so it's available for Firebase
-        NetworkHelper.registerNetworkCallback(this);
+        // Firebase must be ready before MainActivity resolves the signed-in user
+        StartupOrchestrator.runCritical("firebase_init", this::initializeFirebase);
 
-        // Initialize Firebase with better error handling and retry mechanism
-        initializeFirebase();
+        // Load photo statistics snapshot (builds the index from disk on first start);
+        // listeners repaint once the snapshot is available
+        StartupOrchestrator.runInBackground("photo_index", StartupOrchestrator.PRIORITY_HIGH, () -> {
+            PhotoIndex.getInstance(this);
+            PhotoRepository.notifyChanged();
+        });
+
+        // Network monitoring and Play Services state are read by cloud features only
+        StartupOrchestrator.runInBackground("network_callback", StartupOrchestrator.PRIORITY_HIGH,
+            () -> NetworkHelper.registerNetworkCallback(this));
+        StartupOrchestrator.runInBackground("play_services_check", StartupOrchestrator.PRIORITY_NORMAL,
+            this::safeCheckGooglePlayServices);
+
+        // Move legacy flat photo directories into the date-sharded layout in the background
+        StartupOrchestrator.runInBackground("photo_migration", StartupOrchestrator.PRIORITY_LOW,
+            () -> PhotoMigrator.startIfNeeded(this));
 
-        // Check Google Play Services availability with error handling
-        safeCheckGooglePlayServices();
+        // Pick up uploads a previous process queued or left in flight
+        StartupOrchestrator.runInBackground("upload_queue_resume", StartupOrchestrator.PRIORITY_LOW,
+            () -> CloudBackupService.resumePendingUploads(this));
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // Release cached thumbnails under memory pressure
+        ThumbnailCache.onTrimMemory(level);
     }
 
     @Override
@@ -93,9 +102,7 @@ public class SecurityApp extends Application {
                 FirebaseApp.getInstance();
                 isFirebaseInitialized = true;
                 Log.d(TAG, "Firebase already initialized");
-
-                // Initialize App Check after Firebase is initialized with a slight delay
-                new Handler(Looper.getMainLooper()).postDelayed(this::initializeFirebaseAppCheck, 1000);
+                scheduleAppCheck();
                 return;
             } catch (IllegalStateException e) {
                 // Not yet initialized, continue with initialization
@@ -110,8 +117,8 @@ public class SecurityApp extends Application {
             // Configure Firestore early, before any other Firebase operations
             FirebaseHelper.configureFirestore();
 
-            // Initialize App Check after Firebase is initialized with a slight delay
-            new Handler(Looper.getMainLooper()).postDelayed(this::initializeFirebaseAppCheck, 1000);
+            // Also reached from scheduleFirebaseRetry, so App Check follows every successful init
+            scheduleAppCheck();
 
             // Store initialization status
             getSharedPreferences("get_intruder", MODE_PRIVATE)
@@ -139,6 +146,15 @@ public class SecurityApp extends Application {
         }
     }
 
+    /**
+     * App Check only guards later backend calls: deferred until after the first frame
+     * during startup, run right away once startup work is released
+     */
+    private void scheduleAppCheck() {
+        StartupOrchestrator.runInBackground("app_check", StartupOrchestrator.PRIORITY_NORMAL,
+            this::initializeFirebaseAppCheck);
+    }
+
     /**
      * Initialize Firebase App Check for security - ProGuard safe
      */
@@ -156,7 +172,7 @@ public class SecurityApp extends Application {
 
             FirebaseAppCheck firebaseAppCheck = FirebaseAppCheck.getInstance();
 
-            if (USE_DEBUG_APP_CHECK) {
+            if (isDebugBuild()) {
                 // For development - configure with longer token refresh intervals
                 firebaseAppCheck.setTokenAutoRefreshEnabled(true);
 
@@ -328,6 +344,14 @@ public class SecurityApp extends Application {
         }
     }
 
+    /**
+     * Debug builds use the App Check debug provider. Read from the installed app's
+     * flags - library BuildConfig classes always report their own (release) build.
+     */
+    private boolean isDebugBuild() {
+        return (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    }
+
     private void scheduleFirebaseRetry() {
         // Schedule a retry after 3 seconds
         Handler handler = new Handler();
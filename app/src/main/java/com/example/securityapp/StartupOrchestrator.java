@@ -0,0 +1,188 @@
+package com.example.securityapp;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Orders cold-start work around the first frame.
+ *
+ * Only work the first frame depends on runs synchronously (traced with
+ * {@link StartupTracer}). Everything else is deferred: background tasks are
+ * held until the first frame is drawn and then run one at a time in priority
+ * order, and main-thread tasks are posted after it. When no activity draws
+ * (the process was started by a service or receiver), deferred work is
+ * released after a short timeout. The app counts as interactive once every
+ * task deferred during startup has finished.
+ */
+public class StartupOrchestrator {
+    private static final String TAG = "StartupOrchestrator";
+    private static final long FIRST_FRAME_TIMEOUT_MS = 3000;
+
+    public static final int PRIORITY_HIGH = 0;
+    public static final int PRIORITY_NORMAL = 1;
+    public static final int PRIORITY_LOW = 2;
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final AtomicLong sequence = new AtomicLong(0);
+    private static final ThreadPoolExecutor backgroundExecutor = new ThreadPoolExecutor(1, 1,
+        0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "StartupTasks");
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+
+    private static final List<StartupTask> heldTasks = new ArrayList<>();
+    private static final AtomicInteger startupTasksRemaining = new AtomicInteger(0);
+    private static boolean released = false;
+    private static Context appContext;
+
+    /**
+     * Deferred task ordered by priority, then submission order
+     */
+    private static class StartupTask implements Runnable, Comparable<StartupTask> {
+        final String step;
+        final int priority;
+        final long order;
+        final boolean mainThread;
+        final Runnable work;
+        final boolean countsForInteractive;
+
+        StartupTask(String step, int priority, boolean mainThread, Runnable work, boolean countsForInteractive) {
+            this.step = step;
+            this.priority = priority;
+            this.order = sequence.getAndIncrement();
+            this.mainThread = mainThread;
+            this.work = work;
+            this.countsForInteractive = countsForInteractive;
+        }
+
+        @Override
+        public void run() {
+            try {
+                StartupTracer.trace(step, work);
+            } catch (Exception e) {
+                Log.e(TAG, "Startup task failed: " + step, e);
+            } finally {
+                if (countsForInteractive && startupTasksRemaining.decrementAndGet() == 0) {
+                    onStartupTasksDone();
+                }
+            }
+        }
+
+        @Override
+        public int compareTo(StartupTask other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            return Long.compare(order, other.order);
+        }
+    }
+
+    /**
+     * Start orchestrating (from Application.onCreate)
+     */
+    public static void init(Context context) {
+        appContext = context.getApplicationContext();
+        mainHandler.postDelayed(() -> release("first frame timeout"), FIRST_FRAME_TIMEOUT_MS);
+    }
+
+    /**
+     * Run work the first frame depends on, right now on the calling thread
+     */
+    public static void runCritical(String step, Runnable work) {
+        StartupTracer.trace(step, work);
+    }
+
+    /**
+     * Run work on the background startup thread once the first frame is drawn
+     */
+    public static void runInBackground(String step, int priority, Runnable work) {
+        schedule(new StartupTask(step, priority, false, work, isStarting()));
+    }
+
+    /**
+     * Run work on the main thread once the first frame is drawn
+     */
+    public static void runOnMainAfterFirstFrame(String step, Runnable work) {
+        schedule(new StartupTask(step, PRIORITY_HIGH, true, work, isStarting()));
+    }
+
+    /**
+     * Release deferred work after the activity's first frame
+     */
+    public static void reportFirstFrame(Activity activity) {
+        View decorView = activity.getWindow().getDecorView();
+        decorView.getViewTreeObserver().addOnDrawListener(new ViewTreeObserver.OnDrawListener() {
+            private boolean reported = false;
+
+            @Override
+            public void onDraw() {
+                if (reported) return;
+                reported = true;
+                // Runs right after this frame is handed off; listeners can't be removed inside onDraw
+                mainHandler.postAtFrontOfQueue(() -> {
+                    decorView.getViewTreeObserver().removeOnDrawListener(this);
+                    StartupTracer.mark("first_frame");
+                    release("first frame");
+                });
+            }
+        });
+    }
+
+    private static synchronized boolean isStarting() {
+        return !released || startupTasksRemaining.get() > 0;
+    }
+
+    private static synchronized void schedule(StartupTask task) {
+        if (task.countsForInteractive) {
+            startupTasksRemaining.incrementAndGet();
+        }
+        if (!released) {
+            heldTasks.add(task);
+        } else {
+            dispatch(task);
+        }
+    }
+
+    private static synchronized void release(String reason) {
+        if (released) return;
+        released = true;
+        Log.d(TAG, "Releasing " + heldTasks.size() + " deferred startup tasks (" + reason + ")");
+
+        for (StartupTask task : heldTasks) {
+            dispatch(task);
+        }
+        heldTasks.clear();
+
+        if (startupTasksRemaining.get() == 0) {
+            onStartupTasksDone();
+        }
+    }
+
+    private static void dispatch(StartupTask task) {
+        if (task.mainThread) {
+            mainHandler.post(task);
+        } else {
+            backgroundExecutor.execute(task);
+        }
+    }
+
+    private static void onStartupTasksDone() {
+        if (appContext == null) return;
+        backgroundExecutor.execute(new StartupTask("persist_trace", PRIORITY_LOW, false,
+            () -> StartupTracer.finish(appContext, "interactive"), false));
+    }
+}
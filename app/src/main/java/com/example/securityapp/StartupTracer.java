@@ -0,0 +1,137 @@
+package com.example.securityapp;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timing marks for the current cold start.
+ *
+ * Every step records its offset from process start, its duration and whether
+ * it ran on the main thread. When the app becomes interactive the trace is
+ * logged and appended to startup_traces.jsonl in app storage, which keeps the
+ * most recent runs so time-to-interactive can be compared across versions.
+ */
+public class StartupTracer {
+    private static final String TAG = "StartupTracer";
+    private static final String TRACE_FILE_NAME = "startup_traces.jsonl";
+    private static final int MAX_STORED_TRACES = 20;
+
+    private static final long processStartUptime = Process.getStartUptimeMillis();
+    private static final List<JSONObject> marks = new ArrayList<>();
+    private static boolean finished = false;
+
+    /**
+     * Milliseconds since the process was started
+     */
+    public static long sinceProcessStart() {
+        return SystemClock.uptimeMillis() - processStartUptime;
+    }
+
+    /**
+     * Run a step and record how long it took
+     */
+    public static void trace(String step, Runnable work) {
+        long start = SystemClock.uptimeMillis();
+        try {
+            work.run();
+        } finally {
+            record(step, start - processStartUptime, SystemClock.uptimeMillis() - start);
+        }
+    }
+
+    /**
+     * Record a point in time (e.g. first frame) without a duration
+     */
+    public static void mark(String milestone) {
+        record(milestone, sinceProcessStart(), 0);
+    }
+
+    private static synchronized void record(String step, long offsetMs, long durationMs) {
+        if (finished) return;
+        try {
+            JSONObject mark = new JSONObject();
+            mark.put("step", step);
+            mark.put("at", offsetMs);
+            mark.put("duration", durationMs);
+            mark.put("mainThread", Looper.myLooper() == Looper.getMainLooper());
+            marks.add(mark);
+        } catch (Exception e) {
+            Log.e(TAG, "Error recording startup mark", e);
+        }
+    }
+
+    /**
+     * Close the trace for this process and persist it (call off the main thread)
+     */
+    public static void finish(Context context, String milestone) {
+        JSONObject trace = new JSONObject();
+        synchronized (StartupTracer.class) {
+            if (finished) return;
+            mark(milestone);
+            finished = true;
+
+            try {
+                long mainThreadMs = 0;
+                JSONArray steps = new JSONArray();
+                for (JSONObject mark : marks) {
+                    steps.put(mark);
+                    if (mark.getBoolean("mainThread")) {
+                        mainThreadMs += mark.getLong("duration");
+                    }
+                }
+                trace.put("recordedAt", System.currentTimeMillis());
+                trace.put("timeToInteractive", sinceProcessStart());
+                trace.put("mainThreadWork", mainThreadMs);
+                trace.put("steps", steps);
+            } catch (Exception e) {
+                Log.e(TAG, "Error building startup trace", e);
+                return;
+            }
+        }
+
+        Log.d(TAG, "⏱️ Startup: " + trace.optLong("timeToInteractive") + " ms to interactive, " +
+            trace.optLong("mainThreadWork") + " ms traced main-thread work");
+        persist(context, trace);
+    }
+
+    /**
+     * Append the trace, keeping only the most recent runs
+     */
+    private static void persist(Context context, JSONObject trace) {
+        File traceFile = new File(context.getFilesDir(), TRACE_FILE_NAME);
+        try {
+            List<String> lines = new ArrayList<>();
+            if (traceFile.exists()) {
+                try (BufferedReader reader = new BufferedReader(new FileReader(traceFile))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        lines.add(line);
+                    }
+                }
+            }
+            lines.add(trace.toString());
+
+            try (FileWriter writer = new FileWriter(traceFile, false)) {
+                for (String line : lines.subList(Math.max(0, lines.size() - MAX_STORED_TRACES), lines.size())) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error saving startup trace", e);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.securityapp;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+import android.util.LruCache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Two-level thumbnail cache: memory LRU sized from the device memory class,
+ * plus a bounded disk cache of small JPEG thumbnails keyed by photo ID.
+ *
+ * Bitmaps evicted from memory go into a reuse pool and are recycled through
+ * {@code inBitmap} when the next disk thumbnail is decoded, so scrolling the
+ * gallery does not keep allocating new pixel buffers. Callers acquire the
+ * bitmaps they display and release them when the view lets go; a bitmap
+ * evicted while still shown only joins the pool after its last release, so
+ * a visible row never has its pixels overwritten by another photo.
+ */
+public class ThumbnailCache {
+    private static final String TAG = "ThumbnailCache";
+    private static final String DISK_DIR_NAME = "thumbnails";
+    private static final long MAX_DISK_BYTES = 30L * 1024 * 1024;
+    private static final int DISK_TRIM_INTERVAL = 50; // Check the disk budget every N writes
+    private static final int JPEG_QUALITY = 85;
+
+    private static ThumbnailCache instance;
+
+    private final File diskDir;
+    private final LruCache<String, Bitmap> memoryCache;
+    // Guarded by poolLock: display counts, evicted bitmaps still on screen, and the reuse pool
+    private final Object poolLock = new Object();
+    private final Map<Bitmap, Integer> displayCounts = new IdentityHashMap<>();
+    private final Set<Bitmap> evictedWhileShown = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<SoftReference<Bitmap>> reusableBitmaps = new ArrayList<>();
+    private int writesSinceTrim = 0;
+
+    private ThumbnailCache(Context context) {
+        diskDir = new File(context.getCacheDir(), DISK_DIR_NAME);
+        if (!diskDir.exists()) {
+            diskDir.mkdirs();
+        }
+
+        // Use 1/8 of the app's memory class for thumbnails
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int memoryClassMb = activityManager != null ? activityManager.getMemoryClass() : 64;
+        int cacheBytes = memoryClassMb * 1024 * 1024 / 8;
+
+        memoryCache = new LruCache<String, Bitmap>(cacheBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+                // Keep evicted pixel buffers around for inBitmap reuse, once nothing displays them
+                if (!evicted || !oldValue.isMutable()) return;
+                synchronized (poolLock) {
+                    if (displayCounts.containsKey(oldValue)) {
+                        evictedWhileShown.add(oldValue);
+                    } else {
+                        reusableBitmaps.add(new SoftReference<>(oldValue));
+                    }
+                }
+            }
+        };
+
+        Log.d(TAG, "Thumbnail memory cache: " + (cacheBytes / 1024) + " KB");
+    }
+
+    public static synchronized ThumbnailCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new ThumbnailCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Memory-only lookup, safe to call on the UI thread; a returned bitmap must be {@link #release}d
+     */
+    public Bitmap acquireFromMemory(String photoName, int sizePx) {
+        synchronized (poolLock) {
+            Bitmap bitmap = memoryCache.get(getKey(photoName, sizePx));
+            if (bitmap != null) {
+                retain(bitmap);
+            }
+            return bitmap;
+        }
+    }
+
+    /**
+     * Get a thumbnail from memory, then disk, then by decoding the photo (call off the UI thread);
+     * a returned bitmap must be {@link #release}d
+     */
+    public Bitmap acquire(File photoFile, int sizePx) {
+        String key = getKey(photoFile.getName(), sizePx);
+
+        Bitmap bitmap = acquireFromMemory(photoFile.getName(), sizePx);
+        if (bitmap != null) {
+            return bitmap;
+        }
+
+        File diskFile = new File(diskDir, key + ".jpg");
+        if (diskFile.exists()) {
+            bitmap = decodeDiskThumbnail(diskFile, sizePx);
+            if (bitmap != null) {
+                cacheRetained(key, bitmap);
+                return bitmap;
+            }
+        }
+
+        if (Thread.currentThread().isInterrupted()) {
+            return null;
+        }
+
+        // Full decode of the original JPEG - only the first time a photo is seen
+        bitmap = PhotoBitmaps.createThumbnail(photoFile, sizePx);
+        if (bitmap != null) {
+            cacheRetained(key, bitmap);
+            writeDiskThumbnail(diskFile, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * The caller no longer displays a bitmap it acquired
+     */
+    public void release(Bitmap bitmap) {
+        if (bitmap == null) return;
+        synchronized (poolLock) {
+            Integer count = displayCounts.get(bitmap);
+            if (count == null) return;
+            if (count > 1) {
+                displayCounts.put(bitmap, count - 1);
+                return;
+            }
+            displayCounts.remove(bitmap);
+            if (evictedWhileShown.remove(bitmap)) {
+                reusableBitmaps.add(new SoftReference<>(bitmap));
+            }
+        }
+    }
+
+    private void retain(Bitmap bitmap) {
+        Integer count = displayCounts.get(bitmap);
+        displayCounts.put(bitmap, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * Count the caller's reference before the bitmap becomes evictable
+     */
+    private void cacheRetained(String key, Bitmap bitmap) {
+        synchronized (poolLock) {
+            retain(bitmap);
+            memoryCache.put(key, bitmap);
+        }
+    }
+
+    /**
+     * Drop all cached thumbnails of a deleted photo
+     */
+    public static void remove(Context context, String photoName) {
+        if (instance == null) {
+            // Disk thumbnails may exist from a previous process
+            File dir = new File(context.getCacheDir(), DISK_DIR_NAME);
+            deleteDiskThumbnails(dir, getKeyPrefix(photoName));
+            return;
+        }
+        instance.removeEntries(photoName);
+    }
+
+    /**
+     * React to system memory pressure (forwarded from Application.onTrimMemory)
+     */
+    public static void onTrimMemory(int level) {
+        ThumbnailCache cache = instance;
+        if (cache == null) return;
+
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            // App is in the background and likely to be killed - release everything
+            cache.memoryCache.evictAll();
+            cache.clearPool();
+            Log.d(TAG, "🧹 Thumbnail memory cache cleared (trim level " + level + ")");
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            cache.memoryCache.trimToSize(cache.memoryCache.maxSize() / 2);
+            cache.clearPool();
+            Log.d(TAG, "🧹 Thumbnail memory cache halved (trim level " + level + ")");
+        }
+    }
+
+    private void clearPool() {
+        synchronized (poolLock) {
+            reusableBitmaps.clear();
+        }
+    }
+
+    private void removeEntries(String photoName) {
+        String prefix = getKeyPrefix(photoName);
+        for (String key : memoryCache.snapshot().keySet()) {
+            if (key.startsWith(prefix)) {
+                memoryCache.remove(key);
+            }
+        }
+        deleteDiskThumbnails(diskDir, prefix);
+    }
+
+    private Bitmap decodeDiskThumbnail(File diskFile, int sizePx) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inMutable = true;
+        options.inBitmap = takeReusableBitmap(sizePx, sizePx);
+
+        try {
+            return BitmapFactory.decodeFile(diskFile.getAbsolutePath(), options);
+        } catch (IllegalArgumentException e) {
+            // Reuse candidate did not fit after all - decode into a fresh bitmap
+            options.inBitmap = null;
+            return BitmapFactory.decodeFile(diskFile.getAbsolutePath(), options);
+        }
+    }
+
+    /**
+     * Find a pooled bitmap large enough to hold a width x height ARGB_8888 decode
+     */
+    private Bitmap takeReusableBitmap(int width, int height) {
+        int requiredBytes = width * height * 4;
+        synchronized (poolLock) {
+            Iterator<SoftReference<Bitmap>> iterator = reusableBitmaps.iterator();
+            while (iterator.hasNext()) {
+                Bitmap candidate = iterator.next().get();
+                if (candidate == null || candidate.isRecycled() || !candidate.isMutable()) {
+                    iterator.remove();
+                } else if (candidate.getAllocationByteCount() >= requiredBytes) {
+                    iterator.remove();
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void writeDiskThumbnail(File diskFile, Bitmap bitmap) {
+        File tempFile = new File(diskDir, diskFile.getName() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tempFile)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, fos);
+        } catch (Exception e) {
+            Log.e(TAG, "Error writing disk thumbnail", e);
+            tempFile.delete();
+            return;
+        }
+
+        if (!tempFile.renameTo(diskFile)) {
+            tempFile.delete();
+        }
+
+        synchronized (this) {
+            if (++writesSinceTrim >= DISK_TRIM_INTERVAL) {
+                writesSinceTrim = 0;
+                trimDiskCache();
+            }
+        }
+    }
+
+    /**
+     * Keep the disk cache within its byte budget, dropping least recently written thumbnails
+     */
+    private void trimDiskCache() {
+        File[] files = diskDir.listFiles();
+        if (files == null) return;
+
+        long totalBytes = 0;
+        for (File file : files) {
+            totalBytes += file.length();
+        }
+        if (totalBytes <= MAX_DISK_BYTES) return;
+
+        List<File> sorted = new ArrayList<>(Arrays.asList(files));
+        Collections.sort(sorted, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : sorted) {
+            if (totalBytes <= MAX_DISK_BYTES * 3 / 4) break;
+            long length = file.length();
+            if (file.delete()) {
+                totalBytes -= length;
+            }
+        }
+        Log.d(TAG, "🧹 Disk thumbnail cache trimmed to " + (totalBytes / 1024) + " KB");
+    }
+
+    private static void deleteDiskThumbnails(File dir, String prefix) {
+        File[] files = dir.listFiles((d, name) -> name.startsWith(prefix));
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Cache key: photo ID (or name for legacy photos) plus the thumbnail size
+     */
+    private static String getKey(String photoName, int sizePx) {
+        return getKeyPrefix(photoName) + sizePx;
+    }
+
+    private static String getKeyPrefix(String photoName) {
+        String id = PhotoIdGenerator.getId(photoName);
+        return (id != null ? id : photoName.replace(".jpg", "")) + "_";
+    }
+}
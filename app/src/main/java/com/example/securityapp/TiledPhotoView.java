@@ -0,0 +1,321 @@
+package com.example.securityapp;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+import android.view.View;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Zoomable photo view that never decodes the full image at once.
+ *
+ * A screen-sized subsampled preview is drawn first. When the user zooms in
+ * past the preview's resolution, only the tiles covering the visible area are
+ * decoded with {@link BitmapRegionDecoder} on a background thread, at the
+ * sample size matching the current zoom. Decoded tiles live in a byte-bounded
+ * LRU cache, so memory use stays flat regardless of the source resolution.
+ */
+public class TiledPhotoView extends View {
+    private static final String TAG = "TiledPhotoView";
+    private static final int TILE_SIZE = 512; // Tile edge in decoded pixels
+    private static final float MAX_SCALE = 4f; // Up to 4x beyond 1:1 source pixels
+
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Matrix imageMatrix = new Matrix();
+    private final Matrix inverseMatrix = new Matrix();
+    private final ScaleGestureDetector scaleDetector;
+    private final GestureDetector gestureDetector;
+
+    private final ExecutorService tileExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "PhotoTiles");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+    private final Set<String> pendingTiles = Collections.synchronizedSet(new HashSet<>());
+    private final LruCache<String, Bitmap> tileCache;
+
+    private volatile BitmapRegionDecoder decoder;
+    private Bitmap preview;
+    private int previewSample = 1;
+    private int sourceWidth;
+    private int sourceHeight;
+    private int rotation;
+
+    // View state: scale is view pixels per source pixel, center is in source coordinates
+    private float scale;
+    private float minScale;
+    private float centerX;
+    private float centerY;
+    private volatile int visibleSample = 1;
+    private volatile Rect visibleSourceRect = new Rect();
+
+    public TiledPhotoView(Context context) {
+        this(context, null);
+    }
+
+    public TiledPhotoView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+
+        // Tiles get 1/16 of the memory class, independent of the photo size
+        android.app.ActivityManager activityManager =
+            (android.app.ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int memoryClassMb = activityManager != null ? activityManager.getMemoryClass() : 64;
+        tileCache = new LruCache<String, Bitmap>(memoryClassMb * 1024 * 1024 / 16) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+        };
+
+        scaleDetector = new ScaleGestureDetector(context, new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScale(ScaleGestureDetector detector) {
+                zoomAround(scale * detector.getScaleFactor(), detector.getFocusX(), detector.getFocusY());
+                return true;
+            }
+        });
+
+        gestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                panBy(distanceX, distanceY);
+                return true;
+            }
+
+            @Override
+            public boolean onDoubleTap(MotionEvent e) {
+                // Toggle between fit-to-screen and full resolution
+                float target = scale > minScale * 1.05f ? minScale : Math.max(1f, minScale * 2);
+                zoomAround(target, e.getX(), e.getY());
+                return true;
+            }
+
+            @Override
+            public boolean onDown(MotionEvent e) {
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Show a photo: the decoder supplies tiles, the preview is shown until tiles arrive
+     */
+    public void setImage(BitmapRegionDecoder decoder, Bitmap preview, int previewSample, int rotation) {
+        releaseImage();
+        this.decoder = decoder;
+        this.preview = preview;
+        this.previewSample = previewSample;
+        this.rotation = rotation;
+        this.sourceWidth = decoder.getWidth();
+        this.sourceHeight = decoder.getHeight();
+        resetToFit();
+        invalidate();
+    }
+
+    /**
+     * Free the decoder, preview and all tiles
+     */
+    public void releaseImage() {
+        pendingTiles.clear();
+        tileCache.evictAll();
+        if (decoder != null) {
+            final BitmapRegionDecoder oldDecoder = decoder;
+            // Recycle on the tile thread so an in-flight decode finishes first
+            tileExecutor.execute(oldDecoder::recycle);
+            decoder = null;
+        }
+        preview = null;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        releaseImage();
+        tileExecutor.shutdown();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        if (decoder != null) {
+            resetToFit();
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        boolean handled = scaleDetector.onTouchEvent(event);
+        handled |= gestureDetector.onTouchEvent(event);
+        return handled || super.onTouchEvent(event);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (decoder == null || preview == null) return;
+
+        updateMatrix();
+        canvas.save();
+        canvas.concat(imageMatrix);
+
+        // Preview covers the whole image at low resolution
+        canvas.drawBitmap(preview, null, new Rect(0, 0, sourceWidth, sourceHeight), bitmapPaint);
+
+        // Sharper tiles on top once zoomed past the preview's resolution
+        int sample = sampleForScale(scale);
+        if (sample < previewSample) {
+            drawTiles(canvas, sample);
+        }
+
+        canvas.restore();
+    }
+
+    private void drawTiles(Canvas canvas, int sample) {
+        Rect visible = computeVisibleSourceRect();
+        visibleSample = sample;
+        visibleSourceRect = visible;
+
+        int tileSourceSize = TILE_SIZE * sample;
+        int firstCol = visible.left / tileSourceSize;
+        int lastCol = (visible.right - 1) / tileSourceSize;
+        int firstRow = visible.top / tileSourceSize;
+        int lastRow = (visible.bottom - 1) / tileSourceSize;
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                Rect tileRect = new Rect(col * tileSourceSize, row * tileSourceSize,
+                    Math.min((col + 1) * tileSourceSize, sourceWidth),
+                    Math.min((row + 1) * tileSourceSize, sourceHeight));
+                String key = sample + ":" + col + ":" + row;
+
+                Bitmap tile = tileCache.get(key);
+                if (tile != null) {
+                    canvas.drawBitmap(tile, null, tileRect, bitmapPaint);
+                } else {
+                    requestTile(key, tileRect, sample);
+                }
+            }
+        }
+    }
+
+    /**
+     * Decode a tile in the background unless it is already queued
+     */
+    private void requestTile(String key, Rect tileRect, int sample) {
+        if (!pendingTiles.add(key) || tileExecutor.isShutdown()) return;
+        final BitmapRegionDecoder tileDecoder = decoder;
+
+        tileExecutor.execute(() -> {
+            try {
+                // Skip tiles that scrolled away or belong to a different zoom level by now
+                if (tileDecoder != decoder || sample != visibleSample || !Rect.intersects(tileRect, visibleSourceRect)) {
+                    return;
+                }
+
+                BitmapFactory.Options options = new BitmapFactory.Options();
+                options.inSampleSize = sample;
+                Bitmap tile = tileDecoder.decodeRegion(tileRect, options);
+                if (tile != null && tileDecoder == decoder) {
+                    tileCache.put(key, tile);
+                    postInvalidate();
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error decoding tile " + key, e);
+            } finally {
+                pendingTiles.remove(key);
+            }
+        });
+    }
+
+    private void resetToFit() {
+        if (getWidth() == 0 || getHeight() == 0 || sourceWidth == 0) return;
+
+        boolean sideways = rotation == 90 || rotation == 270;
+        float displayWidth = sideways ? sourceHeight : sourceWidth;
+        float displayHeight = sideways ? sourceWidth : sourceHeight;
+        minScale = Math.min(getWidth() / displayWidth, getHeight() / displayHeight);
+        scale = minScale;
+        centerX = sourceWidth / 2f;
+        centerY = sourceHeight / 2f;
+    }
+
+    private void zoomAround(float newScale, float focusX, float focusY) {
+        if (decoder == null) return;
+
+        // Keep the source point under the focus fixed while zooming
+        updateMatrix();
+        float[] focus = {focusX, focusY};
+        inverseMatrix.mapPoints(focus);
+
+        scale = Math.max(minScale, Math.min(newScale, Math.max(minScale, MAX_SCALE)));
+        updateMatrix();
+
+        float[] moved = {focus[0], focus[1]};
+        imageMatrix.mapPoints(moved);
+        panBy(moved[0] - focusX, moved[1] - focusY);
+    }
+
+    private void panBy(float viewDx, float viewDy) {
+        if (decoder == null) return;
+
+        // Convert the view-space drag into source coordinates (undo rotation and scale)
+        updateMatrix();
+        float[] delta = {viewDx, viewDy};
+        inverseMatrix.mapVectors(delta);
+        centerX = clamp(centerX + delta[0], 0, sourceWidth);
+        centerY = clamp(centerY + delta[1], 0, sourceHeight);
+        invalidate();
+    }
+
+    private void updateMatrix() {
+        imageMatrix.reset();
+        imageMatrix.postTranslate(-centerX, -centerY);
+        imageMatrix.postRotate(rotation);
+        imageMatrix.postScale(scale, scale);
+        imageMatrix.postTranslate(getWidth() / 2f, getHeight() / 2f);
+        imageMatrix.invert(inverseMatrix);
+    }
+
+    private Rect computeVisibleSourceRect() {
+        RectF viewRect = new RectF(0, 0, getWidth(), getHeight());
+        inverseMatrix.mapRect(viewRect);
+        Rect visible = new Rect();
+        viewRect.roundOut(visible);
+        if (!visible.intersect(0, 0, sourceWidth, sourceHeight)) {
+            visible.setEmpty();
+        }
+        return visible;
+    }
+
+    /**
+     * Largest power-of-two sample size that still gives at least one decoded pixel per screen pixel
+     */
+    private static int sampleForScale(float scale) {
+        int sample = 1;
+        while (sample * 2 <= 1f / scale) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    private static float clamp(float value, float min, float max) {
+        return Math.max(min, Math.min(value, max));
+    }
+}
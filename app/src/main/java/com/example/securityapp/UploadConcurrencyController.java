@@ -0,0 +1,223 @@
+package com.example.securityapp;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Additive-increase/multiplicative-decrease limit for concurrent uploads.
+ *
+ * The limit grows by one after a full window of healthy uploads (one per
+ * allowed slot) and halves on congestion: timeouts, 429/503 responses, or a
+ * recent error rate above threshold. An upload whose own throughput falls well
+ * below the running average holds the limit where it is, since more parallel
+ * transfers would only split the same link. Only failures of uploads started
+ * after the last decrease count, so one burst of timeouts halves the limit
+ * once. Every change is added to a timeline that is persisted per run to
+ * upload_concurrency.jsonl in app storage.
+ */
+public class UploadConcurrencyController {
+    private static final String TAG = "UploadConcurrency";
+    private static final String TIMELINE_FILE_NAME = "upload_concurrency.jsonl";
+    private static final int MAX_STORED_RUNS = 20;
+
+    static final int MIN_LIMIT = 1;
+    static final int MAX_LIMIT = 8;
+    static final int INITIAL_LIMIT = 2;
+    private static final double THROUGHPUT_SMOOTHING = 0.2;
+    private static final double DEGRADED_THROUGHPUT_RATIO = 0.5;
+    private static final double ERROR_RATE_SMOOTHING = 0.2;
+    private static final double MAX_HEALTHY_ERROR_RATE = 0.3;
+
+    private final LongSupplier clock;
+    private int limit = INITIAL_LIMIT;
+    private int healthyStreak = 0;
+    private double averageBytesPerMs = 0;
+    private double errorRate = 0;
+    private long lastDecreaseAt = 0;
+
+    // Timeline of the current run
+    private long runStartedAt = 0;
+    private int peakLimit = INITIAL_LIMIT;
+    private int uploadsThisRun = 0;
+    private long windowBytes = 0;
+    private long windowStartedAt = 0;
+    private final List<JSONObject> timeline = new ArrayList<>();
+
+    public UploadConcurrencyController() {
+        this(SystemClock::elapsedRealtime);
+    }
+
+    /**
+     * Controller on its own clock (elapsed milliseconds), for tests
+     */
+    UploadConcurrencyController(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * How many uploads may be in flight right now
+     */
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Timestamp to hand back with the outcome of an upload that is starting now
+     */
+    public synchronized long onUploadStarted() {
+        long now = clock.getAsLong();
+        if (runStartedAt == 0) {
+            runStartedAt = now;
+            windowStartedAt = now;
+            peakLimit = limit;
+            addPoint(now, "start");
+        }
+        return now;
+    }
+
+    /**
+     * An upload finished; bytesSent excludes anything skipped by resuming
+     */
+    public synchronized void onUploadSucceeded(long startedAt, long bytesSent) {
+        long now = clock.getAsLong();
+        uploadsThisRun++;
+        windowBytes += bytesSent;
+        errorRate = (1 - ERROR_RATE_SMOOTHING) * errorRate;
+
+        double bytesPerMs = bytesSent / (double) Math.max(1, now - startedAt);
+        boolean degraded = averageBytesPerMs > 0 && bytesPerMs < averageBytesPerMs * DEGRADED_THROUGHPUT_RATIO;
+        averageBytesPerMs = averageBytesPerMs == 0 ? bytesPerMs
+            : (1 - THROUGHPUT_SMOOTHING) * averageBytesPerMs + THROUGHPUT_SMOOTHING * bytesPerMs;
+
+        if (degraded) {
+            // The link is saturated: hold the limit
+            healthyStreak = 0;
+            return;
+        }
+
+        if (++healthyStreak >= limit && limit < MAX_LIMIT) {
+            limit++;
+            healthyStreak = 0;
+            peakLimit = Math.max(peakLimit, limit);
+            addPoint(now, "increase");
+            Log.d(TAG, "📈 Upload concurrency raised to " + limit);
+        }
+    }
+
+    /**
+     * An upload failed; congestion means a timeout or a 429/503 response
+     */
+    public synchronized void onUploadFailed(long startedAt, boolean congestion) {
+        long now = clock.getAsLong();
+        uploadsThisRun++;
+        healthyStreak = 0;
+        errorRate = (1 - ERROR_RATE_SMOOTHING) * errorRate + ERROR_RATE_SMOOTHING;
+
+        if (!congestion && errorRate <= MAX_HEALTHY_ERROR_RATE) return;
+
+        // Uploads started before the last decrease already saw the old limit
+        if (startedAt < lastDecreaseAt) return;
+
+        int decreased = Math.max(MIN_LIMIT, limit / 2);
+        lastDecreaseAt = now;
+        if (decreased != limit) {
+            limit = decreased;
+            addPoint(now, congestion ? "congestion" : "errors");
+            Log.w(TAG, "📉 Upload concurrency cut to " + limit + (congestion ? " (congestion)" : " (error rate)"));
+        }
+    }
+
+    private void addPoint(long now, String reason) {
+        try {
+            long elapsed = Math.max(1, now - windowStartedAt);
+            JSONObject point = new JSONObject();
+            point.put("at", now - runStartedAt);
+            point.put("limit", limit);
+            point.put("reason", reason);
+            point.put("throughputKBps", windowBytes * 1000 / elapsed / 1024);
+            point.put("errorRate", Math.round(errorRate * 100) / 100.0);
+            timeline.add(point);
+        } catch (Exception e) {
+            Log.e(TAG, "Error recording concurrency point", e);
+        }
+        windowBytes = 0;
+        windowStartedAt = now;
+    }
+
+    /**
+     * Close the current run's timeline and persist it (call off the main thread);
+     * the learned limit carries over to the next run
+     */
+    public void finishRun(Context context) {
+        JSONObject run = new JSONObject();
+        synchronized (this) {
+            if (runStartedAt == 0) return;
+            long now = clock.getAsLong();
+            addPoint(now, "finish");
+
+            try {
+                JSONArray points = new JSONArray();
+                for (JSONObject point : timeline) {
+                    points.put(point);
+                }
+                run.put("recordedAt", System.currentTimeMillis());
+                run.put("duration", now - runStartedAt);
+                run.put("uploads", uploadsThisRun);
+                run.put("peakLimit", peakLimit);
+                run.put("finalLimit", limit);
+                run.put("timeline", points);
+            } catch (Exception e) {
+                Log.e(TAG, "Error building concurrency timeline", e);
+                return;
+            } finally {
+                runStartedAt = 0;
+                uploadsThisRun = 0;
+                timeline.clear();
+            }
+        }
+
+        Log.d(TAG, "⏱️ Upload run: " + run.optInt("uploads") + " uploads in " + run.optLong("duration") +
+            " ms, concurrency peak " + run.optInt("peakLimit") + ", final " + run.optInt("finalLimit"));
+        persist(context, run);
+    }
+
+    /**
+     * Append the run, keeping only the most recent ones
+     */
+    private static void persist(Context context, JSONObject run) {
+        File timelineFile = new File(context.getFilesDir(), TIMELINE_FILE_NAME);
+        try {
+            List<String> lines = new ArrayList<>();
+            if (timelineFile.exists()) {
+                try (BufferedReader reader = new BufferedReader(new FileReader(timelineFile))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        lines.add(line);
+                    }
+                }
+            }
+            lines.add(run.toString());
+
+            try (FileWriter writer = new FileWriter(timelineFile, false)) {
+                for (String line : lines.subList(Math.max(0, lines.size() - MAX_STORED_RUNS), lines.size())) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error saving concurrency timeline", e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.securityapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+
+/**
+ * Which upload tiers may use the current network, and the preview tier itself.
+ *
+ * Every photo is uploaded as two objects: a small WebP preview (480 px on the
+ * long edge) that gets evidence off the device within seconds, and the
+ * original. Each network type has a mode: full (preview, then original),
+ * preview only (originals wait for a network that allows them) or none.
+ * Defaults are full on unmetered networks and preview only on metered ones;
+ * live-alert evidence always sends its original when the network allows any
+ * upload. Time from capture to the first tier being offsite is recorded.
+ */
+public class UploadPolicy {
+    private static final String TAG = "UploadPolicy";
+    private static final String PREF_MODE_PREFIX = "upload_policy_";
+
+    public static final String NETWORK_UNMETERED = "unmetered";
+    public static final String NETWORK_METERED = "metered";
+
+    public static final String MODE_FULL = "full";
+    public static final String MODE_PREVIEW = "preview";
+    public static final String MODE_NONE = "none";
+
+    public static final int NO_TIER = -1;
+
+    private static final int PREVIEW_SIZE_PX = 480;
+    private static final int PREVIEW_QUALITY = 40;
+    private static final String PREVIEW_DIRECTORY = "thumbs/";
+    private static final String PREVIEW_SUFFIX = ".webp";
+
+    /**
+     * Mode for a network type (falls back to the defaults; wifi_only_backup caps metered at preview)
+     */
+    public static String getMode(Context context, String networkType) {
+        SharedPreferences prefs = context.getSharedPreferences("security_app", Context.MODE_PRIVATE);
+        boolean metered = NETWORK_METERED.equals(networkType);
+        String mode = prefs.getString(PREF_MODE_PREFIX + networkType, metered ? MODE_PREVIEW : MODE_FULL);
+        if (metered && MODE_FULL.equals(mode) && prefs.getBoolean("wifi_only_backup", false)) {
+            return MODE_PREVIEW;
+        }
+        return mode;
+    }
+
+    public static void setMode(Context context, String networkType, String mode) {
+        context.getSharedPreferences("security_app", Context.MODE_PRIVATE).edit()
+            .putString(PREF_MODE_PREFIX + networkType, mode)
+            .apply();
+    }
+
+    public static String getCurrentNetworkType(Context context) {
+        return NetworkHelper.isUnmeteredConnection(context) ? NETWORK_UNMETERED : NETWORK_METERED;
+    }
+
+    /**
+     * Highest tier a lane may upload on the current network (NO_TIER when uploads are off)
+     */
+    public static int getAllowedTier(Context context, int lane) {
+        String mode = getMode(context, getCurrentNetworkType(context));
+        if (MODE_NONE.equals(mode)) {
+            return NO_TIER;
+        }
+        if (MODE_FULL.equals(mode) || lane == UploadQueue.LANE_LIVE_ALERT) {
+            return UploadQueue.TIER_ORIGINAL;
+        }
+        return UploadQueue.TIER_PREVIEW;
+    }
+
+    /**
+     * Object name of a photo's preview, next to the originals (e.g. thumbs/Intruder_x.webp)
+     */
+    public static String getPreviewName(String photoName) {
+        int extension = photoName.lastIndexOf('.');
+        String baseName = extension > 0 ? photoName.substring(0, extension) : photoName;
+        return PREVIEW_DIRECTORY + baseName + PREVIEW_SUFFIX;
+    }
+
+    /**
+     * Encode the preview tier of a photo (upright, long edge PREVIEW_SIZE_PX), or null if it can't be decoded
+     */
+    @SuppressWarnings("deprecation")
+    public static byte[] createPreview(File photoFile) {
+        try {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeFile(photoFile.getAbsolutePath(), options);
+            options.inSampleSize = PhotoBitmaps.calculateInSampleSize(options, PREVIEW_SIZE_PX, PREVIEW_SIZE_PX);
+            options.inJustDecodeBounds = false;
+
+            Bitmap bitmap = BitmapFactory.decodeFile(photoFile.getAbsolutePath(), options);
+            if (bitmap == null) return null;
+            bitmap = PhotoBitmaps.applyRotationCorrection(bitmap, photoFile);
+
+            float scale = (float) PREVIEW_SIZE_PX / Math.max(bitmap.getWidth(), bitmap.getHeight());
+            if (scale < 1) {
+                Bitmap scaled = Bitmap.createScaledBitmap(bitmap,
+                    Math.round(bitmap.getWidth() * scale), Math.round(bitmap.getHeight() * scale), true);
+                if (scaled != bitmap) {
+                    bitmap.recycle();
+                    bitmap = scaled;
+                }
+            }
+
+            Bitmap.CompressFormat format = Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY : Bitmap.CompressFormat.WEBP;
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            bitmap.compress(format, PREVIEW_QUALITY, output);
+            bitmap.recycle();
+            return output.toByteArray();
+        } catch (Exception | OutOfMemoryError e) {
+            Log.e(TAG, "Error creating preview for " + photoFile.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Record how long a fresh capture took to get its first tier offsite
+     */
+    public static void recordEvidenceOffsite(Context context, File photoFile, int tier) {
+        long capturedAt = PhotoIdGenerator.getCaptureTime(photoFile.getName());
+        if (capturedAt == 0) {
+            capturedAt = photoFile.lastModified();
+        }
+        long latencyMs = Math.max(0, System.currentTimeMillis() - capturedAt);
+        String networkType = getCurrentNetworkType(context);
+
+        SharedPreferences prefs = context.getSharedPreferences("security_app", Context.MODE_PRIVATE);
+        int count = prefs.getInt("evidence_offsite_count", 0) + 1;
+        long totalMs = prefs.getLong("evidence_offsite_total_ms", 0) + latencyMs;
+        prefs.edit()
+            .putInt("evidence_offsite_count", count)
+            .putLong("evidence_offsite_total_ms", totalMs)
+            .putLong("evidence_offsite_last_ms", latencyMs)
+            .apply();
+
+        Log.d(TAG, "⏱️ Evidence offsite " + latencyMs + " ms after capture (" +
+            (tier == UploadQueue.TIER_PREVIEW ? "preview" : "original") + ", " + networkType +
+            "), average " + (totalMs / count) + " ms over " + count);
+    }
+
+    /**
+     * Average time from capture to first tier offsite (0 if nothing was measured yet)
+     */
+    public static long getAverageEvidenceOffsiteMs(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences("security_app", Context.MODE_PRIVATE);
+        int count = prefs.getInt("evidence_offsite_count", 0);
+        return count > 0 ? prefs.getLong("evidence_offsite_total_ms", 0) / count : 0;
+    }
+}
@@ -0,0 +1,520 @@
+package com.example.securityapp;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Durable queue of photos waiting to be uploaded to cloud storage.
+ *
+ * Every photo moves through queued → in_flight → done, or back to queued with
+ * a later next-eligible time after a retryable failure, or to failed with the
+ * reason once it can't be retried. Because the queue lives in SQLite, a
+ * capture only costs one keyed insert and an upload interrupted by process
+ * death is picked up again by the next worker run. The storage upload session
+ * of an in-flight row is kept with it, so a retried upload continues from the
+ * bytes the server already has instead of starting over.
+ *
+ * Rows are claimed by lane first: live-alert evidence, then recent captures,
+ * then the historical backlog, each with its own counters. Each photo has two
+ * rows, its preview and its original (see {@link UploadPolicy}); the preview
+ * is claimed first, and callers pass the highest tier the network allows.
+ */
+public class UploadQueue extends SQLiteOpenHelper {
+    private static final String TAG = "UploadQueue";
+    private static final String DATABASE_NAME = "upload_queue.db";
+    private static final int DATABASE_VERSION = 4;
+
+    private static final String TABLE_UPLOADS = "uploads";
+
+    public static final String STATE_QUEUED = "queued";
+    public static final String STATE_IN_FLIGHT = "in_flight";
+    public static final String STATE_DONE = "done";
+    public static final String STATE_FAILED = "failed";
+
+    public static final int LANE_LIVE_ALERT = 0;
+    public static final int LANE_RECENT = 1;
+    public static final int LANE_BACKLOG = 2;
+    public static final String[] LANE_NAMES = {"alerts", "recent", "backlog"};
+
+    public static final int TIER_PREVIEW = 0;
+    public static final int TIER_ORIGINAL = 1;
+    private static final String PREVIEW_KEY_PREFIX = "preview:";
+
+    // Live alerts get their own tier limit, everything else the background one
+    private static final String TIER_SELECTION =
+        "(tier <= ? OR (lane = " + LANE_LIVE_ALERT + " AND tier <= ?))";
+
+    private static final long DONE_RETENTION_MS = 7L * 24 * 60 * 60 * 1000;
+
+    private static UploadQueue instance;
+    private static boolean recoveredThisProcess = false;
+
+    /**
+     * One queued upload
+     */
+    public static class Entry {
+        public final String name;
+        public final String path;
+        public final int lane;
+        public final int tier;
+        public final int attempts;
+        public final String sessionUri;
+        final long lastRetryDelayMs; // Backoff before this attempt (0 on the first)
+
+        Entry(String name, String path, int lane, int tier, int attempts, String sessionUri, long lastRetryDelayMs) {
+            this.name = name;
+            this.path = path;
+            this.lane = lane;
+            this.tier = tier;
+            this.attempts = attempts;
+            this.sessionUri = sessionUri;
+            this.lastRetryDelayMs = lastRetryDelayMs;
+        }
+
+        public File getFile() {
+            return new File(path);
+        }
+
+        /**
+         * Name of the photo this row uploads a tier of
+         */
+        public String getPhotoName() {
+            return getFile().getName();
+        }
+    }
+
+    /**
+     * Original-tier row counts by state; done and failed only include rows finished since the given time
+     */
+    public static class Counts {
+        public final int queued;
+        public final int inFlight;
+        public final int done;
+        public final int failed;
+
+        static final Counts EMPTY = new Counts(0, 0, 0, 0);
+
+        Counts(int queued, int inFlight, int done, int failed) {
+            this.queued = queued;
+            this.inFlight = inFlight;
+            this.done = done;
+            this.failed = failed;
+        }
+
+        public int getPending() {
+            return queued + inFlight;
+        }
+
+        public int getTotal() {
+            return queued + inFlight + done + failed;
+        }
+
+        Counts plus(Counts other) {
+            return new Counts(queued + other.queued, inFlight + other.inFlight,
+                done + other.done, failed + other.failed);
+        }
+    }
+
+    private UploadQueue(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    public static synchronized UploadQueue getInstance(Context context) {
+        if (instance == null) {
+            instance = new UploadQueue(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_UPLOADS + " (" +
+                "name TEXT PRIMARY KEY, " +
+                "path TEXT NOT NULL, " +
+                "state TEXT NOT NULL, " +
+                "lane INTEGER NOT NULL, " +
+                "tier INTEGER NOT NULL, " +
+                "attempts INTEGER NOT NULL, " +
+                "next_attempt_at INTEGER NOT NULL, " +
+                "last_error TEXT, " +
+                "session_uri TEXT, " +
+                "enqueued_at INTEGER NOT NULL, " +
+                "updated_at INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX idx_uploads_claim ON " + TABLE_UPLOADS + " (state, lane, tier, enqueued_at)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            db.execSQL("ALTER TABLE " + TABLE_UPLOADS + " ADD COLUMN session_uri TEXT");
+        }
+        if (oldVersion < 3) {
+            db.execSQL("ALTER TABLE " + TABLE_UPLOADS + " ADD COLUMN lane INTEGER NOT NULL DEFAULT " + LANE_BACKLOG);
+            db.execSQL("DROP INDEX IF EXISTS idx_uploads_state");
+        }
+        if (oldVersion < 4) {
+            // Rows queued before previews existed are originals
+            db.execSQL("ALTER TABLE " + TABLE_UPLOADS + " ADD COLUMN tier INTEGER NOT NULL DEFAULT " + TIER_ORIGINAL);
+            db.execSQL("DROP INDEX IF EXISTS idx_uploads_claim");
+            db.execSQL("CREATE INDEX idx_uploads_claim ON " + TABLE_UPLOADS + " (state, lane, tier, enqueued_at)");
+        }
+    }
+
+    /**
+     * Queue both tiers of a photo in a lane (re-queues them if they finished before; while
+     * queued or in flight they only move up to a higher-priority lane)
+     */
+    public synchronized void enqueue(File photo, int lane) {
+        enqueue(getWritableDatabase(), photo, lane, System.currentTimeMillis());
+    }
+
+    /**
+     * Queue a batch of photos in one lane in one transaction
+     */
+    public synchronized void enqueueAll(Collection<File> photos, int lane) {
+        if (photos.isEmpty()) return;
+        SQLiteDatabase db = getWritableDatabase();
+        long now = System.currentTimeMillis();
+        db.beginTransaction();
+        try {
+            for (File photo : photos) {
+                enqueue(db, photo, lane, now);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private void enqueue(SQLiteDatabase db, File photo, int lane, long now) {
+        enqueue(db, getPreviewKey(photo.getName()), photo, lane, TIER_PREVIEW, now);
+        enqueue(db, photo.getName(), photo, lane, TIER_ORIGINAL, now);
+    }
+
+    private void enqueue(SQLiteDatabase db, String name, File photo, int lane, int tier, long now) {
+        ContentValues values = new ContentValues();
+        values.put("name", name);
+        values.put("path", photo.getAbsolutePath());
+        values.put("state", STATE_QUEUED);
+        values.put("lane", lane);
+        values.put("tier", tier);
+        values.put("attempts", 0);
+        values.put("next_attempt_at", now);
+        values.put("enqueued_at", now);
+        values.put("updated_at", now);
+
+        if (db.insertWithOnConflict(TABLE_UPLOADS, null, values, SQLiteDatabase.CONFLICT_IGNORE) == -1) {
+            // Already known: only finished rows go back into the queue
+            values.remove("name");
+            values.putNull("last_error");
+            values.putNull("session_uri");
+            if (db.update(TABLE_UPLOADS, values, "name = ? AND state IN (?, ?)",
+                    new String[]{name, STATE_DONE, STATE_FAILED}) == 0) {
+                db.execSQL("UPDATE " + TABLE_UPLOADS + " SET lane = ? WHERE name = ? AND lane > ?",
+                    new Object[]{lane, name, lane});
+            }
+        }
+    }
+
+    /**
+     * Key of a photo's preview row
+     */
+    public static String getPreviewKey(String photoName) {
+        return PREVIEW_KEY_PREFIX + photoName;
+    }
+
+    /**
+     * Take the eligible queued upload up to maxTier from the highest-priority lane up to maxLane,
+     * previews before originals, oldest first, and mark it in flight (null if none is eligible now)
+     */
+    public synchronized Entry claimNext(int maxLane, int maxTier) {
+        return claimNext("state = ? AND next_attempt_at <= ? AND tier <= ? AND lane <= ?",
+            String.valueOf(maxTier), String.valueOf(maxLane));
+    }
+
+    /**
+     * Same as {@link #claimNext(int, int)} within one lane
+     */
+    public synchronized Entry claimNextInLane(int lane, int maxTier) {
+        return claimNext("state = ? AND next_attempt_at <= ? AND tier <= ? AND lane = ?",
+            String.valueOf(maxTier), String.valueOf(lane));
+    }
+
+    private Entry claimNext(String selection, String tierArg, String laneArg) {
+        SQLiteDatabase db = getWritableDatabase();
+        long now = System.currentTimeMillis();
+        String[] selectionArgs = {STATE_QUEUED, String.valueOf(now), tierArg, laneArg};
+        db.beginTransaction();
+        try {
+            Entry entry = null;
+            try (Cursor cursor = db.query(TABLE_UPLOADS, new String[]{"name", "path", "lane", "tier", "attempts", "session_uri",
+                        "MAX(0, next_attempt_at - updated_at)"},
+                    selection, selectionArgs, null, null, "lane ASC, tier ASC, enqueued_at ASC, name ASC", "1")) {
+                if (cursor.moveToFirst()) {
+                    int attempts = cursor.getInt(4);
+                    entry = new Entry(cursor.getString(0), cursor.getString(1), cursor.getInt(2),
+                        cursor.getInt(3), attempts + 1, cursor.getString(5), attempts > 0 ? cursor.getLong(6) : 0);
+                }
+            }
+
+            if (entry != null) {
+                ContentValues values = new ContentValues();
+                values.put("state", STATE_IN_FLIGHT);
+                values.put("attempts", entry.attempts);
+                values.put("updated_at", now);
+                db.update(TABLE_UPLOADS, values, "name = ?", new String[]{entry.name});
+            }
+
+            db.setTransactionSuccessful();
+            return entry;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Mark an in-flight upload as finished
+     */
+    public synchronized void markDone(String name) {
+        ContentValues values = new ContentValues();
+        values.put("state", STATE_DONE);
+        values.putNull("last_error");
+        values.putNull("session_uri");
+        values.put("updated_at", System.currentTimeMillis());
+        getWritableDatabase().update(TABLE_UPLOADS, values, "name = ?", new String[]{name});
+    }
+
+    /**
+     * Record a failed attempt: retryable failures are re-queued with jittered backoff
+     * until RetryPolicy.UPLOAD runs out of attempts, everything else is parked as failed with the reason
+     */
+    public synchronized void markFailed(Entry entry, String reason, boolean retryable) {
+        long now = System.currentTimeMillis();
+        ContentValues values = new ContentValues();
+        values.put("last_error", reason);
+        values.put("updated_at", now);
+
+        if (retryable && RetryPolicy.UPLOAD.canRetry(entry.attempts)) {
+            long delay = RetryPolicy.UPLOAD.nextDelay(entry.lastRetryDelayMs);
+            values.put("state", STATE_QUEUED);
+            values.put("next_attempt_at", now + delay);
+            Log.d(TAG, "Retrying " + entry.name + " in " + (delay / 1000) + "s (attempt " + entry.attempts + ")");
+        } else {
+            values.put("state", STATE_FAILED);
+            values.putNull("session_uri");
+            Log.w(TAG, "Giving up on " + entry.name + " after " + entry.attempts + " attempts: " + reason);
+        }
+        getWritableDatabase().update(TABLE_UPLOADS, values, "name = ?", new String[]{entry.name});
+    }
+
+    /**
+     * Whether a row (original name or preview key) has finished uploading
+     */
+    public synchronized boolean isDone(String name) {
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT 1 FROM " + TABLE_UPLOADS + " WHERE name = ? AND state = ?",
+                new String[]{name, STATE_DONE})) {
+            return cursor.moveToFirst();
+        }
+    }
+
+    /**
+     * Names of photos with a tier still queued or in flight
+     */
+    public synchronized Set<String> getUnfinishedPhotoNames() {
+        Set<String> names = new HashSet<>();
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT path FROM " + TABLE_UPLOADS + " WHERE state IN (?, ?)",
+                new String[]{STATE_QUEUED, STATE_IN_FLIGHT})) {
+            while (cursor.moveToNext()) {
+                names.add(new File(cursor.getString(0)).getName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Drop both rows of photos deleted from the device, so they are never retried and failed as missing
+     */
+    public synchronized void remove(Collection<String> photoNames) {
+        if (photoNames.isEmpty()) return;
+
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (String name : photoNames) {
+                db.delete(TABLE_UPLOADS, "name = ? OR name = ?", new String[]{name, getPreviewKey(name)});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Point a moved photo's rows at its new file, so a queued upload doesn't fail it as missing.
+     * A photo renamed by the move is re-queued under its new name in the same lane.
+     */
+    public synchronized void move(File from, File to) {
+        String name = from.getName();
+        SQLiteDatabase db = getWritableDatabase();
+        if (name.equals(to.getName())) {
+            ContentValues values = new ContentValues();
+            values.put("path", to.getAbsolutePath());
+            db.update(TABLE_UPLOADS, values, "name = ? OR name = ?", new String[]{name, getPreviewKey(name)});
+            return;
+        }
+
+        db.beginTransaction();
+        try {
+            int lane = -1;
+            try (Cursor cursor = db.rawQuery("SELECT MIN(lane) FROM " + TABLE_UPLOADS +
+                    " WHERE (name = ? OR name = ?) AND state IN (?, ?)",
+                    new String[]{name, getPreviewKey(name), STATE_QUEUED, STATE_IN_FLIGHT})) {
+                if (cursor.moveToFirst() && !cursor.isNull(0)) {
+                    lane = cursor.getInt(0);
+                }
+            }
+            db.delete(TABLE_UPLOADS, "name = ? OR name = ?", new String[]{name, getPreviewKey(name)});
+            if (lane >= 0) {
+                enqueue(db, to, lane, System.currentTimeMillis());
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Remember the storage upload session of an in-flight upload so a retry can resume it
+     */
+    public synchronized void saveSession(String name, String sessionUri) {
+        ContentValues values = new ContentValues();
+        values.put("session_uri", sessionUri);
+        getWritableDatabase().update(TABLE_UPLOADS, values, "name = ?", new String[]{name});
+    }
+
+    /**
+     * Forget an upload session the server no longer accepts; the next attempt starts over
+     */
+    public synchronized void clearSession(String name) {
+        ContentValues values = new ContentValues();
+        values.putNull("session_uri");
+        getWritableDatabase().update(TABLE_UPLOADS, values, "name = ?", new String[]{name});
+    }
+
+    /**
+     * Make every queued upload eligible now (the network just came back, so backoff no longer applies)
+     */
+    public synchronized int retryNow() {
+        ContentValues values = new ContentValues();
+        values.put("next_attempt_at", System.currentTimeMillis());
+        return getWritableDatabase().update(TABLE_UPLOADS, values, "state = ? AND next_attempt_at > ?",
+            new String[]{STATE_QUEUED, String.valueOf(System.currentTimeMillis())});
+    }
+
+    /**
+     * Return uploads left in flight by a previous process to the queue and drop old finished rows
+     * (runs once per process; uploads claimed by this process are still genuinely in flight)
+     */
+    public synchronized void recoverIfNeeded() {
+        if (recoveredThisProcess) return;
+        recoveredThisProcess = true;
+
+        SQLiteDatabase db = getWritableDatabase();
+        long now = System.currentTimeMillis();
+        ContentValues values = new ContentValues();
+        values.put("state", STATE_QUEUED);
+        values.put("next_attempt_at", now);
+        values.put("updated_at", now);
+        int recovered = db.update(TABLE_UPLOADS, values, "state = ?", new String[]{STATE_IN_FLIGHT});
+        int pruned = db.delete(TABLE_UPLOADS, "state = ? AND updated_at < ?",
+            new String[]{STATE_DONE, String.valueOf(now - DONE_RETENTION_MS)});
+
+        if (recovered > 0 || pruned > 0) {
+            Log.d(TAG, "Recovered " + recovered + " interrupted uploads, pruned " + pruned + " finished rows");
+        }
+    }
+
+    /**
+     * Original-tier counts over all lanes, with done/failed limited to rows finished at or after the given time
+     */
+    public synchronized Counts getCounts(long finishedSince) {
+        Counts total = Counts.EMPTY;
+        for (Counts lane : getLaneCounts(finishedSince)) {
+            total = total.plus(lane);
+        }
+        return total;
+    }
+
+    /**
+     * Original-tier counts per lane (indexed by lane), with done/failed limited to rows finished since the given time
+     */
+    public synchronized Counts[] getLaneCounts(long finishedSince) {
+        int[][] byLane = new int[LANE_NAMES.length][4];
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT lane, state, COUNT(*) FROM " + TABLE_UPLOADS +
+                " WHERE tier = ? AND (state IN (?, ?) OR updated_at >= ?) GROUP BY lane, state",
+                new String[]{String.valueOf(TIER_ORIGINAL), STATE_QUEUED, STATE_IN_FLIGHT, String.valueOf(finishedSince)})) {
+            while (cursor.moveToNext()) {
+                int lane = Math.min(Math.max(cursor.getInt(0), 0), LANE_NAMES.length - 1);
+                String state = cursor.getString(1);
+                int count = cursor.getInt(2);
+                if (STATE_QUEUED.equals(state)) byLane[lane][0] += count;
+                else if (STATE_IN_FLIGHT.equals(state)) byLane[lane][1] += count;
+                else if (STATE_DONE.equals(state)) byLane[lane][2] += count;
+                else if (STATE_FAILED.equals(state)) byLane[lane][3] += count;
+            }
+        }
+
+        Counts[] counts = new Counts[LANE_NAMES.length];
+        for (int lane = 0; lane < counts.length; lane++) {
+            counts[lane] = new Counts(byLane[lane][0], byLane[lane][1], byLane[lane][2], byLane[lane][3]);
+        }
+        return counts;
+    }
+
+    /**
+     * Previews that finished uploading since the given time
+     */
+    public synchronized int getPreviewsDone(long finishedSince) {
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT COUNT(*) FROM " + TABLE_UPLOADS + " WHERE tier = ? AND state = ? AND updated_at >= ?",
+                new String[]{String.valueOf(TIER_PREVIEW), STATE_DONE, String.valueOf(finishedSince)})) {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        }
+    }
+
+    /**
+     * Whether anything in lanes up to maxLane that the tier limits allow is still queued or in flight
+     */
+    public synchronized boolean hasPending(int maxLane, int maxTier, int liveMaxTier) {
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT 1 FROM " + TABLE_UPLOADS + " WHERE state IN (?, ?) AND lane <= ? AND " + TIER_SELECTION + " LIMIT 1",
+                new String[]{STATE_QUEUED, STATE_IN_FLIGHT, String.valueOf(maxLane),
+                    String.valueOf(maxTier), String.valueOf(liveMaxTier)})) {
+            return cursor.moveToFirst();
+        }
+    }
+
+    /**
+     * Earliest time a queued upload in lanes up to maxLane that the tier limits allow becomes
+     * eligible (0 if none is queued)
+     */
+    public synchronized long getNextEligibleTime(int maxLane, int maxTier, int liveMaxTier) {
+        try (Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT MIN(next_attempt_at) FROM " + TABLE_UPLOADS + " WHERE state = ? AND lane <= ? AND " + TIER_SELECTION,
+                new String[]{STATE_QUEUED, String.valueOf(maxLane), String.valueOf(maxTier), String.valueOf(liveMaxTier)})) {
+            return cursor.moveToFirst() && !cursor.isNull(0) ? cursor.getLong(0) : 0;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.example.securityapp;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.firebase.storage.StorageException;
+
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One record per upload attempt, and rolling aggregates over them.
+ *
+ * Each record holds the tier, lane, bytes sent, wall time, throughput,
+ * attempt number, network type, outcome and a normalized error class. Records
+ * are appended to upload_telemetry.jsonl in app storage, which keeps the most
+ * recent MAX_STORED_RECORDS and can be shared as is. Aggregates (success rate,
+ * p50/p95 time to cloud for originals, MB/s per network type, error classes)
+ * cover the records of the last ROLLING_WINDOW_MS.
+ */
+public class UploadTelemetry {
+    private static final String TAG = "UploadTelemetry";
+    public static final String TELEMETRY_FILE_NAME = "upload_telemetry.jsonl";
+    private static final int MAX_STORED_RECORDS = 500;
+    private static final long ROLLING_WINDOW_MS = 7L * 24 * 60 * 60 * 1000;
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_ASSUMED_SUCCESS = "assumed_success";
+    public static final String OUTCOME_FAILED = "failed";
+
+    public static final String ERROR_NONE = "none";
+    public static final String ERROR_APP_CHECK = "app_check";
+    public static final String ERROR_PLAY_INTEGRITY = "play_integrity";
+    public static final String ERROR_TIMEOUT = "timeout";
+    public static final String ERROR_NETWORK = "network";
+    public static final String ERROR_RATE_LIMITED = "rate_limited";
+    public static final String ERROR_SERVER = "server";
+    public static final String ERROR_FORBIDDEN = "forbidden";
+    public static final String ERROR_UNAUTHENTICATED = "unauthenticated";
+    public static final String ERROR_QUOTA = "quota";
+    public static final String ERROR_CLIENT = "client";
+    public static final String ERROR_CANCELED = "canceled";
+    public static final String ERROR_FILE = "file";
+    public static final String ERROR_OTHER = "other";
+
+    private static final ArrayDeque<JSONObject> records = new ArrayDeque<>();
+    private static boolean loaded = false;
+    private static int appendedSinceTrim = 0;
+
+    /**
+     * An upload attempt being timed; finish it exactly once
+     */
+    public static class Attempt {
+        private final Context context;
+        private final UploadQueue.Entry entry;
+        private final String networkType;
+        private final long startedAt = SystemClock.elapsedRealtime();
+
+        Attempt(Context context, UploadQueue.Entry entry) {
+            this.context = context.getApplicationContext();
+            this.entry = entry;
+            this.networkType = UploadPolicy.getCurrentNetworkType(context);
+        }
+
+        public void succeeded(long bytesSent, boolean resumed) {
+            finish(OUTCOME_SUCCESS, ERROR_NONE, bytesSent, resumed);
+        }
+
+        public void assumedSucceeded(String errorClass) {
+            finish(OUTCOME_ASSUMED_SUCCESS, errorClass, 0, false);
+        }
+
+        public void failed(String errorClass, long bytesSent, boolean resumed) {
+            finish(OUTCOME_FAILED, errorClass, bytesSent, resumed);
+        }
+
+        private void finish(String outcome, String errorClass, long bytesSent, boolean resumed) {
+            long durationMs = Math.max(1, SystemClock.elapsedRealtime() - startedAt);
+            try {
+                JSONObject record = new JSONObject();
+                record.put("at", System.currentTimeMillis());
+                record.put("name", entry.name);
+                record.put("tier", entry.tier == UploadQueue.TIER_PREVIEW ? "preview" : "original");
+                record.put("lane", UploadQueue.LANE_NAMES[entry.lane]);
+                record.put("attempt", entry.attempts);
+                record.put("network", networkType);
+                record.put("bytes", bytesSent);
+                record.put("durationMs", durationMs);
+                record.put("kBps", bytesSent * 1000 / durationMs / 1024);
+                record.put("resumed", resumed);
+                record.put("outcome", outcome);
+                record.put("error", errorClass);
+                add(context, record);
+            } catch (Exception e) {
+                Log.e(TAG, "Error recording upload telemetry", e);
+            }
+        }
+    }
+
+    /**
+     * Rolling aggregates over recent upload attempts
+     */
+    public static class Summary {
+        public final int attempts;
+        public final int succeeded;
+        public final int assumedSucceeded;
+        public final int failed;
+        public final long p50TimeToCloudMs;
+        public final long p95TimeToCloudMs;
+        public final Map<String, Double> mbPerSecondByNetwork;
+        public final Map<String, Integer> errorCounts;
+
+        Summary(int attempts, int succeeded, int assumedSucceeded, int failed, long p50TimeToCloudMs,
+                long p95TimeToCloudMs, Map<String, Double> mbPerSecondByNetwork, Map<String, Integer> errorCounts) {
+            this.attempts = attempts;
+            this.succeeded = succeeded;
+            this.assumedSucceeded = assumedSucceeded;
+            this.failed = failed;
+            this.p50TimeToCloudMs = p50TimeToCloudMs;
+            this.p95TimeToCloudMs = p95TimeToCloudMs;
+            this.mbPerSecondByNetwork = mbPerSecondByNetwork;
+            this.errorCounts = errorCounts;
+        }
+
+        /**
+         * Confirmed successes over all finished attempts (assumed successes count against it)
+         */
+        public double getSuccessRate() {
+            return attempts > 0 ? (double) succeeded / attempts : 0;
+        }
+    }
+
+    /**
+     * Start timing an upload attempt for a claimed queue entry
+     */
+    public static Attempt start(Context context, UploadQueue.Entry entry) {
+        return new Attempt(context, entry);
+    }
+
+    /**
+     * Normalize an upload exception into one of the ERROR_ classes
+     */
+    public static String classify(Throwable error) {
+        String message = error.getMessage();
+        if (message != null) {
+            if (message.contains("App Check") || message.contains("placeholder token") ||
+                message.contains("App attestation") || message.contains("ATTESTATION_FAILED")) {
+                return ERROR_APP_CHECK;
+            }
+            if (message.contains("Play Integrity") || message.contains("IntegrityService") ||
+                message.contains("requestIntegrityToken")) {
+                return ERROR_PLAY_INTEGRITY;
+            }
+        }
+
+        if (error instanceof StorageException) {
+            StorageException storageError = (StorageException) error;
+            int httpCode = storageError.getHttpResultCode();
+            switch (storageError.getErrorCode()) {
+                case StorageException.ERROR_RETRY_LIMIT_EXCEEDED:
+                    return ERROR_TIMEOUT;
+                case StorageException.ERROR_QUOTA_EXCEEDED:
+                    return ERROR_QUOTA;
+                case StorageException.ERROR_NOT_AUTHENTICATED:
+                    return ERROR_UNAUTHENTICATED;
+                case StorageException.ERROR_NOT_AUTHORIZED:
+                    return ERROR_FORBIDDEN;
+                case StorageException.ERROR_CANCELED:
+                    return ERROR_CANCELED;
+                default:
+                    break;
+            }
+            if (httpCode == 403) return ERROR_FORBIDDEN;
+            if (httpCode == 429) return ERROR_RATE_LIMITED;
+            if (httpCode >= 500) return ERROR_SERVER;
+            if (httpCode >= 400) return ERROR_CLIENT;
+        }
+
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof java.net.SocketTimeoutException) return ERROR_TIMEOUT;
+            if (cause instanceof IOException) return ERROR_NETWORK;
+        }
+        if (message != null && (message.contains("timeout") || message.contains("timed out"))) {
+            return ERROR_TIMEOUT;
+        }
+        return ERROR_OTHER;
+    }
+
+    /**
+     * Whether an error class means the link or the server is overloaded
+     */
+    public static boolean isCongestion(String errorClass) {
+        return ERROR_TIMEOUT.equals(errorClass) || ERROR_RATE_LIMITED.equals(errorClass) ||
+            ERROR_SERVER.equals(errorClass);
+    }
+
+    /**
+     * Aggregates over the attempts of the last ROLLING_WINDOW_MS
+     */
+    public static synchronized Summary getSummary(Context context) {
+        load(context);
+        long since = System.currentTimeMillis() - ROLLING_WINDOW_MS;
+
+        int attempts = 0;
+        int succeeded = 0;
+        int assumed = 0;
+        int failed = 0;
+        List<Long> timesToCloud = new ArrayList<>();
+        Map<String, long[]> transfer = new LinkedHashMap<>(); // network -> {bytes, ms}
+        Map<String, Integer> errorCounts = new LinkedHashMap<>();
+
+        for (JSONObject record : records) {
+            if (record.optLong("at") < since) continue;
+            attempts++;
+
+            String outcome = record.optString("outcome");
+            if (OUTCOME_SUCCESS.equals(outcome)) {
+                succeeded++;
+                if ("original".equals(record.optString("tier"))) {
+                    timesToCloud.add(record.optLong("durationMs"));
+                }
+                long[] totals = transfer.get(record.optString("network"));
+                if (totals == null) {
+                    totals = new long[2];
+                    transfer.put(record.optString("network"), totals);
+                }
+                totals[0] += record.optLong("bytes");
+                totals[1] += record.optLong("durationMs");
+            } else if (OUTCOME_ASSUMED_SUCCESS.equals(outcome)) {
+                assumed++;
+            } else {
+                failed++;
+            }
+
+            String error = record.optString("error", ERROR_NONE);
+            if (!ERROR_NONE.equals(error)) {
+                Integer count = errorCounts.get(error);
+                errorCounts.put(error, count != null ? count + 1 : 1);
+            }
+        }
+
+        Map<String, Double> mbPerSecond = new LinkedHashMap<>();
+        for (Map.Entry<String, long[]> totals : transfer.entrySet()) {
+            long[] value = totals.getValue();
+            mbPerSecond.put(totals.getKey(), value[1] > 0 ? value[0] / 1048576.0 / (value[1] / 1000.0) : 0);
+        }
+
+        Collections.sort(timesToCloud);
+        return new Summary(attempts, succeeded, assumed, failed, percentile(timesToCloud, 50),
+            percentile(timesToCloud, 95), mbPerSecond, errorCounts);
+    }
+
+    /**
+     * Human-readable summary lines for the backup stats dialog (empty when nothing was recorded)
+     */
+    public static String describe(Context context) {
+        Summary summary = getSummary(context);
+        if (summary.attempts == 0) return "";
+
+        StringBuilder text = new StringBuilder();
+        text.append("✅ Success rate: ").append(Math.round(summary.getSuccessRate() * 100)).append("% of ")
+            .append(summary.attempts).append(" attempts");
+        if (summary.assumedSucceeded > 0) {
+            text.append(" (").append(summary.assumedSucceeded).append(" unconfirmed)");
+        }
+        text.append("\n");
+        if (summary.p50TimeToCloudMs > 0) {
+            text.append("⏱️ Time to cloud: p50 ").append(formatSeconds(summary.p50TimeToCloudMs))
+                .append(", p95 ").append(formatSeconds(summary.p95TimeToCloudMs)).append("\n");
+        }
+        for (Map.Entry<String, Double> speed : summary.mbPerSecondByNetwork.entrySet()) {
+            text.append("📶 ").append(speed.getKey()).append(": ")
+                .append(String.format(java.util.Locale.US, "%.2f", speed.getValue())).append(" MB/s\n");
+        }
+        if (!summary.errorCounts.isEmpty()) {
+            text.append("⚠️ Errors: ");
+            boolean first = true;
+            for (Map.Entry<String, Integer> error : summary.errorCounts.entrySet()) {
+                if (!first) text.append(", ");
+                text.append(error.getKey()).append(" ").append(error.getValue());
+                first = false;
+            }
+            text.append("\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * The telemetry file for export (may not exist yet)
+     */
+    public static synchronized File getTelemetryFile(Context context) {
+        // Trim first so the export holds exactly the stored window
+        load(context);
+        rewrite(context);
+        return new File(context.getFilesDir(), TELEMETRY_FILE_NAME);
+    }
+
+    private static String formatSeconds(long millis) {
+        return String.format(java.util.Locale.US, "%.1f s", millis / 1000.0);
+    }
+
+    private static long percentile(List<Long> sortedValues, int percentile) {
+        if (sortedValues.isEmpty()) return 0;
+        int index = (int) Math.ceil(percentile / 100.0 * sortedValues.size()) - 1;
+        return sortedValues.get(Math.max(0, Math.min(index, sortedValues.size() - 1)));
+    }
+
+    /**
+     * Keep a record in memory and append it to the file, trimming the file once it doubles
+     */
+    private static synchronized void add(Context context, JSONObject record) {
+        load(context);
+        records.addLast(record);
+        while (records.size() > MAX_STORED_RECORDS) {
+            records.removeFirst();
+        }
+
+        if (++appendedSinceTrim >= MAX_STORED_RECORDS) {
+            rewrite(context);
+            return;
+        }
+        try (FileWriter writer = new FileWriter(new File(context.getFilesDir(), TELEMETRY_FILE_NAME), true)) {
+            writer.write(record.toString());
+            writer.write('\n');
+        } catch (Exception e) {
+            Log.e(TAG, "Error saving upload telemetry", e);
+        }
+    }
+
+    private static void load(Context context) {
+        if (loaded) return;
+        loaded = true;
+
+        File telemetryFile = new File(context.getFilesDir(), TELEMETRY_FILE_NAME);
+        if (!telemetryFile.exists()) return;
+        try (BufferedReader reader = new BufferedReader(new FileReader(telemetryFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    records.addLast(new JSONObject(line));
+                } catch (Exception e) {
+                    // Skip a line cut short by a crash
+                }
+                if (records.size() > MAX_STORED_RECORDS) {
+                    records.removeFirst();
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error loading upload telemetry", e);
+        }
+    }
+
+    private static void rewrite(Context context) {
+        appendedSinceTrim = 0;
+        try (FileWriter writer = new FileWriter(new File(context.getFilesDir(), TELEMETRY_FILE_NAME), false)) {
+            for (JSONObject record : records) {
+                writer.write(record.toString());
+                writer.write('\n');
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error saving upload telemetry", e);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 
 import java.io.File;
+import java.util.List;
 
 /**
  * Manages user-specific operations and storage
@@ -67,56 +68,6 @@ public class UserManager {
         }
     }
 
-    /**
-     * Migrate existing photos to user-specific directory
-     */
-    private static void migrateExistingUserPhotos(Context context, File baseDir) {
-        try {
-            SharedPreferences prefs = context.getSharedPreferences("security_app", Context.MODE_PRIVATE);
-            String userName = prefs.getString("user_name", "unknown_user");
-            String deviceId = android.provider.Settings.Secure.getString(
-                    context.getContentResolver(),
-                    android.provider.Settings.Secure.ANDROID_ID
-            );
-
-            // Generate unique ID for existing user
-            String generatedId = userName.toLowerCase().replaceAll("\\s+", "_") + "_" +
-                    deviceId.substring(0, Math.min(8, deviceId.length())) + "_migration";
-
-            // Save the generated ID
-            prefs.edit().putString("unique_user_id", generatedId).apply();
-
-            // Create new user-specific directory
-            File userDir = new File(baseDir, generatedId);
-            if (!userDir.exists()) {
-                userDir.mkdirs();
-            }
-
-            // Move existing photos to user-specific directory
-            if (baseDir.exists()) {
-                File[] existingPhotos = baseDir.listFiles((dir, name) -> name.endsWith(".jpg"));
-                if (existingPhotos != null && existingPhotos.length > 0) {
-                    Log.d(TAG, "📦 Migrating " + existingPhotos.length + " existing photos to user-specific directory");
-
-                    for (File photo : existingPhotos) {
-                        // Only move if it's not already in a subdirectory
-                        if (photo.getParent().equals(baseDir.getAbsolutePath())) {
-                            File newLocation = new File(userDir, photo.getName());
-                            if (photo.renameTo(newLocation)) {
-                                Log.d(TAG, "✅ Migrated photo: " + photo.getName());
-                            }
-                        }
-                    }
-                }
-            }
-
-            Log.d(TAG, "✅ Migration completed for user: " + userName + " (ID: " + generatedId + ")");
-
-        } catch (Exception e) {
-            Log.e(TAG, "❌ Error during photo migration", e);
-        }
-    }
-
     /**
      * Get current user info with username support
      */
@@ -163,10 +114,10 @@ public class UserManager {
         File userPhotosDir = getUserPhotosDirectory(context);
 
         if (userPhotosDir.exists()) {
-            File[] photos = userPhotosDir.listFiles((dir, name) -> name.endsWith(".jpg"));
-            if (photos != null && photos.length > 0) {
+            List<File> photos = PhotoStorageLayout.listPhotos(userPhotosDir);
+            if (!photos.isEmpty()) {
                 long totalSize = 0;
-                File mostRecent = photos[0];
+                File mostRecent = photos.get(0);
 
                 for (File photo : photos) {
                     totalSize += photo.length();
@@ -180,7 +131,7 @@ public class UserManager {
 
                 long sizeKB = totalSize / 1024;
 
-                return "📸 Photos: " + photos.length + " (" + sizeKB + " KB)\n" +
+                return "📸 Photos: " + photos.size() + " (" + sizeKB + " KB)\n" +
                         "🕒 Last: " + lastCapture + "\n" +
                         "📁 Path: " + userPhotosDir.getName().substring(0, Math.min(12, userPhotosDir.getName().length())) + "...";
             }
@@ -196,13 +147,8 @@ public class UserManager {
         try {
             File userPhotosDir = getUserPhotosDirectory(context);
             if (userPhotosDir.exists()) {
-                File[] files = userPhotosDir.listFiles();
-                if (files != null) {
-                    for (File file : files) {
-                        file.delete();
-                    }
-                }
-                userPhotosDir.delete();
+                deleteRecursively(userPhotosDir);
+                PhotoIndex.recordDirectoryDeleted(context, userPhotosDir);
             }
 
             // Clear shared preferences but keep essential user info
@@ -228,6 +174,19 @@ public class UserManager {
         }
     }
 
+    /**
+     * Delete a directory including all date shards below it
+     */
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
     /**
      * Get user-specific Firebase storage path
      */
@@ -298,6 +257,11 @@ public class UserManager {
         SharedPreferences prefs = context.getSharedPreferences("security_app", Context.MODE_PRIVATE);
         boolean autoBackupEnabled = prefs.getBoolean("auto_backup_enabled", true);
 
+        if (autoBackupEnabled) {
+            // Queued even when offline; the queue drains once the network returns
+            UploadQueue.getInstance(context).enqueue(photoFile, UploadQueue.LANE_RECENT);
+        }
+
         if (autoBackupEnabled && NetworkHelper.isConnected()) {
             Log.d(TAG, "Starting upload for new photo: " + photoFile.getName());
             Intent backupIntent = new Intent(context, CloudBackupService.class);
@@ -359,15 +323,11 @@ public class UserManager {
      */
     public static File savePhotoToUserDirectory(Context context, byte[] photoData, String fileName) {
         try {
-            // Get user-specific directory
-            File userDir = getUserPhotosDirectory(context);
-            if (!userDir.exists()) {
-                boolean created = userDir.mkdirs();
-                Log.d(TAG, "Created user directory for photo save: " + created);
-            }
+            // Get the date shard of the user-specific directory
+            File shardDir = PhotoStorageLayout.getCaptureDirectory(context, System.currentTimeMillis());
 
             // Create file in user directory
-            File photoFile = new File(userDir, fileName);
+            File photoFile = new File(shardDir, fileName);
 
             // Write photo data to file
             try (java.io.FileOutputStream fos = new java.io.FileOutputStream(photoFile)) {
@@ -376,6 +336,7 @@ public class UserManager {
             }
 
             Log.d(TAG, "✅ Saved photo directly to user directory: " + photoFile.getAbsolutePath());
+            PhotoIndex.recordCapture(context, photoFile);
             return photoFile;
         } catch (Exception e) {
             Log.e(TAG, "❌ Error saving photo to user directory", e);
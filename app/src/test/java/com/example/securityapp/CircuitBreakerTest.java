@@ -0,0 +1,117 @@
+package com.example.securityapp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * State transitions of {@link CircuitBreaker} on a manual clock
+ */
+public class CircuitBreakerTest {
+    private static final long FIRST_OPEN_MIN_MS = 30 * 1000;
+    private static final long FIRST_OPEN_MAX_MS = 90 * 1000;
+    private static final long OPEN_CAP_MS = 10 * 60 * 1000;
+
+    private long now;
+    private CircuitBreaker breaker;
+
+    @Before
+    public void setUp() {
+        now = 1000;
+        breaker = new CircuitBreaker("test", () -> now);
+    }
+
+    private void trip() {
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD; i++) {
+            breaker.onFailure();
+        }
+    }
+
+    @Test
+    public void closed_untilThresholdReached() {
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD - 1; i++) {
+            breaker.onFailure();
+            assertTrue(breaker.allowRequest());
+        }
+        assertEquals(0, breaker.getRetryAfterMs());
+
+        breaker.onFailure();
+        assertFalse(breaker.allowRequest());
+        long retryAfter = breaker.getRetryAfterMs();
+        assertTrue("open too short: " + retryAfter, retryAfter >= FIRST_OPEN_MIN_MS);
+        assertTrue("open too long: " + retryAfter, retryAfter <= FIRST_OPEN_MAX_MS);
+    }
+
+    @Test
+    public void success_resetsFailureCount() {
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD - 1; i++) {
+            breaker.onFailure();
+        }
+        breaker.onSuccess();
+        for (int i = 0; i < CircuitBreaker.FAILURE_THRESHOLD - 1; i++) {
+            breaker.onFailure();
+        }
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void open_staysShutUntilPeriodEnds() {
+        trip();
+        now += breaker.getRetryAfterMs() - 1;
+        assertFalse(breaker.allowRequest());
+        assertFalse(breaker.isProbing());
+    }
+
+    @Test
+    public void halfOpen_allowsSingleProbe() {
+        trip();
+        now += breaker.getRetryAfterMs();
+
+        assertTrue(breaker.allowRequest());
+        assertTrue(breaker.isProbing());
+        assertFalse(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+
+        // A probe that never reports back is replaced
+        now += CircuitBreaker.PROBE_TIMEOUT_MS;
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void successfulProbe_closes() {
+        trip();
+        now += breaker.getRetryAfterMs();
+        assertTrue(breaker.allowRequest());
+
+        breaker.onSuccess();
+        assertFalse(breaker.isProbing());
+        assertTrue(breaker.allowRequest());
+        assertTrue(breaker.allowRequest());
+        assertEquals(0, breaker.getRetryAfterMs());
+    }
+
+    @Test
+    public void failedProbe_reopensForLonger() {
+        // The open period is jittered, so go through many trips
+        for (int run = 0; run < 200; run++) {
+            setUp();
+            trip();
+            long previous = breaker.getRetryAfterMs();
+
+            for (int probe = 0; probe < 5; probe++) {
+                now += previous;
+                assertTrue(breaker.allowRequest());
+                breaker.onFailure();
+
+                assertFalse(breaker.allowRequest());
+                assertFalse(breaker.isProbing());
+                long reopened = breaker.getRetryAfterMs();
+                assertTrue("reopened shorter: " + reopened + " < " + previous, reopened >= previous);
+                assertTrue("reopened past cap: " + reopened, reopened <= OPEN_CAP_MS);
+                previous = reopened;
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.securityapp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.*;
+
+/**
+ * Expiry, eviction order and putIfAbsent of {@link ExpiringCache} on a manual clock
+ */
+public class ExpiringCacheTest {
+    private static final long TTL_MS = 1000;
+
+    private long now;
+
+    @Before
+    public void setUp() {
+        now = 1000;
+    }
+
+    private ExpiringCache<String, String> newCache(int maxSize) {
+        return new ExpiringCache<>(maxSize, TTL_MS, () -> now);
+    }
+
+    @Test
+    public void entry_expiresAfterTtl() {
+        ExpiringCache<String, String> cache = newCache(10);
+        cache.put("a", "1");
+
+        now += TTL_MS - 1;
+        assertEquals("1", cache.get("a"));
+
+        now += 1;
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void entry_usesItsOwnTtl() {
+        ExpiringCache<String, String> cache = newCache(10);
+        cache.put("short", "1", 10);
+        cache.put("long", "2");
+
+        now += 10;
+        assertNull(cache.get("short"));
+        assertEquals("2", cache.get("long"));
+    }
+
+    @Test
+    public void eviction_dropsLeastRecentlyUsed() {
+        ExpiringCache<String, String> cache = newCache(3);
+        cache.put("a", "1");
+        now++;
+        cache.put("b", "2");
+        now++;
+        cache.put("c", "3");
+        now++;
+        cache.get("a");
+        now++;
+
+        cache.put("d", "4");
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals("1", cache.get("a"));
+        assertEquals("3", cache.get("c"));
+        assertEquals("4", cache.get("d"));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void eviction_dropsExpiredBeforeLeastRecentlyUsed() {
+        ExpiringCache<String, String> cache = newCache(2);
+        cache.put("a", "1", 100);
+        now++;
+        cache.put("b", "2");
+        now += 50;
+        cache.get("a"); // Most recently used, but about to expire
+
+        now += 50;
+        cache.put("c", "3");
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("a"));
+        assertEquals("2", cache.get("b"));
+        assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    public void putIfAbsent_keepsLiveEntry() {
+        ExpiringCache<String, String> cache = newCache(10);
+        assertNull(cache.putIfAbsent("a", "1"));
+        assertEquals("1", cache.putIfAbsent("a", "2"));
+        assertEquals("1", cache.get("a"));
+
+        // An expired entry counts as absent
+        now += TTL_MS;
+        assertNull(cache.putIfAbsent("a", "3"));
+        assertEquals("3", cache.get("a"));
+    }
+
+    @Test
+    public void putIfAbsent_isAtomicPerKey() throws Exception {
+        int threads = 8;
+        int keys = 2000;
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(keys, TTL_MS, () -> now);
+        AtomicIntegerArray inserts = new AtomicIntegerArray(keys);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int value = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int key = 0; key < keys; key++) {
+                    if (cache.putIfAbsent(key, value) == null) {
+                        inserts.incrementAndGet(key);
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        for (int key = 0; key < keys; key++) {
+            assertEquals("inserts for key " + key, 1, inserts.get(key));
+        }
+        assertEquals(keys, cache.getMisses());
+        assertEquals((long) keys * (threads - 1), cache.getHits());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.securityapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Delay bounds of {@link RetryPolicy}. Delays are random, so each check is repeated.
+ */
+public class RetryPolicyTest {
+    private static final int SAMPLES = 1000;
+    private static final long BASE_MS = 1000;
+    private static final long MAX_MS = 20 * 1000;
+
+    private final RetryPolicy policy = new RetryPolicy(BASE_MS, MAX_MS, 4);
+
+    @Test
+    public void firstDelay_isBetweenBaseAndThreeTimesBase() {
+        for (int i = 0; i < SAMPLES; i++) {
+            long delay = policy.nextDelay(0);
+            assertTrue("below base: " + delay, delay >= BASE_MS);
+            assertTrue("above 3x base: " + delay, delay <= 3 * BASE_MS);
+        }
+    }
+
+    @Test
+    public void nextDelay_isAtMostThreeTimesPrevious() {
+        for (int i = 0; i < SAMPLES; i++) {
+            long delay = policy.nextDelay(4000);
+            assertTrue("below base: " + delay, delay >= BASE_MS);
+            assertTrue("above 3x previous: " + delay, delay <= 12000);
+        }
+    }
+
+    @Test
+    public void nextDelay_isCapped() {
+        for (int i = 0; i < SAMPLES; i++) {
+            long delay = policy.nextDelay(MAX_MS);
+            assertTrue("below base: " + delay, delay >= BASE_MS);
+            assertTrue("above cap: " + delay, delay <= MAX_MS);
+        }
+
+        long delay = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            delay = policy.nextDelay(delay);
+            assertTrue("chain above cap: " + delay, delay <= MAX_MS);
+        }
+    }
+
+    @Test
+    public void capAtBase_alwaysReturnsBase() {
+        RetryPolicy flat = new RetryPolicy(BASE_MS, BASE_MS, 3);
+        assertEquals(BASE_MS, flat.nextDelay(0));
+        assertEquals(BASE_MS, flat.nextDelay(BASE_MS));
+    }
+
+    @Test
+    public void canRetry_stopsAtMaxAttempts() {
+        assertTrue(policy.canRetry(1));
+        assertTrue(policy.canRetry(3));
+        assertFalse(policy.canRetry(4));
+        assertFalse(policy.canRetry(5));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.securityapp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * AIMD limit changes of {@link UploadConcurrencyController} on a manual clock
+ */
+public class UploadConcurrencyControllerTest {
+    private static final long BYTES = 500 * 1024;
+    private static final long DURATION_MS = 1000;
+
+    private long now;
+    private UploadConcurrencyController controller;
+
+    @Before
+    public void setUp() {
+        now = 1000;
+        controller = new UploadConcurrencyController(() -> now);
+    }
+
+    /**
+     * One upload at the steady rate
+     */
+    private void succeed() {
+        long startedAt = controller.onUploadStarted();
+        now += DURATION_MS;
+        controller.onUploadSucceeded(startedAt, BYTES);
+    }
+
+    private void congest() {
+        long startedAt = controller.onUploadStarted();
+        now += DURATION_MS;
+        controller.onUploadFailed(startedAt, true);
+    }
+
+    private void growTo(int limit) {
+        while (controller.getLimit() < limit) {
+            succeed();
+        }
+    }
+
+    @Test
+    public void limit_growsByOnePerFullHealthyWindow() {
+        assertEquals(UploadConcurrencyController.INITIAL_LIMIT, controller.getLimit());
+
+        // A window is one healthy upload per allowed slot
+        for (int limit = UploadConcurrencyController.INITIAL_LIMIT; limit < 5; limit++) {
+            for (int i = 0; i < limit - 1; i++) {
+                succeed();
+                assertEquals(limit, controller.getLimit());
+            }
+            succeed();
+            assertEquals(limit + 1, controller.getLimit());
+        }
+    }
+
+    @Test
+    public void limit_isCapped() {
+        for (int i = 0; i < 100; i++) {
+            succeed();
+        }
+        assertEquals(UploadConcurrencyController.MAX_LIMIT, controller.getLimit());
+    }
+
+    @Test
+    public void slowUpload_holdsLimit() {
+        succeed();
+        assertEquals(2, controller.getLimit());
+
+        // A fraction of the running throughput: the link is saturated
+        long startedAt = controller.onUploadStarted();
+        now += DURATION_MS * 4;
+        controller.onUploadSucceeded(startedAt, BYTES);
+        assertEquals(2, controller.getLimit());
+
+        // The slow upload reset the window
+        succeed();
+        assertEquals(2, controller.getLimit());
+        succeed();
+        assertEquals(3, controller.getLimit());
+    }
+
+    @Test
+    public void congestion_halvesLimit() {
+        growTo(8);
+
+        congest();
+        assertEquals(4, controller.getLimit());
+        congest();
+        assertEquals(2, controller.getLimit());
+        congest();
+        assertEquals(UploadConcurrencyController.MIN_LIMIT, controller.getLimit());
+        congest();
+        assertEquals(UploadConcurrencyController.MIN_LIMIT, controller.getLimit());
+    }
+
+    @Test
+    public void isolatedError_keepsLimit() {
+        growTo(4);
+
+        long startedAt = controller.onUploadStarted();
+        now += DURATION_MS;
+        controller.onUploadFailed(startedAt, false);
+        assertEquals(4, controller.getLimit());
+
+        // Errors piling up count as congestion
+        startedAt = controller.onUploadStarted();
+        now += DURATION_MS;
+        controller.onUploadFailed(startedAt, false);
+        assertEquals(2, controller.getLimit());
+    }
+
+    @Test
+    public void failureBurst_startedBeforeDecrease_cutsOnce() {
+        growTo(8);
+
+        long[] burst = new long[6];
+        for (int i = 0; i < burst.length; i++) {
+            burst[i] = controller.onUploadStarted();
+        }
+        now += DURATION_MS;
+        for (long startedAt : burst) {
+            controller.onUploadFailed(startedAt, true);
+            now++;
+        }
+        assertEquals(4, controller.getLimit());
+
+        // An upload started after the decrease saw the new limit and counts again
+        congest();
+        assertEquals(2, controller.getLimit());
+    }
+}